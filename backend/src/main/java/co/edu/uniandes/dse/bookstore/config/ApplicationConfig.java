@@ -23,27 +23,23 @@ SOFTWARE.
 */
 package co.edu.uniandes.dse.bookstore.config;
 
-import org.modelmapper.ModelMapper;
-
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@EnableScheduling
 public class ApplicationConfig {
-    @Bean
-    ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
-
     @Bean
     WebMvcConfigurer corsConfigurer() {
 		return new WebMvcConfigurer() {
 			@Override
 			public void addCorsMappings(CorsRegistry registry) {
 				registry.addMapping("/**").allowedOrigins("*").allowedMethods("GET", "POST", "PUT", "DELETE")
-						.maxAge(3600);
+						.exposedHeaders(HttpHeaders.LINK).maxAge(3600);
 			}
 
 		};
@@ -0,0 +1,156 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Fuente de datos que limita cuántas conexiones pueden estar en uso al mismo
+ * tiempo. Cada conexión toma un permiso de un semáforo justo al obtenerse y lo
+ * devuelve al cerrarse; si no hay permisos se espera hasta {@code maxWait} y
+ * luego se lanza {@link SQLTransientConnectionException}.
+ *
+ * Con hilos virtuales no hay un pool de hilos que limite cuántas peticiones
+ * llegan a la base de datos; el semáforo las hace esperar en orden y les da un
+ * tiempo máximo menor que el del pool de conexiones.
+ *
+ * @author ISIS2603
+ */
+public class JdbcBulkhead extends DelegatingDataSource {
+
+	private final int maxConcurrent;
+	private final Duration maxWait;
+	private final Semaphore permits;
+	private final AtomicLong rejected = new AtomicLong();
+
+	public JdbcBulkhead(DataSource dataSource, int maxConcurrent, Duration maxWait) {
+		super(dataSource);
+		if (maxConcurrent < 1)
+			throw new IllegalArgumentException("maxConcurrent must be greater than zero");
+		this.maxConcurrent = maxConcurrent;
+		this.maxWait = maxWait;
+		this.permits = new Semaphore(maxConcurrent, true);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		acquire();
+		try {
+			return guard(super.getConnection());
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		acquire();
+		try {
+			return guard(super.getConnection(username, password));
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private void acquire() throws SQLException {
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+		}
+		if (!acquired) {
+			rejected.incrementAndGet();
+			throw new SQLTransientConnectionException(
+					"No database connection available after " + maxWait.toMillis() + " ms");
+		}
+	}
+
+	/**
+	 * Envuelve la conexión para devolver el permiso la primera vez que se cierra.
+	 */
+	private Connection guard(Connection connection) {
+		AtomicBoolean released = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+						try {
+							connection.close();
+						} finally {
+							permits.release();
+						}
+						return null;
+					}
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				});
+	}
+
+	/**
+	 * Número máximo de conexiones en uso al mismo tiempo.
+	 */
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	/**
+	 * Número de conexiones en uso.
+	 */
+	public int getActive() {
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	/**
+	 * Número aproximado de hilos esperando una conexión.
+	 */
+	public int getWaiting() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * Número de veces que se agotó la espera por una conexión.
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+}
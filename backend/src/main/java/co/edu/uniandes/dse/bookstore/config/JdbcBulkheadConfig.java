@@ -0,0 +1,63 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pone un {@link JdbcBulkhead} delante de la fuente de datos. Solo se activa
+ * con {@code bookstore.jdbc.bulkhead.enabled=true}, como en el perfil
+ * virtual-threads.
+ *
+ * @author ISIS2603
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bookstore.jdbc.bulkhead", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(JdbcBulkheadProperties.class)
+public class JdbcBulkheadConfig {
+
+	/**
+	 * Es estático para registrarse antes de que se cree la fuente de datos; las
+	 * propiedades se resuelven al envolverla.
+	 */
+	@Bean
+	static BeanPostProcessor jdbcBulkheadPostProcessor(ObjectProvider<JdbcBulkheadProperties> properties) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (!(bean instanceof DataSource dataSource) || bean instanceof JdbcBulkhead)
+					return bean;
+				JdbcBulkheadProperties bulkhead = properties.getObject();
+				return new JdbcBulkhead(dataSource, bulkhead.getMaxConcurrent(), bulkhead.getMaxWait());
+			}
+		};
+	}
+}
@@ -0,0 +1,57 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuración del límite de conexiones JDBC en uso, leída de las propiedades
+ * {@code bookstore.jdbc.bulkhead.*}.
+ *
+ * @author ISIS2603
+ */
+@Data
+@ConfigurationProperties(prefix = "bookstore.jdbc.bulkhead")
+public class JdbcBulkheadProperties {
+
+	/**
+	 * Activa el límite.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Número máximo de conexiones en uso al mismo tiempo. No conviene que supere
+	 * el tamaño del pool.
+	 */
+	private int maxConcurrent = 10;
+
+	/**
+	 * Tiempo máximo que una petición espera una conexión antes de fallar.
+	 */
+	private Duration maxWait = Duration.ofSeconds(2);
+}
@@ -0,0 +1,141 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Sentencias SQL ejecutadas durante una petición HTTP: cuántas, cuántas filas
+ * leyeron o modificaron y cuánto tardaron, agrupadas por forma. La forma es el
+ * SQL sin literales y con las listas {@code in (?, ?, ...)} reducidas a un solo
+ * parámetro, de modo que la misma consulta con distintos valores cuenta como
+ * una repetición.
+ *
+ * La petición en curso se guarda en el hilo que la atiende. No es segura para
+ * usarse desde varios hilos a la vez.
+ *
+ * @author ISIS2603
+ */
+public final class RequestStatements {
+
+	private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+	private final Map<String, Integer> shapes = new LinkedHashMap<>();
+	private int count;
+	private long rows;
+	private long nanos;
+
+	private RequestStatements() {
+	}
+
+	/**
+	 * Empieza a contar las sentencias del hilo actual.
+	 */
+	public static RequestStatements start() {
+		RequestStatements statements = new RequestStatements();
+		CURRENT.set(statements);
+		return statements;
+	}
+
+	/**
+	 * Deja de contar las sentencias del hilo actual.
+	 */
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Las sentencias de la petición que atiende el hilo actual, o null si no
+	 * hay ninguna.
+	 */
+	static RequestStatements current() {
+		return CURRENT.get();
+	}
+
+	void executed(String sql, long elapsedNanos, long affectedRows) {
+		count++;
+		nanos += elapsedNanos;
+		rows += affectedRows;
+		shapes.merge(shape(sql), 1, Integer::sum);
+	}
+
+	void read(long readRows) {
+		rows += readRows;
+	}
+
+	/**
+	 * Número de sentencias ejecutadas.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Filas leídas por las consultas más filas modificadas por las demás
+	 * sentencias.
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * Tiempo total de ejecución de las sentencias, sin contar la lectura de
+	 * los resultados.
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Consultas cuya forma se ejecutó al menos {@code threshold} veces, con el
+	 * número de ejecuciones. Solo se consideran las lecturas: insertar o
+	 * actualizar varias filas con la misma sentencia es lo esperado.
+	 */
+	public Map<String, Integer> getRepeatedQueries(int threshold) {
+		Map<String, Integer> repeated = new LinkedHashMap<>();
+		shapes.forEach((shape, executions) -> {
+			if (executions >= threshold && isQuery(shape))
+				repeated.put(shape, executions);
+		});
+		return repeated;
+	}
+
+	static String shape(String sql) {
+		String shape = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+		shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+		shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+		return IN_LIST.matcher(shape).replaceAll("in (?)");
+	}
+
+	private static boolean isQuery(String shape) {
+		return shape.regionMatches(true, 0, "select", 0, 6) || shape.regionMatches(true, 0, "with", 0, 4);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Caché de segundo nivel de Hibernate sobre JCache, con Caffeine como
+ * proveedor en memoria. Solo se activa con {@code bookstore.cache.enabled=true},
+ * que fija el perfil second-level-cache; las regiones se crean con el tamaño y
+ * tiempo de vida definidos en {@link SecondLevelCacheProperties}.
+ *
+ * @author ISIS2603
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bookstore.cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+	@Bean(destroyMethod = "close")
+	CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+		CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching
+				.getCachingProvider(CaffeineCachingProvider.class.getName());
+		// Un administrador por contexto, para que dos contextos no compartan regiones.
+		CacheManager cacheManager = provider.getCacheManager(
+				provider.getDefaultURI().resolve("#" + System.identityHashCode(properties)),
+				provider.getDefaultClassLoader());
+
+		properties.getRegions().forEach((name, region) -> {
+			CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+			configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+			if (region.getExpireAfterWrite() != null)
+				configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+			configuration.setStatisticsEnabled(true);
+			cacheManager.createCache(name, configuration);
+		});
+		return cacheManager;
+	}
+
+	@Bean
+	HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager,
+			SecondLevelCacheProperties properties) {
+		return hibernateProperties -> {
+			hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+			hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+			hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, properties.getMissingCacheStrategy());
+			// Las colecciones inversas (AuthorEntity.prizes) no se invalidan solas al
+			// cambiar el lado dueño de la relación.
+			hibernateProperties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+			hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+		};
+	}
+}
@@ -0,0 +1,72 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuración del caché de segundo nivel de Hibernate, leída de las
+ * propiedades {@code bookstore.cache.*}. Cada región declarada con
+ * {@code @Cache} en las entidades debe tener una entrada en {@link #regions}.
+ *
+ * @author ISIS2603
+ */
+@Data
+@ConfigurationProperties(prefix = "bookstore.cache")
+public class SecondLevelCacheProperties {
+
+	/**
+	 * Activa el caché de segundo nivel y el caché de consultas.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Qué hacer con las regiones usadas por Hibernate que no están en
+	 * {@link #regions}: {@code fail}, {@code create-warn} o {@code create}.
+	 */
+	private String missingCacheStrategy = "fail";
+
+	private Map<String, Region> regions = new LinkedHashMap<>();
+
+	@Data
+	public static class Region {
+
+		/**
+		 * Número máximo de entradas de la región.
+		 */
+		private long maximumSize = 1000;
+
+		/**
+		 * Tiempo de vida de una entrada desde que se escribe. Si no se define, las
+		 * entradas solo salen por tamaño o invalidación.
+		 */
+		private Duration expireAfterWrite;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registra un evento estructurado por cada llamada a un método público de los
+ * servicios, en el logger {@code bookstore.service}. El mensaje es fijo y los
+ * datos van como pares clave-valor: {@code service}, {@code method},
+ * {@code outcome}, {@code durationMs} y {@code sampleRate}.
+ *
+ * Las lecturas y los listeners de eventos que terminan bien y rápido se
+ * registran solo en una fracción de las llamadas; {@code sampleRate} permite
+ * estimar el total a partir de la muestra. El nombre del servicio y del método
+ * y si el método se muestrea se calculan una vez por método, para que una
+ * llamada que no se registra solo cueste medir su duración y sortear la
+ * muestra.
+ *
+ * @author ISIS2603
+ */
+@Slf4j(topic = "bookstore.service")
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "bookstore.logging.service-calls", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ServiceLogProperties.class)
+public class ServiceLogAspect {
+
+	private static final String SUCCESS = "success";
+
+	private static final Double ALWAYS = 1.0;
+
+	@Autowired
+	private ServiceLogProperties properties;
+
+	/**
+	 * Datos de un método de servicio que no cambian entre llamadas.
+	 */
+	private record CallSite(String service, String method, boolean sampled) {
+	}
+
+	private final Map<Method, CallSite> callSites = new ConcurrentHashMap<>();
+
+	@Around("within(@org.springframework.stereotype.Service co.edu.uniandes.dse.bookstore.services..*) && execution(public * *(..))")
+	public Object log(ProceedingJoinPoint joinPoint) throws Throwable {
+		if (!log.isInfoEnabled())
+			return joinPoint.proceed();
+
+		String outcome = SUCCESS;
+		Level level = Level.INFO;
+		long start = System.nanoTime();
+		try {
+			return joinPoint.proceed();
+		} catch (EntityNotFoundException | IllegalOperationException e) {
+			outcome = e.getClass().getSimpleName();
+			throw e;
+		} catch (Throwable e) {
+			outcome = e.getClass().getSimpleName();
+			level = Level.WARN;
+			throw e;
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			CallSite callSite = callSite(joinPoint);
+			Double sampleRate = sampleRate(callSite, outcome, elapsed);
+			if (sampleRate != null) {
+				log.atLevel(level)
+						.setMessage("Llamada a servicio")
+						.addKeyValue("service", callSite.service())
+						.addKeyValue("method", callSite.method())
+						.addKeyValue("outcome", outcome)
+						.addKeyValue("durationMs", elapsed / 1_000_000)
+						.addKeyValue("sampleRate", sampleRate)
+						.log();
+			}
+		}
+	}
+
+	private CallSite callSite(ProceedingJoinPoint joinPoint) {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		CallSite callSite = callSites.get(method);
+		if (callSite == null)
+			callSite = callSites.computeIfAbsent(method, key -> new CallSite(
+					joinPoint.getTarget().getClass().getSimpleName(), key.getName(), isSampled(key.getName())));
+		return callSite;
+	}
+
+	/**
+	 * Probabilidad con la que se registró esta llamada, o nulo si no se registra.
+	 */
+	private Double sampleRate(CallSite callSite, String outcome, long elapsedNanos) {
+		if (!SUCCESS.equals(outcome) || !callSite.sampled() || elapsedNanos >= properties.getSlowThreshold().toNanos())
+			return ALWAYS;
+		double rate = properties.getSampleRate();
+		return ThreadLocalRandom.current().nextDouble() < rate ? rate : null;
+	}
+
+	private boolean isSampled(String method) {
+		for (String prefix : properties.getSampledPrefixes())
+			if (method.startsWith(prefix))
+				return true;
+		return false;
+	}
+}
@@ -0,0 +1,67 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuración del registro de llamadas a los servicios, leída de las
+ * propiedades {@code bookstore.logging.service-calls.*}.
+ *
+ * @author ISIS2603
+ */
+@Data
+@ConfigurationProperties(prefix = "bookstore.logging.service-calls")
+public class ServiceLogProperties {
+
+	/**
+	 * Registra un evento por cada llamada a un método público de un servicio.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Fracción de las llamadas exitosas a métodos muestreados que se registra,
+	 * entre 0 y 1. Las demás llamadas, los errores y las llamadas lentas se
+	 * registran siempre.
+	 */
+	private double sampleRate = 0.01;
+
+	/**
+	 * Prefijos de los métodos muestreados: las lecturas, y los listeners de
+	 * eventos y los ajustes de contadores, que se ejecutan en cada escritura.
+	 */
+	private List<String> sampledPrefixes = List.of("get", "find", "search", "suggest", "count", "on", "increment",
+			"decrement", "move");
+
+	/**
+	 * Duración a partir de la cual una llamada se registra aunque no haya
+	 * quedado en la muestra.
+	 */
+	private Duration slowThreshold = Duration.ofMillis(500);
+}
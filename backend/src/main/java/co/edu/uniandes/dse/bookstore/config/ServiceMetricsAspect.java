@@ -0,0 +1,136 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mide cada método público de los servicios. Registra el timer
+ * {@code bookstore.service} con histograma de percentiles y, cuando el método
+ * termina con {@link EntityNotFoundException} o
+ * {@link IllegalOperationException}, incrementa el contador
+ * {@code bookstore.service.exceptions}. La etiqueta {@code exception} vale
+ * {@code none}, el nombre de una de esas dos excepciones u {@code other}.
+ *
+ * Los medidores se registran una vez por servicio, método y resultado y se
+ * guardan en un mapa, para no armar el timer en cada llamada.
+ *
+ * Se ejecuta por fuera de {@code @Transactional}, así que el tiempo incluye el
+ * commit. Las llamadas de un servicio a sus propios métodos no pasan por el
+ * proxy y no se miden por separado.
+ *
+ * @author ISIS2603
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+	static final String TIMER = "bookstore.service";
+	static final String EXCEPTIONS = "bookstore.service.exceptions";
+
+	private static final String NONE = "none";
+	private static final String OTHER = "other";
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+
+	private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * Método, servicio y resultado de una llamada, que identifican sus medidores.
+	 */
+	private record Key(Class<?> service, String method, String exception) {
+	}
+
+	/**
+	 * Olvida los medidores que se quitan del registro, para que la siguiente
+	 * llamada los vuelva a registrar.
+	 */
+	@PostConstruct
+	void evictRemovedMeters() {
+		registry.config().onMeterRemoved(meter -> {
+			timers.values().remove(meter);
+			counters.values().remove(meter);
+		});
+	}
+
+	@Around("within(@org.springframework.stereotype.Service co.edu.uniandes.dse.bookstore.services..*) && execution(public * *(..))")
+	public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+		Class<?> service = joinPoint.getTarget().getClass();
+		String method = joinPoint.getSignature().getName();
+		String exception = NONE;
+		long start = System.nanoTime();
+		try {
+			return joinPoint.proceed();
+		} catch (EntityNotFoundException | IllegalOperationException e) {
+			exception = e.getClass().getSimpleName();
+			counters.computeIfAbsent(new Key(service, method, exception), this::counter).increment();
+			throw e;
+		} catch (Throwable e) {
+			// Solo las excepciones del dominio tienen etiqueta propia, para que el
+			// número de series no dependa de las fallas que aparezcan.
+			exception = OTHER;
+			throw e;
+		} finally {
+			timers.computeIfAbsent(new Key(service, method, exception), this::timer)
+					.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private Timer timer(Key key) {
+		return Timer.builder(TIMER)
+				.description("Tiempo de los métodos públicos de los servicios")
+				.tags("class", key.service().getSimpleName(), "method", key.method(), "exception", key.exception())
+				.publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofMillis(1))
+				.maximumExpectedValue(Duration.ofSeconds(10))
+				.register(registry);
+	}
+
+	private Counter counter(Key key) {
+		return registry.counter(EXCEPTIONS, "class", key.service().getSimpleName(), "method", key.method(),
+				"exception", key.exception());
+	}
+}
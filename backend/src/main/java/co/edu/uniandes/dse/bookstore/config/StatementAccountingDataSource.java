@@ -0,0 +1,149 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Fuente de datos que cuenta las sentencias que ejecuta la petición en curso
+ * (ver {@link RequestStatements}). Envuelve las conexiones, las sentencias que
+ * estas crean y los resultados de las consultas; fuera de una petición las
+ * sentencias se ejecutan sin contarse.
+ *
+ * Cada llamada a {@code execute*} cuenta como una sentencia, incluido un lote
+ * completo. Las filas de una consulta se cuentan a medida que se recorren.
+ *
+ * @author ISIS2603
+ */
+public class StatementAccountingDataSource extends DelegatingDataSource {
+
+	private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement",
+			"prepareCall");
+
+	public StatementAccountingDataSource(DataSource dataSource) {
+		super(dataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return account(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return account(super.getConnection(username, password));
+	}
+
+	private Connection account(Connection connection) {
+		return proxy(Connection.class, connection, (method, args) -> {
+			Object result = invoke(connection, method, args);
+			if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+				String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+				return account(method.getReturnType(), statement, sql);
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Envuelve una sentencia. {@code preparedSql} es null cuando el SQL llega en
+	 * cada llamada a {@code execute*}.
+	 */
+	private Object account(Class<?> type, Statement statement, String preparedSql) {
+		return proxy(type, statement, (method, args) -> {
+			RequestStatements statements = RequestStatements.current();
+			String name = method.getName();
+			if (statements == null)
+				return invoke(statement, method, args);
+
+			if (name.equals("getResultSet")) {
+				Object result = invoke(statement, method, args);
+				return result instanceof ResultSet resultSet ? account(resultSet, statements) : result;
+			}
+			if (!name.startsWith("execute"))
+				return invoke(statement, method, args);
+
+			String sql = preparedSql != null ? preparedSql
+					: args != null && args.length > 0 && args[0] instanceof String s ? s : "";
+			long start = System.nanoTime();
+			Object result = invoke(statement, method, args);
+			long elapsed = System.nanoTime() - start;
+			statements.executed(sql, elapsed, affectedRows(result));
+			return result instanceof ResultSet resultSet ? account(resultSet, statements) : result;
+		});
+	}
+
+	private ResultSet account(ResultSet resultSet, RequestStatements statements) {
+		return proxy(ResultSet.class, resultSet, (method, args) -> {
+			Object result = invoke(resultSet, method, args);
+			if (method.getName().equals("next") && Boolean.TRUE.equals(result))
+				statements.read(1);
+			return result;
+		});
+	}
+
+	private static long affectedRows(Object result) {
+		if (result instanceof Integer rows)
+			return Math.max(rows, 0);
+		if (result instanceof Long rows)
+			return Math.max(rows, 0);
+		long total = 0;
+		if (result instanceof int[] batch)
+			for (int rows : batch)
+				total += Math.max(rows, 0);
+		if (result instanceof long[] batch)
+			for (long rows : batch)
+				total += Math.max(rows, 0);
+		return total;
+	}
+
+	private interface Handler {
+		Object handle(Method method, Object[] args) throws Throwable;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> handler.handle(method, args));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cuenta las sentencias SQL de cada petición. Agrega el encabezado
+ * {@code Server-Timing} con el tiempo en la base de datos justo antes de enviar
+ * la respuesta y, al terminar, reporta las consultas repetidas junto con el
+ * método del controlador que atendió la petición.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+public class StatementAccountingFilter extends OncePerRequestFilter {
+
+	static final String SERVER_TIMING = "Server-Timing";
+
+	private final int repeatedThreshold;
+
+	public StatementAccountingFilter(int repeatedThreshold) {
+		this.repeatedThreshold = repeatedThreshold;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		RequestStatements statements = RequestStatements.start();
+		ServerTimingResponse timed = new ServerTimingResponse(response, statements);
+		try {
+			chain.doFilter(request, timed);
+		} finally {
+			RequestStatements.end();
+			timed.writeServerTiming();
+			report(request, statements);
+		}
+	}
+
+	private void report(HttpServletRequest request, RequestStatements statements) {
+		Map<String, Integer> repeated = statements.getRepeatedQueries(repeatedThreshold);
+		if (repeated.isEmpty())
+			return;
+		String handler = handlerName(request);
+		repeated.forEach((shape, executions) -> log.warn(
+				"Posible N+1 en {} ({} {}): la consulta se ejecutó {} veces: {}", handler, request.getMethod(),
+				request.getRequestURI(), executions, shape));
+	}
+
+	private static String handlerName(HttpServletRequest request) {
+		if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method)
+			return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+		return "sin controlador";
+	}
+
+	static String serverTiming(RequestStatements statements) {
+		return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d statements, %d rows\"",
+				statements.getNanos() / 1_000_000.0, statements.getCount(), statements.getRows());
+	}
+
+	/**
+	 * Escribe el encabezado la primera vez que se va a enviar algo: después ya no
+	 * se pueden agregar encabezados. Las sentencias que se ejecuten mientras se
+	 * escribe el cuerpo no alcanzan a quedar en él.
+	 */
+	private static class ServerTimingResponse extends HttpServletResponseWrapper {
+
+		private final RequestStatements statements;
+		private boolean written;
+
+		ServerTimingResponse(HttpServletResponse response, RequestStatements statements) {
+			super(response);
+			this.statements = statements;
+		}
+
+		void writeServerTiming() {
+			if (written || isCommitted())
+				return;
+			written = true;
+			setHeader(SERVER_TIMING, serverTiming(statements));
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			writeServerTiming();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			writeServerTiming();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			writeServerTiming();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			writeServerTiming();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			writeServerTiming();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			writeServerTiming();
+			super.sendRedirect(location);
+		}
+	}
+}
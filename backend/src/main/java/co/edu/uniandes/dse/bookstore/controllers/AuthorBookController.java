@@ -25,10 +25,9 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -38,13 +37,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import co.edu.uniandes.dse.bookstore.dto.BookDTO;
 import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.AuthorBookService;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
 
 /**
  * Clase que implementa el recurso "authors/{id}/books".
@@ -59,21 +61,24 @@ public class AuthorBookController {
 	private AuthorBookService authorBookService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Busca y devuelve el libro con el ID recibido en la URL, relativo a un autor.
 	 *
 	 * @param authorId El ID del autor del cual se busca el libro
 	 * @param bookId   El ID del libro que se busca
-	 * @return {@link BookDetailDTO} - El libro encontrado en el autor.
+	 * @return {@link BookDetailDTO} - El libro encontrado en el autor, con su
+	 *         ETag. Si el encabezado If-None-Match incluye el ETag se responde
+	 *         304 sin cuerpo.
 	 */
 	@GetMapping(value = "/{authorId}/books/{bookId}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public BookDetailDTO getBook(@PathVariable Long authorId, @PathVariable Long bookId)
-			throws EntityNotFoundException, IllegalOperationException {
+	public ResponseEntity<BookDetailDTO> getBook(@PathVariable Long authorId, @PathVariable Long bookId,
+			WebRequest request) throws EntityNotFoundException, IllegalOperationException {
 		BookEntity bookEntity = authorBookService.getBook(authorId, bookId);
-		return modelMapper.map(bookEntity, BookDetailDTO.class);
+		return ETags.conditional(request, ETags.of(DetailVersionService.of(bookEntity)),
+				() -> bookstoreMapper.toBookDetailDTO(bookEntity));
 	}
 
 	/**
@@ -81,14 +86,17 @@ public class AuthorBookController {
 	 *
 	 * @param authorsId El ID del autor del cual se buscan los libros
 	 * @return JSONArray {@link BookDetailDTO} - Los libros encontrados en el autor.
-	 *         Si no hay ninguno retorna una lista vacía.
+	 *         Si no hay ninguno retorna una lista vacía. Si el encabezado
+	 *         If-None-Match incluye el ETag de la lista se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{authorId}/books")
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<BookDetailDTO> getBooks(@PathVariable Long authorId) throws EntityNotFoundException {
+	public ResponseEntity<List<BookDetailDTO>> getBooks(@PathVariable Long authorId, WebRequest request)
+			throws EntityNotFoundException {
 		List<BookEntity> bookEntity = authorBookService.getBooks(authorId);
-		return modelMapper.map(bookEntity, new TypeToken<List<BookDetailDTO>>() {
-		}.getType());
+		return ETags.conditional(request, ETags.ofVersions(bookEntity.stream().map(DetailVersionService::of).toList()),
+				() -> bookstoreMapper.toBookDetailDTOs(bookEntity));
 	}
 
 	/**
@@ -103,7 +111,7 @@ public class AuthorBookController {
 	public BookDetailDTO addBook(@PathVariable Long authorId, @PathVariable Long bookId)
 			throws EntityNotFoundException {
 		BookEntity bookEntity = authorBookService.addBook(authorId, bookId);
-		return modelMapper.map(bookEntity, BookDetailDTO.class);
+		return bookstoreMapper.toBookDetailDTO(bookEntity);
 	}
 
 	/**
@@ -119,11 +127,9 @@ public class AuthorBookController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public List<BookDetailDTO> replaceBooks(@PathVariable Long authorId, @RequestBody List<BookDTO> books)
 			throws EntityNotFoundException {
-		List<BookEntity> entities = modelMapper.map(books, new TypeToken<List<BookEntity>>() {
-		}.getType());
+		List<BookEntity> entities = bookstoreMapper.toBookEntities(books);
 		List<BookEntity> booksList = authorBookService.addBooks(authorId, entities);
-		return modelMapper.map(booksList, new TypeToken<List<BookDetailDTO>>() {
-		}.getType());
+		return bookstoreMapper.toBookDetailDTOs(booksList);
 
 	}
 
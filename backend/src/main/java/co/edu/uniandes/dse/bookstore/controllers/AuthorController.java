@@ -25,26 +25,33 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
 import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.DetailCacheService;
+import co.edu.uniandes.dse.bookstore.services.VersionedDetail;
 
 /**
  * Clase que implementa el recurso "authors".
@@ -59,20 +66,51 @@ public class AuthorController {
 	private AuthorService authorService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private DetailCacheService detailCacheService;
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Busca y devuelve todos los autores que existen en la aplicacion.
 	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de autores por página.
+	 * @param all   Si es verdadero retorna todos los autores sin paginar.
 	 * @return JSONArray {@link AuthorDetailDTO} - Los autores encontrados en la
 	 *         aplicación. Si no hay ninguno retorna una lista vacía.
 	 */
 	@GetMapping
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<AuthorDetailDTO> findAll() {
-		List<AuthorEntity> authors = authorService.getAuthors();
-		return modelMapper.map(authors, new TypeToken<List<AuthorDetailDTO>>() {
-		}.getType());
+	public ResponseEntity<List<AuthorDetailDTO>> findAll(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit,
+			@RequestParam(defaultValue = "false") boolean all) throws IllegalOperationException {
+		if (all)
+			return ResponseEntity.ok(toDetailDTOs(authorService.getAuthors()));
+
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<AuthorEntity> authors = authorService.getAuthors(KeysetPagination.decodeCursor(after), pageSize + 1);
+		return KeysetPagination.page(authors, pageSize, this::toDetailDTOs);
+	}
+
+	/**
+	 * Busca y devuelve una página de resúmenes de los autores, con los campos de
+	 * {@link AuthorDTO}. Se consultan como proyecciones, sin cargar las entidades.
+	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de autores por página.
+	 * @return JSONArray {@link AuthorSummary} - Los autores encontrados en la
+	 *         aplicación. Si no hay ninguno retorna una lista vacía.
+	 */
+	@GetMapping(value = "/summaries")
+	@ResponseStatus(code = HttpStatus.OK)
+	public ResponseEntity<List<AuthorSummary>> findSummaries(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit) throws IllegalOperationException {
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<AuthorSummary> authors = authorService.getAuthorSummaries(KeysetPagination.decodeCursor(after), pageSize + 1);
+		return KeysetPagination.projectionPage(authors, pageSize, AuthorSummary::id);
 	}
 
 	/**
@@ -80,13 +118,23 @@ public class AuthorController {
 	 *
 	 * @param id Identificador del autor que se esta buscando. Este debe ser una
 	 *           cadena de dígitos.
-	 * @return JSON {@link AuthorDetailDTO} - El autor buscado
+	 * @return JSON {@link AuthorDetailDTO} - El autor buscado, con su ETag. Si
+	 *         el encabezado If-None-Match incluye el ETag se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public AuthorDetailDTO findOne(@PathVariable Long id) throws EntityNotFoundException {
-		AuthorEntity authorEntity = authorService.getAuthor(id);
-		return modelMapper.map(authorEntity, AuthorDetailDTO.class);
+	public ResponseEntity<AuthorDetailDTO> findOne(@PathVariable Long id, WebRequest request)
+			throws EntityNotFoundException {
+		// La versión se compara antes de cargar el detalle, que no se carga si no cambió.
+		// Sin If-None-Match no hay con qué compararla y se carga el detalle directamente.
+		if (ETags.isConditional(request)) {
+			String etag = ETags.of(detailCacheService.getAuthorVersion(id));
+			if (request.checkNotModified(etag))
+				return ETags.notModified(etag);
+		}
+		VersionedDetail<AuthorDetailDTO> author = detailCacheService.getAuthorDetail(id);
+		return ResponseEntity.ok().eTag(ETags.of(author.version())).body(author.detail());
 	}
 
 	/**
@@ -102,8 +150,8 @@ public class AuthorController {
 	@PostMapping
 	@ResponseStatus(code = HttpStatus.CREATED)
 	public AuthorDTO create(@RequestBody AuthorDTO authorDTO) throws IllegalOperationException {
-		AuthorEntity authorEntity = authorService.createAuthor(modelMapper.map(authorDTO, AuthorEntity.class));
-		return modelMapper.map(authorEntity, AuthorDTO.class);
+		AuthorEntity authorEntity = authorService.createAuthor(bookstoreMapper.toAuthorEntity(authorDTO));
+		return bookstoreMapper.toAuthorDTO(authorEntity);
 	}
 
 	/**
@@ -113,13 +161,18 @@ public class AuthorController {
 	 * @param id     Identificador del autor que se desea actualizar. Este debe ser
 	 *               una cadena de dígitos.
 	 * @param author {@link AuthorDTO} El autor que se desea guardar.
+	 * @param ifMatch ETag que debe tener el autor, o nulo para no verificarlo.
+	 * @return JSON {@link AuthorDTO} - El autor guardado, con su nuevo ETag.
 	 */
 	@PutMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public AuthorDTO update(@PathVariable Long id, @RequestBody AuthorDTO authorDTO)
-			throws EntityNotFoundException {
-		AuthorEntity authorEntity = authorService.updateAuthor(id, modelMapper.map(authorDTO, AuthorEntity.class));
-		return modelMapper.map(authorEntity, AuthorDTO.class);
+	public ResponseEntity<AuthorDTO> update(@PathVariable Long id, @RequestBody AuthorDTO authorDTO,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+			throws EntityNotFoundException, IllegalOperationException {
+		AuthorEntity author = bookstoreMapper.toAuthorEntity(authorDTO);
+		author.setVersion(ETags.expectedVersion(ifMatch, id));
+		AuthorEntity authorEntity = authorService.updateAuthor(id, author);
+		return ResponseEntity.ok().eTag(ETags.of(authorEntity)).body(bookstoreMapper.toAuthorDTO(authorEntity));
 	}
 
 	/**
@@ -127,11 +180,17 @@ public class AuthorController {
 	 *
 	 * @param id Identificador del autor que se desea borrar. Este debe ser una
 	 *           cadena de dígitos.
+	 * @param ifMatch ETag que debe tener el autor, o nulo para no verificarlo.
 	 */
 	@DeleteMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.NO_CONTENT)
-	public void delete(@PathVariable Long id) throws EntityNotFoundException, IllegalOperationException {
-		authorService.deleteAuthor(id);
+	public void delete(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+			throws EntityNotFoundException, IllegalOperationException {
+		authorService.deleteAuthor(id, ETags.expectedVersion(ifMatch, id));
 	}
 
+	private List<AuthorDetailDTO> toDetailDTOs(List<AuthorEntity> authors) {
+		return bookstoreMapper.toAuthorDetailDTOs(authors);
+	}
 }
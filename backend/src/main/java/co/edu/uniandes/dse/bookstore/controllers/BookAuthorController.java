@@ -25,10 +25,9 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -38,16 +37,20 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
 import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
 
 /**
- * Clase que implementa el recurso "books/{id}/authors".
+ * Clase que implementa el recurso "books/{id}/authors" y sus operaciones en
+ * bloque "books/{id}/authors:batch".
  *
  * @author ISIS2603
  */
@@ -59,7 +62,7 @@ public class BookAuthorController {
 	private BookAuthorService bookAuthorService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Asocia un autor existente con un libro existente
@@ -73,7 +76,7 @@ public class BookAuthorController {
 	public AuthorDetailDTO addAuthor(@PathVariable Long authorId, @PathVariable Long bookId)
 			throws EntityNotFoundException {
 		AuthorEntity authorEntity = bookAuthorService.addAuthor(bookId, authorId);
-		return modelMapper.map(authorEntity, AuthorDetailDTO.class);
+		return bookstoreMapper.toAuthorDetailDTO(authorEntity);
 	}
 
 	/**
@@ -81,14 +84,17 @@ public class BookAuthorController {
 	 *
 	 * @param authorId El ID del autor que se busca
 	 * @param bookId   El ID del libro del cual se busca el autor
-	 * @return {@link AuthorDetailDTO} - El autor encontrado en el libro.
+	 * @return {@link AuthorDetailDTO} - El autor encontrado en el libro, con su
+	 *         ETag. Si el encabezado If-None-Match incluye el ETag se responde
+	 *         304 sin cuerpo.
 	 */
 	@GetMapping(value = "/{bookId}/authors/{authorId}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public AuthorDetailDTO getAuthor(@PathVariable Long authorId, @PathVariable Long bookId)
-			throws EntityNotFoundException, IllegalOperationException {
+	public ResponseEntity<AuthorDetailDTO> getAuthor(@PathVariable Long authorId, @PathVariable Long bookId,
+			WebRequest request) throws EntityNotFoundException, IllegalOperationException {
 		AuthorEntity authorEntity = bookAuthorService.getAuthor(bookId, authorId);
-		return modelMapper.map(authorEntity, AuthorDetailDTO.class);
+		return ETags.conditional(request, ETags.of(DetailVersionService.of(authorEntity)),
+				() -> bookstoreMapper.toAuthorDetailDTO(authorEntity));
 	}
 
 	/**
@@ -104,11 +110,37 @@ public class BookAuthorController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public List<AuthorDetailDTO> addAuthors(@PathVariable Long bookId, @RequestBody List<AuthorDTO> authors)
 			throws EntityNotFoundException {
-		List<AuthorEntity> entities = modelMapper.map(authors, new TypeToken<List<AuthorEntity>>() {
-		}.getType());
+		List<AuthorEntity> entities = bookstoreMapper.toAuthorEntities(authors);
 		List<AuthorEntity> authorsList = bookAuthorService.replaceAuthors(bookId, entities);
-		return modelMapper.map(authorsList, new TypeToken<List<AuthorDetailDTO>>() {
-		}.getType());
+		return bookstoreMapper.toAuthorDetailDTOs(authorsList);
+	}
+
+	/**
+	 * Asocia en bloque los autores que se reciben en el cuerpo con un libro. Los
+	 * que ya estaban asociados se ignoran.
+	 *
+	 * @param bookId  El ID del libro al cual se le van a asociar los autores
+	 * @param authors JSONArray {@link AuthorDTO} - Los autores que se asocian.
+	 */
+	@PostMapping(value = "/{bookId}/authors:batch")
+	@ResponseStatus(code = HttpStatus.NO_CONTENT)
+	public void linkAuthors(@PathVariable Long bookId, @RequestBody List<AuthorDTO> authors)
+			throws EntityNotFoundException {
+		bookAuthorService.addAuthors(bookId, bookstoreMapper.toAuthorEntities(authors));
+	}
+
+	/**
+	 * Desasocia en bloque los autores que se reciben en el cuerpo de un libro. Los
+	 * que no estaban asociados se ignoran.
+	 *
+	 * @param bookId  El ID del libro al cual se le van a desasociar los autores
+	 * @param authors JSONArray {@link AuthorDTO} - Los autores que se desasocian.
+	 */
+	@DeleteMapping(value = "/{bookId}/authors:batch")
+	@ResponseStatus(code = HttpStatus.NO_CONTENT)
+	public void unlinkAuthors(@PathVariable Long bookId, @RequestBody List<AuthorDTO> authors)
+			throws EntityNotFoundException {
+		bookAuthorService.removeAuthors(bookId, bookstoreMapper.toAuthorEntities(authors));
 	}
 
 	/**
@@ -116,14 +148,18 @@ public class BookAuthorController {
 	 *
 	 * @param booksd El ID del libro del cual se buscan los autores
 	 * @return JSONArray {@link AuthorDetailDTO} - Los autores encontrados en el
-	 *         libro. Si no hay ninguno retorna una lista vacía.
+	 *         libro. Si no hay ninguno retorna una lista vacía. Si el encabezado
+	 *         If-None-Match incluye el ETag de la lista se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{bookId}/authors")
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<AuthorDetailDTO> getAuthors(@PathVariable Long bookId) throws EntityNotFoundException {
+	public ResponseEntity<List<AuthorDetailDTO>> getAuthors(@PathVariable Long bookId, WebRequest request)
+			throws EntityNotFoundException {
 		List<AuthorEntity> authorEntity = bookAuthorService.getAuthors(bookId);
-		return modelMapper.map(authorEntity, new TypeToken<List<AuthorDetailDTO>>() {
-		}.getType());
+		return ETags.conditional(request,
+				ETags.ofVersions(authorEntity.stream().map(DetailVersionService::of).toList()),
+				() -> bookstoreMapper.toAuthorDetailDTOs(authorEntity));
 	}
 
 	/**
@@ -25,26 +25,35 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import co.edu.uniandes.dse.bookstore.dto.BookDTO;
 import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookFacetsDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.DetailCacheService;
+import co.edu.uniandes.dse.bookstore.services.FacetService;
+import co.edu.uniandes.dse.bookstore.services.VersionedDetail;
 
 /**
  * Clase que implementa el recurso "books".
@@ -59,20 +68,83 @@ public class BookController {
 	private BookService bookService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private FacetService facetService;
+
+	@Autowired
+	private DetailCacheService detailCacheService;
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Busca y devuelve todos los libros que existen en la aplicacion.
 	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de libros por página.
+	 * @param all   Si es verdadero retorna todos los libros sin paginar.
 	 * @return JSONArray {@link BookDetailDTO} - Los libros encontrados en la
 	 *         aplicación. Si no hay ninguno retorna una lista vacía.
 	 */
 	@GetMapping
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<BookDetailDTO> findAll() {
-		List<BookEntity> books = bookService.getBooks();
-		return modelMapper.map(books, new TypeToken<List<BookDetailDTO>>() {
-		}.getType());
+	public ResponseEntity<List<BookDetailDTO>> findAll(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit,
+			@RequestParam(defaultValue = "false") boolean all) throws IllegalOperationException {
+		if (all)
+			return ResponseEntity.ok(toDetailDTOs(bookService.getBooks()));
+
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<BookEntity> books = bookService.getBooks(KeysetPagination.decodeCursor(after), pageSize + 1);
+		return KeysetPagination.page(books, pageSize, this::toDetailDTOs);
+	}
+
+	/**
+	 * Busca y devuelve una página de resúmenes de los libros, con los campos de
+	 * {@link BookDTO}. Se consultan como proyecciones, sin cargar las entidades.
+	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de libros por página.
+	 * @return JSONArray {@link BookSummary} - Los libros encontrados en la
+	 *         aplicación. Si no hay ninguno retorna una lista vacía.
+	 */
+	@GetMapping(value = "/summaries")
+	@ResponseStatus(code = HttpStatus.OK)
+	public ResponseEntity<List<BookSummary>> findSummaries(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit) throws IllegalOperationException {
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<BookSummary> books = bookService.getBookSummaries(KeysetPagination.decodeCursor(after), pageSize + 1);
+		return KeysetPagination.projectionPage(books, pageSize, BookSummary::id);
+	}
+
+	/**
+	 * Filtra los libros por editorial, año de publicación y autor, y cuenta
+	 * cuántos libros hay con cada valor de esas facetas. Dentro de una faceta los
+	 * valores se unen y entre facetas se intersecan. Los conteos de una faceta no
+	 * aplican su propio filtro.
+	 *
+	 * @param editorial  Ids de las editoriales.
+	 * @param year       Años de publicación.
+	 * @param author     Ids de los autores.
+	 * @param after      Cursor de la página anterior, tomado del encabezado Link.
+	 * @param limit      Número máximo de libros por página.
+	 * @param facetLimit Número máximo de valores por faceta.
+	 * @return JSON {@link BookFacetsDTO} - El total, la página de libros y los
+	 *         conteos de cada faceta.
+	 */
+	@GetMapping(value = "/facets")
+	@ResponseStatus(code = HttpStatus.OK)
+	public ResponseEntity<BookFacetsDTO> findFacets(@RequestParam(required = false) List<Long> editorial,
+			@RequestParam(required = false) List<Long> year, @RequestParam(required = false) List<Long> author,
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit,
+			@RequestParam(defaultValue = "20") int facetLimit) throws IllegalOperationException {
+		int pageSize = KeysetPagination.checkLimit(limit);
+		FacetService.BookFacets facets = facetService.getFacets(editorial, year, author,
+				KeysetPagination.decodeCursor(after), pageSize + 1, facetLimit);
+		return KeysetPagination.wrappedPage(facets.books(), pageSize,
+				books -> bookstoreMapper.toBookFacetsDTO(facets.withBooks(books)));
 	}
 
 	/**
@@ -80,13 +152,23 @@ public class BookController {
 	 *
 	 * @param bookId Identificador del libro que se esta buscando. Este debe ser una
 	 *               cadena de dígitos.
-	 * @return JSON {@link BookDetailDTO} - El libro buscado
+	 * @return JSON {@link BookDetailDTO} - El libro buscado, con su ETag. Si el
+	 *         encabezado If-None-Match incluye el ETag se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public BookDetailDTO findOne(@PathVariable Long id) throws EntityNotFoundException {
-		BookEntity bookEntity = bookService.getBook(id);
-		return modelMapper.map(bookEntity, BookDetailDTO.class);
+	public ResponseEntity<BookDetailDTO> findOne(@PathVariable Long id, WebRequest request)
+			throws EntityNotFoundException {
+		// La versión se compara antes de cargar el detalle, que no se carga si no cambió.
+		// Sin If-None-Match no hay con qué compararla y se carga el detalle directamente.
+		if (ETags.isConditional(request)) {
+			String etag = ETags.of(detailCacheService.getBookVersion(id));
+			if (request.checkNotModified(etag))
+				return ETags.notModified(etag);
+		}
+		VersionedDetail<BookDetailDTO> book = detailCacheService.getBookDetail(id);
+		return ResponseEntity.ok().eTag(ETags.of(book.version())).body(book.detail());
 	}
 
 	/**
@@ -101,8 +183,8 @@ public class BookController {
 	@PostMapping
 	@ResponseStatus(code = HttpStatus.CREATED)
 	public BookDTO create(@RequestBody BookDTO bookDTO) throws IllegalOperationException, EntityNotFoundException {
-		BookEntity bookEntity = bookService.createBook(modelMapper.map(bookDTO, BookEntity.class));
-		return modelMapper.map(bookEntity, BookDTO.class);
+		BookEntity bookEntity = bookService.createBook(bookstoreMapper.toBookEntity(bookDTO));
+		return bookstoreMapper.toBookDTO(bookEntity);
 	}
 
 	/**
@@ -112,14 +194,18 @@ public class BookController {
 	 * @param bookId Identificador del libro que se desea actualizar. Este debe ser
 	 *               una cadena de dígitos.
 	 * @param book   {@link BookDTO} El libro que se desea guardar.
-	 * @return JSON {@link BookDTO} - El libro guardada.
+	 * @param ifMatch ETag que debe tener el libro, o nulo para no verificarlo.
+	 * @return JSON {@link BookDTO} - El libro guardada, con su nuevo ETag.
 	 */
 	@PutMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public BookDTO update(@PathVariable Long id, @RequestBody BookDTO bookDTO)
+	public ResponseEntity<BookDTO> update(@PathVariable Long id, @RequestBody BookDTO bookDTO,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
 			throws EntityNotFoundException, IllegalOperationException {
-		BookEntity bookEntity = bookService.updateBook(id, modelMapper.map(bookDTO, BookEntity.class));
-		return modelMapper.map(bookEntity, BookDTO.class);
+		BookEntity book = bookstoreMapper.toBookEntity(bookDTO);
+		book.setVersion(ETags.expectedVersion(ifMatch, id));
+		BookEntity bookEntity = bookService.updateBook(id, book);
+		return ResponseEntity.ok().eTag(ETags.of(bookEntity)).body(bookstoreMapper.toBookDTO(bookEntity));
 	}
 
 	/**
@@ -127,10 +213,17 @@ public class BookController {
 	 *
 	 * @param bookId Identificador del libro que se desea borrar. Este debe ser una
 	 *               cadena de dígitos.
+	 * @param ifMatch ETag que debe tener el libro, o nulo para no verificarlo.
 	 */
 	@DeleteMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.NO_CONTENT)
-	public void delete(@PathVariable Long id) throws EntityNotFoundException, IllegalOperationException {
-		bookService.deleteBook(id);
+	public void delete(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+			throws EntityNotFoundException, IllegalOperationException {
+		bookService.deleteBook(id, ETags.expectedVersion(ifMatch, id));
+	}
+
+	private List<BookDetailDTO> toDetailDTOs(List<BookEntity> books) {
+		return bookstoreMapper.toBookDetailDTOs(books);
 	}
 }
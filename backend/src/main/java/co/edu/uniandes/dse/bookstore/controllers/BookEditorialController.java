@@ -23,7 +23,6 @@ SOFTWARE.
 */
 package co.edu.uniandes.dse.bookstore.controllers;
 
-import org.modelmapper.ModelMapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -38,6 +37,7 @@ import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
 import co.edu.uniandes.dse.bookstore.dto.EditorialDTO;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.BookEditorialService;
 
 /**
@@ -54,7 +54,7 @@ public class BookEditorialController {
 	private BookEditorialService bookEditorialService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Remplaza la instancia de Editorial asociada a un Book.
@@ -70,7 +70,7 @@ public class BookEditorialController {
 	public BookDetailDTO replaceEditorial(@PathVariable Long bookId, @RequestBody EditorialDTO editorialDTO)
 			throws EntityNotFoundException {
 		BookEntity bookEntity = bookEditorialService.replaceEditorial(bookId, editorialDTO.getId());
-		return modelMapper.map(bookEntity, BookDetailDTO.class);
+		return bookstoreMapper.toBookDetailDTO(bookEntity);
 	}
 
 }
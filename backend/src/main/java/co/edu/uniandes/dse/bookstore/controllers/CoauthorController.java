@@ -0,0 +1,83 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import co.edu.uniandes.dse.bookstore.dto.CoauthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.CollaborationStepDTO;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.services.CoauthorService;
+
+/**
+ * Clase que implementa los recursos "authors/{id}/coauthors" y
+ * "authors/{id}/path/{otherId}", sobre el grafo de coautores.
+ *
+ * @author ISIS2603
+ */
+@RestController
+@RequestMapping("/authors")
+public class CoauthorController {
+
+	@Autowired
+	private CoauthorService coauthorService;
+
+	/**
+	 * Obtiene los autores que comparten al menos un libro con el autor.
+	 *
+	 * @param authorId Identificador del autor que se busca.
+	 * @return JSONArray {@link CoauthorDTO} - Los coautores, del que comparte más
+	 *         libros al que comparte menos. Si no hay ninguno retorna una lista
+	 *         vacía.
+	 */
+	@GetMapping(value = "/{authorId}/coauthors")
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<CoauthorDTO> getCoauthors(@PathVariable Long authorId) throws EntityNotFoundException {
+		return coauthorService.getCoauthors(authorId);
+	}
+
+	/**
+	 * Obtiene un camino de colaboración más corto entre dos autores.
+	 *
+	 * @param authorId Identificador del primer autor.
+	 * @param otherId  Identificador del último autor.
+	 * @return JSONArray {@link CollaborationStepDTO} - Los autores del camino, con
+	 *         el libro que comparte cada uno con el anterior. Si no están
+	 *         conectados retorna una lista vacía.
+	 */
+	@GetMapping(value = "/{authorId}/path/{otherId}")
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<CollaborationStepDTO> getPath(@PathVariable Long authorId, @PathVariable Long otherId)
+			throws EntityNotFoundException {
+		return coauthorService.getPath(authorId, otherId);
+	}
+}
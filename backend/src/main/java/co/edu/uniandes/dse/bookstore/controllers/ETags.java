@@ -0,0 +1,162 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.DetailVersion;
+import co.edu.uniandes.dse.bookstore.services.VersionHash;
+
+/**
+ * Utilidades para las peticiones condicionales. El ETag de una entidad es
+ * {@code "<id>.<versión>"}; el del detalle de un libro o de un autor agrega el
+ * resumen de las versiones de las entidades que muestra
+ * ({@link DetailVersion}), para que cambie con la representación sin que esas
+ * entidades escriban en el libro o el autor. El de una lista resume los ids y
+ * las versiones de sus elementos, sin importar su orden.
+ *
+ * Un GET con {@code If-None-Match} igual al ETag actual se responde con 304 sin
+ * construir el cuerpo. Un PUT o DELETE con {@code If-Match} solo se aplica si
+ * la entidad tiene la versión de ese ETag.
+ *
+ * @author ISIS2603
+ */
+final class ETags {
+
+	private ETags() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * ETag de una entidad.
+	 */
+	static String of(BaseEntity entity) {
+		return "\"" + entity.getId() + "." + entity.getVersion() + "\"";
+	}
+
+	/**
+	 * ETag del detalle de un libro o de un autor.
+	 */
+	static String of(DetailVersion version) {
+		return "\"" + version.id() + "." + version.version() + "." + Long.toHexString(version.digest()) + "\"";
+	}
+
+	/**
+	 * ETag de una lista de entidades.
+	 */
+	static String of(Collection<? extends BaseEntity> entities) {
+		return of(null, entities);
+	}
+
+	/**
+	 * ETag de una lista de entidades cuya representación incluye a la entidad
+	 * padre, por ejemplo las reseñas de un libro.
+	 *
+	 * @param parent   La entidad padre, o nulo si no se incluye.
+	 * @param entities Los elementos de la lista.
+	 */
+	static String of(BaseEntity parent, Collection<? extends BaseEntity> entities) {
+		long hash = VersionHash.OFFSET_BASIS;
+		if (parent != null)
+			hash = VersionHash.mix(VersionHash.mix(hash, parent.getId()), parent.getVersion());
+		for (BaseEntity entity : entities.stream().sorted(Comparator.comparing(BaseEntity::getId)).toList())
+			hash = VersionHash.mix(VersionHash.mix(hash, entity.getId()), entity.getVersion());
+		return "\"" + entities.size() + "-" + Long.toHexString(hash) + "\"";
+	}
+
+	/**
+	 * ETag de una lista de detalles.
+	 */
+	static String ofVersions(Collection<DetailVersion> versions) {
+		long hash = VersionHash.OFFSET_BASIS;
+		for (DetailVersion version : versions.stream().sorted(Comparator.comparing(DetailVersion::id)).toList())
+			hash = VersionHash.mix(VersionHash.mix(VersionHash.mix(hash, version.id()), version.version()),
+					version.digest());
+		return "\"" + versions.size() + "-" + Long.toHexString(hash) + "\"";
+	}
+
+	/**
+	 * Responde 304 si el encabezado {@code If-None-Match} incluye el ETag. Si no,
+	 * responde 200 con el ETag y el cuerpo, que solo se construye en ese caso.
+	 */
+	static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+		if (request.checkNotModified(etag))
+			return notModified(etag);
+		return ResponseEntity.ok().eTag(etag).body(body.get());
+	}
+
+	/**
+	 * Indica si un GET trae el encabezado {@code If-None-Match}, es decir, si
+	 * vale la pena calcular el ETag antes de construir el cuerpo.
+	 */
+	static boolean isConditional(WebRequest request) {
+		return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+	}
+
+	/**
+	 * Respuesta 304 con el ETag.
+	 */
+	static <T> ResponseEntity<T> notModified(String etag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+	}
+
+	/**
+	 * Interpreta el encabezado {@code If-Match} de un PUT o DELETE sobre una
+	 * entidad. Se acepta un solo ETag, de la entidad o de su detalle, o
+	 * {@code *}. Del ETag de un detalle solo se compara la versión de la
+	 * entidad.
+	 *
+	 * @param ifMatch El valor del encabezado, o nulo si no se envió.
+	 * @param id      El id de la entidad.
+	 * @return La versión que se espera que tenga la entidad, o nulo si no se
+	 *         exige ninguna.
+	 * @throws IllegalOperationException Si el ETag no es de la entidad.
+	 */
+	static Long expectedVersion(String ifMatch, Long id) throws IllegalOperationException {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+			return null;
+
+		String etag = ifMatch.trim();
+		String prefix = "\"" + id + ".";
+		if (!etag.startsWith(prefix) || !etag.endsWith("\"") || etag.length() <= prefix.length() + 1)
+			throw new IllegalOperationException(ErrorMessage.VERSION_MISMATCH);
+		String version = etag.substring(prefix.length(), etag.length() - 1);
+		int digest = version.indexOf('.');
+		try {
+			return Long.valueOf(digest < 0 ? version : version.substring(0, digest));
+		} catch (NumberFormatException e) {
+			throw new IllegalOperationException(ErrorMessage.VERSION_MISMATCH);
+		}
+	}
+}
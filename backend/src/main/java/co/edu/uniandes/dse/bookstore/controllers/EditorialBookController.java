@@ -25,10 +25,9 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -37,13 +36,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import co.edu.uniandes.dse.bookstore.dto.BookDTO;
 import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
 import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import co.edu.uniandes.dse.bookstore.services.VersionedDetail;
 
 /**
  * Clase que implementa el recurso "editorials/{id}/books".
@@ -58,7 +61,7 @@ public class EditorialBookController {
 	private EditorialBookService editorialBookService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Guarda un libro dentro de una editorial con la informacion que recibe el la
@@ -75,7 +78,7 @@ public class EditorialBookController {
 	public BookDTO addBook(@PathVariable Long editorialId, @PathVariable("bookId") Long booklId)
 			throws EntityNotFoundException {
 		BookEntity bookEntity = editorialBookService.addBook(booklId, editorialId);
-		return modelMapper.map(bookEntity, BookDTO.class);
+		return bookstoreMapper.toBookDTO(bookEntity);
 	}
 
 	/**
@@ -84,14 +87,17 @@ public class EditorialBookController {
 	 * @param editorialId Identificador de la editorial que se esta buscando. Este
 	 *                    debe ser una cadena de dígitos.
 	 * @return JSONArray {@link BookDetailDTO} - Los libros encontrados en la
-	 *         editorial. Si no hay ninguno retorna una lista vacía.
+	 *         editorial. Si no hay ninguno retorna una lista vacía. Si el
+	 *         encabezado If-None-Match incluye el ETag de la lista se responde
+	 *         304 sin cuerpo.
 	 */
 	@GetMapping(value = "/{editorialId}/books")
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<BookDetailDTO> getBooks(@PathVariable Long editorialId) throws EntityNotFoundException {
-		List<BookEntity> bookList = editorialBookService.getBooks(editorialId);
-		return modelMapper.map(bookList, new TypeToken<List<BookDetailDTO>>() {
-		}.getType());
+	public ResponseEntity<List<BookDetailDTO>> getBooks(@PathVariable Long editorialId, WebRequest request)
+			throws EntityNotFoundException {
+		List<VersionedDetail<BookDetailDTO>> books = editorialBookService.getBookDetails(editorialId);
+		return ETags.conditional(request, ETags.ofVersions(books.stream().map(VersionedDetail::version).toList()),
+				() -> books.stream().map(VersionedDetail::detail).toList());
 	}
 
 	/**
@@ -101,14 +107,17 @@ public class EditorialBookController {
 	 *                    debe ser una cadena de dígitos.
 	 * @param bookId      Identificador del libro que se esta buscando. Este debe
 	 *                    ser una cadena de dígitos.
-	 * @return JSON {@link BookDetailDTO} - El libro buscado
+	 * @return JSON {@link BookDetailDTO} - El libro buscado, con su ETag. Si el
+	 *         encabezado If-None-Match incluye el ETag se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{editorialId}/books/{bookId}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public BookDetailDTO getBook(@PathVariable Long editorialId, @PathVariable Long bookId)
-			throws EntityNotFoundException, IllegalOperationException {
+	public ResponseEntity<BookDetailDTO> getBook(@PathVariable Long editorialId, @PathVariable Long bookId,
+			WebRequest request) throws EntityNotFoundException, IllegalOperationException {
 		BookEntity bookEntity = editorialBookService.getBook(editorialId, bookId);
-		return modelMapper.map(bookEntity, BookDetailDTO.class);
+		return ETags.conditional(request, ETags.of(DetailVersionService.of(bookEntity)),
+				() -> bookstoreMapper.toBookDetailDTO(bookEntity));
 	}
 
 	/**
@@ -125,10 +134,8 @@ public class EditorialBookController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public List<BookDetailDTO> replaceBooks(@PathVariable("editorialId") Long editorialsId,
 			@RequestBody List<BookDetailDTO> books) throws EntityNotFoundException {
-		List<BookEntity> booksList = modelMapper.map(books, new TypeToken<List<BookEntity>>() {
-		}.getType());
+		List<BookEntity> booksList = bookstoreMapper.toBookDetailEntities(books);
 		List<BookEntity> result = editorialBookService.replaceBooks(editorialsId, booksList);
-		return modelMapper.map(result, new TypeToken<List<BookDetailDTO>>() {
-		}.getType());
+		return bookstoreMapper.toBookDetailDTOs(result);
 	}
 }
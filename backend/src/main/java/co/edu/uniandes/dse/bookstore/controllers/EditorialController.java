@@ -25,10 +25,9 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -36,14 +35,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import co.edu.uniandes.dse.bookstore.dto.EditorialDTO;
 import co.edu.uniandes.dse.bookstore.dto.EditorialDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.EditorialService;
 
 /**
@@ -59,7 +61,7 @@ public class EditorialController {
 	private EditorialService editorialService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	 /**
      * Busca la editorial con el id asociado recibido en la URL y la devuelve.
@@ -72,21 +74,50 @@ public class EditorialController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public EditorialDetailDTO findOne(@PathVariable Long id) throws EntityNotFoundException {
 		EditorialEntity editorialEntity = editorialService.getEditorial(id);
-		return modelMapper.map(editorialEntity, EditorialDetailDTO.class);
+		return bookstoreMapper.toEditorialDetailDTO(editorialEntity);
 	}
 
 	/**
      * Busca y devuelve todas las editoriales que existen en la aplicacion.
      *
+     * @param after Cursor de la página anterior, tomado del encabezado Link.
+     *              Si no se envía se retorna la primera página.
+     * @param limit Número máximo de editoriales por página.
+     * @param all   Si es verdadero retorna todas las editoriales sin paginar.
      * @return JSONArray {@link EditorialDetailDTO} - Las editoriales
      * encontradas en la aplicación. Si no hay ninguna retorna una lista vacía.
      */
 	@GetMapping
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<EditorialDetailDTO> findAll() {
-		List<EditorialEntity> editorials = editorialService.getEditorials();
-		return modelMapper.map(editorials, new TypeToken<List<EditorialDetailDTO>>() {
-		}.getType());
+	public ResponseEntity<List<EditorialDetailDTO>> findAll(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit,
+			@RequestParam(defaultValue = "false") boolean all) throws IllegalOperationException {
+		if (all)
+			return ResponseEntity.ok(toDetailDTOs(editorialService.getEditorials()));
+
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<EditorialEntity> editorials = editorialService.getEditorials(KeysetPagination.decodeCursor(after),
+				pageSize + 1);
+		return KeysetPagination.page(editorials, pageSize, this::toDetailDTOs);
+	}
+
+	/**
+	 * Busca y devuelve una página de resúmenes de los editoriales, con los campos de
+	 * {@link EditorialDTO}. Se consultan como proyecciones, sin cargar las entidades.
+	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de editoriales por página.
+	 * @return JSONArray {@link EditorialSummary} - Los editoriales encontrados en la
+	 *         aplicación. Si no hay ninguno retorna una lista vacía.
+	 */
+	@GetMapping(value = "/summaries")
+	@ResponseStatus(code = HttpStatus.OK)
+	public ResponseEntity<List<EditorialSummary>> findSummaries(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit) throws IllegalOperationException {
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<EditorialSummary> editorials = editorialService.getEditorialSummaries(KeysetPagination.decodeCursor(after), pageSize + 1);
+		return KeysetPagination.projectionPage(editorials, pageSize, EditorialSummary::id);
 	}
 
 	/**
@@ -103,8 +134,8 @@ public class EditorialController {
 	@ResponseStatus(code = HttpStatus.CREATED)
 	public EditorialDTO create(@RequestBody EditorialDTO editorialDTO) throws IllegalOperationException {
 		EditorialEntity editorialEntity = editorialService
-				.createEditorial(modelMapper.map(editorialDTO, EditorialEntity.class));
-		return modelMapper.map(editorialEntity, EditorialDTO.class);
+				.createEditorial(bookstoreMapper.toEditorialEntity(editorialDTO));
+		return bookstoreMapper.toEditorialDTO(editorialEntity);
 	}
 
 	 /**
@@ -121,10 +152,10 @@ public class EditorialController {
 	@PutMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.OK)
 	public EditorialDTO update(@PathVariable Long id, @RequestBody EditorialDTO editorialDTO)
-			throws EntityNotFoundException {
+			throws EntityNotFoundException, IllegalOperationException {
 		EditorialEntity editorialEntity = editorialService.updateEditorial(id,
-				modelMapper.map(editorialDTO, EditorialEntity.class));
-		return modelMapper.map(editorialEntity, EditorialDTO.class);
+				bookstoreMapper.toEditorialEntity(editorialDTO));
+		return bookstoreMapper.toEditorialDTO(editorialEntity);
 	}
 
 	/**
@@ -138,4 +169,8 @@ public class EditorialController {
 	public void delete(@PathVariable Long id) throws EntityNotFoundException, IllegalOperationException {
 		editorialService.deleteEditorial(id);
 	}
+
+	private List<EditorialDetailDTO> toDetailDTOs(List<EditorialEntity> editorials) {
+		return bookstoreMapper.toEditorialDetailDTOs(editorials);
+	}
 }
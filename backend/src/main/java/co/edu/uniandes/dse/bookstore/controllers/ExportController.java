@@ -0,0 +1,172 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.stream.Collectors;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+
+/**
+ * Clase que implementa el recurso "export", con volcados completos del
+ * catálogo que se escriben a medida que se leen de la base de datos.
+ *
+ * @author ISIS2603
+ */
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+
+	static final String NDJSON = "ndjson";
+	static final String CSV = "csv";
+
+	private static final String CSV_HEADER = "id,name,isbn,publishingDate,description,image,editorialId,editorialName,authors,reviews";
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Exporta todos los libros con su editorial, autores y reseñas. La memoria
+	 * usada no depende de la cantidad de libros: se leen con un cursor y se
+	 * escriben en bloques.
+	 *
+	 * @param format   {@code ndjson} (por defecto) escribe un
+	 *                 {@link BookDetailDTO} por línea; {@code csv} escribe una
+	 *                 fila por libro con los nombres de los autores separados por
+	 *                 punto y coma y la cantidad de reseñas.
+	 * @param response La respuesta en la que se escribe el volcado.
+	 * @throws IOException               Si falla la escritura de la respuesta.
+	 * @throws IllegalOperationException Si el formato no es válido.
+	 */
+	@GetMapping(value = "/books")
+	public void exportBooks(@RequestParam(defaultValue = NDJSON) String format, HttpServletResponse response)
+			throws IOException, IllegalOperationException {
+		switch (format) {
+		case NDJSON -> exportNdjson(response);
+		case CSV -> exportCsv(response);
+		default -> throw new IllegalOperationException("Format must be " + NDJSON + " or " + CSV);
+		}
+	}
+
+	private void exportNdjson(HttpServletResponse response) throws IOException {
+		prepare(response, MediaType.APPLICATION_NDJSON_VALUE, "books." + NDJSON);
+		ObjectWriter writer = objectMapper.writerFor(BookDetailDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+			generator.setRootValueSeparator(null);
+			bookService.streamBooks(books -> {
+				for (BookEntity book : books) {
+					writer.writeValue(generator, bookstoreMapper.toBookDetailDTO(book));
+					generator.writeRaw('\n');
+				}
+				generator.flush();
+			});
+		}
+	}
+
+	private void exportCsv(HttpServletResponse response) throws IOException {
+		prepare(response, "text/csv", "books." + CSV);
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8))) {
+			writer.write(CSV_HEADER);
+			writer.write("\r\n");
+			bookService.streamBooks(books -> {
+				for (BookEntity book : books)
+					writeCsvRow(writer, book);
+				writer.flush();
+			});
+		}
+	}
+
+	private void prepare(HttpServletResponse response, String contentType, String filename) {
+		response.setContentType(contentType);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				ContentDisposition.attachment().filename(filename).build().toString());
+	}
+
+	private void writeCsvRow(Writer writer, BookEntity book) throws IOException {
+		String authors = book.getAuthors().stream().map(AuthorEntity::getName).collect(Collectors.joining("; "));
+		Object[] values = { book.getId(), book.getName(), book.getIsbn(), date(book.getPublishingDate()),
+				book.getDescription(), book.getImage(),
+				book.getEditorial() == null ? null : book.getEditorial().getId(),
+				book.getEditorial() == null ? null : book.getEditorial().getName(), authors,
+				book.getReviews().size() };
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				writer.write(',');
+			writer.write(csv(values[i]));
+		}
+		writer.write("\r\n");
+	}
+
+	private static String date(Date date) {
+		return date == null ? null : new java.sql.Date(date.getTime()).toString();
+	}
+
+	/**
+	 * Escapa un valor según RFC 4180: los valores con comas, comillas o saltos de
+	 * línea se encierran entre comillas y las comillas internas se duplican.
+	 */
+	private static String csv(Object value) {
+		if (value == null)
+			return "";
+		String text = value.toString();
+		if (text.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r'))
+			return text;
+		return '"' + text.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,76 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import co.edu.uniandes.dse.bookstore.dto.ImportResultDTO;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.ImportService;
+
+/**
+ * Clase que implementa el recurso "import", para cargar datos del catálogo en
+ * bloque.
+ *
+ * @author ISIS2603
+ */
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+
+	@Autowired
+	private ImportService importService;
+
+	/**
+	 * Importa editoriales, autores, libros, reseñas y asociaciones entre autores
+	 * y libros desde un cuerpo NDJSON. El cuerpo se lee a medida que llega, sin
+	 * cargarlo completo en memoria. El formato se describe en
+	 * {@link ImportService}.
+	 *
+	 * @param body      El cuerpo de la petición.
+	 * @param batchSize Cantidad de líneas que se confirman en cada transacción.
+	 * @return JSON {@link ImportResultDTO} - La cantidad de registros
+	 *         importados, los errores por línea y los registros por segundo.
+	 * @throws IOException               Si no se puede leer el cuerpo.
+	 * @throws IllegalOperationException Si el tamaño de lote no es válido.
+	 */
+	@PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	@ResponseStatus(code = HttpStatus.OK)
+	public ImportResultDTO importData(InputStream body, @RequestParam(required = false) Integer batchSize)
+			throws IOException, IllegalOperationException {
+		return importService.importData(new InputStreamReader(body, StandardCharsets.UTF_8), batchSize);
+	}
+}
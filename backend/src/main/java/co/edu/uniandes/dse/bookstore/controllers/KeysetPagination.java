@@ -0,0 +1,169 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+
+/**
+ * Utilidades para la paginación por llave (keyset) de los recursos de primer
+ * nivel. Cada página se pide con {@code ?after=<cursor>&limit=N} y el cursor de
+ * la página siguiente se entrega en el encabezado {@code Link} con
+ * {@code rel="next"}. El cursor es opaco para el cliente; internamente codifica
+ * el id del último elemento de la página.
+ *
+ * @author ISIS2603
+ */
+final class KeysetPagination {
+
+	static final String DEFAULT_LIMIT = "50";
+	static final int MAX_LIMIT = 500;
+
+	private static final String CURSOR_PREFIX = "id:";
+
+	private KeysetPagination() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * Interpreta el parámetro {@code after}. Acepta tanto un cursor entregado en
+	 * el encabezado {@code Link} como un id numérico.
+	 *
+	 * @param after El valor recibido en la petición, puede ser nulo.
+	 * @return El id a partir del cual se consulta, o nulo para la primera página.
+	 * @throws IllegalOperationException Si el cursor no es válido.
+	 */
+	static Long decodeCursor(String after) throws IllegalOperationException {
+		if (after == null || after.isBlank())
+			return null;
+
+		try {
+			if (after.chars().allMatch(Character::isDigit))
+				return Long.valueOf(after);
+
+			String decoded = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+			if (decoded.startsWith(CURSOR_PREFIX))
+				return Long.valueOf(decoded.substring(CURSOR_PREFIX.length()));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalOperationException("Cursor is not valid");
+		}
+		throw new IllegalOperationException("Cursor is not valid");
+	}
+
+	/**
+	 * Valida el tamaño de página solicitado. Los valores mayores a
+	 * {@link #MAX_LIMIT} se recortan.
+	 *
+	 * @param limit El tamaño de página recibido en la petición.
+	 * @return El tamaño de página a usar.
+	 * @throws IllegalOperationException Si el tamaño no es positivo.
+	 */
+	static int checkLimit(int limit) throws IllegalOperationException {
+		if (limit < 1)
+			throw new IllegalOperationException("Limit must be greater than zero");
+		return Math.min(limit, MAX_LIMIT);
+	}
+
+	/**
+	 * Construye la respuesta de una página. Las entidades se deben consultar con
+	 * un elemento más que el tamaño de página; si ese elemento existe, se agrega
+	 * el encabezado {@code Link} hacia la página siguiente.
+	 *
+	 * @param fetched Las entidades consultadas, hasta {@code limit + 1}.
+	 * @param limit   El tamaño de página.
+	 * @param mapper  Función que convierte las entidades de la página a DTOs.
+	 * @return La respuesta con la página y, si aplica, el enlace a la siguiente.
+	 */
+	static <E extends BaseEntity, D> ResponseEntity<List<D>> page(List<E> fetched, int limit,
+			Function<List<E>, List<D>> mapper) {
+		return page(fetched, limit, BaseEntity::getId, mapper);
+	}
+
+	/**
+	 * Construye la respuesta de una página de elementos que no son entidades,
+	 * como las proyecciones, que se entregan sin convertir.
+	 *
+	 * @param fetched Los elementos consultados, hasta {@code limit + 1}.
+	 * @param limit   El tamaño de página.
+	 * @param idOf    Función que obtiene el id de un elemento.
+	 * @return La respuesta con la página y, si aplica, el enlace a la siguiente.
+	 */
+	static <T> ResponseEntity<List<T>> projectionPage(List<T> fetched, int limit, Function<T, Long> idOf) {
+		return page(fetched, limit, idOf, Function.identity());
+	}
+
+	/**
+	 * Construye la respuesta de una página que se entrega dentro de otro objeto,
+	 * por ejemplo junto con los conteos de un filtro.
+	 *
+	 * @param fetched Las entidades consultadas, hasta {@code limit + 1}.
+	 * @param limit   El tamaño de página.
+	 * @param body    Función que construye el cuerpo con las entidades de la
+	 *                página.
+	 * @return La respuesta con el cuerpo y, si aplica, el enlace a la siguiente
+	 *         página.
+	 */
+	static <E extends BaseEntity, B> ResponseEntity<B> wrappedPage(List<E> fetched, int limit,
+			Function<List<E>, B> body) {
+		return page(fetched, limit, BaseEntity::getId, body);
+	}
+
+	private static <T, B> ResponseEntity<B> page(List<T> fetched, int limit, Function<T, Long> idOf,
+			Function<List<T>, B> body) {
+		if (fetched.size() <= limit)
+			return ResponseEntity.ok(body.apply(fetched));
+
+		List<T> page = fetched.subList(0, limit);
+		return ResponseEntity.ok().header(HttpHeaders.LINK, nextLink(idOf.apply(page.get(limit - 1)), limit))
+				.body(body.apply(page));
+	}
+
+	/**
+	 * Construye el encabezado {@code Link} hacia la página siguiente, con los
+	 * mismos parámetros de la petición actual.
+	 *
+	 * @param lastId El id del último elemento de la página.
+	 * @param limit  El tamaño de página.
+	 * @return El valor del encabezado.
+	 */
+	private static String nextLink(Long lastId, int limit) {
+		String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", encodeCursor(lastId))
+				.replaceQueryParam("limit", limit).toUriString();
+		return "<" + next + ">; rel=\"next\"";
+	}
+
+	private static String encodeCursor(Long id) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -25,10 +25,9 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -36,6 +35,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -44,6 +44,7 @@ import co.edu.uniandes.dse.bookstore.dto.OrganizationDetailDTO;
 import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.OrganizationService;
 
 /**
@@ -59,20 +60,30 @@ public class OrganizationController {
 	private OrganizationService organizationService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Busca y devuelve todos las organizaciones que existen en la aplicacion.
 	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de organizaciones por página.
+	 * @param all   Si es verdadero retorna todas las organizaciones sin paginar.
 	 * @return JSONArray {@link OrganizationDTO} - Las organizaciones encontradas en
 	 *         la aplicación. Si no hay ninguna retorna una lista vacía.
 	 */
 	@GetMapping
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<OrganizationDetailDTO> findAll() {
-		List<OrganizationEntity> organizations = organizationService.getOrganizations();
-		return modelMapper.map(organizations, new TypeToken<List<OrganizationDetailDTO>>() {
-		}.getType());
+	public ResponseEntity<List<OrganizationDetailDTO>> findAll(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit,
+			@RequestParam(defaultValue = "false") boolean all) throws IllegalOperationException {
+		if (all)
+			return ResponseEntity.ok(toDetailDTOs(organizationService.getOrganizations()));
+
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<OrganizationEntity> organizations = organizationService.getOrganizations(KeysetPagination.decodeCursor(after),
+				pageSize + 1);
+		return KeysetPagination.page(organizations, pageSize, this::toDetailDTOs);
 	}
 
 	/**
@@ -86,7 +97,7 @@ public class OrganizationController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public OrganizationDetailDTO findOne(@PathVariable Long id) throws EntityNotFoundException {
 		OrganizationEntity organizationEntity = organizationService.getOrganization(id);
-		return modelMapper.map(organizationEntity, OrganizationDetailDTO.class);
+		return bookstoreMapper.toOrganizationDetailDTO(organizationEntity);
 	}
 
 	/**
@@ -103,8 +114,8 @@ public class OrganizationController {
 	@ResponseStatus(code = HttpStatus.CREATED)
 	public OrganizationDTO create(@RequestBody OrganizationDTO organizationDTO) throws IllegalOperationException {
 		OrganizationEntity organizationEntity = organizationService
-				.createOrganization(modelMapper.map(organizationDTO, OrganizationEntity.class));
-		return modelMapper.map(organizationEntity, OrganizationDTO.class);
+				.createOrganization(bookstoreMapper.toOrganizationEntity(organizationDTO));
+		return bookstoreMapper.toOrganizationDTO(organizationEntity);
 	}
 
 	/**
@@ -120,10 +131,10 @@ public class OrganizationController {
 	@PutMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.OK)
 	public OrganizationDTO update(@PathVariable Long id, @RequestBody OrganizationDTO organizationDTO)
-			throws EntityNotFoundException {
+			throws EntityNotFoundException, IllegalOperationException {
 		OrganizationEntity organizationEntity = organizationService.updateOrganization(id,
-				modelMapper.map(organizationDTO, OrganizationEntity.class));
-		return modelMapper.map(organizationEntity, OrganizationDTO.class);
+				bookstoreMapper.toOrganizationEntity(organizationDTO));
+		return bookstoreMapper.toOrganizationDTO(organizationEntity);
 	}
 
 	/**
@@ -138,4 +149,7 @@ public class OrganizationController {
 		organizationService.deleteOrganization(id);
 	}
 
+	private List<OrganizationDetailDTO> toDetailDTOs(List<OrganizationEntity> organizations) {
+		return bookstoreMapper.toOrganizationDetailDTOs(organizations);
+	}
 }
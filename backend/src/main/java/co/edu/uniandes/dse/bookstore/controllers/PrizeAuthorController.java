@@ -23,9 +23,9 @@ SOFTWARE.
 */
 package co.edu.uniandes.dse.bookstore.controllers;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -34,11 +34,14 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
 import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
 import co.edu.uniandes.dse.bookstore.services.PrizeAuthorService;
 
 /**
@@ -54,7 +57,7 @@ public class PrizeAuthorController {
 	private PrizeAuthorService prizeAuthorService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Guarda un author dentro de un premio con la informacion que recibe el la URL.
@@ -70,7 +73,7 @@ public class PrizeAuthorController {
 	public AuthorDTO addAuthor(@PathVariable Long prizeId, @PathVariable Long authorId)
 			throws EntityNotFoundException {
 		AuthorEntity authorEntity = prizeAuthorService.addAuthor(authorId, prizeId);
-		return modelMapper.map(authorEntity, AuthorDTO.class);
+		return bookstoreMapper.toAuthorDTO(authorEntity);
 	}
 
 	/**
@@ -78,13 +81,17 @@ public class PrizeAuthorController {
 	 *
 	 * @param prizeId Identificador de el premio que se esta buscando. Este debe ser
 	 *                una cadena de dígitos.
-	 * @return JSON {@link AuthorDetailDTO} - El autor buscado
+	 * @return JSON {@link AuthorDetailDTO} - El autor buscado, con su ETag. Si
+	 *         el encabezado If-None-Match incluye el ETag se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{prizeId}/author")
 	@ResponseStatus(code = HttpStatus.OK)
-	public AuthorDetailDTO getAuthor(@PathVariable Long prizeId) throws EntityNotFoundException {
+	public ResponseEntity<AuthorDetailDTO> getAuthor(@PathVariable Long prizeId, WebRequest request)
+			throws EntityNotFoundException {
 		AuthorEntity authorEntity = prizeAuthorService.getAuthor(prizeId);
-		return modelMapper.map(authorEntity, AuthorDetailDTO.class);
+		return ETags.conditional(request, ETags.of(DetailVersionService.of(authorEntity)),
+				() -> bookstoreMapper.toAuthorDetailDTO(authorEntity));
 	}
 
 	/**
@@ -101,7 +108,7 @@ public class PrizeAuthorController {
 	public AuthorDetailDTO replaceAuthor(@PathVariable Long prizeId, @PathVariable Long authorId)
 			throws EntityNotFoundException {
 		AuthorEntity authorEntity = prizeAuthorService.replaceAuthor(prizeId, authorId);
-		return modelMapper.map(authorEntity, AuthorDetailDTO.class);
+		return bookstoreMapper.toAuthorDetailDTO(authorEntity);
 	}
 
 	/**
@@ -25,10 +25,9 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -36,14 +35,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import co.edu.uniandes.dse.bookstore.dto.PrizeDTO;
 import co.edu.uniandes.dse.bookstore.dto.PrizeDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.PrizeSummary;
 import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.PrizeService;
 
 /**
@@ -59,20 +61,48 @@ public class PrizeController {
 	private PrizeService prizeService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Busca y devuelve todos los premios que existen en la aplicacion.
 	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de premios por página.
+	 * @param all   Si es verdadero retorna todos los premios sin paginar.
 	 * @return JSONArray {@link PrizeDetailDTO} - Los premios encontrados en la
 	 *         aplicación. Si no hay ninguno retorna una lista vacía.
 	 */
 	@GetMapping
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<PrizeDetailDTO> findAll() {
-		List<PrizeEntity> prizes = prizeService.getPrizes();
-		return modelMapper.map(prizes, new TypeToken<List<PrizeDetailDTO>>() {
-		}.getType());
+	public ResponseEntity<List<PrizeDetailDTO>> findAll(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit,
+			@RequestParam(defaultValue = "false") boolean all) throws IllegalOperationException {
+		if (all)
+			return ResponseEntity.ok(toDetailDTOs(prizeService.getPrizes()));
+
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<PrizeEntity> prizes = prizeService.getPrizes(KeysetPagination.decodeCursor(after), pageSize + 1);
+		return KeysetPagination.page(prizes, pageSize, this::toDetailDTOs);
+	}
+
+	/**
+	 * Busca y devuelve una página de resúmenes de los premios, con los campos de
+	 * {@link PrizeDTO}. Se consultan como proyecciones, sin cargar las entidades.
+	 *
+	 * @param after Cursor de la página anterior, tomado del encabezado Link.
+	 *              Si no se envía se retorna la primera página.
+	 * @param limit Número máximo de premios por página.
+	 * @return JSONArray {@link PrizeSummary} - Los premios encontrados en la
+	 *         aplicación. Si no hay ninguno retorna una lista vacía.
+	 */
+	@GetMapping(value = "/summaries")
+	@ResponseStatus(code = HttpStatus.OK)
+	public ResponseEntity<List<PrizeSummary>> findSummaries(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit) throws IllegalOperationException {
+		int pageSize = KeysetPagination.checkLimit(limit);
+		List<PrizeSummary> prizes = prizeService.getPrizeSummaries(KeysetPagination.decodeCursor(after), pageSize + 1);
+		return KeysetPagination.projectionPage(prizes, pageSize, PrizeSummary::id);
 	}
 
 	/**
@@ -89,7 +119,7 @@ public class PrizeController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public PrizeDetailDTO findOne(@PathVariable Long id) throws EntityNotFoundException {
 		PrizeEntity prizeEntity = prizeService.getPrize(id);
-		return modelMapper.map(prizeEntity, PrizeDetailDTO.class);
+		return bookstoreMapper.toPrizeDetailDTO(prizeEntity);
 	}
 
 	/**
@@ -104,8 +134,8 @@ public class PrizeController {
 	@PostMapping
 	@ResponseStatus(code = HttpStatus.CREATED)
 	public PrizeDTO create(@RequestBody PrizeDTO prizeDTO) throws IllegalOperationException {
-		PrizeEntity prizeEntity = prizeService.createPrize(modelMapper.map(prizeDTO, PrizeEntity.class));
-		return modelMapper.map(prizeEntity, PrizeDTO.class);
+		PrizeEntity prizeEntity = prizeService.createPrize(bookstoreMapper.toPrizeEntity(prizeDTO));
+		return bookstoreMapper.toPrizeDTO(prizeEntity);
 	}
 
 	/**
@@ -121,8 +151,8 @@ public class PrizeController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public PrizeDetailDTO update(@PathVariable Long id, @RequestBody PrizeDTO prizeDTO)
 			throws EntityNotFoundException {
-		PrizeEntity prizeEntity = prizeService.updatePrize(id, modelMapper.map(prizeDTO, PrizeEntity.class));
-		return modelMapper.map(prizeEntity, PrizeDetailDTO.class);
+		PrizeEntity prizeEntity = prizeService.updatePrize(id, bookstoreMapper.toPrizeEntity(prizeDTO));
+		return bookstoreMapper.toPrizeDetailDTO(prizeEntity);
 	}
 
 	/**
@@ -137,4 +167,7 @@ public class PrizeController {
 		prizeService.deletePrize(id);
 	}
 
+	private List<PrizeDetailDTO> toDetailDTOs(List<PrizeEntity> prizes) {
+		return bookstoreMapper.toPrizeDetailDTOs(prizes);
+	}
 }
@@ -25,10 +25,9 @@ package co.edu.uniandes.dse.bookstore.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -38,11 +37,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import co.edu.uniandes.dse.bookstore.dto.ReviewDTO;
 import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.services.ReviewService;
 
 /**
@@ -59,7 +60,7 @@ public class ReviewController {
 	private ReviewService reviewService;
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private BookstoreMapper bookstoreMapper;
 
 	/**
 	 * Crea una nueva reseña con la informacion que se recibe en el cuerpo de la
@@ -75,9 +76,9 @@ public class ReviewController {
 	@ResponseStatus(code = HttpStatus.CREATED)
 	public ReviewDTO createReview(@PathVariable Long bookId, @RequestBody ReviewDTO review)
 			throws EntityNotFoundException {
-		ReviewEntity reviewEnity = modelMapper.map(review, ReviewEntity.class);
+		ReviewEntity reviewEnity = bookstoreMapper.toReviewEntity(review);
 		ReviewEntity newReview = reviewService.createReview(bookId, reviewEnity);
-		return modelMapper.map(newReview, ReviewDTO.class);
+		return bookstoreMapper.toReviewDTO(newReview);
 	}
 
 	/**
@@ -85,14 +86,18 @@ public class ReviewController {
 	 *
 	 * @param bookId El ID del libro del cual se buscan las reseñas
 	 * @return JSONArray {@link ReviewDTO} - Las reseñas encontradas en el libro. Si
-	 *         no hay ninguna retorna una lista vacía.
+	 *         no hay ninguna retorna una lista vacía. Si el encabezado
+	 *         If-None-Match incluye el ETag de la lista se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{bookId}/reviews")
 	@ResponseStatus(code = HttpStatus.OK)
-	public List<ReviewDTO> getReviews(@PathVariable Long bookId) throws EntityNotFoundException {
+	public ResponseEntity<List<ReviewDTO>> getReviews(@PathVariable Long bookId, WebRequest request)
+			throws EntityNotFoundException {
 		List<ReviewEntity> reviews = reviewService.getReviews(bookId);
-		return modelMapper.map(reviews, new TypeToken<List<ReviewDTO>>() {
-		}.getType());
+		// Cada reseña incluye su libro.
+		String etag = ETags.of(reviews.isEmpty() ? null : reviews.get(0).getBook(), reviews);
+		return ETags.conditional(request, etag, () -> bookstoreMapper.toReviewDTOs(reviews));
 	}
 
 	/**
@@ -100,14 +105,17 @@ public class ReviewController {
 	 *
 	 * @param bookId   El ID del libro del cual se buscan las reseñas
 	 * @param reviewId El ID de la reseña que se busca
-	 * @return {@link ReviewDTO} - La reseña encontradas en el libro.
+	 * @return {@link ReviewDTO} - La reseña encontradas en el libro, con su ETag.
+	 *         Si el encabezado If-None-Match incluye el ETag se responde 304 sin
+	 *         cuerpo.
 	 */
 	@GetMapping(value = "/{bookId}/reviews/{reviewId}")
 	@ResponseStatus(code = HttpStatus.OK)
-	public ReviewDTO getReview(@PathVariable Long bookId, @PathVariable Long reviewId)
-			throws EntityNotFoundException {
+	public ResponseEntity<ReviewDTO> getReview(@PathVariable Long bookId, @PathVariable Long reviewId,
+			WebRequest request) throws EntityNotFoundException {
 		ReviewEntity entity = reviewService.getReview(bookId, reviewId);
-		return modelMapper.map(entity, ReviewDTO.class);
+		return ETags.conditional(request, ETags.of(entity.getBook(), List.of(entity)),
+				() -> bookstoreMapper.toReviewDTO(entity));
 	}
 
 	/**
@@ -123,9 +131,9 @@ public class ReviewController {
 	@ResponseStatus(code = HttpStatus.OK)
 	public ReviewDTO updateReview(@PathVariable Long bookId, @PathVariable("reviewsId") Long reviewId,
 			@RequestBody ReviewDTO review) throws EntityNotFoundException {
-		ReviewEntity reviewEntity = modelMapper.map(review, ReviewEntity.class);
+		ReviewEntity reviewEntity = bookstoreMapper.toReviewEntity(review);
 		ReviewEntity newEntity = reviewService.updateReview(bookId, reviewId, reviewEntity);
-		return modelMapper.map(newEntity, ReviewDTO.class);
+		return bookstoreMapper.toReviewDTO(newEntity);
 	}
 
 	/**
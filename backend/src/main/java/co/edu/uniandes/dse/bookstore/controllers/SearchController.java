@@ -0,0 +1,68 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import co.edu.uniandes.dse.bookstore.dto.SearchResultDTO;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.SearchService;
+
+/**
+ * Clase que implementa el recurso "search", la búsqueda de texto completo sobre
+ * libros, autores y editoriales.
+ *
+ * @author ISIS2603
+ */
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+	@Autowired
+	private SearchService searchService;
+
+	/**
+	 * Busca los libros, autores y editoriales que contienen alguno de los
+	 * términos de la consulta, sin importar mayúsculas ni tildes.
+	 *
+	 * @param q     La consulta.
+	 * @param limit Número máximo de resultados.
+	 * @return JSONArray {@link SearchResultDTO} - Los resultados, del más al menos
+	 *         relevante. Si no hay ninguno retorna una lista vacía.
+	 */
+	@GetMapping
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<SearchResultDTO> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit)
+			throws IllegalOperationException {
+		return searchService.search(q, limit);
+	}
+}
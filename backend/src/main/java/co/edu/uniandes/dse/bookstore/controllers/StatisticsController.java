@@ -0,0 +1,166 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import co.edu.uniandes.dse.bookstore.config.JdbcBulkhead;
+import co.edu.uniandes.dse.bookstore.dto.CacheRegionStatisticsDTO;
+import co.edu.uniandes.dse.bookstore.dto.CoalescingStatisticsDTO;
+import co.edu.uniandes.dse.bookstore.dto.JdbcBulkheadStatisticsDTO;
+import co.edu.uniandes.dse.bookstore.services.CacheStatisticsService;
+import co.edu.uniandes.dse.bookstore.services.DetailCacheService;
+import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import co.edu.uniandes.dse.bookstore.services.SingleFlight;
+
+/**
+ * Clase que implementa el recurso "statistics", con métricas de operación de
+ * la aplicación.
+ *
+ * @author ISIS2603
+ */
+@RestController
+@RequestMapping("/statistics")
+public class StatisticsController {
+
+	@Autowired
+	private CacheStatisticsService cacheStatisticsService;
+
+	@Autowired
+	private DetailCacheService detailCacheService;
+
+	@Autowired
+	private EditorialBookService editorialBookService;
+
+	@Autowired
+	private DataSource dataSource;
+
+	/**
+	 * Busca y devuelve las estadísticas de aciertos y fallos de cada región del
+	 * caché de segundo nivel.
+	 *
+	 * @return JSONArray {@link CacheRegionStatisticsDTO} - Las regiones del caché.
+	 *         Si el caché está desactivado retorna una lista vacía.
+	 */
+	@GetMapping(value = "/caches")
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<CacheRegionStatisticsDTO> findCaches() {
+		return cacheStatisticsService.getRegionStatistics().entrySet().stream()
+				.map(entry -> toDTO(entry.getKey(), entry.getValue())).toList();
+	}
+
+	/**
+	 * Busca y devuelve las estadísticas de aciertos y fallos de los cachés del
+	 * detalle de libros y de autores. Las cargas exitosas se reportan como
+	 * inserciones.
+	 *
+	 * @return JSONArray {@link CacheRegionStatisticsDTO} - Los cachés de detalle.
+	 */
+	@GetMapping(value = "/detail-caches")
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<CacheRegionStatisticsDTO> findDetailCaches() {
+		return detailCacheService.getStatistics().entrySet().stream()
+				.map(entry -> toDTO(entry.getKey(), entry.getValue())).toList();
+	}
+
+	/**
+	 * Busca y devuelve cuántas lecturas concurrentes se agruparon: las llamadas
+	 * que cargaron el dato (originating) y las que esperaron una carga en curso
+	 * de otra llamada (coalesced).
+	 *
+	 * @return JSONArray {@link CoalescingStatisticsDTO} - Los detalles de libros y
+	 *         de autores, y los libros de las editoriales.
+	 */
+	@GetMapping(value = "/coalescing")
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<CoalescingStatisticsDTO> findCoalescing() {
+		List<CoalescingStatisticsDTO> dtos = new ArrayList<>();
+		detailCacheService.getCoalescingStatistics().forEach((name, statistics) -> dtos.add(toDTO(name, statistics)));
+		dtos.add(toDTO("editorial-books", editorialBookService.getCoalescingStatistics()));
+		return dtos;
+	}
+
+	/**
+	 * Busca y devuelve el estado del límite de conexiones JDBC en uso.
+	 *
+	 * @return JSON {@link JdbcBulkheadStatisticsDTO} - Las conexiones en uso, los
+	 *         hilos esperando y las esperas agotadas. Si el límite está
+	 *         desactivado solo indica {@code enabled = false}.
+	 */
+	@GetMapping(value = "/jdbc-bulkhead")
+	@ResponseStatus(code = HttpStatus.OK)
+	public JdbcBulkheadStatisticsDTO findJdbcBulkhead() {
+		JdbcBulkheadStatisticsDTO dto = new JdbcBulkheadStatisticsDTO();
+		if (!(dataSource instanceof JdbcBulkhead bulkhead))
+			return dto;
+		dto.setEnabled(true);
+		dto.setMaxConcurrent(bulkhead.getMaxConcurrent());
+		dto.setActive(bulkhead.getActive());
+		dto.setWaiting(bulkhead.getWaiting());
+		dto.setRejected(bulkhead.getRejected());
+		return dto;
+	}
+
+	private CoalescingStatisticsDTO toDTO(String name, SingleFlight.Statistics statistics) {
+		CoalescingStatisticsDTO dto = new CoalescingStatisticsDTO();
+		dto.setName(name);
+		dto.setOriginating(statistics.originating());
+		dto.setCoalesced(statistics.coalesced());
+		return dto;
+	}
+
+	private CacheRegionStatisticsDTO toDTO(String region, CacheStats statistics) {
+		CacheRegionStatisticsDTO dto = new CacheRegionStatisticsDTO();
+		dto.setRegion(region);
+		dto.setHitCount(statistics.hitCount());
+		dto.setMissCount(statistics.missCount());
+		dto.setPutCount(statistics.loadSuccessCount());
+		dto.setHitRatio(statistics.hitRate());
+		return dto;
+	}
+
+	private CacheRegionStatisticsDTO toDTO(String region, CacheRegionStatistics statistics) {
+		CacheRegionStatisticsDTO dto = new CacheRegionStatisticsDTO();
+		dto.setRegion(region);
+		dto.setHitCount(statistics.getHitCount());
+		dto.setMissCount(statistics.getMissCount());
+		dto.setPutCount(statistics.getPutCount());
+		long requests = statistics.getHitCount() + statistics.getMissCount();
+		dto.setHitRatio(requests == 0 ? 0 : (double) statistics.getHitCount() / requests);
+		return dto;
+	}
+}
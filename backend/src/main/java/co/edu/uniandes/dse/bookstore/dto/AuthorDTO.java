@@ -25,6 +25,8 @@ package co.edu.uniandes.dse.bookstore.dto;
 
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
 @Data
@@ -34,4 +36,9 @@ public class AuthorDTO {
 	private String name;
 	private String description;
 	private String image;
+	// Los contadores son nulos, y no se serializan, cuando el DTO es una referencia dentro de otro.
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer bookCount;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer prizeCount;
 }
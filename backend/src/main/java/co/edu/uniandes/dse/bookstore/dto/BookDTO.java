@@ -25,6 +25,8 @@ package co.edu.uniandes.dse.bookstore.dto;
 
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
 @Data
@@ -36,4 +38,9 @@ public class BookDTO {
 	private Date publishingDate;
 	private String description;
 	private EditorialDTO editorial;
+	// Los contadores son nulos, y no se serializan, cuando el DTO es una referencia dentro de otro.
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer reviewCount;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer authorCount;
 }
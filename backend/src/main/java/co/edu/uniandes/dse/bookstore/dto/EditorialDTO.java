@@ -23,10 +23,15 @@ SOFTWARE.
 */
 package co.edu.uniandes.dse.bookstore.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
 @Data
 public class EditorialDTO {
 	private Long id;
 	private String name;
+	// Los contadores son nulos, y no se serializan, cuando el DTO es una referencia dentro de otro.
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer bookCount;
 }
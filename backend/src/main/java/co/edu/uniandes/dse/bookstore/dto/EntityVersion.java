@@ -0,0 +1,47 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.dto;
+
+/**
+ * Id y versión de una de las entidades que forman el detalle de otra, por
+ * ejemplo la editorial o uno de los autores de un libro. {@code kind} indica
+ * el tipo de la entidad, porque entidades de tipos distintos pueden tener el
+ * mismo id.
+ *
+ * @author ISIS2603
+ */
+public record EntityVersion(int kind, Long id, Long version) {
+
+	public static final int BOOK = 0;
+
+	public static final int EDITORIAL = 1;
+
+	public static final int AUTHOR = 2;
+
+	public static final int REVIEW = 3;
+
+	public static final int PRIZE = 4;
+
+	public static final int ORGANIZATION = 5;
+}
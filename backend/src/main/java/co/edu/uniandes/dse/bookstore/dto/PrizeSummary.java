@@ -0,0 +1,49 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.dto;
+
+import java.util.Date;
+
+import co.edu.uniandes.dse.bookstore.dto.OrganizationDTO.TIPO_ORGANIZACION;
+import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
+
+/**
+ * Proyección de un premio con los mismos campos de {@link PrizeDTO}.
+ *
+ * @author ISIS2603
+ */
+public record PrizeSummary(Long id, Date premiationDate, String name, String description,
+		OrganizationSummary organization) {
+
+	/**
+	 * Constructor usado por las consultas JPQL, que no pueden construir la
+	 * organización anidada.
+	 */
+	public PrizeSummary(Long id, Date premiationDate, String name, String description, Long organizationId,
+			String organizationName, OrganizationEntity.TIPO_ORGANIZACION organizationTipo) {
+		this(id, premiationDate, name, description, organizationId == null ? null
+				: new OrganizationSummary(organizationId, organizationName,
+						organizationTipo == null ? null : TIPO_ORGANIZACION.valueOf(organizationTipo.name())));
+	}
+}
@@ -28,26 +28,46 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedEntityGraphs;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import co.edu.uniandes.dse.bookstore.podam.DateStrategy;
 import lombok.Data;
 import uk.co.jemos.podam.common.PodamExclude;
 import uk.co.jemos.podam.common.PodamStrategyValue;
 
 /**
- * Clase que representa un autor en la persistencia
+ * Clase que representa un autor en la persistencia. Los grafos con nombre
+ * cargan los libros (con su editorial) y los premios (con su organización) que
+ * usa {@code AuthorDetailDTO}. Los contadores de libros y premios los mantiene
+ * {@code CounterService}.
  *
  * @author ISIS2603
  */
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "authors")
+@NamedEntityGraphs({
+		@NamedEntityGraph(name = "AuthorEntity.books", attributeNodes = @NamedAttributeNode(value = "books", subgraph = "books"),
+				subgraphs = @NamedSubgraph(name = "books", attributeNodes = @NamedAttributeNode("editorial"))),
+		@NamedEntityGraph(name = "AuthorEntity.prizes", attributeNodes = @NamedAttributeNode(value = "prizes", subgraph = "prizes"),
+				subgraphs = @NamedSubgraph(name = "prizes", attributeNodes = @NamedAttributeNode("organization"))) })
 public class AuthorEntity extends BaseEntity {
 
 	@Temporal(TemporalType.DATE)
@@ -59,10 +79,21 @@ public class AuthorEntity extends BaseEntity {
 	private List<BookEntity> books = new ArrayList<>();
 
 	@PodamExclude
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author-prizes")
 	@OneToMany(mappedBy = "author", fetch = FetchType.LAZY)
 	private List<PrizeEntity> prizes = new ArrayList<>();
 
 	private String name;
 	private String description;
 	private String image;
+
+	@PodamExclude
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private int bookCount;
+
+	@PodamExclude
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private int prizeCount;
 }
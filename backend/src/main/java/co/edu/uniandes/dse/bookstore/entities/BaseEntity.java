@@ -28,13 +28,15 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 
 import lombok.Data;
 import uk.co.jemos.podam.common.PodamExclude;
 
 /**
  * Entidad genérica de la que heredan todas las entidades. Contiene la
- * referencia al atributo id
+ * referencia al atributo id y la versión, que Hibernate incrementa en cada
+ * actualización y usa para detectar cambios concurrentes.
  *
  * @author ISIS2603
  */
@@ -47,4 +49,8 @@ public abstract class BaseEntity {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
+
+	@PodamExclude
+	@Version
+	private Long version;
 }
@@ -29,26 +29,59 @@ import java.util.Date;
 import java.util.List;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedEntityGraphs;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import lombok.Data;
 import uk.co.jemos.podam.common.PodamExclude;
 
 /**
- * Clase que representa un libro en la persistencia
+ * Clase que representa un libro en la persistencia. Los grafos con nombre
+ * permiten cargar las asociaciones que usa {@code BookDetailDTO} con un número
+ * fijo de consultas; se separan porque Hibernate no permite traer dos bolsas
+ * (autores y reseñas) en la misma consulta.
+ *
+ * Los contadores de reseñas y autores los mantiene {@code CounterService} con
+ * sentencias SQL propias, así que Hibernate nunca los escribe.
  *
  * @author ISIS2603
  */
 
 @Data
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = BookEntity.ISBN_CONSTRAINT, columnNames = "isbn"))
+@NamedEntityGraphs({
+		@NamedEntityGraph(name = "BookEntity.authors", attributeNodes = { @NamedAttributeNode("editorial"),
+				@NamedAttributeNode("authors") }),
+		@NamedEntityGraph(name = "BookEntity.reviews", attributeNodes = @NamedAttributeNode("reviews")) })
 public class BookEntity extends BaseEntity {
 
+	/**
+	 * Nombre de la restricción que impide dos libros con el mismo ISBN.
+	 */
+	public static final String ISBN_CONSTRAINT = "UK_BOOK_ISBN";
+
+	/**
+	 * Nombre de la restricción que impide asociar dos veces el mismo autor a un
+	 * libro.
+	 */
+	public static final String AUTHOR_CONSTRAINT = "UK_BOOK_AUTHOR";
+
 	private String name;
 	private String isbn;
 	private String image;
@@ -67,6 +100,19 @@ public class BookEntity extends BaseEntity {
 	private List<ReviewEntity> reviews = new ArrayList<>();
 
 	@PodamExclude
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-authors")
 	@ManyToMany
+	@JoinTable(uniqueConstraints = @UniqueConstraint(name = BookEntity.AUTHOR_CONSTRAINT, columnNames = {
+			"books_id", "authors_id" }))
 	private List<AuthorEntity> authors = new ArrayList<>();
+
+	@PodamExclude
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private int reviewCount;
+
+	@PodamExclude
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private int authorCount;
 }
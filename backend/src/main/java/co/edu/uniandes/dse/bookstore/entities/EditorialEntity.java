@@ -27,25 +27,47 @@ package co.edu.uniandes.dse.bookstore.entities;
 import java.util.ArrayList;
 import java.util.List;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import lombok.Data;
 import uk.co.jemos.podam.common.PodamExclude;
 
 /**
- * Clase que representa una editorial en la persistencia
+ * Clase que representa una editorial en la persistencia. El contador de libros
+ * lo mantiene {@code CounterService}.
  *
  * @author ISIS2603
  */
 
 @Data
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = EditorialEntity.NAME_CONSTRAINT, columnNames = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "editorials")
 public class EditorialEntity extends BaseEntity {
 
+	/**
+	 * Nombre de la restricción que impide dos editoriales con el mismo nombre.
+	 */
+	public static final String NAME_CONSTRAINT = "UK_EDITORIAL_NAME";
+
 	private String name;
 
 	@PodamExclude
 	@OneToMany(mappedBy = "editorial")
 	private List<BookEntity> books = new ArrayList<>();
+
+	@PodamExclude
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private int bookCount;
 }
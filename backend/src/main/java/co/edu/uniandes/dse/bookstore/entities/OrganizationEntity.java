@@ -24,9 +24,15 @@ SOFTWARE.
 
 package co.edu.uniandes.dse.bookstore.entities;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import lombok.Data;
 import uk.co.jemos.podam.common.PodamExclude;
@@ -39,9 +45,17 @@ import uk.co.jemos.podam.common.PodamExclude;
 
 @Data
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = OrganizationEntity.NAME_CONSTRAINT, columnNames = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "organizations")
 public class OrganizationEntity extends BaseEntity {
 
-	enum TIPO_ORGANIZACION {
+	/**
+	 * Nombre de la restricción que impide dos organizaciones con el mismo nombre.
+	 */
+	public static final String NAME_CONSTRAINT = "UK_ORGANIZATION_NAME";
+
+	public enum TIPO_ORGANIZACION {
 		PRIVADA, PUBLICA, FUNDACION
 	}
 
@@ -26,12 +26,16 @@ package co.edu.uniandes.dse.bookstore.entities;
 
 import java.util.Date;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.Data;
 import uk.co.jemos.podam.common.PodamExclude;
 
@@ -43,6 +47,8 @@ import uk.co.jemos.podam.common.PodamExclude;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "prizes")
 public class PrizeEntity extends BaseEntity {
 
 	@Temporal(TemporalType.DATE)
@@ -30,7 +30,13 @@ public final class ErrorMessage {
 	public static final String PRIZE_NOT_FOUND = "The prize with the given id was not found";
 	public static final String AUTHOR_NOT_FOUND = "The author with the given id was not found";
 	public static final String ORGANIZATION_NOT_FOUND = "The organization with the given id was not found";
+	public static final String RANKING_NOT_FOUND = "The ranking with the given name was not found";
 	public static final String REVIEW_NOT_ASSOCIATED_TO_BOOK = "The review is not associated to the book";
+	public static final String ISBN_ALREADY_EXISTS = "ISBN already exists";
+	public static final String EDITORIAL_NAME_ALREADY_EXISTS = "Editorial name already exists";
+	public static final String ORGANIZATION_NAME_ALREADY_EXISTS = "Organization name already exists";
+	public static final String DATABASE_BUSY = "The database is busy, try again later";
+	public static final String VERSION_MISMATCH = "The resource was modified by another request";
 
 	private ErrorMessage() {
 		throw new IllegalStateException("Utility class");
@@ -2,13 +2,20 @@ package co.edu.uniandes.dse.bookstore.exceptions;
 
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @ControllerAdvice
@@ -42,6 +49,54 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return buildResponseEntity(apiError);
     }
 
+    /**
+     * Handles OptimisticLockingFailureException raised when the version sent in
+     * If-Match is not the current one, or when another request changed the
+     * entity before the transaction committed.
+     *
+     * @param ex the OptimisticLockingFailureException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    protected ResponseEntity<Object> handleOptimisticLockingFailure(
+    		OptimisticLockingFailureException ex) {
+        return handleIllegalOperation(new IllegalOperationException(ErrorMessage.VERSION_MISMATCH));
+    }
+
+    /**
+     * Handles DataIntegrityViolationException raised when a unique constraint is
+     * violated after the service checks, for instance by a concurrent request.
+     *
+     * @param ex the DataIntegrityViolationException
+     * @return the ApiError object
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    protected ResponseEntity<Object> handleDataIntegrityViolation(
+    		DataIntegrityViolationException ex) {
+        return UniqueConstraints.messageFor(ex)
+                .map(message -> handleIllegalOperation(new IllegalOperationException(message)))
+                .orElseGet(() -> {
+                    ApiError apiError = new ApiError(CONFLICT);
+                    apiError.setMessage("The operation violates a data integrity constraint");
+                    return buildResponseEntity(apiError);
+                });
+    }
+
+    /**
+     * Handles the exceptions raised when no database connection could be
+     * obtained in time, either from the pool or from the JDBC bulkhead.
+     *
+     * @param ex the exception
+     * @return the ApiError object
+     */
+    @ExceptionHandler({ CannotCreateTransactionException.class, DataAccessResourceFailureException.class,
+            JDBCConnectionException.class })
+    protected ResponseEntity<Object> handleDatabaseUnavailable(Exception ex) {
+        ApiError apiError = new ApiError(SERVICE_UNAVAILABLE);
+        apiError.setMessage(ErrorMessage.DATABASE_BUSY);
+        return buildResponseEntity(apiError);
+    }
+
     private ResponseEntity<Object> buildResponseEntity(ApiError apiError) {
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
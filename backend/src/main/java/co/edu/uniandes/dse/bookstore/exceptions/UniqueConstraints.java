@@ -0,0 +1,85 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.exceptions;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
+
+/**
+ * Traduce las violaciones de las restricciones de unicidad de la base de datos
+ * a los mensajes de error de la lógica de negocio.
+ */
+public final class UniqueConstraints {
+
+	private static final Map<String, String> MESSAGES = Map.of(BookEntity.ISBN_CONSTRAINT,
+			ErrorMessage.ISBN_ALREADY_EXISTS, EditorialEntity.NAME_CONSTRAINT,
+			ErrorMessage.EDITORIAL_NAME_ALREADY_EXISTS, OrganizationEntity.NAME_CONSTRAINT,
+			ErrorMessage.ORGANIZATION_NAME_ALREADY_EXISTS);
+
+	private UniqueConstraints() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * Busca el mensaje de negocio de la restricción violada.
+	 *
+	 * @param ex La excepción lanzada por el repositorio o al hacer commit.
+	 * @return El mensaje, o vacío si la restricción no es de unicidad conocida.
+	 */
+	public static Optional<String> messageFor(DataIntegrityViolationException ex) {
+		// Algunos motores no reportan el nombre de la restricción y solo lo incluyen
+		// en el mensaje.
+		String constraint = ex.getCause() instanceof ConstraintViolationException violation
+				&& violation.getConstraintName() != null ? violation.getConstraintName()
+						: ex.getMostSpecificCause().getMessage();
+		if (constraint == null)
+			return Optional.empty();
+
+		String upperCase = constraint.toUpperCase(Locale.ROOT);
+		return MESSAGES.entrySet().stream().filter(entry -> upperCase.contains(entry.getKey()))
+				.map(Map.Entry::getValue).findFirst();
+	}
+
+	/**
+	 * Convierte la violación de una restricción de unicidad conocida en una
+	 * {@link IllegalOperationException}.
+	 *
+	 * @param ex La excepción lanzada por el repositorio.
+	 * @return La excepción de negocio equivalente.
+	 * @throws DataIntegrityViolationException La misma excepción recibida si no
+	 *                                         corresponde a una restricción
+	 *                                         conocida.
+	 */
+	public static IllegalOperationException translate(DataIntegrityViolationException ex) {
+		return new IllegalOperationException(messageFor(ex).orElseThrow(() -> ex));
+	}
+}
@@ -0,0 +1,183 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.mappers;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
+import org.mapstruct.ReportingPolicy;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookFacetsDTO;
+import co.edu.uniandes.dse.bookstore.dto.EditorialDTO;
+import co.edu.uniandes.dse.bookstore.dto.EditorialDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.OrganizationDTO;
+import co.edu.uniandes.dse.bookstore.dto.OrganizationDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.PrizeDTO;
+import co.edu.uniandes.dse.bookstore.dto.PrizeDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.ReviewDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.services.FacetService;
+
+/**
+ * Conversiones entre las entidades y los DTO. La implementación la genera
+ * MapStruct al compilar, con llamadas directas a los getters y setters en lugar
+ * de reflexión.
+ *
+ * Los DTO básicos ({@link BookDTO}, {@link AuthorDTO}, ...) solo incluyen las
+ * relaciones hacia uno; los DTO de detalle incluyen además las colecciones, cuyos
+ * elementos se convierten a DTO básicos.
+ *
+ * Los contadores ({@code reviewCount}, {@code bookCount}, ...) están en los DTO
+ * de las entidades que se piden, en listas o en detalle, pero no en las
+ * referencias a otras entidades dentro de un DTO: esas se convierten con los
+ * métodos {@value #REFERENCE}, que los dejan nulos. Así el detalle de un libro
+ * no cambia cuando cambia el número de libros de uno de sus autores. Los
+ * contadores que llegan en un DTO no se copian a la entidad.
+ *
+ * Cada propiedad del destino que no se copia se ignora explícitamente, y
+ * MapStruct rechaza al compilar las que no tienen origen: un campo nuevo en un
+ * DTO o en una entidad obliga a decidir si se convierte. Las versiones no
+ * llegan en los DTO sino en el encabezado If-Match, y las colecciones de los
+ * DTO básicos las asignan los servicios de las asociaciones.
+ *
+ * @author ISIS2603
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface BookstoreMapper {
+
+	String REFERENCE = "reference";
+
+	EditorialDTO toEditorialDTO(EditorialEntity editorial);
+
+	@Named(REFERENCE)
+	@Mapping(target = "bookCount", ignore = true)
+	EditorialDTO toEditorialReference(EditorialEntity editorial);
+
+	@Mapping(target = "books", qualifiedByName = REFERENCE)
+	EditorialDetailDTO toEditorialDetailDTO(EditorialEntity editorial);
+
+	List<EditorialDetailDTO> toEditorialDetailDTOs(List<EditorialEntity> editorials);
+
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "books", ignore = true)
+	@Mapping(target = "bookCount", ignore = true)
+	EditorialEntity toEditorialEntity(EditorialDTO editorial);
+
+	@Mapping(target = "editorial", qualifiedByName = REFERENCE)
+	BookDTO toBookDTO(BookEntity book);
+
+	@Named(REFERENCE)
+	@Mapping(target = "editorial", qualifiedByName = REFERENCE)
+	@Mapping(target = "reviewCount", ignore = true)
+	@Mapping(target = "authorCount", ignore = true)
+	BookDTO toBookReference(BookEntity book);
+
+	List<BookDTO> toBookDTOs(List<BookEntity> books);
+
+	@Mapping(target = "editorial", qualifiedByName = REFERENCE)
+	@Mapping(target = "authors", qualifiedByName = REFERENCE)
+	BookDetailDTO toBookDetailDTO(BookEntity book);
+
+	List<BookDetailDTO> toBookDetailDTOs(List<BookEntity> books);
+
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "reviews", ignore = true)
+	@Mapping(target = "authors", ignore = true)
+	@Mapping(target = "reviewCount", ignore = true)
+	@Mapping(target = "authorCount", ignore = true)
+	BookEntity toBookEntity(BookDTO book);
+
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "reviewCount", ignore = true)
+	@Mapping(target = "authorCount", ignore = true)
+	BookEntity toBookEntity(BookDetailDTO book);
+
+	List<BookEntity> toBookEntities(List<BookDTO> books);
+
+	List<BookEntity> toBookDetailEntities(List<BookDetailDTO> books);
+
+	BookFacetsDTO toBookFacetsDTO(FacetService.BookFacets facets);
+
+	AuthorDTO toAuthorDTO(AuthorEntity author);
+
+	@Named(REFERENCE)
+	@Mapping(target = "bookCount", ignore = true)
+	@Mapping(target = "prizeCount", ignore = true)
+	AuthorDTO toAuthorReference(AuthorEntity author);
+
+	@Mapping(target = "books", qualifiedByName = REFERENCE)
+	AuthorDetailDTO toAuthorDetailDTO(AuthorEntity author);
+
+	List<AuthorDetailDTO> toAuthorDetailDTOs(List<AuthorEntity> authors);
+
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "books", ignore = true)
+	@Mapping(target = "prizes", ignore = true)
+	@Mapping(target = "bookCount", ignore = true)
+	@Mapping(target = "prizeCount", ignore = true)
+	AuthorEntity toAuthorEntity(AuthorDTO author);
+
+	List<AuthorEntity> toAuthorEntities(List<AuthorDTO> authors);
+
+	PrizeDTO toPrizeDTO(PrizeEntity prize);
+
+	@Mapping(target = "author", qualifiedByName = REFERENCE)
+	PrizeDetailDTO toPrizeDetailDTO(PrizeEntity prize);
+
+	List<PrizeDetailDTO> toPrizeDetailDTOs(List<PrizeEntity> prizes);
+
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "author", ignore = true)
+	PrizeEntity toPrizeEntity(PrizeDTO prize);
+
+	OrganizationDTO toOrganizationDTO(OrganizationEntity organization);
+
+	OrganizationDetailDTO toOrganizationDetailDTO(OrganizationEntity organization);
+
+	List<OrganizationDetailDTO> toOrganizationDetailDTOs(List<OrganizationEntity> organizations);
+
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "prize", ignore = true)
+	OrganizationEntity toOrganizationEntity(OrganizationDTO organization);
+
+	@Mapping(target = "book", qualifiedByName = REFERENCE)
+	ReviewDTO toReviewDTO(ReviewEntity review);
+
+	List<ReviewDTO> toReviewDTOs(List<ReviewEntity> reviews);
+
+	@Mapping(target = "version", ignore = true)
+	ReviewEntity toReviewEntity(ReviewDTO review);
+}
@@ -24,9 +24,18 @@ SOFTWARE.
 
 package co.edu.uniandes.dse.bookstore.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
+import co.edu.uniandes.dse.bookstore.dto.EntityCount;
+import co.edu.uniandes.dse.bookstore.dto.EntityVersion;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 
 
@@ -38,5 +47,66 @@ import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
  */
 @Repository
 public interface AuthorRepository extends JpaRepository<AuthorEntity, Long> {
+	int FETCH_CHUNK_SIZE = 500;
+
+	List<AuthorEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	List<AuthorSummary> findSummaryByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	/**
+	 * Número de libros de cada autor que tiene al menos uno.
+	 */
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.EntityCount(a.id, count(b)) from AuthorEntity a join a.books b"
+			+ " group by a.id")
+	List<EntityCount> countBooks();
+
+	@Query("select b.id from AuthorEntity a join a.books b where a.id = :id")
+	List<Long> findBookIdsById(Long id);
+
+	@Query("select a.id from AuthorEntity a where a.id in :ids")
+	List<Long> findIdsByIdIn(Collection<Long> ids);
+
+	/**
+	 * Versiones del autor y de las entidades que muestra su detalle: los libros
+	 * con su editorial y los premios con su organización. Si el autor no existe
+	 * la lista es vacía.
+	 */
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.AUTHOR + ", a.id, a.version)"
+			+ " from AuthorEntity a where a.id = :id"
+			+ " union all select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.BOOK
+			+ ", b.id, b.version) from AuthorEntity a join a.books b where a.id = :id"
+			+ " union all select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.EDITORIAL
+			+ ", e.id, e.version) from AuthorEntity a join a.books b join b.editorial e where a.id = :id"
+			+ " union all select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.PRIZE
+			+ ", p.id, p.version) from PrizeEntity p where p.author.id = :id"
+			+ " union all select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.ORGANIZATION
+			+ ", o.id, o.version) from PrizeEntity p join p.organization o where p.author.id = :id")
+	List<EntityVersion> findDetailVersionsById(Long id);
+
+	@Query("select a.id from AuthorEntity a")
+	List<Long> findAllIds();
+
+	@EntityGraph("AuthorEntity.books")
+	List<AuthorEntity> findWithBooksByIdIn(List<Long> ids);
+
+	@EntityGraph("AuthorEntity.prizes")
+	List<AuthorEntity> findWithPrizesByIdIn(List<Long> ids);
 
+	/**
+	 * Inicializa los libros y los premios de los autores recibidos, que deben
+	 * estar en el contexto de persistencia actual, con dos consultas por cada
+	 * bloque de {@link #FETCH_CHUNK_SIZE} autores.
+	 *
+	 * @param authors Los autores a inicializar
+	 * @return Los mismos autores recibidos
+	 */
+	default List<AuthorEntity> fetchDetails(List<AuthorEntity> authors) {
+		List<Long> ids = authors.stream().map(AuthorEntity::getId).toList();
+		for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + FETCH_CHUNK_SIZE, ids.size()));
+			findWithBooksByIdIn(chunk);
+			findWithPrizesByIdIn(chunk);
+		}
+		return authors;
+	}
 }
@@ -24,11 +24,24 @@ SOFTWARE.
 
 package co.edu.uniandes.dse.bookstore.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import co.edu.uniandes.dse.bookstore.dto.BookAuthorPair;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.dto.EntityCount;
+import co.edu.uniandes.dse.bookstore.dto.EntityVersion;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 
 /**
@@ -39,5 +52,109 @@ import co.edu.uniandes.dse.bookstore.entities.BookEntity;
  */
 @Repository
 public interface BookRepository extends JpaRepository<BookEntity, Long> {
-	List<BookEntity> findByIsbn(String isbn);
+	int FETCH_CHUNK_SIZE = 500;
+
+	boolean existsByIsbnAndIdNot(String isbn, Long id);
+
+	/**
+	 * Id e ISBN de un libro, para resolver referencias sin cargar la entidad.
+	 */
+	record BookKey(Long id, String isbn) {
+	}
+
+	List<BookKey> findKeyByIdIn(Collection<Long> ids);
+
+	List<BookKey> findKeyByIsbnIn(Collection<String> isbns);
+
+	@Override
+	@EntityGraph(attributePaths = "editorial")
+	List<BookEntity> findAll();
+
+	@EntityGraph(attributePaths = "editorial")
+	List<BookEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.BookSummary(b.id, b.name, b.isbn, b.image, b.publishingDate,"
+			+ " b.description, e.id, e.name, b.reviewCount, b.authorCount) from BookEntity b left join b.editorial e"
+			+ " where b.id > :id order by b.id")
+	List<BookSummary> findSummaryByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	/**
+	 * Número de reseñas de cada libro que tiene al menos una.
+	 */
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.EntityCount(b.id, count(r)) from BookEntity b join b.reviews r"
+			+ " group by b.id")
+	List<EntityCount> countReviews();
+
+	@Query("select a.id from BookEntity b join b.authors a where b.id = :id")
+	List<Long> findAuthorIdsById(Long id);
+
+	@Query("select b.id from BookEntity b where b.id in :ids")
+	List<Long> findIdsByIdIn(Collection<Long> ids);
+
+	@Query("select b.id from BookEntity b where b.editorial.id = :editorialId")
+	List<Long> findIdsByEditorialId(Long editorialId);
+
+	@Query("select distinct a.id from BookEntity b join b.authors a where b.editorial.id = :editorialId")
+	List<Long> findAuthorIdsByEditorialId(Long editorialId);
+
+	/**
+	 * Versiones del libro y de las entidades que muestra su detalle: la
+	 * editorial, los autores y las reseñas. Si el libro no existe la lista es
+	 * vacía.
+	 */
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.BOOK + ", b.id, b.version)"
+			+ " from BookEntity b where b.id = :id"
+			+ " union all select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.EDITORIAL
+			+ ", e.id, e.version) from BookEntity b join b.editorial e where b.id = :id"
+			+ " union all select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.AUTHOR
+			+ ", a.id, a.version) from BookEntity b join b.authors a where b.id = :id"
+			+ " union all select new co.edu.uniandes.dse.bookstore.dto.EntityVersion(" + EntityVersion.REVIEW
+			+ ", r.id, r.version) from ReviewEntity r where r.book.id = :id")
+	List<EntityVersion> findDetailVersionsById(Long id);
+
+	/**
+	 * Autores de los libros con id en el rango {@code (after, last]}.
+	 */
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.BookAuthorPair(b.id, a.id) from BookEntity b join b.authors a"
+			+ " where b.id > :after and b.id <= :last")
+	List<BookAuthorPair> findAuthorPairsByIdBetween(Long after, Long last);
+
+	@EntityGraph(attributePaths = "editorial")
+	List<BookEntity> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+	/**
+	 * Recorre todos los libros ordenados por id con un cursor de la base de
+	 * datos, leyendo {@link #FETCH_CHUNK_SIZE} filas a la vez. Las entidades son
+	 * de solo lectura y se deben separar del contexto de persistencia a medida
+	 * que se procesan. Requiere una transacción abierta mientras se consume.
+	 */
+	@Query("select b from BookEntity b left join fetch b.editorial order by b.id")
+	@QueryHints({ @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + FETCH_CHUNK_SIZE),
+			@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true") })
+	Stream<BookEntity> streamAllByOrderByIdAsc();
+
+	@EntityGraph("BookEntity.authors")
+	List<BookEntity> findWithAuthorsByIdIn(List<Long> ids);
+
+	@EntityGraph("BookEntity.reviews")
+	List<BookEntity> findWithReviewsByIdIn(List<Long> ids);
+
+	/**
+	 * Inicializa la editorial, los autores y las reseñas de los libros recibidos,
+	 * que deben estar en el contexto de persistencia actual. Usa dos consultas
+	 * por cada bloque de {@link #FETCH_CHUNK_SIZE} libros en lugar de tres por
+	 * libro.
+	 *
+	 * @param books Los libros a inicializar
+	 * @return Los mismos libros recibidos
+	 */
+	default List<BookEntity> fetchDetails(List<BookEntity> books) {
+		List<Long> ids = books.stream().map(BookEntity::getId).toList();
+		for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + FETCH_CHUNK_SIZE, ids.size()));
+			findWithAuthorsByIdIn(chunk);
+			findWithReviewsByIdIn(chunk);
+		}
+		return books;
+	}
 }
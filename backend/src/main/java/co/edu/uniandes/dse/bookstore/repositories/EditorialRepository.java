@@ -26,9 +26,17 @@ package co.edu.uniandes.dse.bookstore.repositories;
 
 import java.util.List;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
+import co.edu.uniandes.dse.bookstore.dto.EntityCount;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 
 /**
@@ -39,5 +47,22 @@ import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
  */
 @Repository
 public interface EditorialRepository extends JpaRepository<EditorialEntity, Long> {
+	@QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
 	List<EditorialEntity> findByName(String name);
+
+	boolean existsByNameAndIdNot(String name, Long id);
+
+	List<EditorialEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	List<EditorialSummary> findSummaryByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	/**
+	 * Número de libros de cada editorial que tiene al menos uno.
+	 */
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.EntityCount(e.id, count(b)) from EditorialEntity e"
+			+ " join e.books b group by e.id")
+	List<EntityCount> countBooks();
+
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.EditorialSummary(e.id, e.name) from EditorialEntity e")
+	List<EditorialSummary> findAllSummaries();
 }
@@ -26,7 +26,12 @@ package co.edu.uniandes.dse.bookstore.repositories;
 
 import java.util.List;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
@@ -39,5 +44,10 @@ import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
  */
 @Repository
 public interface OrganizationRepository extends JpaRepository<OrganizationEntity, Long> {
+	@QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
 	List<OrganizationEntity> findByName(String name);
+
+	boolean existsByNameAndIdNot(String name, Long id);
+
+	List<OrganizationEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -24,9 +24,14 @@ SOFTWARE.
 
 package co.edu.uniandes.dse.bookstore.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import co.edu.uniandes.dse.bookstore.dto.PrizeSummary;
 import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
 
 /**
@@ -38,4 +43,9 @@ import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
 @Repository
 public interface PrizeRepository extends JpaRepository<PrizeEntity, Long> {
 
+	List<PrizeEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	@Query("select new co.edu.uniandes.dse.bookstore.dto.PrizeSummary(p.id, p.premiationDate, p.name, p.description,"
+			+ " o.id, o.name, o.tipo) from PrizeEntity p left join p.organization o where p.id > :id order by p.id")
+	List<PrizeSummary> findSummaryByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -24,10 +24,16 @@ SOFTWARE.
 
 package co.edu.uniandes.dse.bookstore.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +44,7 @@ import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
 import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
 import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -57,6 +64,15 @@ public class AuthorBookService {
 	@Autowired
 	private AuthorRepository authorRepository;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private AuthorshipService authorshipService;
+
 	/**
 	 * Asocia un Book existente a un Author
 	 *
@@ -67,7 +83,7 @@ public class AuthorBookService {
 
 	@Transactional
 	public BookEntity addBook(Long authorId, Long bookId) throws EntityNotFoundException {
-		log.info("Inicia proceso de asociarle un libro al autor con id = {0}", authorId);
+		log.debug("Inicia proceso de asociarle un libro al autor con id = {}", authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 
@@ -77,8 +93,10 @@ public class AuthorBookService {
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
-		bookEntity.get().getAuthors().add(authorEntity.get());
-		log.info("Termina proceso de asociarle un libro al autor con id = {0}", authorId);
+		// Un libro ya asociado no se asocia dos veces.
+		if (!bookRepository.findAuthorIdsById(bookId).contains(authorId))
+			relink(authorEntity.get(), List.of(bookEntity.get()), List.of());
+		log.debug("Termina proceso de asociarle un libro al autor con id = {}", authorId);
 		return bookEntity.get();
 	}
 
@@ -92,13 +110,13 @@ public class AuthorBookService {
 	 */
 	@Transactional
 	public List<BookEntity> getBooks(Long authorId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar todos los libros del autor con id = {0}", authorId);
+		log.debug("Inicia proceso de consultar todos los libros del autor con id = {}", authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		if (authorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
 
-		log.info("Termina proceso de consultar todos los libros del autor con id = {0}", authorId);
-		return authorEntity.get().getBooks();
+		log.debug("Termina proceso de consultar todos los libros del autor con id = {}", authorId);
+		return bookRepository.fetchDetails(authorEntity.get().getBooks());
 	}
 
 	/**
@@ -110,7 +128,7 @@ public class AuthorBookService {
 	 */
 	@Transactional
 	public BookEntity getBook(Long authorId, Long bookId) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de consultar el libro con id = {0} del autor con id = " + authorId, bookId);
+		log.debug("Inicia proceso de consultar el libro con id = {} del autor con id = {}", bookId, authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 
@@ -120,7 +138,7 @@ public class AuthorBookService {
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
-		log.info("Termina proceso de consultar el libro con id = {0} del autor con id = " + authorId, bookId);
+		log.debug("Termina proceso de consultar el libro con id = {} del autor con id = {}", bookId, authorId);
 		if (!bookEntity.get().getAuthors().contains(authorEntity.get()))
 			throw new IllegalOperationException("The book is not associated to the author");
 		
@@ -128,7 +146,8 @@ public class AuthorBookService {
 	}
 
 	/**
-	 * Remplaza las instancias de Book asociadas a una instancia de Author
+	 * Remplaza las instancias de Book asociadas a una instancia de Author. Solo
+	 * se insertan y se borran las asociaciones que cambian.
 	 *
 	 * @param authorId Identificador de la instancia de Author
 	 * @param books    Colección de instancias de BookEntity a asociar a instancia
@@ -137,19 +156,17 @@ public class AuthorBookService {
 	 */
 	@Transactional
 	public List<BookEntity> addBooks(Long authorId, List<BookEntity> books) throws EntityNotFoundException {
-		log.info("Inicia proceso de reemplazar los libros asociados al author con id = {0}", authorId);
+		log.debug("Inicia proceso de reemplazar los libros asociados al author con id = {}", authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		if (authorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
 
-		for (BookEntity book : books) {
-			Optional<BookEntity> bookEntity = bookRepository.findById(book.getId());
-			if (bookEntity.isEmpty())
-				throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
-
-		}
-		log.info("Finaliza proceso de reemplazar los libros asociados al author con id = {0}", authorId);
-		authorEntity.get().setBooks(books);
+		List<Long> bookIds = checkBooks(books.stream().map(BookEntity::getId).toList());
+		Set<Long> current = new HashSet<>(authorRepository.findBookIdsById(authorId));
+		Set<Long> replacement = new HashSet<>(bookIds);
+		relink(authorEntity.get(), findBooks(bookIds.stream().filter(id -> !current.contains(id)).toList()),
+				findBooks(current.stream().filter(id -> !replacement.contains(id)).toList()));
+		log.debug("Finaliza proceso de reemplazar los libros asociados al author con id = {}", authorId);
 		return authorEntity.get().getBooks();
 	}
 
@@ -161,7 +178,7 @@ public class AuthorBookService {
 	 */
 	@Transactional
 	public void removeBook(Long authorId, Long bookId) throws EntityNotFoundException {
-		log.info("Inicia proceso de borrar un libro del author con id = {0}", authorId);
+		log.debug("Inicia proceso de borrar un libro del author con id = {}", authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		if (authorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
@@ -170,8 +187,67 @@ public class AuthorBookService {
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
-		bookEntity.get().getAuthors().remove(authorEntity.get());
-		authorEntity.get().getBooks().remove(bookEntity.get());
-		log.info("Finaliza proceso de borrar un libro del author con id = {0}", authorId);
+		if (bookRepository.findAuthorIdsById(bookId).contains(authorId))
+			relink(authorEntity.get(), List.of(), List.of(bookEntity.get()));
+		log.debug("Finaliza proceso de borrar un libro del author con id = {}", authorId);
+	}
+
+	/**
+	 * Asocia y desasocia libros del autor con {@link AuthorshipService} y
+	 * actualiza los contadores. Publica los eventos de cada libro que cambió y un
+	 * solo evento con los detalles afectados.
+	 */
+	private void relink(AuthorEntity author, List<BookEntity> linked, List<BookEntity> unlinked) {
+		if (linked.isEmpty() && unlinked.isEmpty())
+			return;
+		authorshipService.unlinkBooks(author, unlinked);
+		authorshipService.linkBooks(author, linked);
+		counterService.add(Counter.AUTHOR_BOOKS, author, linked.size() - unlinked.size());
+
+		Set<Long> changed = new HashSet<>();
+		for (BookEntity book : linked) {
+			counterService.increment(Counter.BOOK_AUTHORS, book);
+			eventPublisher.publishEvent(AuthorshipChangedEvent.linked(book.getId(), author.getId()));
+			eventPublisher.publishEvent(EntityChangedEvent.saved(book));
+			changed.add(book.getId());
+		}
+		for (BookEntity book : unlinked) {
+			counterService.decrement(Counter.BOOK_AUTHORS, book);
+			eventPublisher.publishEvent(AuthorshipChangedEvent.unlinked(book.getId(), author.getId()));
+			eventPublisher.publishEvent(EntityChangedEvent.saved(book));
+			changed.add(book.getId());
+		}
+		eventPublisher.publishEvent(new DetailsChangedEvent(changed, Set.of(author.getId())));
+	}
+
+	/**
+	 * Verifica que existan los libros con los ids recibidos, sin cargarlos, con
+	 * una consulta de ids por cada bloque de {@link BookRepository#FETCH_CHUNK_SIZE}.
+	 *
+	 * @return Los ids sin repetidos, en el mismo orden
+	 */
+	private List<Long> checkBooks(Collection<Long> ids) throws EntityNotFoundException {
+		List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+		int found = 0;
+		for (int from = 0; from < distinct.size(); from += BookRepository.FETCH_CHUNK_SIZE) {
+			List<Long> chunk = distinct.subList(from, Math.min(from + BookRepository.FETCH_CHUNK_SIZE, distinct.size()));
+			found += bookRepository.findIdsByIdIn(chunk).size();
+		}
+		if (found < distinct.size())
+			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
+		return distinct;
+	}
+
+	/**
+	 * Carga los libros que cambian, que los eventos necesitan completos, con una
+	 * consulta por cada bloque de {@link BookRepository#FETCH_CHUNK_SIZE} ids.
+	 */
+	private List<BookEntity> findBooks(List<Long> ids) {
+		List<BookEntity> found = new ArrayList<>(ids.size());
+		for (int from = 0; from < ids.size(); from += BookRepository.FETCH_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + BookRepository.FETCH_CHUNK_SIZE, ids.size()));
+			found.addAll(bookRepository.findAllById(chunk));
+		}
+		return found;
 	}
 }
@@ -27,11 +27,16 @@ package co.edu.uniandes.dse.bookstore.services;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
@@ -54,6 +59,9 @@ public class AuthorService {
 
 	@Autowired
 	AuthorRepository authorRepository;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
 	
 	/**
 	 * Se encarga de crear un Author en la base de datos.
@@ -64,13 +72,15 @@ public class AuthorService {
 	 */
 	@Transactional
 	public AuthorEntity createAuthor(AuthorEntity author) throws IllegalOperationException {
-		log.info("Inicia proceso de creación del autor");
+		log.debug("Inicia proceso de creación del autor");
 		Calendar calendar = Calendar.getInstance();
 		if(author.getBirthDate().compareTo(calendar.getTime()) > 0) {
 			throw new IllegalOperationException("Birth date if ater current date");
 	    }
 		
-		return authorRepository.save(author);
+		AuthorEntity created = authorRepository.save(author);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(created));
+		return created;
 	}
 
 	/**
@@ -80,8 +90,39 @@ public class AuthorService {
 	 */
 	@Transactional
 	public List<AuthorEntity> getAuthors() {
-		log.info("Inicia proceso de consultar todos los autores");
-		return authorRepository.findAll();
+		log.debug("Inicia proceso de consultar todos los autores");
+		return authorRepository.fetchDetails(authorRepository.findAll());
+	}
+
+	/**
+	 * Devuelve una página de los autores ordenados por id, a partir
+	 * del id recibido.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return Colección de objetos de AuthorEntity.
+	 */
+	@Transactional
+	public List<AuthorEntity> getAuthors(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de autores");
+		return authorRepository
+				.fetchDetails(authorRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit)));
+	}
+
+	/**
+	 * Devuelve una página de proyecciones de los autores ordenados por id, sin
+	 * cargar las entidades en el contexto de persistencia.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return Lista de proyecciones de tipo autor.
+	 */
+	@Transactional(readOnly = true)
+	public List<AuthorSummary> getAuthorSummaries(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de resúmenes de autores");
+		return authorRepository.findSummaryByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
 	}
 
 	/**
@@ -92,11 +133,11 @@ public class AuthorService {
 	 */
 	@Transactional
 	public AuthorEntity getAuthor(Long authorId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar el autor con id = {0}", authorId);
+		log.debug("Inicia proceso de consultar el autor con id = {}", authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		if (authorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
-		log.info("Termina proceso de consultar el autor con id = {0}", authorId);
+		log.debug("Termina proceso de consultar el autor con id = {}", authorId);
 		return authorEntity.get();
 	}
 
@@ -104,18 +145,30 @@ public class AuthorService {
 	 * Actualiza la información de una instancia de Author.
 	 *
 	 * @param authorId     Identificador de la instancia a actualizar
-	 * @param authorEntity Instancia de AuthorEntity con los nuevos datos.
+	 * @param authorEntity Instancia de AuthorEntity con los nuevos datos. Si trae
+	 *                     una versión, debe ser la actual del autor.
 	 * @return Instancia de AuthorEntity con los datos actualizados.
+	 * @throws ObjectOptimisticLockingFailureException Si la versión no es la
+	 *                                                 actual.
 	 */
 	@Transactional
 	public AuthorEntity updateAuthor(Long authorId, AuthorEntity author) throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar el autor con id = {0}", authorId);
+		log.debug("Inicia proceso de actualizar el autor con id = {}", authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		if (authorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
-		log.info("Termina proceso de actualizar el autor con id = {0}", authorId);
+		log.debug("Termina proceso de actualizar el autor con id = {}", authorId);
 		author.setId(authorId);
-		return authorRepository.save(author);
+		if (author.getVersion() == null)
+			author.setVersion(authorEntity.get().getVersion());
+		// Hibernate no escribe los contadores, pero merge copiaría los del cuerpo.
+		author.setBookCount(authorEntity.get().getBookCount());
+		author.setPrizeCount(authorEntity.get().getPrizeCount());
+		eventPublisher.publishEvent(
+				new DetailsChangedEvent(Set.copyOf(authorRepository.findBookIdsById(authorId)), Set.of(authorId)));
+		AuthorEntity updated = authorRepository.save(author);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(updated));
+		return updated;
 	}
 
 	/**
@@ -126,11 +179,29 @@ public class AuthorService {
 	 */
 	@Transactional
 	public void deleteAuthor(Long authorId) throws IllegalOperationException, EntityNotFoundException {
-		log.info("Inicia proceso de borrar el autor con id = {0}", authorId);
+		deleteAuthor(authorId, null);
+	}
+
+	/**
+	 * Elimina una instancia de Author de la base de datos, si tiene la versión
+	 * esperada.
+	 *
+	 * @param authorId Identificador de la instancia a eliminar.
+	 * @param version  Versión actual que se espera, o nulo para no verificarla.
+	 * @throws BusinessLogicException si el autor tiene libros asociados.
+	 * @throws ObjectOptimisticLockingFailureException si la versión no es la
+	 *                                                 actual.
+	 */
+	@Transactional
+	public void deleteAuthor(Long authorId, Long version) throws IllegalOperationException, EntityNotFoundException {
+		log.debug("Inicia proceso de borrar el autor con id = {}", authorId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		if (authorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
 
+		if (version != null && !version.equals(authorEntity.get().getVersion()))
+			throw new ObjectOptimisticLockingFailureException(AuthorEntity.class, authorId);
+
 		List<BookEntity> books = authorEntity.get().getBooks();
 		if (!books.isEmpty())
 			throw new IllegalOperationException("Unable to delete the author because he/she has associated books");
@@ -140,6 +211,8 @@ public class AuthorService {
 			throw new IllegalOperationException("Unable to delete the author because he/she has associated prizes");
 
 		authorRepository.deleteById(authorId);
-		log.info("Termina proceso de borrar el autor con id = {0}", authorId);
+		eventPublisher.publishEvent(EntityChangedEvent.deleted(AuthorEntity.class, authorId));
+		eventPublisher.publishEvent(DetailsChangedEvent.ofAuthor(authorId));
+		log.debug("Termina proceso de borrar el autor con id = {}", authorId);
 	}
 }
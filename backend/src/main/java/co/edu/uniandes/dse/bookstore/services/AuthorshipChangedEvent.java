@@ -0,0 +1,56 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evento que publican los servicios cuando asocian autores a un libro o los
+ * desasocian. Solo incluye las asociaciones que de verdad cambiaron. Los
+ * interesados lo reciben después de que la transacción se confirma, por medio
+ * de {@code @TransactionalEventListener}.
+ *
+ * @param bookId   El id del libro.
+ * @param linked   Los ids de los autores asociados al libro.
+ * @param unlinked Los ids de los autores desasociados del libro.
+ *
+ * @author ISIS2603
+ */
+public record AuthorshipChangedEvent(Long bookId, Collection<Long> linked, Collection<Long> unlinked) {
+
+	/**
+	 * Crea el evento de un autor asociado a un libro.
+	 */
+	public static AuthorshipChangedEvent linked(Long bookId, Long authorId) {
+		return new AuthorshipChangedEvent(bookId, List.of(authorId), List.of());
+	}
+
+	/**
+	 * Crea el evento de un autor desasociado de un libro.
+	 */
+	public static AuthorshipChangedEvent unlinked(Long bookId, Long authorId) {
+		return new AuthorshipChangedEvent(bookId, List.of(), List.of(authorId));
+	}
+}
@@ -0,0 +1,194 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import co.edu.uniandes.dse.bookstore.dto.BookAuthorPair;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Escribe en bloque las filas de la tabla de asociación entre libros y autores.
+ *
+ * Los autores de un libro son una lista sin índice, así que Hibernate no puede
+ * identificar una fila en particular: cualquier cambio en la colección borra
+ * todas sus filas y las vuelve a insertar. Este servicio inserta y borra solo
+ * los pares que cambian, en lotes de JDBC, y desaloja los autores de los libros
+ * del caché de segundo nivel, al escribir y otra vez al confirmar. Los libros y
+ * autores que ya tenían la colección cargada salen del contexto de persistencia
+ * y su colección se corrige en memoria, sin volver a leerlos: quien los tiene
+ * sigue viendo los pares correctos, y una búsqueda posterior en la misma
+ * transacción los lee de la base de datos. Las versiones de las entidades no
+ * cambian: la versión del detalle de cada lado ya incluye la asociación. Un par
+ * que otra transacción insertó o borró antes hace fallar la escritura con
+ * {@link OptimisticLockingFailureException}.
+ *
+ * Los servicios que lo usan calculan antes qué pares cambian y actualizan los
+ * contadores y publican los eventos después.
+ *
+ * @author ISIS2603
+ */
+@Service
+public class AuthorshipService {
+
+	static final int BATCH_SIZE = 500;
+
+	private static final String AUTHORS_ROLE = BookEntity.class.getName() + ".authors";
+
+	private static final String INSERT_SQL = "insert into book_entity_authors (books_id, authors_id) values (?, ?)";
+
+	private static final String DELETE_SQL = "delete from book_entity_authors where books_id = ? and authors_id = ?";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	/**
+	 * Asocia al libro autores que no tiene.
+	 *
+	 * @param book    El libro
+	 * @param authors Los autores, que no deben estar asociados al libro
+	 */
+	public void link(BookEntity book, Collection<AuthorEntity> authors) {
+		write(true, List.of(book), authors);
+	}
+
+	/**
+	 * Desasocia del libro autores que tiene.
+	 *
+	 * @param book    El libro
+	 * @param authors Los autores, que deben estar asociados al libro
+	 */
+	public void unlink(BookEntity book, Collection<AuthorEntity> authors) {
+		write(false, List.of(book), authors);
+	}
+
+	/**
+	 * Asocia al autor libros que no tiene.
+	 *
+	 * @param author El autor
+	 * @param books  Los libros, que no deben estar asociados al autor
+	 */
+	public void linkBooks(AuthorEntity author, Collection<BookEntity> books) {
+		write(true, books, List.of(author));
+	}
+
+	/**
+	 * Desasocia del autor libros que tiene.
+	 *
+	 * @param author El autor
+	 * @param books  Los libros, que deben estar asociados al autor
+	 */
+	public void unlinkBooks(AuthorEntity author, Collection<BookEntity> books) {
+		write(false, books, List.of(author));
+	}
+
+	/**
+	 * Inserta o borra la fila de cada par de libro y autor. Uno de los dos lados
+	 * tiene un solo elemento.
+	 */
+	private void write(boolean link, Collection<BookEntity> books, Collection<AuthorEntity> authors) {
+		if (books.isEmpty() || authors.isEmpty())
+			return;
+		// Los cambios pendientes en las colecciones se escriben antes, para que no
+		// sobrescriban después las filas de este lote.
+		entityManager.flush();
+
+		List<BookAuthorPair> pairs = new ArrayList<>(books.size() * authors.size());
+		for (BookEntity book : books)
+			for (AuthorEntity author : authors)
+				pairs.add(new BookAuthorPair(book.getId(), author.getId()));
+		// Los llamadores leen antes qué pares existen; si otra transacción los cambió
+		// mientras tanto, los contadores quedarían mal, así que el lote falla.
+		int[][] counts;
+		try {
+			counts = jdbcTemplate.batchUpdate(link ? INSERT_SQL : DELETE_SQL, pairs, BATCH_SIZE, (statement, pair) -> {
+				statement.setLong(1, pair.bookId());
+				statement.setLong(2, pair.authorId());
+			});
+		} catch (DuplicateKeyException e) {
+			throw new OptimisticLockingFailureException("Otra transacción asoció el mismo autor al libro", e);
+		}
+		for (int[] batch : counts)
+			for (int count : batch)
+				if (count == 0)
+					throw new OptimisticLockingFailureException("Otra transacción desasoció el autor del libro");
+
+		List<Long> bookIds = books.stream().map(BookEntity::getId).toList();
+		evictAuthors(bookIds);
+		// Los autores de un libro se cambian después de sacarlo del contexto, para
+		// que Hibernate no reescriba la colección completa al sincronizar.
+		for (BookEntity book : books)
+			if (entityManager.contains(book) && Hibernate.isInitialized(book.getAuthors())) {
+				entityManager.detach(book);
+				update(book.getAuthors(), authors, link);
+			}
+		// Los libros de un autor son el lado inverso y no se escriben. Los autores
+		// pueden ser referencias sin cargar, que no hace falta corregir.
+		for (AuthorEntity author : authors)
+			if (Hibernate.isInitialized(author) && Hibernate.isInitialized(author.getBooks()))
+				update(author.getBooks(), books, link);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictAuthors(bookIds);
+				}
+			});
+	}
+
+	private static <T extends BaseEntity> void update(List<T> collection, Collection<T> changed, boolean link) {
+		for (T entity : changed) {
+			collection.removeIf(current -> current.getId().equals(entity.getId()));
+			if (link)
+				collection.add(entity);
+		}
+	}
+
+	private void evictAuthors(List<Long> bookIds) {
+		Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+		for (Long bookId : bookIds)
+			cache.evictCollectionData(AUTHORS_ROLE, bookId);
+	}
+}
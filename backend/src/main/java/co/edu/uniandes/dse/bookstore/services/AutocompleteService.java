@@ -0,0 +1,311 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
+import co.edu.uniandes.dse.bookstore.dto.EntityCount;
+import co.edu.uniandes.dse.bookstore.dto.SearchResultDTO;
+import co.edu.uniandes.dse.bookstore.dto.SuggestionDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Autocompletado de nombres de libros, autores y editoriales. Las sugerencias
+ * se ordenan por popularidad: el número de reseñas de un libro y el número de
+ * libros de un autor o de una editorial.
+ *
+ * Los nombres se actualizan con los {@link EntityChangedEvent} que publican los
+ * servicios, después de que cada transacción se confirma. La popularidad se
+ * calcula al construir el índice, al arrancar la aplicación y cada
+ * {@code bookstore.autocomplete.refresh-interval}.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class AutocompleteService {
+
+	static final int MAX_SUGGESTIONS = 50;
+
+	private static final int REBUILD_PAGE_SIZE = 5000;
+
+	@Autowired
+	BookRepository bookRepository;
+
+	@Autowired
+	AuthorRepository authorRepository;
+
+	@Autowired
+	EditorialRepository editorialRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Evita dos reconstrucciones a la vez.
+	 */
+	private final Lock rebuilding = new ReentrantLock();
+
+	private Map<SearchResultDTO.TYPE, PrefixIndex> indexes = emptyIndexes();
+
+	/**
+	 * Cambios recibidos mientras se reconstruyen los índices, que se aplican a
+	 * los índices nuevos antes de reemplazar los anteriores. Es nulo fuera de una
+	 * reconstrucción.
+	 */
+	private List<Consumer<Map<SearchResultDTO.TYPE, PrefixIndex>>> pending;
+
+	/**
+	 * Sugiere los nombres con una palabra que empieza por el prefijo, sin
+	 * importar mayúsculas ni tildes.
+	 *
+	 * @param prefix El prefijo.
+	 * @param type   El tipo de entidad, o nulo para buscar en todos.
+	 * @param limit  Número máximo de sugerencias. Los valores mayores a
+	 *               {@link #MAX_SUGGESTIONS} se recortan.
+	 * @return Las sugerencias, de la más a la menos popular.
+	 * @throws IllegalOperationException Si el límite no es positivo.
+	 */
+	public List<SuggestionDTO> suggest(String prefix, SearchResultDTO.TYPE type, int limit)
+			throws IllegalOperationException {
+		if (limit < 1)
+			throw new IllegalOperationException("Limit must be greater than zero");
+
+		int capped = Math.min(limit, MAX_SUGGESTIONS);
+		List<SuggestionDTO> suggestions = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (Map.Entry<SearchResultDTO.TYPE, PrefixIndex> index : indexes.entrySet())
+				if (type == null || type == index.getKey())
+					for (PrefixIndex.Suggestion suggestion : index.getValue().suggest(prefix, capped))
+						suggestions.add(toDTO(index.getKey(), suggestion));
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (type != null)
+			return suggestions;
+
+		suggestions.sort(Comparator.comparingInt(SuggestionDTO::getPopularity).reversed());
+		return suggestions.size() > capped ? suggestions.subList(0, capped) : suggestions;
+	}
+
+	/**
+	 * Número de nombres en los índices.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return indexes.values().stream().mapToInt(PrefixIndex::size).sum();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Construye los índices desde la base de datos, con la popularidad actual, y
+	 * reemplaza los anteriores. Los cambios que llegan mientras tanto se aplican a
+	 * ambos.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${bookstore.autocomplete.refresh-interval:PT10M}",
+			initialDelayString = "${bookstore.autocomplete.refresh-interval:PT10M}")
+	public void rebuild() {
+		rebuilding.lock();
+		try {
+			log.info("Inicia proceso de construir el índice de autocompletado");
+			lock.writeLock().lock();
+			try {
+				pending = new ArrayList<>();
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			Map<SearchResultDTO.TYPE, PrefixIndex> rebuilt;
+			try {
+				rebuilt = load();
+			} catch (RuntimeException e) {
+				lock.writeLock().lock();
+				try {
+					pending = null;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				throw e;
+			}
+
+			lock.writeLock().lock();
+			try {
+				pending.forEach(update -> update.accept(rebuilt));
+				indexes = rebuilt;
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Termina proceso de construir el índice de autocompletado: {} nombres",
+					rebuilt.values().stream().mapToInt(PrefixIndex::size).sum());
+		} finally {
+			rebuilding.unlock();
+		}
+	}
+
+	/**
+	 * Lee la popularidad y luego los nombres, en páginas por llave, y construye un
+	 * índice por tipo.
+	 */
+	private Map<SearchResultDTO.TYPE, PrefixIndex> load() {
+		Map<SearchResultDTO.TYPE, PrefixIndex> loaded = new EnumMap<>(SearchResultDTO.TYPE.class);
+
+		Map<Long, Integer> counts = counts(editorialRepository.countBooks());
+		PrefixIndex.Builder builder = new PrefixIndex.Builder();
+		List<EditorialSummary> editorials;
+		long after = 0L;
+		do {
+			editorials = editorialRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (EditorialSummary editorial : editorials) {
+				builder.add(editorial.id(), editorial.name(), counts.getOrDefault(editorial.id(), 0));
+				after = editorial.id();
+			}
+		} while (editorials.size() == REBUILD_PAGE_SIZE);
+		loaded.put(SearchResultDTO.TYPE.EDITORIAL, builder.build());
+
+		counts = counts(authorRepository.countBooks());
+		builder = new PrefixIndex.Builder();
+		List<AuthorSummary> authors;
+		after = 0L;
+		do {
+			authors = authorRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (AuthorSummary author : authors) {
+				builder.add(author.id(), author.name(), counts.getOrDefault(author.id(), 0));
+				after = author.id();
+			}
+		} while (authors.size() == REBUILD_PAGE_SIZE);
+		loaded.put(SearchResultDTO.TYPE.AUTHOR, builder.build());
+
+		counts = counts(bookRepository.countReviews());
+		builder = new PrefixIndex.Builder();
+		List<BookSummary> books;
+		after = 0L;
+		do {
+			books = bookRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (BookSummary book : books) {
+				builder.add(book.id(), book.name(), counts.getOrDefault(book.id(), 0));
+				after = book.id();
+			}
+		} while (books.size() == REBUILD_PAGE_SIZE);
+		loaded.put(SearchResultDTO.TYPE.BOOK, builder.build());
+		return loaded;
+	}
+
+	private static Map<Long, Integer> counts(List<EntityCount> counts) {
+		Map<Long, Integer> byId = new HashMap<>();
+		for (EntityCount count : counts)
+			byId.put(count.id(), (int) Math.min(count.count(), Integer.MAX_VALUE));
+		return byId;
+	}
+
+	/**
+	 * Actualiza el nombre cuando se confirma la creación, actualización o borrado
+	 * de un libro, un autor o una editorial. Un nombre actualizado conserva su
+	 * popularidad. Si el cambio ocurre fuera de una transacción se aplica de
+	 * inmediato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		SearchResultDTO.TYPE type = SearchService.typeOf(event.type());
+		if (type == null)
+			return;
+
+		long id = event.id();
+		Consumer<Map<SearchResultDTO.TYPE, PrefixIndex>> update;
+		if (event.isDeleted()) {
+			update = indexes -> indexes.get(type).remove(id);
+		} else {
+			String name = nameOf(event.entity());
+			update = indexes -> {
+				PrefixIndex index = indexes.get(type);
+				index.put(id, name, index.popularity(id));
+			};
+		}
+
+		lock.writeLock().lock();
+		try {
+			update.accept(indexes);
+			if (pending != null)
+				pending.add(update);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static String nameOf(Object entity) {
+		if (entity instanceof BookEntity book)
+			return book.getName();
+		if (entity instanceof AuthorEntity author)
+			return author.getName();
+		return ((EditorialEntity) entity).getName();
+	}
+
+	private static Map<SearchResultDTO.TYPE, PrefixIndex> emptyIndexes() {
+		Map<SearchResultDTO.TYPE, PrefixIndex> empty = new EnumMap<>(SearchResultDTO.TYPE.class);
+		for (SearchResultDTO.TYPE type : SearchResultDTO.TYPE.values())
+			empty.put(type, new PrefixIndex());
+		return empty;
+	}
+
+	private SuggestionDTO toDTO(SearchResultDTO.TYPE type, PrefixIndex.Suggestion suggestion) {
+		SuggestionDTO dto = new SuggestionDTO();
+		dto.setType(type);
+		dto.setId(suggestion.id());
+		dto.setName(suggestion.name());
+		dto.setPopularity(suggestion.popularity());
+		return dto;
+	}
+}
@@ -24,10 +24,16 @@ SOFTWARE.
 
 package co.edu.uniandes.dse.bookstore.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +44,7 @@ import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
 import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
 import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -49,7 +56,16 @@ public class BookAuthorService {
 
 	@Autowired
 	private AuthorRepository authorRepository;
-	
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private AuthorshipService authorshipService;
+
 	/**
 	 * Asocia un Author existente a un Book
 	 *
@@ -59,7 +75,7 @@ public class BookAuthorService {
 	 */
 	@Transactional
 	public AuthorEntity addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
-		log.info("Inicia proceso de asociarle un autor al libro con id = {0}", bookId);
+		log.debug("Inicia proceso de asociarle un autor al libro con id = {}", bookId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		if (authorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
@@ -68,8 +84,10 @@ public class BookAuthorService {
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
-		bookEntity.get().getAuthors().add(authorEntity.get());
-		log.info("Termina proceso de asociarle un autor al libro con id = {0}", bookId);
+		// Un autor ya asociado no se asocia dos veces.
+		if (!bookRepository.findAuthorIdsById(bookId).contains(authorId))
+			relink(bookEntity.get(), List.of(authorEntity.get()), List.of());
+		log.debug("Termina proceso de asociarle un autor al libro con id = {}", bookId);
 		return authorEntity.get();
 	}
 
@@ -83,12 +101,12 @@ public class BookAuthorService {
 	 */
 	@Transactional
 	public List<AuthorEntity> getAuthors(Long bookId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar todos los autores del libro con id = {0}", bookId);
+		log.debug("Inicia proceso de consultar todos los autores del libro con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
-		log.info("Finaliza proceso de consultar todos los autores del libro con id = {0}", bookId);
-		return bookEntity.get().getAuthors();
+		log.debug("Finaliza proceso de consultar todos los autores del libro con id = {}", bookId);
+		return authorRepository.fetchDetails(bookEntity.get().getAuthors());
 	}
 
 	/**
@@ -101,7 +119,7 @@ public class BookAuthorService {
 	@Transactional
 	public AuthorEntity getAuthor(Long bookId, Long authorId)
 			throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de consultar un autor del libro con id = {0}", bookId);
+		log.debug("Inicia proceso de consultar un autor del libro con id = {}", bookId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 
@@ -110,8 +128,8 @@ public class BookAuthorService {
 
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
-		log.info("Termina proceso de consultar un autor del libro con id = {0}", bookId);
-		if (!bookEntity.get().getAuthors().contains(authorEntity.get()))
+		log.debug("Termina proceso de consultar un autor del libro con id = {}", bookId);
+		if (!bookRepository.findAuthorIdsById(bookId).contains(authorId))
 			throw new IllegalOperationException("The author is not associated to the book");
 		
 		return authorEntity.get();
@@ -119,7 +137,8 @@ public class BookAuthorService {
 
 	@Transactional
 	/**
-	 * Remplaza las instancias de Author asociadas a una instancia de Book
+	 * Remplaza las instancias de Author asociadas a una instancia de Book. Solo
+	 * se insertan y se borran las asociaciones que cambian.
 	 *
 	 * @param bookId Identificador de la instancia de Book
 	 * @param list    Colección de instancias de AuthorEntity a asociar a instancia
@@ -127,21 +146,59 @@ public class BookAuthorService {
 	 * @return Nueva colección de AuthorEntity asociada a la instancia de Book
 	 */
 	public List<AuthorEntity> replaceAuthors(Long bookId, List<AuthorEntity> list) throws EntityNotFoundException {
-		log.info("Inicia proceso de reemplazar los autores del libro con id = {0}", bookId);
+		log.debug("Inicia proceso de reemplazar los autores del libro con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
-		for (AuthorEntity author : list) {
-			Optional<AuthorEntity> authorEntity = authorRepository.findById(author.getId());
-			if (authorEntity.isEmpty())
-				throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
+		List<Long> authorIds = checkAuthors(ids(list));
+		Set<Long> current = new HashSet<>(bookRepository.findAuthorIdsById(bookId));
+		Set<Long> replacement = new HashSet<>(authorIds);
+		relink(bookEntity.get(), references(authorIds.stream().filter(id -> !current.contains(id)).toList()),
+				references(current.stream().filter(id -> !replacement.contains(id)).toList()));
+		log.debug("Termina proceso de reemplazar los autores del libro con id = {}", bookId);
+		return authorRepository.fetchDetails(bookEntity.get().getAuthors());
+	}
 
-			if (!bookEntity.get().getAuthors().contains(authorEntity.get()))
-				bookEntity.get().getAuthors().add(authorEntity.get());
-		}
-		log.info("Termina proceso de reemplazar los autores del libro con id = {0}", bookId);
-		return bookEntity.get().getAuthors();
+	/**
+	 * Asocia varios autores existentes a un Book. Los que ya estaban asociados
+	 * se ignoran.
+	 *
+	 * @param bookId  Identificador de la instancia de Book
+	 * @param authors Colección de instancias de AuthorEntity a asociar
+	 */
+	@Transactional
+	public void addAuthors(Long bookId, List<AuthorEntity> authors) throws EntityNotFoundException {
+		log.debug("Inicia proceso de asociarle {} autores al libro con id = {}", authors.size(), bookId);
+		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
+		if (bookEntity.isEmpty())
+			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
+
+		List<Long> authorIds = checkAuthors(ids(authors));
+		Set<Long> current = new HashSet<>(bookRepository.findAuthorIdsById(bookId));
+		relink(bookEntity.get(), references(authorIds.stream().filter(id -> !current.contains(id)).toList()),
+				List.of());
+		log.debug("Termina proceso de asociarle {} autores al libro con id = {}", authors.size(), bookId);
+	}
+
+	/**
+	 * Desasocia varios autores existentes de un Book. Los que no estaban
+	 * asociados se ignoran.
+	 *
+	 * @param bookId  Identificador de la instancia de Book
+	 * @param authors Colección de instancias de AuthorEntity a desasociar
+	 */
+	@Transactional
+	public void removeAuthors(Long bookId, List<AuthorEntity> authors) throws EntityNotFoundException {
+		log.debug("Inicia proceso de borrar {} autores del libro con id = {}", authors.size(), bookId);
+		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
+		if (bookEntity.isEmpty())
+			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
+
+		List<Long> authorIds = checkAuthors(ids(authors));
+		Set<Long> current = new HashSet<>(bookRepository.findAuthorIdsById(bookId));
+		relink(bookEntity.get(), List.of(), references(authorIds.stream().filter(current::contains).toList()));
+		log.debug("Termina proceso de borrar {} autores del libro con id = {}", authors.size(), bookId);
 	}
 
 	@Transactional
@@ -152,7 +209,7 @@ public class BookAuthorService {
 	 * @param authorId Identificador de la instancia de Author
 	 */
 	public void removeAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
-		log.info("Inicia proceso de borrar un autor del libro con id = {0}", bookId);
+		log.debug("Inicia proceso de borrar un autor del libro con id = {}", bookId);
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(authorId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 
@@ -162,8 +219,63 @@ public class BookAuthorService {
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
-		bookEntity.get().getAuthors().remove(authorEntity.get());
+		if (bookRepository.findAuthorIdsById(bookId).contains(authorId))
+			relink(bookEntity.get(), List.of(), List.of(authorEntity.get()));
+
+		log.debug("Termina proceso de borrar un autor del libro con id = {}", bookId);
+	}
+
+	/**
+	 * Asocia y desasocia autores del libro con {@link AuthorshipService},
+	 * actualiza los contadores y publica un solo evento de cada tipo con todos los
+	 * autores que cambiaron.
+	 */
+	private void relink(BookEntity book, List<AuthorEntity> linked, List<AuthorEntity> unlinked) {
+		if (linked.isEmpty() && unlinked.isEmpty())
+			return;
+		authorshipService.unlink(book, unlinked);
+		authorshipService.link(book, linked);
+		counterService.add(Counter.BOOK_AUTHORS, book, linked.size() - unlinked.size());
+		for (AuthorEntity author : linked)
+			counterService.increment(Counter.AUTHOR_BOOKS, author);
+		for (AuthorEntity author : unlinked)
+			counterService.decrement(Counter.AUTHOR_BOOKS, author);
+
+		Set<Long> changed = new HashSet<>(ids(linked));
+		changed.addAll(ids(unlinked));
+		eventPublisher.publishEvent(new AuthorshipChangedEvent(book.getId(), ids(linked), ids(unlinked)));
+		eventPublisher.publishEvent(EntityChangedEvent.saved(book));
+		eventPublisher.publishEvent(new DetailsChangedEvent(Set.of(book.getId()), changed));
+	}
+
+	/**
+	 * Verifica que existan los autores con los ids recibidos, sin cargarlos, con
+	 * una consulta de ids por cada bloque de
+	 * {@link AuthorRepository#FETCH_CHUNK_SIZE}.
+	 *
+	 * @return Los ids sin repetidos, en el mismo orden
+	 */
+	private List<Long> checkAuthors(Collection<Long> ids) throws EntityNotFoundException {
+		List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+		int found = 0;
+		for (int from = 0; from < distinct.size(); from += AuthorRepository.FETCH_CHUNK_SIZE) {
+			List<Long> chunk = distinct.subList(from, Math.min(from + AuthorRepository.FETCH_CHUNK_SIZE, distinct.size()));
+			found += authorRepository.findIdsByIdIn(chunk).size();
+		}
+		if (found < distinct.size())
+			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
+		return distinct;
+	}
+
+	/**
+	 * Referencias a los autores, que no se cargan a menos que ya estén en el
+	 * contexto de persistencia.
+	 */
+	private List<AuthorEntity> references(List<Long> ids) {
+		return ids.stream().map(authorRepository::getReferenceById).toList();
+	}
 
-		log.info("Termina proceso de borrar un autor del libro con id = {0}", bookId);
+	private static List<Long> ids(List<AuthorEntity> authors) {
+		return authors.stream().map(AuthorEntity::getId).toList();
 	}
 }
@@ -27,6 +27,7 @@ package co.edu.uniandes.dse.bookstore.services;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +37,7 @@ import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
 import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -47,6 +49,12 @@ public class BookEditorialService {
 
 	@Autowired
 	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private CounterService counterService;
 	
 	/**
 	 * Remplazar la editorial de un book.
@@ -58,7 +66,7 @@ public class BookEditorialService {
 
 	@Transactional
 	public BookEntity replaceEditorial(Long bookId, Long editorialId) throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar libro con id = {0}", bookId);
+		log.debug("Inicia proceso de actualizar libro con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
@@ -67,8 +75,11 @@ public class BookEditorialService {
 		if (editorialEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
 
+		counterService.move(Counter.EDITORIAL_BOOKS, bookEntity.get().getEditorial(), editorialEntity.get());
 		bookEntity.get().setEditorial(editorialEntity.get());
-		log.info("Termina proceso de actualizar libro con id = {0}", bookId);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(bookEntity.get()));
+		eventPublisher.publishEvent(DetailsChangedEvent.of(bookEntity.get()));
+		log.debug("Termina proceso de actualizar libro con id = {}", bookId);
 
 		return bookEntity.get();
 	}
@@ -81,7 +92,7 @@ public class BookEditorialService {
 	 */
 	@Transactional
 	public void removeEditorial(Long bookId) throws EntityNotFoundException {
-		log.info("Inicia proceso de borrar la Editorial del libro con id = {0}", bookId);
+		log.debug("Inicia proceso de borrar la Editorial del libro con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
@@ -90,7 +101,10 @@ public class BookEditorialService {
 				.findById(bookEntity.get().getEditorial().getId());
 		editorialEntity.ifPresent(editorial -> editorial.getBooks().remove(bookEntity.get()));
 
+		counterService.decrement(Counter.EDITORIAL_BOOKS, bookEntity.get().getEditorial());
 		bookEntity.get().setEditorial(null);
-		log.info("Termina proceso de borrar la Editorial del libro con id = {0}", bookId);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(bookEntity.get()));
+		eventPublisher.publishEvent(DetailsChangedEvent.of(bookEntity.get()));
+		log.debug("Termina proceso de borrar la Editorial del libro con id = {}", bookId);
 	}
 }
@@ -24,21 +24,35 @@ SOFTWARE.
 
 package co.edu.uniandes.dse.bookstore.services;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.exceptions.UniqueConstraints;
 import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
 import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -50,6 +64,23 @@ public class BookService {
 
 	@Autowired
 	EditorialRepository editorialRepository;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	CounterService counterService;
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	/**
+	 * Recibe los libros de un recorrido completo, en bloques.
+	 */
+	@FunctionalInterface
+	public interface BookChunkConsumer {
+		void accept(List<BookEntity> books) throws IOException;
+	}
 	
 	/**
 	 * Guardar un nuevo libro
@@ -59,9 +90,9 @@ public class BookService {
 	 * @throws IllegalOperationException Si el ISBN es inválido o ya existe en la
 	 *                                   persistencia o si la editorial es inválida
 	 */
-	@Transactional
+	@Transactional(rollbackFor = IllegalOperationException.class)
 	public BookEntity createBook(BookEntity bookEntity) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de creación del libro");
+		log.debug("Inicia proceso de creación del libro");
 		
 		if (bookEntity.getEditorial() == null)
 			throw new IllegalOperationException("Editorial is not valid");
@@ -73,12 +104,19 @@ public class BookService {
 		if (!validateISBN(bookEntity.getIsbn()))
 			throw new IllegalOperationException("ISBN is not valid");
 
-		if (!bookRepository.findByIsbn(bookEntity.getIsbn()).isEmpty())
-			throw new IllegalOperationException("ISBN already exists");
-
 		bookEntity.setEditorial(editorialEntity.get());
-		log.info("Termina proceso de creación del libro");
-		return bookRepository.save(bookEntity);
+		try {
+			// La restricción única de la base de datos rechaza los ISBN repetidos,
+			// incluso entre creaciones concurrentes.
+			bookEntity = bookRepository.saveAndFlush(bookEntity);
+		} catch (DataIntegrityViolationException e) {
+			throw UniqueConstraints.translate(e);
+		}
+		counterService.increment(Counter.EDITORIAL_BOOKS, bookEntity.getEditorial());
+		eventPublisher.publishEvent(EntityChangedEvent.saved(bookEntity));
+		eventPublisher.publishEvent(DetailsChangedEvent.of(bookEntity));
+		log.debug("Termina proceso de creación del libro");
+		return bookEntity;
 	}
 
 	/**
@@ -88,8 +126,78 @@ public class BookService {
 	 */
 	@Transactional
 	public List<BookEntity> getBooks() {
-		log.info("Inicia proceso de consultar todos los libros");
-		return bookRepository.findAll();
+		log.debug("Inicia proceso de consultar todos los libros");
+		return bookRepository.fetchDetails(bookRepository.findAll());
+	}
+
+	/**
+	 * Recorre todos los libros ordenados por id sin cargarlos juntos en memoria.
+	 * Los libros se leen con un cursor de la base de datos y se entregan en
+	 * bloques de {@link BookRepository#FETCH_CHUNK_SIZE}, con la editorial, los
+	 * autores y las reseñas inicializados. Después de procesar cada bloque sus
+	 * entidades se separan del contexto de persistencia, por lo que el consumidor
+	 * no las debe conservar.
+	 *
+	 * @param consumer Recibe cada bloque de libros.
+	 * @throws IOException Si el consumidor falla al escribir un bloque.
+	 */
+	@Transactional(readOnly = true)
+	public void streamBooks(BookChunkConsumer consumer) throws IOException {
+		log.debug("Inicia proceso de recorrer todos los libros");
+		long count = 0;
+		try (Stream<BookEntity> books = bookRepository.streamAllByOrderByIdAsc()) {
+			Iterator<BookEntity> iterator = books.iterator();
+			List<BookEntity> chunk = new ArrayList<>(BookRepository.FETCH_CHUNK_SIZE);
+			while (iterator.hasNext()) {
+				chunk.add(iterator.next());
+				if (chunk.size() == BookRepository.FETCH_CHUNK_SIZE)
+					count += consumeChunk(chunk, consumer);
+			}
+			if (!chunk.isEmpty())
+				count += consumeChunk(chunk, consumer);
+		}
+		log.debug("Termina proceso de recorrer todos los libros: {} libros", count);
+	}
+
+	private int consumeChunk(List<BookEntity> chunk, BookChunkConsumer consumer) throws IOException {
+		// El siguiente libro del cursor no se debe leer antes de limpiar el
+		// contexto de persistencia, o quedaría separado sin sus detalles.
+		consumer.accept(bookRepository.fetchDetails(chunk));
+		int size = chunk.size();
+		chunk.clear();
+		entityManager.clear();
+		return size;
+	}
+
+	/**
+	 * Devuelve una página de los libros ordenados por id, a partir
+	 * del id recibido.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return Lista de entidades de tipo libro.
+	 */
+	@Transactional
+	public List<BookEntity> getBooks(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de libros");
+		return bookRepository
+				.fetchDetails(bookRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit)));
+	}
+
+	/**
+	 * Devuelve una página de proyecciones de los libros ordenados por id, sin
+	 * cargar las entidades en el contexto de persistencia.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return Lista de proyecciones de tipo libro.
+	 */
+	@Transactional(readOnly = true)
+	public List<BookSummary> getBookSummaries(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de resúmenes de libros");
+		return bookRepository.findSummaryByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
 	}
 
 	/**
@@ -101,11 +209,11 @@ public class BookService {
 	 */
 	@Transactional
 	public BookEntity getBook(Long bookId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar el libro con id = {0}", bookId);
+		log.debug("Inicia proceso de consultar el libro con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
-		log.info("Termina proceso de consultar el libro con id = {0}", bookId);
+		log.debug("Termina proceso de consultar el libro con id = {}", bookId);
 		return bookEntity.get();
 	}
 
@@ -113,15 +221,20 @@ public class BookService {
 	 * Actualizar un libro por ID
 	 *
 	 * @param bookId    El ID del libro a actualizar
-	 * @param book La entidad del libro con los cambios deseados
+	 * @param book La entidad del libro con los cambios deseados. Si trae una
+	 *             versión, debe ser la actual del libro; si no, se actualiza la
+	 *             versión actual.
 	 * @return La entidad del libro luego de actualizarla
 	 * @throws IllegalOperationException Si el ISBN de la actualización es inválido
+	 *                                   o pertenece a otro libro
 	 * @throws EntityNotFoundException Si libro no es encontrado
+	 * @throws ObjectOptimisticLockingFailureException Si la versión no es la
+	 *                                                 actual
 	 */
-	@Transactional
+	@Transactional(rollbackFor = IllegalOperationException.class)
 	public BookEntity updateBook(Long bookId, BookEntity book)
 			throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de actualizar el libro con id = {0}", bookId);
+		log.debug("Inicia proceso de actualizar el libro con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
@@ -129,9 +242,35 @@ public class BookService {
 		if (!validateISBN(book.getIsbn()))
 			throw new IllegalOperationException("ISBN is not valid");
 
+		if (bookRepository.existsByIsbnAndIdNot(book.getIsbn(), bookId))
+			throw new IllegalOperationException(ErrorMessage.ISBN_ALREADY_EXISTS);
+
+		// La editorial del cuerpo solo trae el id y no tiene versión, así que se
+		// reemplaza por la persistida.
+		if (book.getEditorial() != null)
+			book.setEditorial(editorialRepository.findById(book.getEditorial().getId())
+					.orElseThrow(() -> new IllegalOperationException("Editorial is not valid")));
+
+		// Los autores anteriores también cambian, porque el libro puede dejar de ser
+		// suyo.
+		eventPublisher.publishEvent(DetailsChangedEvent.of(bookEntity.get()));
 		book.setId(bookId);
-		log.info("Termina proceso de actualizar el libro con id = {0}", bookId);
-		return bookRepository.save(book);
+		// Con una versión distinta a la actual, merge lanza la excepción de bloqueo
+		// optimista. Sin versión, Spring Data trataría el libro como nuevo.
+		if (book.getVersion() == null)
+			book.setVersion(bookEntity.get().getVersion());
+		// Los autores, las reseñas y sus contadores tienen sus propios servicios; el
+		// cuerpo no los trae y merge los dejaría vacíos.
+		book.setAuthors(bookEntity.get().getAuthors());
+		book.setReviews(bookEntity.get().getReviews());
+		book.setAuthorCount(bookEntity.get().getAuthorCount());
+		book.setReviewCount(bookEntity.get().getReviewCount());
+		counterService.move(Counter.EDITORIAL_BOOKS, bookEntity.get().getEditorial(), book.getEditorial());
+		BookEntity updated = bookRepository.save(book);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(updated));
+		eventPublisher.publishEvent(DetailsChangedEvent.of(updated));
+		log.debug("Termina proceso de actualizar el libro con id = {}", bookId);
+		return updated;
 	}
 
 	/**
@@ -143,18 +282,39 @@ public class BookService {
 	 */
 	@Transactional
 	public void deleteBook(Long bookId) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de borrar el libro con id = {0}", bookId);
+		deleteBook(bookId, null);
+	}
+
+	/**
+	 * Eliminar un libro por ID, si tiene la versión esperada
+	 *
+	 * @param bookId  El ID del libro a eliminar
+	 * @param version La versión actual que se espera, o nulo para no verificarla
+	 * @throws IllegalOperationException si el libro tiene autores asociados
+	 * @throws EntityNotFoundException si el libro no existe
+	 * @throws ObjectOptimisticLockingFailureException si la versión no es la
+	 *                                                 actual
+	 */
+	@Transactional
+	public void deleteBook(Long bookId, Long version) throws EntityNotFoundException, IllegalOperationException {
+		log.debug("Inicia proceso de borrar el libro con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
+		if (version != null && !version.equals(bookEntity.get().getVersion()))
+			throw new ObjectOptimisticLockingFailureException(BookEntity.class, bookId);
+
 		List<AuthorEntity> authors = bookEntity.get().getAuthors();
 
 		if (!authors.isEmpty())
 			throw new IllegalOperationException("Unable to delete book because it has associated authors");
 
 		bookRepository.deleteById(bookId);
-		log.info("Termina proceso de borrar el libro con id = {0}", bookId);
+		counterService.decrement(Counter.EDITORIAL_BOOKS, bookEntity.get().getEditorial());
+		eventPublisher.publishEvent(EntityChangedEvent.deleted(BookEntity.class, bookId));
+		eventPublisher.publishEvent(DetailsChangedEvent.ofBook(bookId));
+		log.debug("Termina proceso de borrar el libro con id = {}", bookId);
 	}
 
 	/**
@@ -0,0 +1,72 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clase que expone las estadísticas del caché de segundo nivel de Hibernate.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class CacheStatisticsService {
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Devuelve las estadísticas de cada región del caché de segundo nivel,
+	 * incluidas las del caché de consultas.
+	 *
+	 * @return Las estadísticas por nombre de región. Si el caché o las
+	 *         estadísticas están desactivados retorna un mapa vacío.
+	 */
+	public Map<String, CacheRegionStatistics> getRegionStatistics() {
+		log.debug("Inicia proceso de consultar las estadísticas del caché");
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Map<String, CacheRegionStatistics> regions = new TreeMap<>();
+		if (!statistics.isStatisticsEnabled())
+			return regions;
+
+		for (String name : statistics.getSecondLevelCacheRegionNames()) {
+			CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+			if (region != null)
+				regions.put(name, region);
+		}
+		return regions;
+	}
+}
@@ -0,0 +1,673 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Grafo en memoria de autores y libros, con una arista por cada fila de
+ * {@code book_entity_authors}. Dos autores son coautores si comparten un libro.
+ *
+ * Los vecinos de cada vértice se guardan en formato CSR: un arreglo de enteros
+ * con los vecinos de todos los vértices, uno tras otro, y otro con la posición
+ * donde empiezan los de cada vértice. Cada lado (autores y libros) numera sus
+ * vértices desde cero y traduce los ids con un mapa, que solo se usa al
+ * comienzo de cada consulta; los recorridos usan los índices, y lo que marcan
+ * por vértice va en arreglos de enteros indexados por vértice.
+ *
+ * Las aristas nuevas van aparte, en un arreglo pequeño por vértice, y las
+ * borradas se marcan con -1 en el arreglo de vecinos. Cuando esos cambios pasan
+ * de {@link #MIN_COMPACT_CHANGES} y de un octavo de las aristas, el grafo se
+ * vuelve a compactar en tiempo lineal.
+ *
+ * No es seguro para acceso concurrente; {@link CoauthorService} lo protege. Las
+ * consultas no lo modifican.
+ *
+ * @author ISIS2603
+ */
+class CoauthorGraph {
+
+	static final int MIN_COMPACT_CHANGES = 1024;
+
+	/**
+	 * Un coautor y la cantidad de libros que comparte con el autor consultado.
+	 */
+	record Coauthor(long id, String name, int sharedBooks) {
+	}
+
+	/**
+	 * Un autor de un camino de colaboración y el libro que comparte con el autor
+	 * anterior, que es nulo para el primero.
+	 */
+	record Step(long authorId, String authorName, Long bookId, String bookName) {
+	}
+
+	private Side authors;
+
+	private Side books;
+
+	private int edges;
+
+	/**
+	 * Aristas agregadas o borradas desde la última compactación.
+	 */
+	private int changes;
+
+	/**
+	 * Búsquedas libres para reutilizar, porque sus arreglos tienen el tamaño
+	 * del grafo. Las consultas concurrentes toman cada una las suyas.
+	 */
+	private final Queue<Search> searches = new ConcurrentLinkedQueue<>();
+
+	CoauthorGraph() {
+		this(new Side(0), new Side(0), 0);
+	}
+
+	private CoauthorGraph(Side authors, Side books, int edges) {
+		this.authors = authors;
+		this.books = books;
+		this.edges = edges;
+	}
+
+	/**
+	 * Agrega un autor o cambia su nombre.
+	 */
+	void putAuthor(long id, String name) {
+		authors.put(id, name);
+	}
+
+	/**
+	 * Agrega un libro o cambia su nombre.
+	 */
+	void putBook(long id, String name) {
+		books.put(id, name);
+	}
+
+	void removeAuthor(long id) {
+		int author = authors.indexOf(id);
+		if (author < 0)
+			return;
+		// Borrar aristas puede compactar el grafo y cambiar los índices.
+		for (long bookId : books.idsOf(authors.neighbors(author)))
+			unlink(bookId, id);
+		authors.delete(authors.indexOf(id));
+	}
+
+	void removeBook(long id) {
+		int book = books.indexOf(id);
+		if (book < 0)
+			return;
+		for (long authorId : authors.idsOf(books.neighbors(book)))
+			unlink(id, authorId);
+		books.delete(books.indexOf(id));
+	}
+
+	/**
+	 * Agrega la arista entre un libro y un autor. Los vértices que no existen se
+	 * agregan sin nombre.
+	 *
+	 * @return Falso si la arista ya existía.
+	 */
+	boolean link(long bookId, long authorId) {
+		int author = authors.put(authorId, null);
+		int book = books.put(bookId, null);
+		if (authors.contains(author, book))
+			return false;
+		authors.add(author, book);
+		books.add(book, author);
+		edges++;
+		changed();
+		return true;
+	}
+
+	/**
+	 * Borra la arista entre un libro y un autor.
+	 *
+	 * @return Falso si la arista no existía.
+	 */
+	boolean unlink(long bookId, long authorId) {
+		int author = authors.indexOf(authorId);
+		int book = books.indexOf(bookId);
+		if (author < 0 || book < 0 || !authors.remove(author, book))
+			return false;
+		books.remove(book, author);
+		edges--;
+		changed();
+		return true;
+	}
+
+	boolean containsAuthor(long id) {
+		return authors.indexOf(id) >= 0;
+	}
+
+	int authorCount() {
+		return authors.index.size();
+	}
+
+	int edgeCount() {
+		return edges;
+	}
+
+	/**
+	 * Los coautores de un autor, del que comparte más libros al que comparte
+	 * menos, y por id en caso de empate.
+	 *
+	 * @return Los coautores, o nulo si el autor no está en el grafo.
+	 */
+	List<Coauthor> coauthors(long authorId) {
+		int author = authors.indexOf(authorId);
+		if (author < 0)
+			return null;
+
+		// Cada coautor aparece una vez por libro compartido; al ordenarlos quedan
+		// juntos y se cuentan de corrido.
+		int[] found = new int[16];
+		int size = 0;
+		for (int book : authors.neighbors(author))
+			for (int coauthor : books.neighbors(book))
+				if (coauthor != author) {
+					if (size == found.length)
+						found = Arrays.copyOf(found, size * 2);
+					found[size++] = coauthor;
+				}
+		Arrays.sort(found, 0, size);
+
+		List<Coauthor> coauthors = new ArrayList<>();
+		int start = 0;
+		while (start < size) {
+			int end = start + 1;
+			while (end < size && found[end] == found[start])
+				end++;
+			int coauthor = found[start];
+			coauthors.add(new Coauthor(authors.ids[coauthor], authors.names[coauthor], end - start));
+			start = end;
+		}
+		coauthors.sort(Comparator.comparingInt(Coauthor::sharedBooks).reversed().thenComparingLong(Coauthor::id));
+		return coauthors;
+	}
+
+	/**
+	 * Un camino de colaboración más corto entre dos autores, buscado desde ambos
+	 * extremos a la vez: en cada paso se expande un nivel completo del lado con la
+	 * frontera más pequeña, hasta que los dos lados se encuentran.
+	 *
+	 * @return Los autores del camino, del primero al último; una lista vacía si
+	 *         no están conectados, o nulo si alguno no está en el grafo.
+	 */
+	List<Step> path(long fromId, long toId) {
+		int source = authors.indexOf(fromId);
+		int target = authors.indexOf(toId);
+		if (source < 0 || target < 0)
+			return null;
+		if (source == target)
+			return List.of(step(source, -1));
+
+		Search forward = search(source);
+		Search backward = search(target);
+		try {
+			while (forward.frontierSize > 0 && backward.frontierSize > 0) {
+				boolean fromSource = forward.frontierSize <= backward.frontierSize;
+				int meeting = fromSource ? expand(forward, backward) : expand(backward, forward);
+				if (meeting >= 0)
+					return steps(forward, backward, meeting);
+			}
+			return List.of();
+		} finally {
+			searches.offer(forward);
+			searches.offer(backward);
+		}
+	}
+
+	/**
+	 * Una búsqueda libre, o una nueva, que empieza en el autor.
+	 */
+	private Search search(int origin) {
+		Search search = searches.poll();
+		if (search == null)
+			search = new Search();
+		search.start(origin, authors.size, books.size);
+		return search;
+	}
+
+	/**
+	 * Expande un nivel de la búsqueda.
+	 *
+	 * @return El autor donde se encuentra con la otra búsqueda más cerca de su
+	 *         origen, o -1 si no se encuentran en este nivel.
+	 */
+	private int expand(Search search, Search other) {
+		int meeting = -1;
+		int meetingDepth = Integer.MAX_VALUE;
+		for (int i = 0; i < search.frontierSize; i++) {
+			int author = search.frontier[i];
+			int depth = search.depth[author] + 1;
+			for (int book : authors.neighbors(author)) {
+				if (!search.visitBook(book))
+					continue;
+				for (int coauthor : books.neighbors(book)) {
+					if (!search.visit(coauthor, author, book, depth))
+						continue;
+					if (other.isVisited(coauthor) && other.depth[coauthor] < meetingDepth) {
+						meeting = coauthor;
+						meetingDepth = other.depth[coauthor];
+					}
+				}
+			}
+		}
+		search.advance();
+		return meeting;
+	}
+
+	private List<Step> steps(Search forward, Search backward, int meeting) {
+		Deque<Step> steps = new ArrayDeque<>();
+		int author = meeting;
+		for (; forward.parent[author] >= 0; author = forward.parent[author])
+			steps.addFirst(step(author, forward.book[author]));
+		steps.addFirst(step(author, -1));
+
+		for (author = meeting; backward.parent[author] >= 0; author = backward.parent[author])
+			steps.addLast(step(backward.parent[author], backward.book[author]));
+		return new ArrayList<>(steps);
+	}
+
+	private Step step(int author, int book) {
+		return new Step(authors.ids[author], authors.names[author], book < 0 ? null : books.ids[book],
+				book < 0 ? null : books.names[book]);
+	}
+
+	private void changed() {
+		if (++changes > Math.max(MIN_COMPACT_CHANGES, edges / 8))
+			compact();
+	}
+
+	/**
+	 * Vuelve a construir los arreglos con las aristas actuales, sin los vértices
+	 * borrados.
+	 */
+	private void compact() {
+		Builder builder = new Builder();
+		for (int author = 0; author < authors.size; author++) {
+			if (!authors.isAlive(author))
+				continue;
+			builder.addAuthor(authors.ids[author], authors.names[author]);
+			for (int book : authors.neighbors(author))
+				builder.link(books.ids[book], authors.ids[author]);
+		}
+		for (int book = 0; book < books.size; book++)
+			if (books.isAlive(book))
+				builder.addBook(books.ids[book], books.names[book]);
+
+		CoauthorGraph compacted = builder.build();
+		authors = compacted.authors;
+		books = compacted.books;
+		edges = compacted.edges;
+		changes = 0;
+	}
+
+	/**
+	 * Una búsqueda en anchura desde un autor. Para cada autor alcanzado guarda,
+	 * en arreglos indexados por vértice, desde qué autor y por qué libro se
+	 * llegó y a cuántos pasos del origen está.
+	 *
+	 * Un vértice está marcado si su época es la de la búsqueda actual, así que
+	 * al reutilizar la búsqueda basta con cambiar de época en lugar de limpiar
+	 * los arreglos.
+	 */
+	private static final class Search {
+
+		private int epoch;
+
+		private int[] authorEpochs = new int[0];
+
+		private int[] bookEpochs = new int[0];
+
+		private int[] parent = new int[0];
+
+		private int[] book = new int[0];
+
+		private int[] depth = new int[0];
+
+		private int[] frontier = new int[16];
+
+		private int frontierSize;
+
+		private int[] next = new int[16];
+
+		private int nextSize;
+
+		void start(int origin, int authorCount, int bookCount) {
+			if (authorEpochs.length < authorCount) {
+				authorEpochs = Arrays.copyOf(authorEpochs, authorCount);
+				parent = Arrays.copyOf(parent, authorCount);
+				book = Arrays.copyOf(book, authorCount);
+				depth = Arrays.copyOf(depth, authorCount);
+			}
+			if (bookEpochs.length < bookCount)
+				bookEpochs = Arrays.copyOf(bookEpochs, bookCount);
+			if (++epoch == 0) {
+				Arrays.fill(authorEpochs, 0);
+				Arrays.fill(bookEpochs, 0);
+				epoch = 1;
+			}
+			frontierSize = 0;
+			nextSize = 0;
+			visit(origin, -1, -1, 0);
+			advance();
+		}
+
+		boolean isVisited(int author) {
+			return authorEpochs[author] == epoch;
+		}
+
+		/**
+		 * Marca el autor y lo agrega al siguiente nivel.
+		 *
+		 * @return Falso si ya estaba marcado.
+		 */
+		boolean visit(int author, int from, int via, int steps) {
+			if (isVisited(author))
+				return false;
+			authorEpochs[author] = epoch;
+			parent[author] = from;
+			book[author] = via;
+			depth[author] = steps;
+			if (nextSize == next.length)
+				next = Arrays.copyOf(next, nextSize * 2);
+			next[nextSize++] = author;
+			return true;
+		}
+
+		/**
+		 * Marca el libro.
+		 *
+		 * @return Falso si ya estaba marcado.
+		 */
+		boolean visitBook(int v) {
+			if (bookEpochs[v] == epoch)
+				return false;
+			bookEpochs[v] = epoch;
+			return true;
+		}
+
+		/**
+		 * Pasa al siguiente nivel los autores marcados desde el último.
+		 */
+		void advance() {
+			int[] previous = frontier;
+			frontier = next;
+			frontierSize = nextSize;
+			next = previous;
+			nextSize = 0;
+		}
+	}
+
+	/**
+	 * Los vértices de un lado del grafo y sus vecinos en el otro lado.
+	 */
+	private static final class Side {
+
+		private long[] ids;
+
+		private String[] names;
+
+		private int size;
+
+		private final Map<Long, Integer> index = new HashMap<>();
+
+		/**
+		 * Vecinos compactados: los de {@code v} están entre {@code offsets[v]} y
+		 * {@code offsets[v + 1]}, para {@code v < compacted}.
+		 */
+		private int[] offsets = { 0 };
+
+		private int[] targets = new int[0];
+
+		private int compacted;
+
+		/**
+		 * Vecinos agregados desde la última compactación.
+		 */
+		private int[][] added;
+
+		private int[] addedCounts;
+
+		Side(int capacity) {
+			ids = new long[capacity];
+			names = new String[capacity];
+			added = new int[capacity][];
+			addedCounts = new int[capacity];
+		}
+
+		int indexOf(long id) {
+			Integer v = index.get(id);
+			return v == null ? -1 : v;
+		}
+
+		boolean isAlive(int v) {
+			Integer current = index.get(ids[v]);
+			return current != null && current == v;
+		}
+
+		long[] idsOf(int[] vertices) {
+			long[] result = new long[vertices.length];
+			for (int i = 0; i < vertices.length; i++)
+				result[i] = ids[vertices[i]];
+			return result;
+		}
+
+		/**
+		 * Agrega el vértice si no existe, o cambia su nombre si no es nulo.
+		 *
+		 * @return El índice del vértice.
+		 */
+		int put(long id, String name) {
+			int v = indexOf(id);
+			if (v >= 0) {
+				if (name != null)
+					names[v] = name;
+				return v;
+			}
+			if (size == ids.length) {
+				int capacity = Math.max(16, size * 2);
+				ids = Arrays.copyOf(ids, capacity);
+				names = Arrays.copyOf(names, capacity);
+				added = Arrays.copyOf(added, capacity);
+				addedCounts = Arrays.copyOf(addedCounts, capacity);
+			}
+			ids[size] = id;
+			names[size] = name;
+			index.put(id, size);
+			return size++;
+		}
+
+		void delete(int v) {
+			index.remove(ids[v]);
+			names[v] = null;
+		}
+
+		/**
+		 * Los vecinos del vértice, sin los borrados.
+		 */
+		int[] neighbors(int v) {
+			int start = v < compacted ? offsets[v] : 0;
+			int end = v < compacted ? offsets[v + 1] : 0;
+			int[] neighbors = new int[end - start + addedCounts[v]];
+			int count = 0;
+			for (int i = start; i < end; i++)
+				if (targets[i] >= 0)
+					neighbors[count++] = targets[i];
+			if (addedCounts[v] > 0) {
+				System.arraycopy(added[v], 0, neighbors, count, addedCounts[v]);
+				count += addedCounts[v];
+			}
+			return count == neighbors.length ? neighbors : Arrays.copyOf(neighbors, count);
+		}
+
+		boolean contains(int v, int target) {
+			if (v < compacted)
+				for (int i = offsets[v]; i < offsets[v + 1]; i++)
+					if (targets[i] == target)
+						return true;
+			for (int i = 0; i < addedCounts[v]; i++)
+				if (added[v][i] == target)
+					return true;
+			return false;
+		}
+
+		void add(int v, int target) {
+			if (added[v] == null)
+				added[v] = new int[2];
+			else if (addedCounts[v] == added[v].length)
+				added[v] = Arrays.copyOf(added[v], addedCounts[v] * 2);
+			added[v][addedCounts[v]++] = target;
+		}
+
+		boolean remove(int v, int target) {
+			for (int i = 0; i < addedCounts[v]; i++) {
+				if (added[v][i] == target) {
+					added[v][i] = added[v][--addedCounts[v]];
+					return true;
+				}
+			}
+			if (v < compacted)
+				for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+					if (targets[i] == target) {
+						targets[i] = -1;
+						return true;
+					}
+				}
+			return false;
+		}
+
+		/**
+		 * Construye los arreglos de vecinos a partir de las aristas, ordenando los
+		 * vecinos de cada vértice y quitando los repetidos.
+		 *
+		 * @return La cantidad de aristas sin repetir.
+		 */
+		int compact(int[] from, int[] to, int count) {
+			offsets = new int[size + 1];
+			for (int i = 0; i < count; i++)
+				offsets[from[i] + 1]++;
+			for (int v = 0; v < size; v++)
+				offsets[v + 1] += offsets[v];
+			int[] next = Arrays.copyOf(offsets, size);
+			targets = new int[count];
+			for (int i = 0; i < count; i++)
+				targets[next[from[i]]++] = to[i];
+
+			int write = 0;
+			for (int v = 0; v < size; v++) {
+				int start = offsets[v];
+				int end = offsets[v + 1];
+				Arrays.sort(targets, start, end);
+				offsets[v] = write;
+				for (int i = start; i < end; i++)
+					if (i == start || targets[i] != targets[i - 1])
+						targets[write++] = targets[i];
+			}
+			offsets[size] = write;
+			if (write < count)
+				targets = Arrays.copyOf(targets, write);
+			compacted = size;
+			return write;
+		}
+	}
+
+	/**
+	 * Acumula autores, libros y aristas para construir el grafo compactado.
+	 */
+	static final class Builder {
+
+		private long[] authorIds = new long[16];
+		private String[] authorNames = new String[16];
+		private int authorCount;
+
+		private long[] bookIds = new long[16];
+		private String[] bookNames = new String[16];
+		private int bookCount;
+
+		private long[] linkBooks = new long[16];
+		private long[] linkAuthors = new long[16];
+		private int linkCount;
+
+		Builder addAuthor(long id, String name) {
+			if (authorCount == authorIds.length) {
+				authorIds = Arrays.copyOf(authorIds, authorCount * 2);
+				authorNames = Arrays.copyOf(authorNames, authorCount * 2);
+			}
+			authorIds[authorCount] = id;
+			authorNames[authorCount++] = name;
+			return this;
+		}
+
+		Builder addBook(long id, String name) {
+			if (bookCount == bookIds.length) {
+				bookIds = Arrays.copyOf(bookIds, bookCount * 2);
+				bookNames = Arrays.copyOf(bookNames, bookCount * 2);
+			}
+			bookIds[bookCount] = id;
+			bookNames[bookCount++] = name;
+			return this;
+		}
+
+		Builder link(long bookId, long authorId) {
+			if (linkCount == linkBooks.length) {
+				linkBooks = Arrays.copyOf(linkBooks, linkCount * 2);
+				linkAuthors = Arrays.copyOf(linkAuthors, linkCount * 2);
+			}
+			linkBooks[linkCount] = bookId;
+			linkAuthors[linkCount++] = authorId;
+			return this;
+		}
+
+		CoauthorGraph build() {
+			Side authors = new Side(authorCount);
+			for (int i = 0; i < authorCount; i++)
+				authors.put(authorIds[i], authorNames[i]);
+			Side books = new Side(bookCount);
+			for (int i = 0; i < bookCount; i++)
+				books.put(bookIds[i], bookNames[i]);
+
+			int[] authorIndexes = new int[linkCount];
+			int[] bookIndexes = new int[linkCount];
+			for (int i = 0; i < linkCount; i++) {
+				authorIndexes[i] = authors.put(linkAuthors[i], null);
+				bookIndexes[i] = books.put(linkBooks[i], null);
+			}
+			int edges = authors.compact(authorIndexes, bookIndexes, linkCount);
+			books.compact(bookIndexes, authorIndexes, linkCount);
+			return new CoauthorGraph(authors, books, edges);
+		}
+	}
+}
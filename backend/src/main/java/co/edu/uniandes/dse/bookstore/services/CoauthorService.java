@@ -0,0 +1,274 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import co.edu.uniandes.dse.bookstore.dto.CoauthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.CollaborationStepDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Consultas sobre el grafo de coautores: con quién ha escrito un autor y el
+ * camino de colaboración más corto entre dos autores.
+ *
+ * El grafo es un {@link CoauthorGraph} en memoria, construido desde
+ * {@code book_entity_authors} al arrancar la aplicación y cada
+ * {@code bookstore.coauthors.refresh-interval}. Las asociaciones se actualizan
+ * con los {@link AuthorshipChangedEvent} y los nombres con los
+ * {@link EntityChangedEvent}, después de que cada transacción se confirma.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class CoauthorService {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	AuthorRepository authorRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Evita dos reconstrucciones a la vez.
+	 */
+	private final Lock rebuilding = new ReentrantLock();
+
+	private CoauthorGraph graph = new CoauthorGraph();
+
+	/**
+	 * Cambios recibidos mientras se reconstruye el grafo, que se aplican al nuevo
+	 * antes de reemplazar el anterior. Es nulo fuera de una reconstrucción.
+	 */
+	private List<Consumer<CoauthorGraph>> pending;
+
+	/**
+	 * Obtiene los autores que comparten al menos un libro con el autor.
+	 *
+	 * @param authorId El id del autor.
+	 * @return Los coautores, del que comparte más libros al que comparte menos.
+	 * @throws EntityNotFoundException Si el autor no existe.
+	 */
+	public List<CoauthorDTO> getCoauthors(Long authorId) throws EntityNotFoundException {
+		List<CoauthorGraph.Coauthor> coauthors;
+		lock.readLock().lock();
+		try {
+			coauthors = graph.coauthors(authorId);
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (coauthors == null) {
+			checkExists(authorId);
+			return List.of();
+		}
+
+		List<CoauthorDTO> dtos = new ArrayList<>(coauthors.size());
+		for (CoauthorGraph.Coauthor coauthor : coauthors)
+			dtos.add(toDTO(coauthor));
+		return dtos;
+	}
+
+	/**
+	 * Obtiene un camino de colaboración más corto entre dos autores: cada autor
+	 * del camino comparte un libro con el anterior.
+	 *
+	 * @param fromId El id del primer autor.
+	 * @param toId   El id del último autor.
+	 * @return Los autores del camino, con el libro que comparte cada uno con el
+	 *         anterior. Si no están conectados retorna una lista vacía.
+	 * @throws EntityNotFoundException Si alguno de los autores no existe.
+	 */
+	public List<CollaborationStepDTO> getPath(Long fromId, Long toId) throws EntityNotFoundException {
+		List<CoauthorGraph.Step> path;
+		lock.readLock().lock();
+		try {
+			path = graph.path(fromId, toId);
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (path == null) {
+			checkExists(fromId);
+			checkExists(toId);
+			return List.of();
+		}
+
+		List<CollaborationStepDTO> steps = new ArrayList<>(path.size());
+		for (CoauthorGraph.Step step : path)
+			steps.add(toDTO(step));
+		return steps;
+	}
+
+	/**
+	 * Un autor que no está en el grafo puede haberse creado en una transacción
+	 * cuyo evento aún no llega.
+	 */
+	private void checkExists(Long authorId) throws EntityNotFoundException {
+		if (!authorRepository.existsById(authorId))
+			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
+	}
+
+	/**
+	 * Construye el grafo desde la base de datos y reemplaza el anterior. Los
+	 * cambios que llegan mientras tanto se aplican a ambos.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${bookstore.coauthors.refresh-interval:PT1H}",
+			initialDelayString = "${bookstore.coauthors.refresh-interval:PT1H}")
+	public void rebuild() {
+		rebuilding.lock();
+		try {
+			log.info("Inicia proceso de construir el grafo de coautores");
+			lock.writeLock().lock();
+			try {
+				pending = new ArrayList<>();
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			CoauthorGraph rebuilt;
+			try {
+				rebuilt = load();
+			} catch (RuntimeException e) {
+				lock.writeLock().lock();
+				try {
+					pending = null;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				throw e;
+			}
+
+			lock.writeLock().lock();
+			try {
+				pending.forEach(update -> update.accept(rebuilt));
+				graph = rebuilt;
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Termina proceso de construir el grafo de coautores: {} autores, {} asociaciones",
+					rebuilt.authorCount(), rebuilt.edgeCount());
+		} finally {
+			rebuilding.unlock();
+		}
+	}
+
+	private CoauthorGraph load() {
+		CoauthorGraph.Builder builder = new CoauthorGraph.Builder();
+		jdbcTemplate.query("select id, name from author_entity", rs -> {
+			builder.addAuthor(rs.getLong(1), rs.getString(2));
+		});
+		jdbcTemplate.query("select id, name from book_entity", rs -> {
+			builder.addBook(rs.getLong(1), rs.getString(2));
+		});
+		jdbcTemplate.query("select books_id, authors_id from book_entity_authors", rs -> {
+			builder.link(rs.getLong(1), rs.getLong(2));
+		});
+		return builder.build();
+	}
+
+	/**
+	 * Agrega y borra las asociaciones cuando se confirman. Si el cambio ocurre
+	 * fuera de una transacción se aplica de inmediato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onAuthorshipChanged(AuthorshipChangedEvent event) {
+		long bookId = event.bookId();
+		apply(graph -> {
+			for (Long authorId : event.unlinked())
+				graph.unlink(bookId, authorId);
+			for (Long authorId : event.linked())
+				graph.link(bookId, authorId);
+		});
+	}
+
+	/**
+	 * Actualiza los nombres cuando se confirma la creación o actualización de un
+	 * autor o un libro, y quita el vértice cuando se confirma su borrado.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		long id = event.id();
+		Consumer<CoauthorGraph> update;
+		if (event.type() == AuthorEntity.class)
+			update = event.isDeleted() ? graph -> graph.removeAuthor(id)
+					: graph -> graph.putAuthor(id, ((AuthorEntity) event.entity()).getName());
+		else if (event.type() == BookEntity.class)
+			update = event.isDeleted() ? graph -> graph.removeBook(id)
+					: graph -> graph.putBook(id, ((BookEntity) event.entity()).getName());
+		else
+			return;
+		apply(update);
+	}
+
+	private void apply(Consumer<CoauthorGraph> update) {
+		lock.writeLock().lock();
+		try {
+			update.accept(graph);
+			if (pending != null)
+				pending.add(update);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private CoauthorDTO toDTO(CoauthorGraph.Coauthor coauthor) {
+		CoauthorDTO dto = new CoauthorDTO();
+		dto.setId(coauthor.id());
+		dto.setName(coauthor.name());
+		dto.setSharedBooks(coauthor.sharedBooks());
+		return dto;
+	}
+
+	private CollaborationStepDTO toDTO(CoauthorGraph.Step step) {
+		CollaborationStepDTO dto = new CollaborationStepDTO();
+		dto.setAuthorId(step.authorId());
+		dto.setAuthorName(step.authorName());
+		dto.setBookId(step.bookId());
+		dto.setBookName(step.bookName());
+		return dto;
+	}
+}
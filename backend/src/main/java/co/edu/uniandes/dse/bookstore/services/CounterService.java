@@ -0,0 +1,322 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mantiene los contadores desnormalizados de reseñas y autores por libro, de
+ * libros y premios por autor y de libros por editorial, para mostrarlos sin
+ * cargar las colecciones.
+ *
+ * Los servicios que cambian una asociación registran el cambio aquí, dentro de
+ * su transacción. Los cambios se acumulan por fila y se aplican justo antes de
+ * confirmarla, con un {@code update ... set c = c + ?} por fila, en el mismo
+ * orden en todas las transacciones: así las escrituras concurrentes no pierden
+ * incrementos ni se bloquean entre sí, y si la transacción se revierte los
+ * contadores tampoco cambian. Las sentencias van por JDBC y no por HQL, porque
+ * una actualización masiva de Hibernate invalida toda la región del caché de
+ * segundo nivel; en cambio, al confirmar se desalojan solo las entidades que
+ * cambiaron.
+ *
+ * {@link #reconcile()} recalcula periódicamente los contadores que no coinciden
+ * con las asociaciones, por ejemplo tras cambios hechos directamente en la base
+ * de datos.
+ *
+ * Después de confirmar, y después de cada corrección, publica un
+ * {@link CountersChangedEvent} con los contadores que cambiaron, para los
+ * índices que ordenan por contador.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class CounterService {
+
+	/**
+	 * Contadores desnormalizados: la columna que guarda el contador y la tabla y
+	 * la llave foránea de las filas que cuenta.
+	 */
+	public enum Counter {
+		BOOK_REVIEWS(BookEntity.class, "book_entity", "review_count", "review_entity", "book_id"),
+		BOOK_AUTHORS(BookEntity.class, "book_entity", "author_count", "book_entity_authors", "books_id"),
+		AUTHOR_BOOKS(AuthorEntity.class, "author_entity", "book_count", "book_entity_authors", "authors_id"),
+		AUTHOR_PRIZES(AuthorEntity.class, "author_entity", "prize_count", "prize_entity", "author_id"),
+		EDITORIAL_BOOKS(EditorialEntity.class, "editorial_entity", "book_count", "book_entity", "editorial_id");
+
+		private final Class<? extends BaseEntity> entityType;
+		private final String table;
+		private final String column;
+		private final String countQuery;
+
+		Counter(Class<? extends BaseEntity> entityType, String table, String column, String countedTable,
+				String foreignKey) {
+			this.entityType = entityType;
+			this.table = table;
+			this.column = column;
+			this.countQuery = "(select count(*) from " + countedTable + " s where s." + foreignKey + " = t.id)";
+		}
+
+		Class<? extends BaseEntity> entityType() {
+			return entityType;
+		}
+
+		String table() {
+			return table;
+		}
+
+		String column() {
+			return column;
+		}
+
+		/**
+		 * Sentencia que corrige las filas cuyo contador no coincide con el conteo.
+		 */
+		String reconcileSql() {
+			return "update " + table + " t set " + column + " = " + countQuery + " where " + column + " <> "
+					+ countQuery;
+		}
+
+		/**
+		 * Ajusta el valor del contador en la entidad, que las sentencias de este
+		 * servicio no actualizan.
+		 */
+		void adjust(BaseEntity entity, int delta) {
+			switch (this) {
+			case BOOK_REVIEWS -> {
+				BookEntity book = (BookEntity) entity;
+				book.setReviewCount(book.getReviewCount() + delta);
+			}
+			case BOOK_AUTHORS -> {
+				BookEntity book = (BookEntity) entity;
+				book.setAuthorCount(book.getAuthorCount() + delta);
+			}
+			case AUTHOR_BOOKS -> {
+				AuthorEntity author = (AuthorEntity) entity;
+				author.setBookCount(author.getBookCount() + delta);
+			}
+			case AUTHOR_PRIZES -> {
+				AuthorEntity author = (AuthorEntity) entity;
+				author.setPrizeCount(author.getPrizeCount() + delta);
+			}
+			case EDITORIAL_BOOKS -> {
+				EditorialEntity editorial = (EditorialEntity) entity;
+				editorial.setBookCount(editorial.getBookCount() + delta);
+			}
+			}
+		}
+	}
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Suma uno al contador de la entidad. No hace nada si la entidad es nula.
+	 *
+	 * @param counter El contador
+	 * @param entity  La entidad dueña del contador
+	 */
+	public void increment(Counter counter, BaseEntity entity) {
+		add(counter, entity, 1);
+	}
+
+	/**
+	 * Resta uno al contador de la entidad. No hace nada si la entidad es nula.
+	 *
+	 * @param counter El contador
+	 * @param entity  La entidad dueña del contador
+	 */
+	public void decrement(Counter counter, BaseEntity entity) {
+		add(counter, entity, -1);
+	}
+
+	/**
+	 * Pasa uno del contador de una entidad al de otra, cuando un elemento
+	 * contado cambia de dueño. No hace nada si ambas son la misma, y una entidad
+	 * nula se ignora.
+	 *
+	 * @param counter El contador
+	 * @param from    El dueño anterior
+	 * @param to      El dueño nuevo
+	 */
+	public void move(Counter counter, BaseEntity from, BaseEntity to) {
+		if (from != null && to != null && from.getId().equals(to.getId()))
+			return;
+		add(counter, from, -1);
+		add(counter, to, 1);
+	}
+
+	/**
+	 * Suma una cantidad, que puede ser negativa, al contador de la entidad. No
+	 * hace nada si la entidad es nula.
+	 *
+	 * @param counter El contador
+	 * @param entity  La entidad dueña del contador
+	 * @param delta   La cantidad a sumar
+	 */
+	public void add(Counter counter, BaseEntity entity, int delta) {
+		if (entity == null)
+			return;
+		// Cambiar un proxy sin inicializar lo cargaría de la base de datos; su
+		// valor ya incluirá el cambio cuando se cargue después de confirmar.
+		if (Hibernate.isInitialized(entity))
+			counter.adjust(entity, delta);
+
+		PendingCounters pending = (PendingCounters) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			pending = new PendingCounters();
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.bindResource(this, pending);
+				TransactionSynchronizationManager.registerSynchronization(pending);
+			} else {
+				pending.add(counter, entity.getId(), delta);
+				pending.apply();
+				pending.afterCommit();
+				return;
+			}
+		}
+		pending.add(counter, entity.getId(), delta);
+	}
+
+	/**
+	 * Recalcula los contadores que no coinciden con las asociaciones de la base
+	 * de datos. Cada contador se corrige con una sola sentencia, en su propia
+	 * transacción.
+	 *
+	 * @return La cantidad de contadores corregidos
+	 */
+	@Scheduled(fixedDelayString = "${bookstore.counters.reconcile-interval:PT1H}",
+			initialDelayString = "${bookstore.counters.reconcile-interval:PT1H}")
+	public int reconcile() {
+		int repaired = 0;
+		for (Counter counter : Counter.values()) {
+			int rows = jdbcTemplate.update(counter.reconcileSql());
+			if (rows > 0) {
+				log.warn("Se corrigieron {} contadores {} que no coincidían con la base de datos", rows, counter);
+				entityManager.getEntityManagerFactory().getCache().evict(counter.entityType);
+				repaired += rows;
+			}
+		}
+		if (repaired > 0)
+			eventPublisher.publishEvent(CountersChangedEvent.ofReconcile());
+		return repaired;
+	}
+
+	/**
+	 * Cambios de los contadores de una transacción, por tabla y por id en orden.
+	 * Corre antes que las demás sincronizaciones de la transacción, aunque se
+	 * registre después: al confirmar, las que invalidan otros cachés ya no
+	 * encuentran en el de segundo nivel las entidades con el contador anterior.
+	 */
+	private final class PendingCounters implements TransactionSynchronization, Ordered {
+
+		private final Map<String, Map<Long, Map<Counter, Integer>>> deltas = new TreeMap<>();
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+
+		void add(Counter counter, Long id, int delta) {
+			deltas.computeIfAbsent(counter.table, table -> new TreeMap<>())
+					.computeIfAbsent(id, key -> new EnumMap<>(Counter.class))
+					.merge(counter, delta, Integer::sum);
+		}
+
+		void apply() {
+			deltas.forEach((table, rows) -> rows.forEach((id, counters) -> {
+				StringJoiner set = new StringJoiner(", ", "update " + table + " set ", " where id = ?");
+				List<Object> args = new ArrayList<>();
+				counters.forEach((counter, delta) -> {
+					if (delta != 0) {
+						set.add(counter.column + " = " + counter.column + " + ?");
+						args.add(delta);
+					}
+				});
+				if (!args.isEmpty()) {
+					args.add(id);
+					jdbcTemplate.update(set.toString(), args.toArray());
+				}
+			}));
+		}
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			// Las filas creadas en la transacción deben existir antes de actualizarlas.
+			entityManager.flush();
+			apply();
+		}
+
+		@Override
+		public void afterCommit() {
+			Map<Counter, Set<Long>> changed = new EnumMap<>(Counter.class);
+			deltas.values().forEach(rows -> rows.forEach((id, counters) -> {
+				Class<? extends BaseEntity> type = counters.keySet().iterator().next().entityType;
+				entityManager.getEntityManagerFactory().getCache().evict(type, id);
+				counters.forEach((counter, delta) -> {
+					if (delta != 0)
+						changed.computeIfAbsent(counter, key -> new HashSet<>()).add(id);
+				});
+			}));
+			if (!changed.isEmpty())
+				eventPublisher.publishEvent(CountersChangedEvent.of(changed));
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(CounterService.this);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.Map;
+import java.util.Set;
+
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
+
+/**
+ * Evento que publica {@link CounterService} después de confirmar los cambios de
+ * los contadores de una transacción, o después de corregir contadores con
+ * {@link CounterService#reconcile()}. Se publica ya fuera de la transacción, así
+ * que los interesados lo reciben con {@code @EventListener}.
+ *
+ * Solo dice qué contadores cambiaron y no cuánto: los interesados leen el
+ * valor confirmado, así que recibir un evento tarde, dos veces o después de
+ * una lectura que ya lo incluye no cuenta el cambio dos veces.
+ *
+ * @param ids        Los ids de las entidades dueñas de cada contador que
+ *                   cambió.
+ * @param reconciled Verdadero si los contadores se recalcularon desde la base
+ *                   de datos; en ese caso no hay ids y los interesados deben
+ *                   volver a leerlos todos.
+ *
+ * @author ISIS2603
+ */
+public record CountersChangedEvent(Map<Counter, Set<Long>> ids, boolean reconciled) {
+
+	/**
+	 * Crea el evento de los cambios confirmados de una transacción.
+	 */
+	public static CountersChangedEvent of(Map<Counter, Set<Long>> ids) {
+		return new CountersChangedEvent(ids, false);
+	}
+
+	/**
+	 * Crea el evento de una corrección de contadores.
+	 */
+	public static CountersChangedEvent ofReconcile() {
+		return new CountersChangedEvent(Map.of(), true);
+	}
+}
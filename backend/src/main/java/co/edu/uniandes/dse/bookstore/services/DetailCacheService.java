@@ -0,0 +1,292 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caché de lectura del detalle de los libros y de los autores, ya convertido a
+ * DTO. Cada caché tiene un número máximo de entradas y Caffeine desaloja con
+ * W-TinyLFU, que conserva los detalles consultados con más frecuencia aunque
+ * un recorrido de detalles poco consultados pase por el caché.
+ *
+ * Las entradas se invalidan con los {@link DetailsChangedEvent} que publican
+ * los servicios, después de que cada transacción se confirma. Al empezar una
+ * carga se guarda en el caché un futuro, que las peticiones concurrentes por
+ * la misma llave esperan, y la carga corre en el hilo que lo creó sin bloquear
+ * la llave; una invalidación que llega durante la carga quita el futuro, así
+ * que su resultado no queda en el caché. Cada detalle se guarda con la versión
+ * del detalle con la que se construyó ({@link DetailVersion}), que también se
+ * puede consultar sin cargar el detalle. Los DTO retornados son compartidos y
+ * no se deben modificar.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class DetailCacheService {
+
+	static final String BOOK_DETAILS = "book-details";
+
+	static final String AUTHOR_DETAILS = "author-details";
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	AuthorService authorService;
+
+	@Autowired
+	DetailVersionService detailVersionService;
+
+	@Autowired
+	BookstoreMapper bookstoreMapper;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${bookstore.detail-cache.books.maximum-size:10000}")
+	long bookMaximumSize;
+
+	@Value("${bookstore.detail-cache.authors.maximum-size:10000}")
+	long authorMaximumSize;
+
+	private AsyncCache<Long, VersionedDetail<BookDetailDTO>> books;
+
+	private AsyncCache<Long, VersionedDetail<AuthorDetailDTO>> authors;
+
+	private TransactionTemplate readTransaction;
+
+	/**
+	 * Llamadas que cargaron un detalle y llamadas que esperaron la carga en curso
+	 * de otra.
+	 */
+	private record Flights(LongAdder originating, LongAdder coalesced) {
+		Flights() {
+			this(new LongAdder(), new LongAdder());
+		}
+
+		SingleFlight.Statistics statistics() {
+			return new SingleFlight.Statistics(originating.sum(), coalesced.sum());
+		}
+	}
+
+	private final Flights bookFlights = new Flights();
+
+	private final Flights authorFlights = new Flights();
+
+	@PostConstruct
+	void init() {
+		books = Caffeine.newBuilder().maximumSize(bookMaximumSize).recordStats().buildAsync();
+		authors = Caffeine.newBuilder().maximumSize(authorMaximumSize).recordStats().buildAsync();
+		// Una transacción propia, para no guardar cambios que aún no se confirman.
+		readTransaction = new TransactionTemplate(transactionManager);
+		readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		readTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Retorna el detalle de un libro, del caché o de la base de datos.
+	 *
+	 * @param bookId El id del libro.
+	 * @return El detalle del libro, con su versión.
+	 * @throws EntityNotFoundException Si el libro no existe.
+	 */
+	public VersionedDetail<BookDetailDTO> getBookDetail(Long bookId) throws EntityNotFoundException {
+		VersionedDetail<BookDetailDTO> detail = get(books, bookFlights, bookId, id -> readTransaction.execute(status -> {
+			try {
+				BookEntity book = bookService.getBook(id);
+				BookDetailDTO dto = bookstoreMapper.toBookDetailDTO(book);
+				return new VersionedDetail<>(DetailVersionService.of(book), dto);
+			} catch (EntityNotFoundException e) {
+				return null;
+			}
+		}));
+		if (detail == null)
+			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
+		return detail;
+	}
+
+	/**
+	 * Retorna el detalle de un autor, del caché o de la base de datos.
+	 *
+	 * @param authorId El id del autor.
+	 * @return El detalle del autor, con su versión.
+	 * @throws EntityNotFoundException Si el autor no existe.
+	 */
+	public VersionedDetail<AuthorDetailDTO> getAuthorDetail(Long authorId) throws EntityNotFoundException {
+		VersionedDetail<AuthorDetailDTO> detail = get(authors, authorFlights, authorId, id -> readTransaction.execute(status -> {
+			try {
+				AuthorEntity author = authorService.getAuthor(id);
+				AuthorDetailDTO dto = bookstoreMapper.toAuthorDetailDTO(author);
+				return new VersionedDetail<>(DetailVersionService.of(author), dto);
+			} catch (EntityNotFoundException e) {
+				return null;
+			}
+		}));
+		if (detail == null)
+			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
+		return detail;
+	}
+
+	/**
+	 * Retorna la versión del detalle de un libro, la del caché o, si no está,
+	 * la que se consulta sin cargar el detalle.
+	 *
+	 * @param bookId El id del libro.
+	 * @return La versión del detalle del libro.
+	 * @throws EntityNotFoundException Si el libro no existe.
+	 */
+	public DetailVersion getBookVersion(Long bookId) throws EntityNotFoundException {
+		VersionedDetail<BookDetailDTO> cached = cached(books, bookId);
+		return cached != null ? cached.version() : detailVersionService.getBookVersion(bookId);
+	}
+
+	/**
+	 * Retorna la versión del detalle de un autor, la del caché o, si no está,
+	 * la que se consulta sin cargar el detalle.
+	 *
+	 * @param authorId El id del autor.
+	 * @return La versión del detalle del autor.
+	 * @throws EntityNotFoundException Si el autor no existe.
+	 */
+	public DetailVersion getAuthorVersion(Long authorId) throws EntityNotFoundException {
+		VersionedDetail<AuthorDetailDTO> cached = cached(authors, authorId);
+		return cached != null ? cached.version() : detailVersionService.getAuthorVersion(authorId);
+	}
+
+	/**
+	 * Retorna el detalle si ya terminó de cargarse, sin esperar una carga en
+	 * curso.
+	 */
+	private static <T> VersionedDetail<T> cached(AsyncCache<Long, VersionedDetail<T>> cache, Long id) {
+		CompletableFuture<VersionedDetail<T>> detail = cache.getIfPresent(id);
+		if (detail == null || !detail.isDone() || detail.isCompletedExceptionally())
+			return null;
+		return detail.join();
+	}
+
+	/**
+	 * Retorna el detalle del caché o lo carga. La función de Caffeine solo guarda
+	 * el futuro; la carga se hace después, fuera del bloqueo de la llave, para
+	 * que un hilo virtual que espera una conexión no quede fijo a su portador.
+	 * Las llamadas concurrentes por un detalle que no está en el caché esperan la
+	 * misma carga.
+	 */
+	private static <T> VersionedDetail<T> get(AsyncCache<Long, VersionedDetail<T>> cache, Flights flights, Long id,
+			Function<Long, VersionedDetail<T>> loader) {
+		CompletableFuture<VersionedDetail<T>> load = new CompletableFuture<>();
+		CompletableFuture<VersionedDetail<T>> detail = cache.get(id, (key, executor) -> load);
+		if (detail != load && !detail.isDone())
+			flights.coalesced().increment();
+		if (detail == load) {
+			flights.originating().increment();
+			try {
+				load.complete(loader.apply(id));
+			} catch (RuntimeException | Error e) {
+				load.completeExceptionally(e);
+			}
+		}
+		try {
+			return detail.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause)
+				throw cause;
+			if (e.getCause() instanceof Error cause)
+				throw cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * Estadísticas de aciertos, fallos, cargas y desalojos de cada caché.
+	 *
+	 * @return Las estadísticas por nombre de caché.
+	 */
+	public Map<String, CacheStats> getStatistics() {
+		Map<String, CacheStats> statistics = new LinkedHashMap<>();
+		statistics.put(BOOK_DETAILS, books.synchronous().stats());
+		statistics.put(AUTHOR_DETAILS, authors.synchronous().stats());
+		return statistics;
+	}
+
+	/**
+	 * Número de cargas de cada caché y de llamadas que esperaron una carga en
+	 * curso en lugar de repetirla.
+	 *
+	 * @return Las estadísticas por nombre de caché.
+	 */
+	public Map<String, SingleFlight.Statistics> getCoalescingStatistics() {
+		Map<String, SingleFlight.Statistics> statistics = new LinkedHashMap<>();
+		statistics.put(BOOK_DETAILS, bookFlights.statistics());
+		statistics.put(AUTHOR_DETAILS, authorFlights.statistics());
+		return statistics;
+	}
+
+	/**
+	 * Invalida los detalles afectados cuando se confirma un cambio. Si el cambio
+	 * ocurre fuera de una transacción se invalidan de inmediato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDetailsChanged(DetailsChangedEvent event) {
+		log.debug("Invalida el detalle de los libros {} y de los autores {}", event.bookIds(), event.authorIds());
+		books.synchronous().invalidateAll(event.bookIds());
+		authors.synchronous().invalidateAll(event.authorIds());
+	}
+
+	/**
+	 * Borra todas las entradas, sin reiniciar las estadísticas.
+	 */
+	public void clear() {
+		books.synchronous().invalidateAll();
+		authors.synchronous().invalidateAll();
+	}
+}
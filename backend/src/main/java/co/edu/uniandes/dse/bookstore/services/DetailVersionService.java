@@ -0,0 +1,153 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import co.edu.uniandes.dse.bookstore.dto.EntityVersion;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+
+/**
+ * Calcula la versión del detalle de los libros y de los autores. El detalle de
+ * un libro muestra su editorial, sus autores y sus reseñas; el de un autor sus
+ * libros, con la editorial de cada uno, y sus premios, con su organización.
+ * Renombrar una editorial cambia el detalle de todos sus libros sin cambiar
+ * sus filas, así que en lugar de incrementar la versión de cada libro la
+ * versión del detalle resume las versiones de todas las entidades que muestra.
+ * Cambia con cualquiera de ellas, también cuando se agrega o se quita una, y
+ * se puede consultar sin cargar el detalle.
+ *
+ * @author ISIS2603
+ */
+@Service
+public class DetailVersionService {
+
+	private static final Comparator<EntityVersion> ORDER = Comparator.comparingInt(EntityVersion::kind)
+			.thenComparing(EntityVersion::id).thenComparing(EntityVersion::version,
+					Comparator.nullsFirst(Comparator.naturalOrder()));
+
+	@Autowired
+	BookRepository bookRepository;
+
+	@Autowired
+	AuthorRepository authorRepository;
+
+	/**
+	 * Consulta la versión del detalle de un libro, leyendo solo ids y versiones.
+	 *
+	 * @param bookId El id del libro.
+	 * @return La versión del detalle.
+	 * @throws EntityNotFoundException Si el libro no existe.
+	 */
+	@Transactional(readOnly = true)
+	public DetailVersion getBookVersion(Long bookId) throws EntityNotFoundException {
+		List<EntityVersion> versions = bookRepository.findDetailVersionsById(bookId);
+		if (versions.isEmpty())
+			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
+		return digest(EntityVersion.BOOK, bookId, versions);
+	}
+
+	/**
+	 * Consulta la versión del detalle de un autor, leyendo solo ids y versiones.
+	 *
+	 * @param authorId El id del autor.
+	 * @return La versión del detalle.
+	 * @throws EntityNotFoundException Si el autor no existe.
+	 */
+	@Transactional(readOnly = true)
+	public DetailVersion getAuthorVersion(Long authorId) throws EntityNotFoundException {
+		List<EntityVersion> versions = authorRepository.findDetailVersionsById(authorId);
+		if (versions.isEmpty())
+			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
+		return digest(EntityVersion.AUTHOR, authorId, versions);
+	}
+
+	/**
+	 * Calcula la versión del detalle de un libro ya cargado. Inicializa la
+	 * editorial, los autores y las reseñas que no lo estén.
+	 */
+	public static DetailVersion of(BookEntity book) {
+		List<EntityVersion> versions = new ArrayList<>();
+		add(versions, EntityVersion.BOOK, book);
+		add(versions, EntityVersion.EDITORIAL, book.getEditorial());
+		for (AuthorEntity author : book.getAuthors())
+			add(versions, EntityVersion.AUTHOR, author);
+		for (ReviewEntity review : book.getReviews())
+			add(versions, EntityVersion.REVIEW, review);
+		return digest(EntityVersion.BOOK, book.getId(), versions);
+	}
+
+	/**
+	 * Calcula la versión del detalle de un autor ya cargado. Inicializa los
+	 * libros, los premios y sus asociaciones que no lo estén.
+	 */
+	public static DetailVersion of(AuthorEntity author) {
+		List<EntityVersion> versions = new ArrayList<>();
+		add(versions, EntityVersion.AUTHOR, author);
+		for (BookEntity book : author.getBooks()) {
+			add(versions, EntityVersion.BOOK, book);
+			add(versions, EntityVersion.EDITORIAL, book.getEditorial());
+		}
+		for (PrizeEntity prize : author.getPrizes()) {
+			add(versions, EntityVersion.PRIZE, prize);
+			add(versions, EntityVersion.ORGANIZATION, prize.getOrganization());
+		}
+		return digest(EntityVersion.AUTHOR, author.getId(), versions);
+	}
+
+	private static void add(List<EntityVersion> versions, int kind, BaseEntity entity) {
+		if (entity != null)
+			versions.add(new EntityVersion(kind, entity.getId(), entity.getVersion()));
+	}
+
+	/**
+	 * Resume las versiones con {@link VersionHash}, en orden de tipo e id para que el
+	 * resultado no dependa del orden en que se leyeron.
+	 */
+	private static DetailVersion digest(int kind, Long id, List<EntityVersion> versions) {
+		Long version = null;
+		long digest = VersionHash.OFFSET_BASIS;
+		for (EntityVersion entity : versions.stream().sorted(ORDER).toList()) {
+			if (entity.kind() == kind && entity.id().equals(id))
+				version = entity.version();
+			digest = VersionHash.mix(VersionHash.mix(VersionHash.mix(digest, (long) entity.kind()), entity.id()),
+					entity.version());
+		}
+		return new DetailVersion(id, version, digest);
+	}
+}
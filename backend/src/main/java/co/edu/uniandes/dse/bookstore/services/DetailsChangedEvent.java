@@ -0,0 +1,79 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+
+/**
+ * Evento que publican los servicios cuando un cambio afecta el detalle de
+ * libros o de autores, con los ids de los detalles afectados. El detalle de un
+ * libro incluye su editorial, sus autores y sus reseñas; el de un autor incluye
+ * sus libros, con la editorial de cada uno, y sus premios, con su organización.
+ *
+ * Los ids se leen al crear el evento, de modo que un cambio que quita una
+ * asociación debe publicarlo antes de quitarla o incluir ambos lados. Los
+ * interesados lo reciben después de que la transacción se confirma.
+ *
+ * @param bookIds   Ids de los libros cuyo detalle cambió.
+ * @param authorIds Ids de los autores cuyo detalle cambió.
+ *
+ * @author ISIS2603
+ */
+public record DetailsChangedEvent(Set<Long> bookIds, Set<Long> authorIds) {
+
+	/**
+	 * Crea el evento de un libro, que afecta también a sus autores.
+	 */
+	public static DetailsChangedEvent of(BookEntity book) {
+		Set<Long> authorIds = new HashSet<>();
+		for (AuthorEntity author : book.getAuthors())
+			authorIds.add(author.getId());
+		return new DetailsChangedEvent(Set.of(book.getId()), authorIds);
+	}
+
+	/**
+	 * Crea el evento de la asociación entre un libro y un autor.
+	 */
+	public static DetailsChangedEvent of(BookEntity book, AuthorEntity author) {
+		return new DetailsChangedEvent(Set.of(book.getId()), Set.of(author.getId()));
+	}
+
+	/**
+	 * Crea el evento de un solo libro, sin sus autores.
+	 */
+	public static DetailsChangedEvent ofBook(Long bookId) {
+		return new DetailsChangedEvent(Set.of(bookId), Set.of());
+	}
+
+	/**
+	 * Crea el evento de un solo autor, sin sus libros.
+	 */
+	public static DetailsChangedEvent ofAuthor(Long authorId) {
+		return new DetailsChangedEvent(Set.of(), Set.of(authorId));
+	}
+}
@@ -30,15 +30,24 @@ import java.util.Optional;
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
 import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
 import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -56,6 +65,30 @@ public class EditorialBookService {
 
 	@Autowired
 	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final SingleFlight<Long, List<VersionedDetail<BookDetailDTO>>> bookDetails = new SingleFlight<>();
+
+	private TransactionTemplate readTransaction;
+
+	@PostConstruct
+	void init() {
+		// La carga se comparte entre peticiones, así que no usa la sesión de ninguna.
+		readTransaction = new TransactionTemplate(transactionManager);
+		readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		readTransaction.setReadOnly(true);
+	}
 	
 	/**
 	 * Agregar un book a la editorial
@@ -68,7 +101,7 @@ public class EditorialBookService {
 	
 	@Transactional
 	public BookEntity addBook(Long bookId, Long editorialId) throws EntityNotFoundException {
-		log.info("Inicia proceso de agregarle un libro a la editorial con id = {0}", editorialId);
+		log.debug("Inicia proceso de agregarle un libro a la editorial con id = {}", editorialId);
 		
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if(bookEntity.isEmpty())
@@ -78,8 +111,11 @@ public class EditorialBookService {
 		if(editorialEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
 		
+		counterService.move(Counter.EDITORIAL_BOOKS, bookEntity.get().getEditorial(), editorialEntity.get());
 		bookEntity.get().setEditorial(editorialEntity.get());
-		log.info("Termina proceso de agregarle un libro a la editorial con id = {0}", editorialId);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(bookEntity.get()));
+		eventPublisher.publishEvent(DetailsChangedEvent.of(bookEntity.get()));
+		log.debug("Termina proceso de agregarle un libro a la editorial con id = {}", editorialId);
 		return bookEntity.get();
 	}
 
@@ -92,12 +128,51 @@ public class EditorialBookService {
 	 */
 	@Transactional
 	public List<BookEntity> getBooks(Long editorialId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar los libros asociados a la editorial con id = {0}", editorialId);
+		log.debug("Inicia proceso de consultar los libros asociados a la editorial con id = {}", editorialId);
 		Optional<EditorialEntity> editorialEntity = editorialRepository.findById(editorialId);
 		if(editorialEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
 		
-		return editorialEntity.get().getBooks();
+		return bookRepository.fetchDetails(editorialEntity.get().getBooks());
+	}
+
+	/**
+	 * Retorna el detalle de los libros de una editorial, con sus versiones. Las
+	 * llamadas concurrentes por la misma editorial comparten una sola consulta.
+	 *
+	 * @param editorialId El ID de la editorial buscada
+	 * @return El detalle de los libros de la editorial. Es compartido y no se
+	 *         debe modificar.
+	 * @throws EntityNotFoundException si la editorial no existe
+	 */
+	public List<VersionedDetail<BookDetailDTO>> getBookDetails(Long editorialId) throws EntityNotFoundException {
+		List<VersionedDetail<BookDetailDTO>> details = bookDetails.execute(editorialId,
+				() -> readTransaction.execute(status -> editorialRepository.findById(editorialId)
+						.map(editorial -> bookRepository.fetchDetails(editorial.getBooks()).stream()
+								.map(book -> new VersionedDetail<>(DetailVersionService.of(book),
+										bookstoreMapper.toBookDetailDTO(book)))
+								.toList())
+						.orElse(null)));
+		if (details == null)
+			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
+		return details;
+	}
+
+	/**
+	 * Número de consultas de {@link #getBookDetails} y de llamadas que esperaron
+	 * una consulta en curso en lugar de repetirla.
+	 */
+	public SingleFlight.Statistics getCoalescingStatistics() {
+		return bookDetails.statistics();
+	}
+
+	/**
+	 * Cuando se confirma un cambio de detalle, las llamadas siguientes ya no se
+	 * agrupan con las consultas que empezaron antes, que pudieron no verlo.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onDetailsChanged(DetailsChangedEvent event) {
+		bookDetails.forgetAll();
 	}
 
 	/**
@@ -111,7 +186,7 @@ public class EditorialBookService {
 	 */
 	@Transactional
 	public BookEntity getBook(Long editorialId, Long bookId) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de consultar el libro con id = {0} de la editorial con id = " + editorialId, bookId);
+		log.debug("Inicia proceso de consultar el libro con id = {} de la editorial con id = {}", bookId, editorialId);
 		
 		Optional<EditorialEntity> editorialEntity = editorialRepository.findById(editorialId);
 		if(editorialEntity.isEmpty())
@@ -121,7 +196,7 @@ public class EditorialBookService {
 		if(bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 				
-		log.info("Termina proceso de consultar el libro con id = {0} de la editorial con id = " + editorialId, bookId);
+		log.debug("Termina proceso de consultar el libro con id = {} de la editorial con id = {}", bookId, editorialId);
 		
 		if(!editorialEntity.get().getBooks().contains(bookEntity.get()))
 			throw new IllegalOperationException("The book is not associated to the editorial");
@@ -139,7 +214,7 @@ public class EditorialBookService {
 	 */
 	@Transactional
 	public List<BookEntity> replaceBooks(Long editorialId, List<BookEntity> books) throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar la editorial con id = {0}", editorialId);
+		log.debug("Inicia proceso de actualizar la editorial con id = {}", editorialId);
 		Optional<EditorialEntity> editorialEntity = editorialRepository.findById(editorialId);
 		if(editorialEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
@@ -149,7 +224,10 @@ public class EditorialBookService {
 			if(b.isEmpty())
 				throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 			
+			counterService.move(Counter.EDITORIAL_BOOKS, b.get().getEditorial(), editorialEntity.get());
 			b.get().setEditorial(editorialEntity.get());
+			eventPublisher.publishEvent(EntityChangedEvent.saved(b.get()));
+			eventPublisher.publishEvent(DetailsChangedEvent.of(b.get()));
 		}		
 		return books;
 	}
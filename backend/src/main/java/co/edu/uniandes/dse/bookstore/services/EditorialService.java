@@ -26,16 +26,23 @@ package co.edu.uniandes.dse.bookstore.services;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.exceptions.UniqueConstraints;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
 import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
 import lombok.extern.slf4j.Slf4j;
 
@@ -53,6 +60,12 @@ public class EditorialService {
 	@Autowired
 	EditorialRepository editorialRepository;
 
+	@Autowired
+	BookRepository bookRepository;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
 	/**
 	 * Crea una editorial en la persistencia.
 	 *
@@ -60,14 +73,17 @@ public class EditorialService {
 	 * @return La entidad de la editorial luego de persistirla.
 	 * @throws IllegalOperationException Si la editorial a persistir ya existe.
 	 */
-	@Transactional
+	@Transactional(rollbackFor = IllegalOperationException.class)
 	public EditorialEntity createEditorial(EditorialEntity editorialEntity) throws IllegalOperationException {
-		log.info("Inicia proceso de creación de la editorial");
-		if (!editorialRepository.findByName(editorialEntity.getName()).isEmpty()) {
-			throw new IllegalOperationException("Editorial name already exists");
+		log.debug("Inicia proceso de creación de la editorial");
+		try {
+			editorialEntity = editorialRepository.saveAndFlush(editorialEntity);
+		} catch (DataIntegrityViolationException e) {
+			throw UniqueConstraints.translate(e);
 		}
-		log.info("Termina proceso de creación de la editorial");
-		return editorialRepository.save(editorialEntity);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(editorialEntity));
+		log.debug("Termina proceso de creación de la editorial");
+		return editorialEntity;
 	}
 
 	/**
@@ -78,10 +94,40 @@ public class EditorialService {
 	 */
 	@Transactional
 	public List<EditorialEntity> getEditorials() {
-		log.info("Inicia proceso de consultar todas las editoriales");
+		log.debug("Inicia proceso de consultar todas las editoriales");
 		return editorialRepository.findAll();
 	}
 
+	/**
+	 * Devuelve una página de las editoriales ordenadas por id, a partir
+	 * del id recibido.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return una lista de editoriales.
+	 */
+	@Transactional
+	public List<EditorialEntity> getEditorials(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de editoriales");
+		return editorialRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
+	}
+
+	/**
+	 * Devuelve una página de proyecciones de los editoriales ordenados por id, sin
+	 * cargar las entidades en el contexto de persistencia.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return Lista de proyecciones de tipo editorial.
+	 */
+	@Transactional(readOnly = true)
+	public List<EditorialSummary> getEditorialSummaries(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de resúmenes de editoriales");
+		return editorialRepository.findSummaryByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
+	}
+
 	/**
 	 *
 	 * Obtener una editorial por medio de su id.
@@ -91,11 +137,11 @@ public class EditorialService {
 	 */
 	@Transactional
 	public EditorialEntity getEditorial(Long editorialId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar la editorial con id = {0}", editorialId);
+		log.debug("Inicia proceso de consultar la editorial con id = {}", editorialId);
 		Optional<EditorialEntity> editorial = editorialRepository.findById(editorialId);
 		if (editorial.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
-		log.info("Termina proceso de consultar la editorial con id = {0}", editorialId);
+		log.debug("Termina proceso de consultar la editorial con id = {}", editorialId);
 		return editorial.get();
 	}
 
@@ -106,17 +152,31 @@ public class EditorialService {
 	 * @param editorialId:    id de la editorial para buscarla en la base de datos.
 	 * @param editorial: editorial con los cambios para ser actualizada.
 	 * @return la editorial con los cambios actualizados en la base de datos.
+	 * @throws IllegalOperationException Si otra editorial ya tiene el nombre.
 	 */
-	@Transactional
-	public EditorialEntity updateEditorial(Long editorialId, EditorialEntity editorial) throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar la editorial con id = {0}", editorialId);
+	@Transactional(rollbackFor = IllegalOperationException.class)
+	public EditorialEntity updateEditorial(Long editorialId, EditorialEntity editorial)
+			throws EntityNotFoundException, IllegalOperationException {
+		log.debug("Inicia proceso de actualizar la editorial con id = {}", editorialId);
 		Optional<EditorialEntity> editorialEntity = editorialRepository.findById(editorialId);
 		if (editorialEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
 
+		if (editorialRepository.existsByNameAndIdNot(editorial.getName(), editorialId))
+			throw new IllegalOperationException(ErrorMessage.EDITORIAL_NAME_ALREADY_EXISTS);
+
 		editorial.setId(editorialId);
-		log.info("Termina proceso de actualizar la editorial con id = {0}", editorialId);
-		return editorialRepository.save(editorial);
+		editorial.setVersion(editorialEntity.get().getVersion());
+		// Hibernate no escribe el contador, pero merge copiaría el del cuerpo.
+		editorial.setBookCount(editorialEntity.get().getBookCount());
+		// Cambia el detalle de sus libros y de los autores de esos libros, que se
+		// invalidan por id sin cargarlos.
+		eventPublisher.publishEvent(new DetailsChangedEvent(Set.copyOf(bookRepository.findIdsByEditorialId(editorialId)),
+				Set.copyOf(bookRepository.findAuthorIdsByEditorialId(editorialId))));
+		EditorialEntity updated = editorialRepository.save(editorial);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(updated));
+		log.debug("Termina proceso de actualizar la editorial con id = {}", editorialId);
+		return updated;
 	}
 
 	/**
@@ -127,7 +187,7 @@ public class EditorialService {
 	 */
 	@Transactional
 	public void deleteEditorial(Long editorialId) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de borrar la editorial con id = {0}", editorialId);
+		log.debug("Inicia proceso de borrar la editorial con id = {}", editorialId);
 		Optional<EditorialEntity> editorialEntity = editorialRepository.findById(editorialId);
 		if (editorialEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.EDITORIAL_NOT_FOUND);
@@ -140,6 +200,7 @@ public class EditorialService {
 		}
 
 		editorialRepository.deleteById(editorialId);
-		log.info("Termina proceso de borrar la editorial con id = {0}", editorialId);
+		eventPublisher.publishEvent(EntityChangedEvent.deleted(EditorialEntity.class, editorialId));
+		log.debug("Termina proceso de borrar la editorial con id = {}", editorialId);
 	}
 }
@@ -0,0 +1,60 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import org.hibernate.Hibernate;
+
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+
+/**
+ * Evento que publican los servicios cuando crean, actualizan o borran una
+ * entidad. Los interesados lo reciben después de que la transacción se confirma,
+ * por medio de {@code @TransactionalEventListener}.
+ *
+ * @param type   La clase de la entidad.
+ * @param id     El id de la entidad.
+ * @param entity La entidad guardada, o nulo si se borró.
+ *
+ * @author ISIS2603
+ */
+public record EntityChangedEvent(Class<?> type, Long id, BaseEntity entity) {
+
+	/**
+	 * Crea el evento de una entidad creada o actualizada.
+	 */
+	public static EntityChangedEvent saved(BaseEntity entity) {
+		return new EntityChangedEvent(Hibernate.getClass(entity), entity.getId(), entity);
+	}
+
+	/**
+	 * Crea el evento de una entidad borrada.
+	 */
+	public static EntityChangedEvent deleted(Class<? extends BaseEntity> type, Long id) {
+		return new EntityChangedEvent(type, id, null);
+	}
+
+	public boolean isDeleted() {
+		return entity == null;
+	}
+}
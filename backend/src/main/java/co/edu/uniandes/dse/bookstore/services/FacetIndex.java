@@ -0,0 +1,315 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Índice de facetas de los libros: para cada editorial, año de publicación y
+ * autor guarda el conjunto de ids de sus libros como un bitmap comprimido
+ * (Roaring). Filtrar es unir los bitmaps de los valores elegidos en cada
+ * faceta e intersecar las facetas; contar es intersecar sin materializar el
+ * resultado.
+ *
+ * Los conteos de cada faceta aplican los filtros de las otras facetas pero no
+ * el suyo, así que al elegir una editorial se siguen viendo las demás con
+ * cuántos libros agregarían.
+ *
+ * Los ids de los libros deben caber en 32 bits sin signo. No es seguro para
+ * acceso concurrente; {@link FacetService} lo protege.
+ *
+ * @author ISIS2603
+ */
+class FacetIndex {
+
+	static final long MAX_BOOK_ID = 0xFFFFFFFFL;
+
+	private static final Comparator<Count> BY_COUNT = Comparator.comparingInt(Count::count).reversed()
+			.thenComparingLong(Count::value);
+
+	/**
+	 * Valores de las facetas de un libro. La editorial y el año pueden ser nulos.
+	 */
+	record Values(Long editorialId, Long year, long[] authorIds) {
+	}
+
+	/**
+	 * Número de libros con un valor de una faceta.
+	 */
+	record Count(long value, String name, int count) {
+	}
+
+	/**
+	 * Libros que cumplen un filtro y conteos de cada faceta.
+	 */
+	record Result(int total, long[] books, List<Count> editorials, List<Count> years, List<Count> authors) {
+	}
+
+	/**
+	 * Bitmaps de los valores de una faceta y, si los tienen, sus nombres. Los
+	 * valores también se mantienen ordenados por número de libros, para contar
+	 * sin filtros sin recorrer todos los bitmaps.
+	 */
+	private final class Facet {
+		private final Map<Long, RoaringBitmap> bitmaps = new HashMap<>();
+		private final Map<Long, String> names = new HashMap<>();
+		private final TreeSet<Count> ranking = new TreeSet<>(BY_COUNT);
+		private final Function<Values, long[]> valuesOf;
+
+		private Facet(Function<Values, long[]> valuesOf) {
+			this.valuesOf = valuesOf;
+		}
+
+		private void add(Values values, int book) {
+			for (long value : valuesOf.apply(values)) {
+				RoaringBitmap bitmap = bitmaps.computeIfAbsent(value, key -> new RoaringBitmap());
+				int count = bitmap.getCardinality();
+				if (bitmap.checkedAdd(book))
+					rank(value, count, count + 1);
+			}
+		}
+
+		private void remove(Values values, int book) {
+			for (long value : valuesOf.apply(values)) {
+				RoaringBitmap bitmap = bitmaps.get(value);
+				if (bitmap == null)
+					continue;
+				int count = bitmap.getCardinality();
+				if (bitmap.checkedRemove(book))
+					rank(value, count, count - 1);
+				if (bitmap.isEmpty())
+					bitmaps.remove(value);
+			}
+		}
+
+		private void rank(long value, int before, int after) {
+			if (before > 0)
+				ranking.remove(new Count(value, null, before));
+			if (after > 0)
+				ranking.add(new Count(value, null, after));
+		}
+
+		/**
+		 * Libros con alguno de los valores, o nulo si no se filtra por esta faceta.
+		 */
+		private RoaringBitmap union(Collection<Long> values) {
+			if (values == null || values.isEmpty())
+				return null;
+			RoaringBitmap union = new RoaringBitmap();
+			for (Long value : values) {
+				RoaringBitmap bitmap = bitmaps.get(value);
+				if (bitmap != null)
+					union.or(bitmap);
+			}
+			return union;
+		}
+
+		/**
+		 * Cuenta los libros de cada valor que están en {@code base} (todos si es
+		 * nulo) y retorna los {@code limit} valores con más libros. Si {@code base}
+		 * es más pequeño que el número de valores se recorren sus libros en lugar de
+		 * los bitmaps.
+		 */
+		private List<Count> counts(RoaringBitmap base, int limit) {
+			if (base == null) {
+				List<Count> counts = new ArrayList<>(Math.min(limit, ranking.size()));
+				for (Iterator<Count> ranked = ranking.iterator(); ranked.hasNext() && counts.size() < limit;) {
+					Count count = ranked.next();
+					counts.add(new Count(count.value(), names.get(count.value()), count.count()));
+				}
+				return counts;
+			}
+
+			PriorityQueue<Count> top = new PriorityQueue<>(limit + 1, BY_COUNT.reversed());
+			if (base.getCardinality() < bitmaps.size()) {
+				Map<Long, int[]> counts = new HashMap<>();
+				for (IntIterator books = base.getIntIterator(); books.hasNext();)
+					for (long value : valuesOf.apply(FacetIndex.this.books.get(books.next())))
+						counts.computeIfAbsent(value, key -> new int[1])[0]++;
+				counts.forEach((value, count) -> offer(top, value, count[0], limit));
+			} else {
+				for (Map.Entry<Long, RoaringBitmap> bitmap : bitmaps.entrySet()) {
+					int count = RoaringBitmap.andCardinality(bitmap.getValue(), base);
+					if (count > 0)
+						offer(top, bitmap.getKey(), count, limit);
+				}
+			}
+			List<Count> counts = new ArrayList<>(top);
+			counts.sort(BY_COUNT);
+			return counts;
+		}
+
+		private void offer(PriorityQueue<Count> top, long value, int count, int limit) {
+			if (top.size() == limit && top.peek().count() >= count)
+				return;
+			top.add(new Count(value, names.get(value), count));
+			if (top.size() > limit)
+				top.poll();
+		}
+	}
+
+	private final RoaringBitmap all = new RoaringBitmap();
+	private final Map<Integer, Values> books = new HashMap<>();
+	private final Facet editorials = new Facet(
+			values -> values.editorialId() == null ? new long[0] : new long[] { values.editorialId() });
+	private final Facet years = new Facet(values -> values.year() == null ? new long[0] : new long[] { values.year() });
+	private final Facet authors = new Facet(Values::authorIds);
+
+	/**
+	 * Agrega un libro o reemplaza sus valores.
+	 */
+	void putBook(long id, Values values) {
+		removeBook(id);
+		int book = key(id);
+		books.put(book, values);
+		all.add(book);
+		editorials.add(values, book);
+		years.add(values, book);
+		authors.add(values, book);
+	}
+
+	/**
+	 * Borra un libro, si existe.
+	 */
+	void removeBook(long id) {
+		int book = key(id);
+		Values values = books.remove(book);
+		if (values == null)
+			return;
+		all.remove(book);
+		editorials.remove(values, book);
+		years.remove(values, book);
+		authors.remove(values, book);
+	}
+
+	void putEditorialName(long id, String name) {
+		editorials.names.put(id, name);
+	}
+
+	void removeEditorialName(long id) {
+		editorials.names.remove(id);
+	}
+
+	void putAuthorName(long id, String name) {
+		authors.names.put(id, name);
+	}
+
+	void removeAuthorName(long id) {
+		authors.names.remove(id);
+	}
+
+	/**
+	 * Número de libros en el índice.
+	 */
+	int size() {
+		return all.getCardinality();
+	}
+
+	/**
+	 * Bytes que ocupan los bitmaps.
+	 */
+	long bitmapBytes() {
+		long bytes = all.getLongSizeInBytes();
+		for (Facet facet : List.of(editorials, years, authors))
+			for (RoaringBitmap bitmap : facet.bitmaps.values())
+				bytes += bitmap.getLongSizeInBytes();
+		return bytes;
+	}
+
+	/**
+	 * Comprime los bitmaps con secuencias largas de ids consecutivos. Conviene
+	 * llamarlo después de cargar muchos libros.
+	 */
+	void optimize() {
+		all.runOptimize();
+		for (Facet facet : List.of(editorials, years, authors))
+			for (RoaringBitmap bitmap : facet.bitmaps.values())
+				bitmap.runOptimize();
+	}
+
+	/**
+	 * Filtra los libros y cuenta las facetas. Dentro de una faceta los valores se
+	 * unen; entre facetas se intersecan. Una faceta sin valores no filtra.
+	 *
+	 * @param editorialIds Ids de las editoriales.
+	 * @param yearValues   Años de publicación.
+	 * @param authorIds    Ids de los autores.
+	 * @param after        Solo se retornan los libros con id mayor.
+	 * @param limit        Número máximo de libros a retornar.
+	 * @param facetLimit   Número máximo de valores por faceta.
+	 */
+	Result query(Collection<Long> editorialIds, Collection<Long> yearValues, Collection<Long> authorIds, long after,
+			int limit, int facetLimit) {
+		RoaringBitmap byEditorial = editorials.union(editorialIds);
+		RoaringBitmap byYear = years.union(yearValues);
+		RoaringBitmap byAuthor = authors.union(authorIds);
+		RoaringBitmap matches = and(byEditorial, and(byYear, byAuthor));
+		if (matches == null)
+			matches = all;
+
+		long[] page = new long[limit];
+		int found = 0;
+		if (after < MAX_BOOK_ID) {
+			PeekableIntIterator iterator = matches.getIntIterator();
+			iterator.advanceIfNeeded((int) (after + 1));
+			while (found < limit && iterator.hasNext())
+				page[found++] = Integer.toUnsignedLong(iterator.next());
+		}
+
+		return new Result(matches.getCardinality(), found == limit ? page : Arrays.copyOf(page, found),
+				editorials.counts(and(byYear, byAuthor), facetLimit), years.counts(and(byEditorial, byAuthor), facetLimit),
+				authors.counts(and(byEditorial, byYear), facetLimit));
+	}
+
+	/**
+	 * Intersección de dos filtros, donde nulo significa todos los libros.
+	 */
+	private static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+		if (a == null)
+			return b;
+		if (b == null)
+			return a;
+		return RoaringBitmap.and(a, b);
+	}
+
+	private static int key(long id) {
+		if (id < 0 || id > MAX_BOOK_ID)
+			throw new IllegalArgumentException("Book id " + id + " does not fit in a facet bitmap");
+		return (int) id;
+	}
+}
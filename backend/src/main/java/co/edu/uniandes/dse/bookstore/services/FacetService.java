@@ -0,0 +1,338 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
+import co.edu.uniandes.dse.bookstore.dto.BookAuthorPair;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
+import co.edu.uniandes.dse.bookstore.dto.FacetCountDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filtros por facetas sobre los libros: editorial, año de publicación y autor.
+ * Los libros de cada valor se guardan en memoria en un {@link FacetIndex}, que
+ * se construye al arrancar la aplicación y se actualiza con los
+ * {@link EntityChangedEvent} que publican los servicios de libros y de sus
+ * asociaciones, después de que cada transacción se confirma.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class FacetService {
+
+	static final int MAX_FACET_VALUES = 100;
+
+	private static final int REBUILD_PAGE_SIZE = 5000;
+
+	/**
+	 * Libros de una página del filtro, en orden de id, con el total de libros que
+	 * lo cumplen y los conteos de cada faceta.
+	 */
+	public record BookFacets(int total, List<BookEntity> books, List<FacetCountDTO> editorials,
+			List<FacetCountDTO> years, List<FacetCountDTO> authors) {
+
+		/**
+		 * Los mismos conteos con otra página de libros.
+		 */
+		public BookFacets withBooks(List<BookEntity> page) {
+			return new BookFacets(total, page, editorials, years, authors);
+		}
+	}
+
+	@Autowired
+	BookRepository bookRepository;
+
+	@Autowired
+	AuthorRepository authorRepository;
+
+	@Autowired
+	EditorialRepository editorialRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Evita dos reconstrucciones a la vez, sin fijar un hilo virtual a su
+	 * portador mientras se leen los libros.
+	 */
+	private final Lock rebuilding = new ReentrantLock();
+
+	private FacetIndex index = new FacetIndex();
+
+	/**
+	 * Cambios recibidos mientras se reconstruye el índice, que se aplican al
+	 * índice nuevo antes de reemplazar el anterior. Es nulo fuera de una
+	 * reconstrucción.
+	 */
+	private List<Consumer<FacetIndex>> pending;
+
+	/**
+	 * Filtra los libros por editorial, año de publicación y autor. Dentro de una
+	 * faceta los valores se unen y entre facetas se intersecan; una faceta sin
+	 * valores no filtra. Los conteos de cada faceta aplican los filtros de las
+	 * demás pero no el suyo.
+	 *
+	 * @param editorialIds Ids de las editoriales.
+	 * @param years        Años de publicación.
+	 * @param authorIds    Ids de los autores.
+	 * @param after        Id del último libro de la página anterior, o nulo.
+	 * @param limit        Número máximo de libros.
+	 * @param facetLimit   Número máximo de valores por faceta, de los que tienen
+	 *                     más libros. Los valores mayores a
+	 *                     {@link #MAX_FACET_VALUES} se recortan.
+	 * @return Los libros de la página y los conteos.
+	 * @throws IllegalOperationException Si algún límite no es positivo.
+	 */
+	@Transactional(readOnly = true)
+	public BookFacets getFacets(List<Long> editorialIds, List<Long> years, List<Long> authorIds, Long after, int limit,
+			int facetLimit) throws IllegalOperationException {
+		if (limit < 1 || facetLimit < 1)
+			throw new IllegalOperationException("Limit must be greater than zero");
+
+		FacetIndex.Result result;
+		lock.readLock().lock();
+		try {
+			result = index.query(editorialIds, years, authorIds, after == null ? 0L : after, limit,
+					Math.min(facetLimit, MAX_FACET_VALUES));
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		List<Long> ids = new ArrayList<>(result.books().length);
+		for (long id : result.books())
+			ids.add(id);
+		List<BookEntity> books = ids.isEmpty() ? List.of() : bookRepository.findByIdInOrderByIdAsc(ids);
+		return new BookFacets(result.total(), books, toDTOs(result.editorials()), toDTOs(result.years()),
+				toDTOs(result.authors()));
+	}
+
+	/**
+	 * Número de libros en el índice.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Construye el índice desde la base de datos y reemplaza el actual. Los
+	 * cambios que llegan mientras tanto se aplican a ambos.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		rebuilding.lock();
+		try {
+			log.info("Inicia proceso de construir el índice de facetas");
+			lock.writeLock().lock();
+			try {
+				pending = new ArrayList<>();
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			FacetIndex rebuilt;
+			try {
+				rebuilt = load();
+			} catch (RuntimeException e) {
+				lock.writeLock().lock();
+				try {
+					pending = null;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				throw e;
+			}
+
+			lock.writeLock().lock();
+			try {
+				pending.forEach(update -> update.accept(rebuilt));
+				index = rebuilt;
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Termina proceso de construir el índice de facetas: {} libros, {} bytes en bitmaps", rebuilt.size(),
+					rebuilt.bitmapBytes());
+		} finally {
+			rebuilding.unlock();
+		}
+	}
+
+	/**
+	 * Lee los nombres de las editoriales y los autores, y luego los libros con
+	 * sus autores, en páginas por llave.
+	 */
+	private FacetIndex load() {
+		FacetIndex loaded = new FacetIndex();
+		List<EditorialSummary> editorials;
+		long after = 0L;
+		do {
+			editorials = editorialRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (EditorialSummary editorial : editorials) {
+				loaded.putEditorialName(editorial.id(), editorial.name());
+				after = editorial.id();
+			}
+		} while (editorials.size() == REBUILD_PAGE_SIZE);
+
+		List<AuthorSummary> authors;
+		after = 0L;
+		do {
+			authors = authorRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (AuthorSummary author : authors) {
+				loaded.putAuthorName(author.id(), author.name());
+				after = author.id();
+			}
+		} while (authors.size() == REBUILD_PAGE_SIZE);
+
+		List<BookSummary> books;
+		after = 0L;
+		do {
+			books = bookRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			if (books.isEmpty())
+				break;
+			long last = books.get(books.size() - 1).id();
+			Map<Long, List<Long>> authorIds = new HashMap<>();
+			for (BookAuthorPair pair : bookRepository.findAuthorPairsByIdBetween(after, last))
+				authorIds.computeIfAbsent(pair.bookId(), id -> new ArrayList<>()).add(pair.authorId());
+			for (BookSummary book : books)
+				loaded.putBook(book.id(),
+						new FacetIndex.Values(book.editorial() == null ? null : book.editorial().id(),
+								yearOf(book.publishingDate()),
+								toArray(authorIds.getOrDefault(book.id(), List.of()))));
+			after = last;
+		} while (books.size() == REBUILD_PAGE_SIZE);
+		loaded.optimize();
+		return loaded;
+	}
+
+	/**
+	 * Actualiza el índice cuando se confirma un cambio de un libro, de sus
+	 * asociaciones, o del nombre de una editorial o de un autor. Si el cambio
+	 * ocurre fuera de una transacción se aplica de inmediato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		Consumer<FacetIndex> update = toUpdate(event);
+		if (update == null)
+			return;
+
+		lock.writeLock().lock();
+		try {
+			update.accept(index);
+			if (pending != null)
+				pending.add(update);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Convierte el evento en un cambio del índice. Los valores se copian al
+	 * recibir el evento; si los autores del libro no están cargados se consultan.
+	 */
+	private Consumer<FacetIndex> toUpdate(EntityChangedEvent event) {
+		long id = event.id();
+		if (event.type() == BookEntity.class) {
+			if (event.isDeleted())
+				return index -> index.removeBook(id);
+			BookEntity book = (BookEntity) event.entity();
+			FacetIndex.Values values = new FacetIndex.Values(
+					book.getEditorial() == null ? null : book.getEditorial().getId(), yearOf(book.getPublishingDate()),
+					toArray(Hibernate.isInitialized(book.getAuthors())
+							? book.getAuthors().stream().map(AuthorEntity::getId).toList()
+							: bookRepository.findAuthorIdsById(id)));
+			return index -> index.putBook(id, values);
+		}
+		if (event.type() == EditorialEntity.class) {
+			if (event.isDeleted())
+				return index -> index.removeEditorialName(id);
+			String name = ((EditorialEntity) event.entity()).getName();
+			return index -> index.putEditorialName(id, name);
+		}
+		if (event.type() == AuthorEntity.class) {
+			if (event.isDeleted())
+				return index -> index.removeAuthorName(id);
+			String name = ((AuthorEntity) event.entity()).getName();
+			return index -> index.putAuthorName(id, name);
+		}
+		return null;
+	}
+
+	private static Long yearOf(Date date) {
+		if (date == null)
+			return null;
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		return (long) calendar.get(Calendar.YEAR);
+	}
+
+	private static long[] toArray(List<Long> ids) {
+		return ids.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private static List<FacetCountDTO> toDTOs(List<FacetIndex.Count> counts) {
+		List<FacetCountDTO> dtos = new ArrayList<>(counts.size());
+		for (FacetIndex.Count count : counts) {
+			FacetCountDTO dto = new FacetCountDTO();
+			dto.setValue(count.value());
+			dto.setName(count.name());
+			dto.setCount(count.count());
+			dtos.add(dto);
+		}
+		return dtos;
+	}
+}
@@ -0,0 +1,189 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository.BookKey;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+
+/**
+ * Tabla en memoria con las referencias que resuelve una importación:
+ * editoriales por id o nombre, autores por id o por la referencia local
+ * ({@code ref}) declarada en el archivo, y libros por id o ISBN.
+ *
+ * Las editoriales y los ids de los autores se cargan completos al crear la
+ * tabla. Los libros se consultan en bloque con {@link #fetchBooks} antes de
+ * cada lote y el resultado se recuerda, exista o no; los ISBN de los libros
+ * importados también se guardan, por lo que la tabla crece con el tamaño de la
+ * importación.
+ *
+ * Los registros agregados durante un lote quedan pendientes hasta
+ * {@link #commit()}; {@link #rollback()} los descarta cuando la transacción del
+ * lote falla.
+ *
+ * @author ISIS2603
+ */
+class ImportLookup {
+
+	private final BookRepository bookRepository;
+
+	private final Map<String, Long> editorialsByName = new HashMap<>();
+	private final Map<Long, Boolean> editorials = new HashMap<>();
+	private final Map<String, Long> authorsByRef = new HashMap<>();
+	private final Map<Long, Boolean> authors = new HashMap<>();
+	private final Map<String, Long> booksByIsbn = new HashMap<>();
+	private final Map<Long, Boolean> books = new HashMap<>();
+
+	private final Deque<Runnable> pending = new ArrayDeque<>();
+
+	ImportLookup(EditorialRepository editorialRepository, AuthorRepository authorRepository,
+			BookRepository bookRepository) {
+		this.bookRepository = bookRepository;
+		for (EditorialSummary editorial : editorialRepository.findAllSummaries()) {
+			editorials.put(editorial.id(), true);
+			editorialsByName.put(editorial.name(), editorial.id());
+		}
+		for (Long id : authorRepository.findAllIds())
+			authors.put(id, true);
+	}
+
+	/**
+	 * Busca una editorial por id o, si no se da el id, por nombre.
+	 */
+	Optional<Long> editorial(Long id, String name) {
+		if (id != null)
+			return editorials.containsKey(id) ? Optional.of(id) : Optional.empty();
+		return Optional.ofNullable(name == null ? null : editorialsByName.get(name));
+	}
+
+	boolean hasEditorialName(String name) {
+		return editorialsByName.containsKey(name);
+	}
+
+	void addEditorial(Long id, String name) {
+		put(editorials, id, true);
+		put(editorialsByName, name, id);
+	}
+
+	/**
+	 * Busca un autor por id o, si no se da el id, por su referencia local.
+	 */
+	Optional<Long> author(Long id, String ref) {
+		if (id != null)
+			return authors.containsKey(id) ? Optional.of(id) : Optional.empty();
+		return Optional.ofNullable(ref == null ? null : authorsByRef.get(ref));
+	}
+
+	boolean hasAuthorRef(String ref) {
+		return authorsByRef.containsKey(ref);
+	}
+
+	void addAuthor(Long id, String ref) {
+		put(authors, id, true);
+		if (ref != null)
+			put(authorsByRef, ref, id);
+	}
+
+	/**
+	 * Consulta los libros referenciados que aún no están en la tabla, con una
+	 * consulta por cada bloque de {@link BookRepository#FETCH_CHUNK_SIZE} ids o
+	 * ISBN.
+	 */
+	void fetchBooks(Collection<Long> ids, Collection<String> isbns) {
+		List<Long> missingIds = ids.stream().filter(id -> !books.containsKey(id)).distinct().toList();
+		inChunks(missingIds, chunk -> bookRepository.findKeyByIdIn(chunk).forEach(this::remember));
+		missingIds.forEach(id -> books.putIfAbsent(id, false));
+
+		List<String> missingIsbns = isbns.stream().filter(isbn -> !booksByIsbn.containsKey(isbn)).distinct().toList();
+		inChunks(missingIsbns, chunk -> bookRepository.findKeyByIsbnIn(chunk).forEach(this::remember));
+		missingIsbns.forEach(isbn -> booksByIsbn.putIfAbsent(isbn, null));
+	}
+
+	/**
+	 * Busca un libro por id o, si no se da el id, por ISBN.
+	 */
+	Optional<Long> book(Long id, String isbn) {
+		if (id != null) {
+			if (!books.containsKey(id))
+				fetchBooks(List.of(id), List.of());
+			return books.get(id) ? Optional.of(id) : Optional.empty();
+		}
+		if (isbn == null)
+			return Optional.empty();
+		if (!booksByIsbn.containsKey(isbn))
+			fetchBooks(List.of(), List.of(isbn));
+		return Optional.ofNullable(booksByIsbn.get(isbn));
+	}
+
+	boolean hasIsbn(String isbn) {
+		return book(null, isbn).isPresent();
+	}
+
+	void addBook(Long id, String isbn) {
+		put(books, id, true);
+		put(booksByIsbn, isbn, id);
+	}
+
+	/**
+	 * Confirma los registros agregados desde el último commit o rollback.
+	 */
+	void commit() {
+		pending.clear();
+	}
+
+	/**
+	 * Descarta los registros agregados desde el último commit o rollback.
+	 */
+	void rollback() {
+		while (!pending.isEmpty())
+			pending.pop().run();
+	}
+
+	private void remember(BookKey book) {
+		books.put(book.id(), true);
+		booksByIsbn.put(book.isbn(), book.id());
+	}
+
+	private static <T> void inChunks(List<T> values, Consumer<List<T>> action) {
+		for (int from = 0; from < values.size(); from += BookRepository.FETCH_CHUNK_SIZE)
+			action.accept(values.subList(from, Math.min(from + BookRepository.FETCH_CHUNK_SIZE, values.size())));
+	}
+
+	private <K, V> void put(Map<K, V> map, K key, V value) {
+		boolean present = map.containsKey(key);
+		V previous = map.put(key, value);
+		pending.push(present ? () -> map.put(key, previous) : () -> map.remove(key));
+	}
+}
@@ -0,0 +1,445 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDTO;
+import co.edu.uniandes.dse.bookstore.dto.EditorialDTO;
+import co.edu.uniandes.dse.bookstore.dto.ImportErrorDTO;
+import co.edu.uniandes.dse.bookstore.dto.ImportResultDTO;
+import co.edu.uniandes.dse.bookstore.dto.ReviewDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.exceptions.UniqueConstraints;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importación masiva de editoriales, autores, libros, reseñas y asociaciones
+ * entre autores y libros desde un documento NDJSON: un objeto JSON por línea,
+ * con el tipo de registro en el campo {@code type}.
+ *
+ * <pre>
+ * {"type":"editorial","name":"Planeta"}
+ * {"type":"author","ref":"gabo","name":"Gabriel García Márquez","birthDate":"1927-03-06"}
+ * {"type":"book","isbn":"9780307474728","name":"Cien años de soledad","editorial":{"name":"Planeta"}}
+ * {"type":"review","book":{"isbn":"9780307474728"},"name":"Reseña","source":"Diario"}
+ * {"type":"author-book","author":{"ref":"gabo"},"book":{"id":1000}}
+ * </pre>
+ *
+ * Las editoriales se referencian por {@code id} o {@code name}, los autores por
+ * {@code id} o por el {@code ref} declarado en una línea anterior y los libros
+ * por {@code id} o {@code isbn}. Las referencias se resuelven con una
+ * {@link ImportLookup} en memoria en lugar de consultar cada entidad.
+ *
+ * Las líneas se leen una a una y se confirman en lotes, cada uno en su propia
+ * transacción. Una línea inválida se reporta y no afecta a las demás; si el
+ * lote falla al escribir en la base de datos, se repite línea por línea para
+ * identificar las líneas con error.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class ImportService {
+
+	public static final int MAX_BATCH_SIZE = 5000;
+
+	/**
+	 * Cantidad máxima de errores que se detallan en el resultado. Los demás solo
+	 * se cuentan.
+	 */
+	static final int MAX_REPORTED_ERRORS = 1000;
+
+	static final String EDITORIAL = "editorial";
+	static final String AUTHOR = "author";
+	static final String BOOK = "book";
+	static final String REVIEW = "review";
+	static final String AUTHOR_BOOK = "author-book";
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${bookstore.import.batch-size:500}")
+	private int defaultBatchSize;
+
+	/**
+	 * Línea del documento, ya interpretada como JSON o con el error que impidió
+	 * interpretarla.
+	 */
+	private record Line(long number, JsonNode node, String error) {
+	}
+
+	/**
+	 * Importa los registros del documento recibido.
+	 *
+	 * @param reader    El documento NDJSON, que se lee línea por línea.
+	 * @param batchSize Cantidad de líneas por transacción, o nulo para usar el
+	 *                  valor de {@code bookstore.import.batch-size}.
+	 * @return El resultado con la cantidad de registros importados, los errores
+	 *         por línea y la velocidad de la importación.
+	 * @throws IOException               Si no se puede leer el documento.
+	 * @throws IllegalOperationException Si el tamaño de lote no es válido.
+	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public ImportResultDTO importData(Reader reader, Integer batchSize) throws IOException, IllegalOperationException {
+		int size = batchSize == null ? defaultBatchSize : batchSize;
+		if (size < 1 || size > MAX_BATCH_SIZE)
+			throw new IllegalOperationException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+
+		log.info("Inicia proceso de importación con lotes de {} líneas", size);
+		long start = System.nanoTime();
+		ImportResultDTO result = new ImportResultDTO();
+		ImportLookup lookup = new ImportLookup(editorialRepository, authorRepository, bookRepository);
+
+		BufferedReader lines = new BufferedReader(reader);
+		List<Line> batch = new ArrayList<>(size);
+		long number = 0;
+		String text;
+		while ((text = lines.readLine()) != null) {
+			number++;
+			if (text.isBlank())
+				continue;
+			batch.add(parse(number, text));
+			if (batch.size() == size) {
+				importBatch(batch, lookup, result);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty())
+			importBatch(batch, lookup, result);
+
+		long elapsed = System.nanoTime() - start;
+		result.setLines(number);
+		result.setElapsedMillis(elapsed / 1_000_000);
+		result.setRowsPerSecond(result.getImported() * 1e9 / Math.max(elapsed, 1));
+		log.info("Termina proceso de importación: {} registros, {} errores, {} registros/s", result.getImported(),
+				result.getFailed(), Math.round(result.getRowsPerSecond()));
+		return result;
+	}
+
+	private void importBatch(List<Line> batch, ImportLookup lookup, ImportResultDTO result) {
+		List<ImportErrorDTO> errors = new ArrayList<>();
+		boolean committed = false;
+		try {
+			inTransaction(() -> {
+				fetchBooks(batch, lookup);
+				for (Line line : batch) {
+					String error = importLine(line, lookup);
+					if (error != null)
+						errors.add(new ImportErrorDTO(line.number(), error));
+				}
+				return null;
+			});
+			lookup.commit();
+			committed = true;
+		} catch (RuntimeException e) {
+			lookup.rollback();
+			log.warn("Falló el lote que inicia en la línea {}, se importa línea por línea: {}",
+					batch.get(0).number(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+		} finally {
+			entityManager.clear();
+		}
+
+		if (committed) {
+			result.setImported(result.getImported() + batch.size() - errors.size());
+			errors.forEach(error -> addError(result, error));
+		} else {
+			for (Line line : batch)
+				importAlone(line, lookup, result);
+		}
+	}
+
+	private void importAlone(Line line, ImportLookup lookup, ImportResultDTO result) {
+		String error;
+		try {
+			error = inTransaction(() -> importLine(line, lookup));
+			lookup.commit();
+		} catch (RuntimeException e) {
+			lookup.rollback();
+			error = describe(e);
+		} finally {
+			entityManager.clear();
+		}
+		if (error == null)
+			result.setImported(result.getImported() + 1);
+		else
+			addError(result, new ImportErrorDTO(line.number(), error));
+	}
+
+	private Line parse(long number, String text) {
+		try {
+			JsonNode node = objectMapper.readTree(text);
+			if (!node.isObject())
+				return new Line(number, null, "Line is not a JSON object");
+			return new Line(number, node, null);
+		} catch (JsonProcessingException e) {
+			return new Line(number, null, "Malformed JSON: " + e.getOriginalMessage());
+		}
+	}
+
+	/**
+	 * Carga en la tabla de búsqueda, con una consulta por bloque, los libros que
+	 * referencian las líneas del lote.
+	 */
+	private void fetchBooks(List<Line> batch, ImportLookup lookup) {
+		List<Long> ids = new ArrayList<>();
+		List<String> isbns = new ArrayList<>();
+		for (Line line : batch) {
+			if (line.node() == null)
+				continue;
+			JsonNode reference = BOOK.equals(type(line)) ? line.node() : line.node().path("book");
+			Long id = BOOK.equals(type(line)) ? null : id(reference);
+			String isbn = text(reference, "isbn");
+			if (id != null)
+				ids.add(id);
+			else if (isbn != null)
+				isbns.add(isbn);
+		}
+		lookup.fetchBooks(ids, isbns);
+	}
+
+	/**
+	 * Ejecuta la operación en una transacción nueva sin vaciar el contexto de
+	 * persistencia antes de cada consulta: la tabla de búsqueda ya conoce los
+	 * registros pendientes del lote, y con el modo AUTO cada consulta revisaría
+	 * todas las entidades del lote antes de ejecutarse.
+	 */
+	private <T> T inTransaction(Supplier<T> operation) {
+		return transactionTemplate.execute(status -> {
+			FlushModeType flushMode = entityManager.getFlushMode();
+			entityManager.setFlushMode(FlushModeType.COMMIT);
+			try {
+				return operation.get();
+			} finally {
+				entityManager.setFlushMode(flushMode);
+			}
+		});
+	}
+
+	private void addError(ImportResultDTO result, ImportErrorDTO error) {
+		result.setFailed(result.getFailed() + 1);
+		if (result.getErrors().size() < MAX_REPORTED_ERRORS)
+			result.getErrors().add(error);
+	}
+
+	/**
+	 * Importa una línea dentro de la transacción actual. Las validaciones se hacen
+	 * antes de escribir, de modo que una línea inválida no deja cambios.
+	 *
+	 * @return El mensaje de error de la línea, o nulo si se importó.
+	 */
+	private String importLine(Line line, ImportLookup lookup) {
+		if (line.error() != null)
+			return line.error();
+
+		JsonNode node = line.node();
+		try {
+			switch (type(line)) {
+			case EDITORIAL -> importEditorial(node, lookup);
+			case AUTHOR -> importAuthor(node, lookup);
+			case BOOK -> importBook(node, lookup);
+			case REVIEW -> importReview(node, lookup);
+			case AUTHOR_BOOK -> importAuthorBook(node, lookup);
+			default -> throw new IllegalOperationException("Unknown type: " + type(line));
+			}
+			return null;
+		} catch (JsonProcessingException e) {
+			return "Malformed JSON: " + e.getOriginalMessage();
+		} catch (IllegalOperationException | EntityNotFoundException e) {
+			return e.getMessage();
+		}
+	}
+
+	private void importEditorial(JsonNode node, ImportLookup lookup)
+			throws JsonProcessingException, IllegalOperationException {
+		EditorialEntity editorial = bookstoreMapper.toEditorialEntity(objectMapper.treeToValue(node, EditorialDTO.class));
+		editorial.setId(null);
+		if (lookup.hasEditorialName(editorial.getName()))
+			throw new IllegalOperationException(ErrorMessage.EDITORIAL_NAME_ALREADY_EXISTS);
+
+		editorialRepository.save(editorial);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(editorial));
+		lookup.addEditorial(editorial.getId(), editorial.getName());
+	}
+
+	private void importAuthor(JsonNode node, ImportLookup lookup)
+			throws JsonProcessingException, IllegalOperationException {
+		AuthorEntity author = bookstoreMapper.toAuthorEntity(objectMapper.treeToValue(node, AuthorDTO.class));
+		author.setId(null);
+		if (author.getBirthDate() != null && author.getBirthDate().after(Calendar.getInstance().getTime()))
+			throw new IllegalOperationException("Birth date is after current date");
+
+		String ref = text(node, "ref");
+		if (ref != null && lookup.hasAuthorRef(ref))
+			throw new IllegalOperationException("Author ref is already used: " + ref);
+
+		authorRepository.save(author);
+		eventPublisher.publishEvent(EntityChangedEvent.saved(author));
+		lookup.addAuthor(author.getId(), ref);
+	}
+
+	private void importBook(JsonNode node, ImportLookup lookup)
+			throws JsonProcessingException, IllegalOperationException {
+		BookEntity book = bookstoreMapper.toBookEntity(objectMapper.treeToValue(node, BookDTO.class));
+		book.setId(null);
+		JsonNode editorial = node.path("editorial");
+		Long editorialId = lookup.editorial(id(editorial), text(editorial, "name"))
+				.orElseThrow(() -> new IllegalOperationException("Editorial is not valid"));
+
+		if (book.getIsbn() == null || book.getIsbn().isEmpty())
+			throw new IllegalOperationException("ISBN is not valid");
+
+		if (lookup.hasIsbn(book.getIsbn()))
+			throw new IllegalOperationException(ErrorMessage.ISBN_ALREADY_EXISTS);
+
+		book.setEditorial(editorialRepository.getReferenceById(editorialId));
+		bookRepository.save(book);
+		counterService.increment(Counter.EDITORIAL_BOOKS, book.getEditorial());
+		eventPublisher.publishEvent(EntityChangedEvent.saved(book));
+		lookup.addBook(book.getId(), book.getIsbn());
+	}
+
+	private void importReview(JsonNode node, ImportLookup lookup)
+			throws JsonProcessingException, EntityNotFoundException {
+		ReviewEntity review = bookstoreMapper.toReviewEntity(objectMapper.treeToValue(node, ReviewDTO.class));
+		review.setId(null);
+		JsonNode book = node.path("book");
+		Long bookId = lookup.book(id(book), text(book, "isbn"))
+				.orElseThrow(() -> new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND));
+
+		review.setBook(bookRepository.getReferenceById(bookId));
+		reviewRepository.save(review);
+		counterService.increment(Counter.BOOK_REVIEWS, review.getBook());
+		eventPublisher.publishEvent(DetailsChangedEvent.ofBook(bookId));
+	}
+
+	private void importAuthorBook(JsonNode node, ImportLookup lookup)
+			throws EntityNotFoundException, IllegalOperationException {
+		JsonNode author = node.path("author");
+		Long authorId = lookup.author(id(author), text(author, "ref"))
+				.orElseThrow(() -> new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND));
+		JsonNode bookReference = node.path("book");
+		Long bookId = lookup.book(id(bookReference), text(bookReference, "isbn"))
+				.orElseThrow(() -> new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND));
+
+		BookEntity book = bookRepository.findById(bookId)
+				.orElseThrow(() -> new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND));
+		if (book.getAuthors().stream().anyMatch(existing -> existing.getId().equals(authorId)))
+			throw new IllegalOperationException("The author is already associated to the book");
+
+		AuthorEntity authorEntity = authorRepository.getReferenceById(authorId);
+		book.getAuthors().add(authorEntity);
+		counterService.increment(Counter.BOOK_AUTHORS, book);
+		counterService.increment(Counter.AUTHOR_BOOKS, authorEntity);
+		eventPublisher.publishEvent(AuthorshipChangedEvent.linked(bookId, authorId));
+		eventPublisher.publishEvent(EntityChangedEvent.saved(book));
+		eventPublisher.publishEvent(DetailsChangedEvent.of(book, authorEntity));
+	}
+
+	private static String type(Line line) {
+		return line.node().path("type").asText();
+	}
+
+	private static Long id(JsonNode reference) {
+		JsonNode id = reference.path("id");
+		return id.canConvertToLong() ? id.asLong() : null;
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.path(field);
+		return value.isTextual() ? value.asText() : null;
+	}
+
+	private static String describe(RuntimeException e) {
+		DataIntegrityViolationException violation = e instanceof DataIntegrityViolationException integrity
+				? integrity
+				: new DataIntegrityViolationException(e.getMessage(), e);
+		return UniqueConstraints.messageFor(violation)
+				.orElse(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+	}
+}
@@ -0,0 +1,113 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Clasificación en memoria de entidades por un contador, de mayor a menor y con
+ * el id como desempate. Las entidades con contador positivo están en un árbol
+ * ordenado, así que cambiar un contador cuesta O(log n) y leer las primeras k
+ * cuesta O(k). Un montículo acotado a las primeras k no sirve, porque los
+ * contadores también bajan y la entidad que sale del montículo se pierde.
+ *
+ * También guarda el nombre de las entidades con contador en cero, para poder
+ * mostrarlas en cuanto su contador sube.
+ *
+ * No es seguro para acceso concurrente; {@link RankingService} lo protege.
+ *
+ * @author ISIS2603
+ */
+class Leaderboard {
+
+	/**
+	 * Una entidad de la clasificación.
+	 */
+	record Entry(long id, String name, int count) {
+	}
+
+	private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::count).reversed()
+			.thenComparingLong(Entry::id);
+
+	private final Map<Long, Entry> entries = new HashMap<>();
+
+	private final NavigableSet<Entry> ranked = new TreeSet<>(ORDER);
+
+	/**
+	 * Agrega o reemplaza una entidad.
+	 */
+	void put(long id, String name, int count) {
+		replace(entries.get(id), new Entry(id, name, count));
+	}
+
+	/**
+	 * Cambia el nombre de una entidad y conserva su contador. Si no estaba, la
+	 * agrega con el contador en cero.
+	 */
+	void rename(long id, String name) {
+		Entry previous = entries.get(id);
+		replace(previous, new Entry(id, name, previous == null ? 0 : previous.count()));
+	}
+
+	void remove(long id) {
+		Entry previous = entries.remove(id);
+		if (previous != null)
+			ranked.remove(previous);
+	}
+
+	/**
+	 * Las primeras entidades con contador positivo, de mayor a menor.
+	 *
+	 * @param limit Número máximo de entidades.
+	 */
+	List<Entry> top(int limit) {
+		List<Entry> top = new ArrayList<>(Math.min(limit, ranked.size()));
+		Iterator<Entry> iterator = ranked.iterator();
+		while (top.size() < limit && iterator.hasNext())
+			top.add(iterator.next());
+		return top;
+	}
+
+	/**
+	 * Número de entidades, con o sin contador positivo.
+	 */
+	int size() {
+		return entries.size();
+	}
+
+	private void replace(Entry previous, Entry entry) {
+		if (previous != null)
+			ranked.remove(previous);
+		entries.put(entry.id(), entry);
+		if (entry.count() > 0)
+			ranked.add(entry);
+	}
+}
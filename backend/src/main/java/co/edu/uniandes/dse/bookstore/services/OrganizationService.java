@@ -28,6 +28,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +39,7 @@ import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.exceptions.UniqueConstraints;
 import co.edu.uniandes.dse.bookstore.repositories.OrganizationRepository;
 import lombok.extern.slf4j.Slf4j;
 
@@ -51,6 +55,9 @@ public class OrganizationService {
 
 	@Autowired
 	OrganizationRepository organizationRepository;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
 	
 	/**
 	 * Crea una organizacion en la persistencia.
@@ -60,15 +67,17 @@ public class OrganizationService {
 	 * @return La entidad de la organizacion luego de persistirla.
 	 * @throws BusinessLogicException Si la organizacion a persistir ya existe.
 	 */
-	@Transactional
+	@Transactional(rollbackFor = IllegalOperationException.class)
 	public OrganizationEntity createOrganization(OrganizationEntity organizationEntity)
 			throws IllegalOperationException {
-		log.info("Inicia proceso de creación de la organizacion");
-		if (!organizationRepository.findByName(organizationEntity.getName()).isEmpty()) {
-			throw new IllegalOperationException("Organization name already exists");
+		log.debug("Inicia proceso de creación de la organizacion");
+		try {
+			organizationEntity = organizationRepository.saveAndFlush(organizationEntity);
+		} catch (DataIntegrityViolationException e) {
+			throw UniqueConstraints.translate(e);
 		}
-		log.info("Termina proceso de creación de la organizacion");
-		return organizationRepository.save(organizationEntity);
+		log.debug("Termina proceso de creación de la organizacion");
+		return organizationEntity;
 	}
 
 	/**
@@ -78,10 +87,25 @@ public class OrganizationService {
 	 */
 	@Transactional
 	public List<OrganizationEntity> getOrganizations() {
-		log.info("Inicia proceso de consultar todas las organizaciones");
+		log.debug("Inicia proceso de consultar todas las organizaciones");
 		return organizationRepository.findAll();
 	}
 
+	/**
+	 * Devuelve una página de las organizaciones ordenadas por id, a partir
+	 * del id recibido.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return una lista de organizaciones.
+	 */
+	@Transactional
+	public List<OrganizationEntity> getOrganizations(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de organizaciones");
+		return organizationRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
+	}
+
 	/**
 	 * Obtener una organizacion por medio de su id.
 	 *
@@ -90,13 +114,13 @@ public class OrganizationService {
 	 */
 	@Transactional
 	public OrganizationEntity getOrganization(Long organizationId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar organizacion con id = {0}", organizationId);
+		log.debug("Inicia proceso de consultar organizacion con id = {}", organizationId);
 		Optional<OrganizationEntity> organizationEntity = organizationRepository.findById(organizationId);
 
 		if (organizationEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.ORGANIZATION_NOT_FOUND);
 
-		log.info("Termina proceso de consultar organizacion con id = {0}", organizationId);
+		log.debug("Termina proceso de consultar organizacion con id = {}", organizationId);
 		return organizationEntity.get();
 	}
 
@@ -108,17 +132,25 @@ public class OrganizationService {
 	 * @param organization:   organizacion con los cambios para ser actualizada, por
 	 *                        ejemplo el nombre.
 	 * @return la organizacion con los cambios actualizados en la base de datos.
+	 * @throws IllegalOperationException Si otra organizacion ya tiene el nombre.
 	 */
-	@Transactional
+	@Transactional(rollbackFor = IllegalOperationException.class)
 	public OrganizationEntity updateOrganization(Long organizationId, OrganizationEntity organization)
-			throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar organizacion con id = {0}", organizationId);
+			throws EntityNotFoundException, IllegalOperationException {
+		log.debug("Inicia proceso de actualizar organizacion con id = {}", organizationId);
 		Optional<OrganizationEntity> organizationEntity = organizationRepository.findById(organizationId);
 		if (organizationEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.ORGANIZATION_NOT_FOUND);
 
+		if (organizationRepository.existsByNameAndIdNot(organization.getName(), organizationId))
+			throw new IllegalOperationException(ErrorMessage.ORGANIZATION_NAME_ALREADY_EXISTS);
+
 		organization.setId(organizationId);
-		log.info("Termina proceso de actualizar organizacion con id={0}", organizationId);
+		organization.setVersion(organizationEntity.get().getVersion());
+		PrizeEntity prize = organizationEntity.get().getPrize();
+		if (prize != null && prize.getAuthor() != null)
+			eventPublisher.publishEvent(DetailsChangedEvent.ofAuthor(prize.getAuthor().getId()));
+		log.debug("Termina proceso de actualizar organizacion con id={}", organizationId);
 		return organizationRepository.save(organization);
 	}
 
@@ -130,7 +162,7 @@ public class OrganizationService {
 	 */
 	@Transactional
 	public void deleteOrganization(Long organizationId) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de borrar organizacion con id = {0}", organizationId);
+		log.debug("Inicia proceso de borrar organizacion con id = {}", organizationId);
 		Optional<OrganizationEntity> organizationEntity = organizationRepository.findById(organizationId);
 		if (organizationEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.ORGANIZATION_NOT_FOUND);
@@ -140,6 +172,6 @@ public class OrganizationService {
 			throw new IllegalOperationException("Unable to delete organization because it has a prize");
 
 		organizationRepository.deleteById(organizationId);
-		log.info("Termina proceso de borrar organizacion con id = {0}", organizationId);
+		log.debug("Termina proceso de borrar organizacion con id = {}", organizationId);
 	}
 }
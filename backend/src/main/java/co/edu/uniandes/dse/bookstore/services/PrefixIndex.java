@@ -0,0 +1,567 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Índice de prefijos en memoria para autocompletar nombres. Cada nombre se
+ * normaliza como en {@link SearchIndex#tokenize} (sin tildes, en minúsculas y
+ * con las palabras separadas por un espacio) y se puede encontrar por el
+ * comienzo de cualquiera de sus palabras: "rowl" y "j k r" encuentran "J.K.
+ * Rowling".
+ *
+ * Los nombres se guardan en arreglos ordenados por id. Cada comienzo de palabra
+ * es una entrada de 8 bytes (documento y posición en el nombre) y las entradas
+ * se ordenan por el texto que sigue, así que las que empiezan por un prefijo
+ * forman un rango contiguo que se encuentra con búsqueda binaria. Un árbol de
+ * segmentos guarda, para cada bloque de entradas, la de mayor popularidad, y
+ * permite sacar las k más populares de un rango en O(k log n) sin recorrerlo.
+ *
+ * Los cambios se guardan aparte, en un árbol ordenado pequeño que se consulta
+ * junto con los arreglos. Cuando acumula {@link #MAX_PENDING} nombres, o cuando
+ * los borrados superan un octavo de los arreglos, se mezclan con los arreglos
+ * en tiempo lineal.
+ *
+ * Con nombres de tres palabras y 26 caracteres en promedio, un millón de
+ * nombres ocupa unos 200 MB de heap ({@code AutocompleteBenchmarkTest}). La
+ * mayor parte son los dos textos de cada nombre, el original y el normalizado;
+ * cada nombre agrega además 12 bytes (id y popularidad) y cada comienzo de
+ * palabra 12 bytes (entrada y nodo del árbol).
+ *
+ * No es seguro para acceso concurrente; {@link AutocompleteService} lo protege.
+ *
+ * @author ISIS2603
+ */
+class PrefixIndex {
+
+	/**
+	 * Máximo de palabras de un nombre que se pueden usar como comienzo.
+	 */
+	static final int MAX_WORDS = 16;
+
+	static final int MAX_PENDING = 2048;
+
+	private static final int OFFSET_BITS = 8;
+	private static final int MAX_OFFSET = (1 << OFFSET_BITS) - 1;
+	private static final int MIN_MERGE_DELETIONS = 1024;
+
+	/**
+	 * Nombre sugerido para un prefijo.
+	 */
+	record Suggestion(long id, String name, int popularity) {
+	}
+
+	/**
+	 * Nombre con su texto normalizado.
+	 */
+	private record Name(long id, String name, String key, int popularity) {
+	}
+
+	private static final Comparator<Name> BY_POPULARITY = Comparator.comparingInt(Name::popularity).reversed()
+			.thenComparing(Name::key);
+
+	private long[] ids;
+	private String[] names;
+	private String[] keys;
+	private int[] popularity;
+	private int docCount;
+	private final BitSet deleted = new BitSet();
+	private int deletedCount;
+
+	/**
+	 * Comienzos de palabra ({@code documento << 8 | posición}) ordenados por el
+	 * texto que sigue y, en empate, por documento.
+	 */
+	private long[] entries;
+
+	/**
+	 * Árbol de segmentos implícito sobre {@link #entries}: el nodo {@code n}
+	 * ({@code 1 <= n < entries.length}) tiene la entrada de mayor popularidad de
+	 * sus hijos {@code 2n} y {@code 2n + 1}. El nodo {@code entries.length + i} es
+	 * la entrada {@code i}.
+	 */
+	private int[] tree;
+
+	private final Map<Long, Name> pending = new HashMap<>();
+	private final NavigableMap<String, Name> pendingEntries = new TreeMap<>();
+
+	/**
+	 * Crea un índice vacío.
+	 */
+	PrefixIndex() {
+		this(new long[0], new String[0], new int[0], 0);
+	}
+
+	private PrefixIndex(long[] ids, String[] names, int[] popularity, int count) {
+		this.ids = ids;
+		this.names = names;
+		this.popularity = popularity;
+		this.docCount = count;
+		this.keys = new String[count];
+		long[] words = new long[count * 2];
+		int size = 0;
+		for (int doc = 0; doc < count; doc++) {
+			keys[doc] = fold(names[doc]);
+			int[] offsets = wordStarts(keys[doc]);
+			if (size + offsets.length > words.length)
+				words = Arrays.copyOf(words, Math.max(words.length * 2, size + offsets.length));
+			for (int offset : offsets)
+				words[size++] = entry(doc, offset);
+		}
+		entries = Arrays.copyOf(words, size);
+		sort(keys, entries);
+		tree = tree(entries, popularity);
+	}
+
+	/**
+	 * Construye un índice con nombres que llegan en orden creciente de id, sin
+	 * pasar por los cambios pendientes.
+	 */
+	static final class Builder {
+		private long[] ids = new long[1024];
+		private String[] names = new String[1024];
+		private int[] popularity = new int[1024];
+		private int size;
+
+		Builder add(long id, String name, int popularity) {
+			if (size > 0 && id <= ids[size - 1])
+				throw new IllegalArgumentException("Ids must be added in increasing order");
+			if (fold(name).isEmpty())
+				return this;
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				names = Arrays.copyOf(names, size * 2);
+				this.popularity = Arrays.copyOf(this.popularity, size * 2);
+			}
+			ids[size] = id;
+			names[size] = name;
+			this.popularity[size] = popularity;
+			size++;
+			return this;
+		}
+
+		PrefixIndex build() {
+			return new PrefixIndex(Arrays.copyOf(ids, size), Arrays.copyOf(names, size),
+					Arrays.copyOf(popularity, size), size);
+		}
+	}
+
+	/**
+	 * Agrega un nombre o reemplaza el que tenga el mismo id. Si el nombre no tiene
+	 * letras ni dígitos solo se borra el anterior. Si el nombre y la popularidad
+	 * no cambian no hace nada.
+	 */
+	void put(long id, String name, int popularity) {
+		if (contains(id, name, popularity))
+			return;
+		remove(id);
+		String key = fold(name);
+		if (key.isEmpty())
+			return;
+
+		Name added = new Name(id, name, key, popularity);
+		pending.put(id, added);
+		for (int offset : wordStarts(key))
+			pendingEntries.put(pendingKey(added, offset), added);
+		if (pending.size() > MAX_PENDING)
+			merge();
+	}
+
+	/**
+	 * Borra el nombre con el id dado, si existe.
+	 */
+	void remove(long id) {
+		Name removed = pending.remove(id);
+		if (removed != null) {
+			for (int offset : wordStarts(removed.key()))
+				pendingEntries.remove(pendingKey(removed, offset));
+			return;
+		}
+		int doc = Arrays.binarySearch(ids, 0, docCount, id);
+		if (doc < 0 || deleted.get(doc))
+			return;
+		deleted.set(doc);
+		deletedCount++;
+		if (deletedCount > Math.max(MIN_MERGE_DELETIONS, docCount / 8))
+			merge();
+	}
+
+	/**
+	 * Popularidad del nombre con el id dado, o cero si no existe.
+	 */
+	int popularity(long id) {
+		Name added = pending.get(id);
+		if (added != null)
+			return added.popularity();
+		int doc = Arrays.binarySearch(ids, 0, docCount, id);
+		return doc < 0 || deleted.get(doc) ? 0 : popularity[doc];
+	}
+
+	private boolean contains(long id, String name, int popularity) {
+		Name added = pending.get(id);
+		if (added != null)
+			return added.name().equals(name) && added.popularity() == popularity;
+		int doc = Arrays.binarySearch(ids, 0, docCount, id);
+		return doc >= 0 && !deleted.get(doc) && names[doc].equals(name) && this.popularity[doc] == popularity;
+	}
+
+	/**
+	 * Número de nombres en el índice.
+	 */
+	int size() {
+		return docCount - deletedCount + pending.size();
+	}
+
+	/**
+	 * Número de comienzos de palabra en el índice.
+	 */
+	int entryCount() {
+		return entries.length + pendingEntries.size();
+	}
+
+	/**
+	 * Retorna los nombres con una palabra que empieza por el prefijo, de mayor a
+	 * menor popularidad. Los empates se resuelven por orden alfabético.
+	 */
+	List<Suggestion> suggest(String prefix, int limit) {
+		String folded = fold(prefix);
+		if (folded.isEmpty() || limit < 1)
+			return List.of();
+
+		List<Name> candidates = new ArrayList<>();
+		for (int doc : top(folded, limit))
+			candidates.add(new Name(ids[doc], names[doc], keys[doc], popularity[doc]));
+		if (!pending.isEmpty()) {
+			Map<Long, Name> added = new HashMap<>();
+			for (Name candidate : pendingEntries.subMap(folded, true, folded + Character.MAX_VALUE, false).values())
+				added.putIfAbsent(candidate.id(), candidate);
+			candidates.addAll(added.values());
+		}
+		candidates.sort(BY_POPULARITY);
+
+		List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, candidates.size()));
+		for (Name candidate : candidates.subList(0, Math.min(limit, candidates.size())))
+			suggestions.add(new Suggestion(candidate.id(), candidate.name(), candidate.popularity()));
+		return suggestions;
+	}
+
+	/**
+	 * Normaliza un texto para compararlo: sin tildes, en minúsculas y con las
+	 * palabras separadas por un espacio.
+	 */
+	static String fold(String text) {
+		return String.join(" ", SearchIndex.tokenize(text));
+	}
+
+	/**
+	 * Saca del árbol de segmentos las entradas más populares del rango del prefijo,
+	 * saltando las borradas y las de documentos que ya salieron por otra palabra.
+	 */
+	private int[] top(String prefix, int limit) {
+		int m = entries.length;
+		int low = bound(prefix, true);
+		int high = bound(prefix, false);
+		int[] docs = new int[Math.min(limit, high - low)];
+		int found = 0;
+
+		int[] heap = new int[32];
+		int heapSize = 0;
+		for (int l = low + m, r = high + m; l < r; l >>= 1, r >>= 1) {
+			if ((l & 1) == 1)
+				heap = push(heap, heapSize++, l++);
+			if ((r & 1) == 1)
+				heap = push(heap, heapSize++, --r);
+		}
+		while (heapSize > 0 && found < docs.length) {
+			int node = heap[0];
+			heap[0] = heap[--heapSize];
+			siftDown(heap, heapSize, 0);
+			if (node < m) {
+				heap = push(heap, heapSize++, 2 * node);
+				heap = push(heap, heapSize++, 2 * node + 1);
+				continue;
+			}
+			int doc = doc(entries[node - m]);
+			if (!deleted.get(doc) && !contains(docs, found, doc))
+				docs[found++] = doc;
+		}
+		return found == docs.length ? docs : Arrays.copyOf(docs, found);
+	}
+
+	private int[] push(int[] heap, int size, int node) {
+		if (size == heap.length)
+			heap = Arrays.copyOf(heap, size * 2);
+		heap[size] = node;
+		while (size > 0) {
+			int parent = (size - 1) / 2;
+			if (!before(heap[size], heap[parent]))
+				break;
+			swap(heap, size, parent);
+			size = parent;
+		}
+		return heap;
+	}
+
+	private void siftDown(int[] heap, int size, int i) {
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size)
+				return;
+			if (child + 1 < size && before(heap[child + 1], heap[child]))
+				child++;
+			if (!before(heap[child], heap[i]))
+				return;
+			swap(heap, i, child);
+			i = child;
+		}
+	}
+
+	/**
+	 * Indica si el nodo {@code a} sale antes que {@code b}: su mejor entrada es
+	 * más popular o, en empate, está antes en el orden alfabético.
+	 */
+	private boolean before(int a, int b) {
+		int entryA = best(a);
+		int entryB = best(b);
+		int popularityA = popularity[doc(entries[entryA])];
+		int popularityB = popularity[doc(entries[entryB])];
+		return popularityA > popularityB || popularityA == popularityB && entryA < entryB;
+	}
+
+	private int best(int node) {
+		return node >= entries.length ? node - entries.length : tree[node];
+	}
+
+	/**
+	 * Primera entrada cuyo texto es mayor o igual al prefijo ({@code lower}) o
+	 * mayor y sin empezar por él.
+	 */
+	private int bound(String prefix, boolean lower) {
+		int low = 0;
+		int high = entries.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int comparison = comparePrefix(entries[middle], prefix);
+			if (comparison < 0 || comparison == 0 && !lower)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Compara el texto de la entrada con el prefijo; retorna cero si el texto
+	 * empieza por él.
+	 */
+	private int comparePrefix(long entry, String prefix) {
+		String key = keys[doc(entry)];
+		int offset = offset(entry);
+		int length = Math.min(key.length() - offset, prefix.length());
+		for (int i = 0; i < length; i++) {
+			int difference = key.charAt(offset + i) - prefix.charAt(i);
+			if (difference != 0)
+				return difference;
+		}
+		return key.length() - offset < prefix.length() ? -1 : 0;
+	}
+
+	/**
+	 * Mezcla los cambios pendientes con los arreglos y quita los documentos
+	 * borrados. Las entradas de los arreglos ya están ordenadas, así que solo se
+	 * ordenan las pendientes.
+	 */
+	private void merge() {
+		Name[] added = pending.values().toArray(Name[]::new);
+		Arrays.sort(added, Comparator.comparingLong(Name::id));
+		int count = docCount - deletedCount + added.length;
+		long[] mergedIds = new long[count];
+		String[] mergedNames = new String[count];
+		String[] mergedKeys = new String[count];
+		int[] mergedPopularity = new int[count];
+		int[] renumbered = new int[docCount];
+		int[] addedDocs = new int[added.length];
+
+		int next = 0;
+		int doc = 0;
+		int i = 0;
+		while (doc < docCount || i < added.length) {
+			if (doc < docCount && deleted.get(doc)) {
+				doc++;
+			} else if (i == added.length || doc < docCount && ids[doc] < added[i].id()) {
+				mergedIds[next] = ids[doc];
+				mergedNames[next] = names[doc];
+				mergedKeys[next] = keys[doc];
+				mergedPopularity[next] = popularity[doc];
+				renumbered[doc++] = next++;
+			} else {
+				mergedIds[next] = added[i].id();
+				mergedNames[next] = added[i].name();
+				mergedKeys[next] = added[i].key();
+				mergedPopularity[next] = added[i].popularity();
+				addedDocs[i++] = next++;
+			}
+		}
+
+		long[] kept = new long[entries.length];
+		int keptCount = 0;
+		for (long entry : entries)
+			if (!deleted.get(doc(entry)))
+				kept[keptCount++] = entry(renumbered[doc(entry)], offset(entry));
+		long[] fresh = new long[pendingEntries.size()];
+		int freshCount = 0;
+		for (i = 0; i < added.length; i++)
+			for (int offset : wordStarts(added[i].key()))
+				fresh[freshCount++] = entry(addedDocs[i], offset);
+		sort(mergedKeys, fresh);
+
+		long[] merged = new long[keptCount + freshCount];
+		merge(mergedKeys, kept, 0, keptCount, fresh, 0, freshCount, merged, 0);
+
+		ids = mergedIds;
+		names = mergedNames;
+		keys = mergedKeys;
+		popularity = mergedPopularity;
+		docCount = count;
+		entries = merged;
+		tree = tree(entries, popularity);
+		deleted.clear();
+		deletedCount = 0;
+		pending.clear();
+		pendingEntries.clear();
+	}
+
+	private static int[] tree(long[] entries, int[] popularity) {
+		int m = entries.length;
+		int[] tree = new int[m];
+		for (int node = m - 1; node > 0; node--) {
+			int left = 2 * node >= m ? 2 * node - m : tree[2 * node];
+			int right = 2 * node + 1 >= m ? 2 * node + 1 - m : tree[2 * node + 1];
+			int leftPopularity = popularity[doc(entries[left])];
+			int rightPopularity = popularity[doc(entries[right])];
+			tree[node] = rightPopularity > leftPopularity || rightPopularity == leftPopularity && right < left ? right
+					: left;
+		}
+		return tree;
+	}
+
+	/**
+	 * Ordena entradas por su texto con mergesort de abajo hacia arriba.
+	 */
+	private static void sort(String[] keys, long[] entries) {
+		int n = entries.length;
+		long[] source = entries;
+		long[] target = new long[n];
+		for (int width = 1; width < n; width *= 2) {
+			for (int low = 0; low < n; low += 2 * width) {
+				int middle = Math.min(low + width, n);
+				int high = Math.min(low + 2 * width, n);
+				merge(keys, source, low, middle, source, middle, high, target, low);
+			}
+			long[] swap = source;
+			source = target;
+			target = swap;
+		}
+		if (source != entries)
+			System.arraycopy(source, 0, entries, 0, n);
+	}
+
+	private static void merge(String[] keys, long[] a, int aFrom, int aTo, long[] b, int bFrom, int bTo,
+			long[] target, int to) {
+		while (aFrom < aTo && bFrom < bTo)
+			target[to++] = compare(keys, b[bFrom], a[aFrom]) < 0 ? b[bFrom++] : a[aFrom++];
+		System.arraycopy(a, aFrom, target, to, aTo - aFrom);
+		System.arraycopy(b, bFrom, target, to + aTo - aFrom, bTo - bFrom);
+	}
+
+	/**
+	 * Compara dos entradas por el texto desde su posición y, en empate, por
+	 * documento.
+	 */
+	private static int compare(String[] keys, long a, long b) {
+		String keyA = keys[doc(a)];
+		String keyB = keys[doc(b)];
+		int offsetA = offset(a);
+		int offsetB = offset(b);
+		int lengthA = keyA.length() - offsetA;
+		int lengthB = keyB.length() - offsetB;
+		for (int i = 0, length = Math.min(lengthA, lengthB); i < length; i++) {
+			int difference = keyA.charAt(offsetA + i) - keyB.charAt(offsetB + i);
+			if (difference != 0)
+				return difference;
+		}
+		return lengthA != lengthB ? lengthA - lengthB : Integer.compare(doc(a), doc(b));
+	}
+
+	/**
+	 * Posiciones donde empiezan las primeras {@link #MAX_WORDS} palabras de un
+	 * texto normalizado, sin pasar de {@link #MAX_OFFSET}.
+	 */
+	private static int[] wordStarts(String key) {
+		int[] offsets = new int[MAX_WORDS];
+		int count = 0;
+		for (int i = 0; i < key.length() && i <= MAX_OFFSET && count < MAX_WORDS; i++)
+			if (i == 0 || key.charAt(i - 1) == ' ')
+				offsets[count++] = i;
+		return Arrays.copyOf(offsets, count);
+	}
+
+	private static String pendingKey(Name added, int offset) {
+		return added.key().substring(offset) + '\0' + added.id();
+	}
+
+	private static boolean contains(int[] docs, int size, int doc) {
+		for (int i = 0; i < size; i++)
+			if (docs[i] == doc)
+				return true;
+		return false;
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int value = array[i];
+		array[i] = array[j];
+		array[j] = value;
+	}
+
+	private static long entry(int doc, int offset) {
+		return (long) doc << OFFSET_BITS | offset;
+	}
+
+	private static int doc(long entry) {
+		return (int) (entry >>> OFFSET_BITS);
+	}
+
+	private static int offset(long entry) {
+		return (int) (entry & MAX_OFFSET);
+	}
+}
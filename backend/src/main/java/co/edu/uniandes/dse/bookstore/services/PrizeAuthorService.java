@@ -27,6 +27,7 @@ package co.edu.uniandes.dse.bookstore.services;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +37,7 @@ import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
 import co.edu.uniandes.dse.bookstore.repositories.PrizeRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -54,6 +56,12 @@ public class PrizeAuthorService {
 
 	@Autowired
 	private PrizeRepository prizeRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private CounterService counterService;
 	
 	/**
 	 * Agregar un autor a un premio
@@ -65,7 +73,7 @@ public class PrizeAuthorService {
 	 */
 	@Transactional
 	public AuthorEntity addAuthor(Long authorId, Long prizeId) throws EntityNotFoundException {
-		log.info("Inicia proceso de asociar el autor con id = {0} al premio con id = " + prizeId, authorId);
+		log.debug("Inicia proceso de asociar el autor con id = {} al premio con id = {}", authorId, prizeId);
 		Optional<AuthorEntity> autorEntity = authorRepository.findById(authorId);
 		if (autorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
@@ -74,8 +82,11 @@ public class PrizeAuthorService {
 		if (prizeEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.PRIZE_NOT_FOUND);
 
-		prizeEntity.get().setAuthor(autorEntity.get());
-		log.info("Termina proceso de asociar el autor con id = {0} al premio con id = {1}", authorId, prizeId);
+		publishAuthorChanged(prizeEntity.get());
+		counterService.move(Counter.AUTHOR_PRIZES, prizeEntity.get().getAuthor(), autorEntity.get());
+		moveToAuthor(prizeEntity.get(), autorEntity.get());
+		publishAuthorChanged(prizeEntity.get());
+		log.debug("Termina proceso de asociar el autor con id = {} al premio con id = {}", authorId, prizeId);
 		return autorEntity.get();
 	}
 
@@ -90,7 +101,7 @@ public class PrizeAuthorService {
 
 	@Transactional
 	public AuthorEntity getAuthor(Long prizeId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar el autor del premio con id = {0}", prizeId);
+		log.debug("Inicia proceso de consultar el autor del premio con id = {}", prizeId);
 		Optional<PrizeEntity> prizeEntity = prizeRepository.findById(prizeId);
 		if (prizeEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.PRIZE_NOT_FOUND);
@@ -100,7 +111,7 @@ public class PrizeAuthorService {
 		if (authorEntity == null)
 			throw new EntityNotFoundException("The author was not found");
 
-		log.info("Termina proceso de consultar el autor del premio con id = {0}", prizeId);
+		log.debug("Termina proceso de consultar el autor del premio con id = {}", prizeId);
 		return authorEntity;
 	}
 
@@ -115,7 +126,7 @@ public class PrizeAuthorService {
 
 	@Transactional
 	public AuthorEntity replaceAuthor(Long prizeId, Long authorId) throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar el autor del premio premio con id = {0}", prizeId);
+		log.debug("Inicia proceso de actualizar el autor del premio premio con id = {}", prizeId);
 		Optional<AuthorEntity> autorEntity = authorRepository.findById(authorId);
 		if (autorEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.AUTHOR_NOT_FOUND);
@@ -124,8 +135,11 @@ public class PrizeAuthorService {
 		if (prizeEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.PRIZE_NOT_FOUND);
 
-		prizeEntity.get().setAuthor(autorEntity.get());
-		log.info("Termina proceso de asociar el autor con id = {0} al premio con id = " + prizeId, authorId);
+		publishAuthorChanged(prizeEntity.get());
+		counterService.move(Counter.AUTHOR_PRIZES, prizeEntity.get().getAuthor(), autorEntity.get());
+		moveToAuthor(prizeEntity.get(), autorEntity.get());
+		publishAuthorChanged(prizeEntity.get());
+		log.debug("Termina proceso de asociar el autor con id = {} al premio con id = {}", authorId, prizeId);
 		return autorEntity.get();
 	}
 
@@ -138,7 +152,7 @@ public class PrizeAuthorService {
 
 	@Transactional
 	public void removeAuthor(Long prizeId) throws EntityNotFoundException {
-		log.info("Inicia proceso de borrar el autor del premio con id = {0}", prizeId);
+		log.debug("Inicia proceso de borrar el autor del premio con id = {}", prizeId);
 		Optional<PrizeEntity> prizeEntity = prizeRepository.findById(prizeId);
 		if (prizeEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.PRIZE_NOT_FOUND);
@@ -148,11 +162,33 @@ public class PrizeAuthorService {
 		}
 		Optional<AuthorEntity> authorEntity = authorRepository.findById(prizeEntity.get().getAuthor().getId());
 
+		publishAuthorChanged(prizeEntity.get());
 		authorEntity.ifPresent(author -> {
 			prizeEntity.get().setAuthor(null);
 			author.getPrizes().remove(prizeEntity.get());
+			counterService.decrement(Counter.AUTHOR_PRIZES, author);
 		});
 
-		log.info("Termina proceso de borrar el autor del premio con id = " + prizeId);
+		log.debug("Termina proceso de borrar el autor del premio con id = {}", prizeId);
+	}
+
+	/**
+	 * Cambia el autor del premio y actualiza también los premios de ambos
+	 * autores, que están en el caché de segundo nivel y no se recargan solos.
+	 */
+	private void moveToAuthor(PrizeEntity prize, AuthorEntity author) {
+		if (prize.getAuthor() != null)
+			prize.getAuthor().getPrizes().remove(prize);
+		prize.setAuthor(author);
+		if (!author.getPrizes().contains(prize))
+			author.getPrizes().add(prize);
+	}
+
+	/**
+	 * Publica el cambio del detalle del autor actual del premio, si tiene.
+	 */
+	private void publishAuthorChanged(PrizeEntity prize) {
+		if (prize.getAuthor() != null)
+			eventPublisher.publishEvent(DetailsChangedEvent.ofAuthor(prize.getAuthor().getId()));
 	}
 }
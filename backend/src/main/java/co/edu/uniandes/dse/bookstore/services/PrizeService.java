@@ -28,9 +28,13 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import co.edu.uniandes.dse.bookstore.dto.PrizeSummary;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
 import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
@@ -38,6 +42,7 @@ import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
 import co.edu.uniandes.dse.bookstore.repositories.OrganizationRepository;
 import co.edu.uniandes.dse.bookstore.repositories.PrizeRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -56,6 +61,12 @@ public class PrizeService {
 	@Autowired
 	OrganizationRepository organizationRepository;
 
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	CounterService counterService;
+
 	/**
 	 * Guardar un nuevo premio
 	 *
@@ -67,7 +78,7 @@ public class PrizeService {
 
 	@Transactional
 	public PrizeEntity createPrize(PrizeEntity prizeEntity) throws IllegalOperationException {
-		log.info("Inicia proceso de creación de premio");
+		log.debug("Inicia proceso de creación de premio");
 		if (prizeEntity.getOrganization() == null)
 			throw new IllegalOperationException("Organization is not valid");
 
@@ -79,7 +90,10 @@ public class PrizeService {
 		if (organizationEntity.get().getPrize() != null)
 			throw new IllegalOperationException("Organization already holds a prize");
 
-		log.info("Termina proceso de creación de premio");
+		prizeEntity.setOrganization(organizationEntity.get());
+		counterService.increment(Counter.AUTHOR_PRIZES, prizeEntity.getAuthor());
+		publishAuthorChanged(prizeEntity);
+		log.debug("Termina proceso de creación de premio");
 		return prizeRepository.save(prizeEntity);
 	}
 
@@ -90,10 +104,40 @@ public class PrizeService {
 	 */
 	@Transactional
 	public List<PrizeEntity> getPrizes() {
-		log.info("Inicia proceso de consultar todos los premios");
+		log.debug("Inicia proceso de consultar todos los premios");
 		return prizeRepository.findAll();
 	}
 
+	/**
+	 * Devuelve una página de los premios ordenados por id, a partir
+	 * del id recibido.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return Lista de entidades de tipo premio.
+	 */
+	@Transactional
+	public List<PrizeEntity> getPrizes(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de premios");
+		return prizeRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
+	}
+
+	/**
+	 * Devuelve una página de proyecciones de los premios ordenados por id, sin
+	 * cargar las entidades en el contexto de persistencia.
+	 *
+	 * @param after Id del último registro de la página anterior. Si es nulo se
+	 *              retorna la primera página.
+	 * @param limit Número máximo de registros a retornar.
+	 * @return Lista de proyecciones de tipo premio.
+	 */
+	@Transactional(readOnly = true)
+	public List<PrizeSummary> getPrizeSummaries(Long after, int limit) {
+		log.debug("Inicia proceso de consultar una página de resúmenes de premios");
+		return prizeRepository.findSummaryByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit));
+	}
+
 	/**
 	 * Busca un premio por ID
 	 *
@@ -103,12 +147,12 @@ public class PrizeService {
 	 */
 	@Transactional
 	public PrizeEntity getPrize(Long prizeId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar premio con id = {0}", prizeId);
+		log.debug("Inicia proceso de consultar premio con id = {}", prizeId);
 		Optional<PrizeEntity> prizeEntity = prizeRepository.findById(prizeId);
 		if (prizeEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.PRIZE_NOT_FOUND);
 
-		log.info("Termina proceso de consultar premio con id = {0}", prizeId);
+		log.debug("Termina proceso de consultar premio con id = {}", prizeId);
 		return prizeEntity.get();
 	}
 
@@ -121,15 +165,28 @@ public class PrizeService {
 	 */
 	@Transactional
 	public PrizeEntity updatePrize(Long prizeId, PrizeEntity prize) throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar premio con id = {0}", prizeId);
+		log.debug("Inicia proceso de actualizar premio con id = {}", prizeId);
 		Optional<PrizeEntity> prizeEntity = prizeRepository.findById(prizeId);
 		if (prizeEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.PRIZE_NOT_FOUND);
 
 		prize.setId(prizeId);
-
-		log.info("Termina proceso de actualizar premio con id = {0}", prizeId);
-		return prizeRepository.save(prize);
+		prize.setVersion(prizeEntity.get().getVersion());
+		if (prize.getOrganization() != null)
+			prize.setOrganization(organizationRepository.getReferenceById(prize.getOrganization().getId()));
+		publishAuthorChanged(prizeEntity.get());
+		AuthorEntity previousAuthor = prizeEntity.get().getAuthor();
+		PrizeEntity updated = prizeRepository.save(prize);
+		counterService.move(Counter.AUTHOR_PRIZES, previousAuthor, updated.getAuthor());
+		// Los premios del autor están en el caché de segundo nivel y no se recargan solos.
+		if (previousAuthor != null && previousAuthor != updated.getAuthor())
+			previousAuthor.getPrizes().remove(updated);
+		if (updated.getAuthor() != null && !updated.getAuthor().getPrizes().contains(updated))
+			updated.getAuthor().getPrizes().add(updated);
+		publishAuthorChanged(updated);
+
+		log.debug("Termina proceso de actualizar premio con id = {}", prizeId);
+		return updated;
 	}
 
 	/**
@@ -141,7 +198,7 @@ public class PrizeService {
 
 	@Transactional
 	public void deletePrize(Long prizeId) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de borrar premio con id = {0}", prizeId);
+		log.debug("Inicia proceso de borrar premio con id = {}", prizeId);
 		Optional<PrizeEntity> prizeEntity = prizeRepository.findById(prizeId);
 		if (prizeEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.PRIZE_NOT_FOUND);
@@ -151,6 +208,14 @@ public class PrizeService {
 		}
 
 		prizeRepository.deleteById(prizeId);
-		log.info("Termina proceso de borrar premio con id = {0}", prizeId);
+		log.debug("Termina proceso de borrar premio con id = {}", prizeId);
+	}
+
+	/**
+	 * Publica el cambio del detalle del autor actual del premio, si tiene.
+	 */
+	private void publishAuthorChanged(PrizeEntity prize) {
+		if (prize.getAuthor() != null)
+			eventPublisher.publishEvent(DetailsChangedEvent.ofAuthor(prize.getAuthor().getId()));
 	}
 }
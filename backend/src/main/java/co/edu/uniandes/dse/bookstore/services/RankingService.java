@@ -0,0 +1,321 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import co.edu.uniandes.dse.bookstore.dto.RankingEntryDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clasificaciones de la página de inicio: los libros con más reseñas, los
+ * autores con más libros y con más premios y las editoriales con más libros.
+ *
+ * Cada clasificación es un {@link Leaderboard} en memoria sobre uno de los
+ * contadores de {@link CounterService}. Se construye desde esos contadores al
+ * arrancar la aplicación y cada {@code bookstore.rankings.refresh-interval}, y
+ * entre tanto se actualiza con los {@link EntityChangedEvent} de los nombres y
+ * con los {@link CountersChangedEvent} de las transacciones confirmadas. Por
+ * cada uno de estos se vuelve a leer el contador de las entidades que
+ * cambiaron, en lugar de sumar la diferencia, así que aplicar un evento que la
+ * lectura ya incluye no cambia nada.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class RankingService {
+
+	static final int MAX_SIZE = 100;
+
+	/**
+	 * Clasificaciones disponibles, con el nombre que usan en la ruta.
+	 */
+	public enum Ranking {
+		MOST_REVIEWED_BOOKS("most-reviewed-books", Counter.BOOK_REVIEWS),
+		MOST_PROLIFIC_AUTHORS("most-prolific-authors", Counter.AUTHOR_BOOKS),
+		LARGEST_EDITORIALS("largest-editorials", Counter.EDITORIAL_BOOKS),
+		MOST_AWARDED_AUTHORS("most-awarded-authors", Counter.AUTHOR_PRIZES);
+
+		private final String path;
+		private final Counter counter;
+
+		Ranking(String path, Counter counter) {
+			this.path = path;
+			this.counter = counter;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * Busca la clasificación por el nombre que usa en la ruta.
+		 *
+		 * @throws EntityNotFoundException Si no hay una clasificación con ese nombre.
+		 */
+		public static Ranking fromPath(String path) throws EntityNotFoundException {
+			for (Ranking ranking : values())
+				if (ranking.path.equals(path))
+					return ranking;
+			throw new EntityNotFoundException(ErrorMessage.RANKING_NOT_FOUND);
+		}
+	}
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Evita dos reconstrucciones a la vez.
+	 */
+	private final Lock rebuilding = new ReentrantLock();
+
+	private Map<Ranking, Leaderboard> boards = emptyBoards();
+
+	/**
+	 * Cambios recibidos mientras se reconstruyen las clasificaciones, que se
+	 * aplican a las nuevas antes de reemplazar las anteriores. Es nulo fuera de
+	 * una reconstrucción.
+	 */
+	private List<Consumer<Map<Ranking, Leaderboard>>> pending;
+
+	/**
+	 * Obtiene las primeras entidades de una clasificación. Solo aparecen las que
+	 * tienen el contador en más de cero.
+	 *
+	 * @param kind  El nombre de la clasificación en la ruta.
+	 * @param limit Número máximo de entidades. Los valores mayores a
+	 *              {@link #MAX_SIZE} se recortan.
+	 * @return Las entidades, de la de mayor a la de menor contador.
+	 * @throws EntityNotFoundException   Si la clasificación no existe.
+	 * @throws IllegalOperationException Si el límite no es positivo.
+	 */
+	public List<RankingEntryDTO> getRanking(String kind, int limit)
+			throws EntityNotFoundException, IllegalOperationException {
+		Ranking ranking = Ranking.fromPath(kind);
+		if (limit < 1)
+			throw new IllegalOperationException("N must be greater than zero");
+
+		List<Leaderboard.Entry> top;
+		lock.readLock().lock();
+		try {
+			top = boards.get(ranking).top(Math.min(limit, MAX_SIZE));
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		List<RankingEntryDTO> entries = new ArrayList<>(top.size());
+		for (Leaderboard.Entry entry : top)
+			entries.add(toDTO(entry));
+		return entries;
+	}
+
+	/**
+	 * Construye las clasificaciones desde los contadores de la base de datos y
+	 * reemplaza las anteriores. Los eventos que llegan durante la lectura se
+	 * aplican también a las nuevas clasificaciones antes del reemplazo; los que
+	 * llegaron antes son de transacciones ya confirmadas, que la lectura
+	 * incluye.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${bookstore.rankings.refresh-interval:PT30M}",
+			initialDelayString = "${bookstore.rankings.refresh-interval:PT30M}")
+	public void rebuild() {
+		rebuilding.lock();
+		try {
+			log.info("Inicia proceso de construir las clasificaciones");
+			lock.writeLock().lock();
+			try {
+				pending = new ArrayList<>();
+			} finally {
+				lock.writeLock().unlock();
+			}
+			Map<Ranking, Leaderboard> rebuilt;
+			try {
+				rebuilt = load();
+			} catch (RuntimeException e) {
+				lock.writeLock().lock();
+				try {
+					pending = null;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				throw e;
+			}
+
+			lock.writeLock().lock();
+			try {
+				pending.forEach(update -> update.accept(rebuilt));
+				boards = rebuilt;
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Termina proceso de construir las clasificaciones");
+		} finally {
+			rebuilding.unlock();
+		}
+	}
+
+	/**
+	 * Lee el nombre y el contador de cada entidad, con una consulta por
+	 * clasificación.
+	 */
+	private Map<Ranking, Leaderboard> load() {
+		Map<Ranking, Leaderboard> loaded = new EnumMap<>(Ranking.class);
+		for (Ranking ranking : Ranking.values()) {
+			Leaderboard board = new Leaderboard();
+			jdbcTemplate.query("select id, name, " + ranking.counter.column() + " from " + ranking.counter.table(),
+					rs -> {
+						board.put(rs.getLong(1), rs.getString(2), rs.getInt(3));
+					});
+			loaded.put(ranking, board);
+		}
+		return loaded;
+	}
+
+	/**
+	 * Vuelve a leer los contadores que cambiaron en una transacción confirmada.
+	 * Si los contadores se corrigieron desde la base de datos, reconstruye las
+	 * clasificaciones.
+	 */
+	@EventListener
+	public void onCountersChanged(CountersChangedEvent event) {
+		if (event.reconciled()) {
+			rebuild();
+			return;
+		}
+		apply(boards -> {
+			for (Ranking ranking : Ranking.values()) {
+				Set<Long> ids = event.ids().get(ranking.counter);
+				if (ids != null)
+					reload(boards.get(ranking), ranking, ids);
+			}
+		});
+	}
+
+	/**
+	 * Reemplaza el nombre y el contador de las entidades con los de la base de
+	 * datos, y quita las que ya no existen. Se llama con el bloqueo de escritura
+	 * tomado, para que dos lecturas del mismo contador se apliquen en el orden
+	 * en que se hicieron; la transacción que cambió el contador ya se confirmó y
+	 * no retiene bloqueos de la base de datos.
+	 */
+	private void reload(Leaderboard board, Ranking ranking, Set<Long> ids) {
+		Set<Long> missing = new HashSet<>(ids);
+		String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+		jdbcTemplate.query("select id, name, " + ranking.counter.column() + " from " + ranking.counter.table()
+				+ " where id in (" + in + ")", rs -> {
+					board.put(rs.getLong(1), rs.getString(2), rs.getInt(3));
+					missing.remove(rs.getLong(1));
+				}, ids.toArray());
+		missing.forEach(board::remove);
+	}
+
+	/**
+	 * Actualiza el nombre cuando se confirma la creación o actualización de un
+	 * libro, un autor o una editorial, y la quita de las clasificaciones cuando
+	 * se confirma su borrado. Si el cambio ocurre fuera de una transacción se
+	 * aplica de inmediato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		long id = event.id();
+		String name = event.isDeleted() ? null : nameOf(event.entity());
+		apply(boards -> {
+			for (Ranking ranking : Ranking.values()) {
+				if (ranking.counter.entityType() != event.type())
+					continue;
+				if (event.isDeleted())
+					boards.get(ranking).remove(id);
+				else
+					boards.get(ranking).rename(id, name);
+			}
+		});
+	}
+
+	private void apply(Consumer<Map<Ranking, Leaderboard>> update) {
+		lock.writeLock().lock();
+		try {
+			update.accept(boards);
+			if (pending != null)
+				pending.add(update);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static String nameOf(Object entity) {
+		if (entity instanceof BookEntity book)
+			return book.getName();
+		if (entity instanceof AuthorEntity author)
+			return author.getName();
+		if (entity instanceof EditorialEntity editorial)
+			return editorial.getName();
+		return null;
+	}
+
+	private static Map<Ranking, Leaderboard> emptyBoards() {
+		Map<Ranking, Leaderboard> empty = new EnumMap<>(Ranking.class);
+		for (Ranking ranking : Ranking.values())
+			empty.put(ranking, new Leaderboard());
+		return empty;
+	}
+
+	private RankingEntryDTO toDTO(Leaderboard.Entry entry) {
+		RankingEntryDTO dto = new RankingEntryDTO();
+		dto.setId(entry.id());
+		dto.setName(entry.name());
+		dto.setCount(entry.count());
+		return dto;
+	}
+}
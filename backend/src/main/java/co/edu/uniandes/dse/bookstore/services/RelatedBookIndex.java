@@ -0,0 +1,254 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Índice de libros relacionados. Cada libro se describe por sus autores, su
+ * editorial y la década de publicación, y para cada uno de esos valores se
+ * guarda el conjunto de ids de sus libros como un bitmap comprimido (Roaring),
+ * como en {@link FacetIndex}.
+ *
+ * La similitud entre dos libros es el Jaccard ponderado de sus valores: el
+ * peso de los valores compartidos sobre el peso de la unión. Un autor pesa
+ * {@link #AUTHOR_WEIGHT}, más que la editorial y la década juntas, así que un
+ * autor compartido cuenta más que la misma editorial en la misma década.
+ *
+ * Los candidatos salen de intersecar y unir bitmaps, de la evidencia más fuerte
+ * a la más débil: los libros de los mismos autores con la misma editorial y
+ * década, el resto de libros de los mismos autores, los de la misma editorial y
+ * década, y los de la misma editorial. Se toman a lo sumo
+ * {@link #MAX_CANDIDATES} y a todos se les calcula la similitud exacta. Los
+ * libros que solo comparten la década no se consideran relacionados.
+ *
+ * Los ids de los libros deben caber en 32 bits sin signo. No es seguro para
+ * acceso concurrente; {@link RelatedBookService} lo protege.
+ *
+ * @author ISIS2603
+ */
+class RelatedBookIndex {
+
+	static final long MAX_BOOK_ID = 0xFFFFFFFFL;
+
+	static final int MAX_CANDIDATES = 2000;
+
+	static final int AUTHOR_WEIGHT = 3;
+
+	private static final Comparator<Related> BY_SIMILARITY = Comparator.comparingDouble(Related::similarity)
+			.reversed().thenComparingLong(Related::id);
+
+	/**
+	 * Valores de un libro. La editorial y la década pueden ser nulas.
+	 */
+	record Values(String name, Long editorialId, Integer decade, long[] authorIds) {
+
+		/**
+		 * Peso de todos los valores del libro.
+		 */
+		int weight() {
+			return authorIds.length * AUTHOR_WEIGHT + (editorialId == null ? 0 : 1) + (decade == null ? 0 : 1);
+		}
+	}
+
+	/**
+	 * Un libro relacionado y su similitud, entre 0 y 1.
+	 */
+	record Related(long id, String name, double similarity) {
+	}
+
+	private final Map<Integer, Values> books = new HashMap<>();
+	private final Map<Long, RoaringBitmap> byAuthor = new HashMap<>();
+	private final Map<Long, RoaringBitmap> byEditorial = new HashMap<>();
+	private final Map<Integer, RoaringBitmap> byDecade = new HashMap<>();
+
+	/**
+	 * Agrega un libro o reemplaza sus valores.
+	 */
+	void putBook(long id, Values values) {
+		removeBook(id);
+		int book = key(id);
+		books.put(book, values);
+		for (long author : values.authorIds())
+			byAuthor.computeIfAbsent(author, key -> new RoaringBitmap()).add(book);
+		if (values.editorialId() != null)
+			byEditorial.computeIfAbsent(values.editorialId(), key -> new RoaringBitmap()).add(book);
+		if (values.decade() != null)
+			byDecade.computeIfAbsent(values.decade(), key -> new RoaringBitmap()).add(book);
+	}
+
+	/**
+	 * Borra un libro, si existe.
+	 */
+	void removeBook(long id) {
+		int book = key(id);
+		Values values = books.remove(book);
+		if (values == null)
+			return;
+		for (long author : values.authorIds())
+			remove(byAuthor, author, book);
+		if (values.editorialId() != null)
+			remove(byEditorial, values.editorialId(), book);
+		if (values.decade() != null)
+			remove(byDecade, values.decade(), book);
+	}
+
+	private static <K> void remove(Map<K, RoaringBitmap> bitmaps, K value, int book) {
+		RoaringBitmap bitmap = bitmaps.get(value);
+		if (bitmap == null)
+			return;
+		bitmap.remove(book);
+		if (bitmap.isEmpty())
+			bitmaps.remove(value);
+	}
+
+	/**
+	 * Número de libros en el índice.
+	 */
+	int size() {
+		return books.size();
+	}
+
+	/**
+	 * Bytes que ocupan los bitmaps.
+	 */
+	long bitmapBytes() {
+		long bytes = 0;
+		for (Map<?, RoaringBitmap> bitmaps : List.of(byAuthor, byEditorial, byDecade))
+			for (RoaringBitmap bitmap : bitmaps.values())
+				bytes += bitmap.getLongSizeInBytes();
+		return bytes;
+	}
+
+	/**
+	 * Comprime los bitmaps con secuencias largas de ids consecutivos. Conviene
+	 * llamarlo después de cargar muchos libros.
+	 */
+	void optimize() {
+		for (Map<?, RoaringBitmap> bitmaps : List.of(byAuthor, byEditorial, byDecade))
+			for (RoaringBitmap bitmap : bitmaps.values())
+				bitmap.runOptimize();
+	}
+
+	/**
+	 * Los libros más parecidos a un libro, de mayor a menor similitud y por id en
+	 * caso de empate.
+	 *
+	 * @param id    El id del libro.
+	 * @param limit Número máximo de libros.
+	 * @return Los libros relacionados, o nulo si el libro no está en el índice.
+	 */
+	List<Related> related(long id, int limit) {
+		if (id < 0 || id > MAX_BOOK_ID)
+			return null;
+		int book = (int) id;
+		Values values = books.get(book);
+		if (values == null)
+			return null;
+
+		RoaringBitmap candidates = candidates(values);
+		candidates.remove(book);
+
+		PriorityQueue<Related> top = new PriorityQueue<>(limit + 1, BY_SIMILARITY.reversed());
+		for (IntIterator iterator = candidates.getIntIterator(); iterator.hasNext();) {
+			int candidate = iterator.next();
+			Values other = books.get(candidate);
+			int shared = sharedWeight(values, other);
+			double similarity = (double) shared / (values.weight() + other.weight() - shared);
+			if (top.size() == limit && similarity <= top.peek().similarity())
+				continue;
+			top.add(new Related(Integer.toUnsignedLong(candidate), other.name(), similarity));
+			if (top.size() > limit)
+				top.poll();
+		}
+		List<Related> related = new ArrayList<>(top);
+		related.sort(BY_SIMILARITY);
+		return related;
+	}
+
+	/**
+	 * Une los bitmaps de cada nivel de evidencia hasta juntar
+	 * {@link #MAX_CANDIDATES} libros, más el libro mismo.
+	 */
+	private RoaringBitmap candidates(Values values) {
+		RoaringBitmap sameAuthors = new RoaringBitmap();
+		for (long author : values.authorIds()) {
+			RoaringBitmap bitmap = byAuthor.get(author);
+			if (bitmap != null)
+				sameAuthors.or(bitmap);
+		}
+		RoaringBitmap sameEditorial = values.editorialId() == null ? null : byEditorial.get(values.editorialId());
+		RoaringBitmap sameDecade = values.decade() == null ? null : byDecade.get(values.decade());
+		RoaringBitmap sameEditorialAndDecade = sameEditorial == null || sameDecade == null ? null
+				: RoaringBitmap.and(sameEditorial, sameDecade);
+
+		List<RoaringBitmap> levels = new ArrayList<>(4);
+		if (sameEditorialAndDecade != null)
+			levels.add(RoaringBitmap.and(sameAuthors, sameEditorialAndDecade));
+		levels.add(sameAuthors);
+		if (sameEditorialAndDecade != null)
+			levels.add(sameEditorialAndDecade);
+		if (sameEditorial != null)
+			levels.add(sameEditorial);
+
+		RoaringBitmap candidates = new RoaringBitmap();
+		int count = 0;
+		for (RoaringBitmap level : levels) {
+			for (IntIterator iterator = level.getIntIterator(); iterator.hasNext();) {
+				if (count > MAX_CANDIDATES)
+					return candidates;
+				if (candidates.checkedAdd(iterator.next()))
+					count++;
+			}
+		}
+		return candidates;
+	}
+
+	private static int sharedWeight(Values a, Values b) {
+		int shared = 0;
+		for (long author : a.authorIds())
+			for (long other : b.authorIds())
+				if (author == other)
+					shared += AUTHOR_WEIGHT;
+		if (a.editorialId() != null && a.editorialId().equals(b.editorialId()))
+			shared++;
+		if (a.decade() != null && a.decade().equals(b.decade()))
+			shared++;
+		return shared;
+	}
+
+	private static int key(long id) {
+		if (id < 0 || id > MAX_BOOK_ID)
+			throw new IllegalArgumentException("Book id " + id + " does not fit in a related books bitmap");
+		return (int) id;
+	}
+}
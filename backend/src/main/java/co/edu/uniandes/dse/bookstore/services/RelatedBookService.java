@@ -0,0 +1,265 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import co.edu.uniandes.dse.bookstore.dto.BookAuthorPair;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.dto.RelatedBookDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recomendaciones de libros relacionados por autores, editorial y década de
+ * publicación. Los libros se guardan en memoria en un {@link RelatedBookIndex}
+ * que se construye al arrancar la aplicación; cada vez que se confirma un
+ * cambio de un libro o de sus asociaciones se reemplazan sus valores, así que
+ * las recomendaciones no requieren consultar la base de datos.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class RelatedBookService {
+
+	static final int MAX_RELATED = 50;
+
+	private static final int REBUILD_PAGE_SIZE = 5000;
+
+	@Autowired
+	BookRepository bookRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Evita dos reconstrucciones a la vez.
+	 */
+	private final Lock rebuilding = new ReentrantLock();
+
+	private RelatedBookIndex index = new RelatedBookIndex();
+
+	/**
+	 * Cambios recibidos mientras se reconstruye el índice. Es nulo fuera de una
+	 * reconstrucción.
+	 */
+	private List<Consumer<RelatedBookIndex>> pending;
+
+	/**
+	 * Obtiene los libros más parecidos a un libro.
+	 *
+	 * @param bookId El id del libro.
+	 * @param k      Número máximo de libros. Los valores mayores a
+	 *               {@link #MAX_RELATED} se recortan.
+	 * @return Los libros relacionados, del más parecido al menos parecido. Si no
+	 *         hay ninguno retorna una lista vacía.
+	 * @throws EntityNotFoundException   Si el libro no existe.
+	 * @throws IllegalOperationException Si k no es positivo.
+	 */
+	public List<RelatedBookDTO> getRelated(Long bookId, int k)
+			throws EntityNotFoundException, IllegalOperationException {
+		if (k < 1)
+			throw new IllegalOperationException("K must be greater than zero");
+
+		List<RelatedBookIndex.Related> related;
+		lock.readLock().lock();
+		try {
+			related = index.related(bookId, Math.min(k, MAX_RELATED));
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (related == null) {
+			if (!bookRepository.existsById(bookId))
+				throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
+			return List.of();
+		}
+
+		List<RelatedBookDTO> dtos = new ArrayList<>(related.size());
+		for (RelatedBookIndex.Related book : related) {
+			RelatedBookDTO dto = new RelatedBookDTO();
+			dto.setId(book.id());
+			dto.setName(book.name());
+			dto.setSimilarity(book.similarity());
+			dtos.add(dto);
+		}
+		return dtos;
+	}
+
+	/**
+	 * Número de libros en el índice.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Construye el índice desde la base de datos y reemplaza el actual. Los
+	 * cambios que llegan mientras tanto se aplican a ambos.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		rebuilding.lock();
+		try {
+			log.info("Inicia proceso de construir el índice de libros relacionados");
+			lock.writeLock().lock();
+			try {
+				pending = new ArrayList<>();
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			RelatedBookIndex rebuilt;
+			try {
+				rebuilt = load();
+			} catch (RuntimeException e) {
+				lock.writeLock().lock();
+				try {
+					pending = null;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				throw e;
+			}
+
+			lock.writeLock().lock();
+			try {
+				pending.forEach(update -> update.accept(rebuilt));
+				index = rebuilt;
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Termina proceso de construir el índice de libros relacionados: {} libros, {} bytes en bitmaps",
+					rebuilt.size(), rebuilt.bitmapBytes());
+		} finally {
+			rebuilding.unlock();
+		}
+	}
+
+	/**
+	 * Lee los libros con sus autores en páginas por llave.
+	 */
+	private RelatedBookIndex load() {
+		RelatedBookIndex loaded = new RelatedBookIndex();
+		List<BookSummary> books;
+		long after = 0L;
+		do {
+			books = bookRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			if (books.isEmpty())
+				break;
+			long last = books.get(books.size() - 1).id();
+			Map<Long, List<Long>> authorIds = new HashMap<>();
+			for (BookAuthorPair pair : bookRepository.findAuthorPairsByIdBetween(after, last))
+				authorIds.computeIfAbsent(pair.bookId(), id -> new ArrayList<>()).add(pair.authorId());
+			for (BookSummary book : books)
+				loaded.putBook(book.id(),
+						new RelatedBookIndex.Values(book.name(),
+								book.editorial() == null ? null : book.editorial().id(),
+								decadeOf(book.publishingDate()),
+								toArray(authorIds.getOrDefault(book.id(), List.of()))));
+			after = last;
+		} while (books.size() == REBUILD_PAGE_SIZE);
+		loaded.optimize();
+		return loaded;
+	}
+
+	/**
+	 * Reemplaza los valores de un libro cuando se confirma un cambio del libro o
+	 * de sus asociaciones. Si el cambio ocurre fuera de una transacción se aplica
+	 * de inmediato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		if (event.type() != BookEntity.class)
+			return;
+		Consumer<RelatedBookIndex> update = toUpdate(event);
+
+		lock.writeLock().lock();
+		try {
+			update.accept(index);
+			if (pending != null)
+				pending.add(update);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Copia los valores del libro al recibir el evento; si sus autores no están
+	 * cargados se consultan.
+	 */
+	private Consumer<RelatedBookIndex> toUpdate(EntityChangedEvent event) {
+		long id = event.id();
+		if (event.isDeleted())
+			return index -> index.removeBook(id);
+		BookEntity book = (BookEntity) event.entity();
+		RelatedBookIndex.Values values = new RelatedBookIndex.Values(book.getName(),
+				book.getEditorial() == null ? null : book.getEditorial().getId(),
+				decadeOf(book.getPublishingDate()),
+				toArray(Hibernate.isInitialized(book.getAuthors())
+						? book.getAuthors().stream().map(AuthorEntity::getId).toList()
+						: bookRepository.findAuthorIdsById(id)));
+		return index -> index.putBook(id, values);
+	}
+
+	private static Integer decadeOf(Date date) {
+		if (date == null)
+			return null;
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		return calendar.get(Calendar.YEAR) / 10 * 10;
+	}
+
+	private static long[] toArray(List<Long> ids) {
+		return ids.stream().mapToLong(Long::longValue).distinct().toArray();
+	}
+}
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +39,7 @@ import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
 import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
 import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -55,6 +57,12 @@ public class ReviewService {
 
 	@Autowired
 	BookRepository bookRepository;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	CounterService counterService;
 	
 	
 	/**
@@ -68,14 +76,16 @@ public class ReviewService {
 	 */
 	@Transactional
 	public ReviewEntity createReview(Long bookId, ReviewEntity reviewEntity) throws EntityNotFoundException {
-		log.info("Inicia proceso de crear review");
+		log.debug("Inicia proceso de crear review");
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
 		reviewEntity.setBook(bookEntity.get());
+		counterService.increment(Counter.BOOK_REVIEWS, bookEntity.get());
+		eventPublisher.publishEvent(DetailsChangedEvent.ofBook(bookId));
 
-		log.info("Termina proceso de creación del review");
+		log.debug("Termina proceso de creación del review");
 		return reviewRepository.save(reviewEntity);
 	}
 
@@ -88,12 +98,12 @@ public class ReviewService {
 
 	@Transactional
 	public List<ReviewEntity> getReviews(Long bookId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar los reviews asociados al book con id = {0}", bookId);
+		log.debug("Inicia proceso de consultar los reviews asociados al book con id = {}", bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
 
-		log.info("Termina proceso de consultar los reviews asociados al book con id = {0}", bookId);
+		log.debug("Termina proceso de consultar los reviews asociados al book con id = {}", bookId);
 		return bookEntity.get().getReviews();
 	}
 
@@ -108,8 +118,7 @@ public class ReviewService {
 	 */
 	@Transactional
 	public ReviewEntity getReview(Long bookId, Long reviewId) throws EntityNotFoundException {
-		log.info("Inicia proceso de consultar el review con id = {0} del libro con id = " + bookId,
-				reviewId);
+		log.debug("Inicia proceso de consultar el review con id = {} del libro con id = {}", reviewId, bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
@@ -118,8 +127,7 @@ public class ReviewService {
 		if (reviewEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.REVIEW_NOT_FOUND);
 
-		log.info("Termina proceso de consultar el review con id = {0} del libro con id = " + bookId,
-				reviewId);
+		log.debug("Termina proceso de consultar el review con id = {} del libro con id = {}", reviewId, bookId);
 		return reviewRepository.findByBookIdAndId(bookId, reviewId);
 	}
 
@@ -134,8 +142,7 @@ public class ReviewService {
 	 */
 	@Transactional
 	public ReviewEntity updateReview(Long bookId, Long reviewId, ReviewEntity review) throws EntityNotFoundException {
-		log.info("Inicia proceso de actualizar el review con id = {0} del libro con id = " + bookId,
-				reviewId);
+		log.debug("Inicia proceso de actualizar el review con id = {} del libro con id = {}", reviewId, bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
@@ -145,9 +152,12 @@ public class ReviewService {
 			throw new EntityNotFoundException(ErrorMessage.REVIEW_NOT_FOUND);
 
 		review.setId(reviewId);
+		review.setVersion(reviewEntity.get().getVersion());
 		review.setBook(bookEntity.get());
-		log.info("Termina proceso de actualizar el review con id = {0} del libro con id = " + bookId,
-				reviewId);
+		counterService.move(Counter.BOOK_REVIEWS, reviewEntity.get().getBook(), bookEntity.get());
+		eventPublisher.publishEvent(DetailsChangedEvent.ofBook(reviewEntity.get().getBook().getId()));
+		eventPublisher.publishEvent(DetailsChangedEvent.ofBook(bookId));
+		log.debug("Termina proceso de actualizar el review con id = {} del libro con id = {}", reviewId, bookId);
 		return reviewRepository.save(review);
 	}
 
@@ -162,8 +172,7 @@ public class ReviewService {
 	 */
 	@Transactional
 	public void deleteReview(Long bookId, Long reviewId) throws EntityNotFoundException, IllegalOperationException {
-		log.info("Inicia proceso de borrar el review con id = {0} del libro con id = " + bookId,
-				reviewId);
+		log.debug("Inicia proceso de borrar el review con id = {} del libro con id = {}", reviewId, bookId);
 		Optional<BookEntity> bookEntity = bookRepository.findById(bookId);
 		if (bookEntity.isEmpty())
 			throw new EntityNotFoundException(ErrorMessage.BOOK_NOT_FOUND);
@@ -176,7 +185,8 @@ public class ReviewService {
 			throw new IllegalOperationException(ErrorMessage.REVIEW_NOT_ASSOCIATED_TO_BOOK);
 		
 		reviewRepository.deleteById(reviewId);
-		log.info("Termina proceso de borrar el review con id = {0} del libro con id = " + bookId,
-				reviewId);
+		counterService.decrement(Counter.BOOK_REVIEWS, bookEntity.get());
+		eventPublisher.publishEvent(DetailsChangedEvent.ofBook(bookId));
+		log.debug("Termina proceso de borrar el review con id = {} del libro con id = {}", reviewId, bookId);
 	}
 }
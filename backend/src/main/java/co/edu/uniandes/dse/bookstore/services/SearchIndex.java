@@ -0,0 +1,484 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import co.edu.uniandes.dse.bookstore.dto.SearchResultDTO;
+
+/**
+ * Índice invertido en memoria para la búsqueda de texto completo. Cada
+ * documento tiene un nombre, unas palabras clave (por ejemplo el ISBN) y una
+ * descripción; el nombre y las palabras clave pesan {@link #NAME_WEIGHT} veces
+ * más que la descripción. Los resultados se ordenan con BM25.
+ *
+ * Los documentos se numeran en orden de llegada, así que cada lista de
+ * postings queda ordenada y las consultas recorren las listas de los términos
+ * en paralelo, documento por documento, conservando solo los mejores
+ * resultados. Los términos frecuentes, que aportan poco al puntaje, se dejan de
+ * recorrer cuando ya no pueden cambiar los resultados (MaxScore). Actualizar o
+ * borrar un documento lo marca como borrado; cuando las entradas borradas
+ * superan a las vigentes el índice se compacta. La frecuencia de documento de
+ * cada término solo cuenta los documentos vigentes, para que el idf no dependa
+ * de cuántas entradas borradas queden sin compactar.
+ *
+ * No es seguro para acceso concurrente; {@link SearchService} lo protege.
+ *
+ * @author ISIS2603
+ */
+class SearchIndex {
+
+	static final int NAME_WEIGHT = 3;
+
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	private static final int MAX_QUERY_TERMS = 16;
+	private static final int MAX_TOKEN_LENGTH = 64;
+	private static final int MIN_COMPACTION = 1024;
+	private static final SearchResultDTO.TYPE[] TYPES = SearchResultDTO.TYPE.values();
+
+	/**
+	 * Documento encontrado por una consulta.
+	 */
+	record Hit(SearchResultDTO.TYPE type, long id, String name, float score) {
+	}
+
+	/**
+	 * Documentos que contienen un término, en orden creciente, con la frecuencia
+	 * ponderada del término en cada uno. {@code live} cuenta los que no están
+	 * borrados.
+	 */
+	private static final class Postings {
+		private int[] docs = new int[2];
+		private short[] freqs = new short[2];
+		private int size;
+		private int live;
+
+		private void add(int doc, int freq) {
+			if (size == docs.length) {
+				docs = Arrays.copyOf(docs, size * 2);
+				freqs = Arrays.copyOf(freqs, size * 2);
+			}
+			docs[size] = doc;
+			freqs[size] = (short) Math.min(freq, Short.MAX_VALUE);
+			size++;
+			live++;
+		}
+	}
+
+	private final Map<String, Postings> terms = new HashMap<>();
+	private final Map<Long, Integer> docsByKey = new HashMap<>();
+	private final BitSet deleted = new BitSet();
+
+	private long[] keys = new long[16];
+	private String[] names = new String[16];
+	private int[] lengths = new int[16];
+	private Postings[][] docTerms = new Postings[16][];
+	private int docCount;
+
+	private int liveDocs;
+	private long liveLength;
+	private long livePostings;
+	private long stalePostings;
+
+	/**
+	 * Agrega un documento o reemplaza el que tenga el mismo tipo e id. Si el
+	 * documento no tiene texto para indexar solo se borra el anterior.
+	 */
+	void put(SearchResultDTO.TYPE type, long id, String name, String keywords, String description) {
+		remove(type, id);
+
+		Map<String, Integer> freqs = new HashMap<>();
+		int length = count(freqs, name, NAME_WEIGHT) + count(freqs, keywords, NAME_WEIGHT)
+				+ count(freqs, description, 1);
+		if (freqs.isEmpty())
+			return;
+
+		if (docCount == keys.length) {
+			int capacity = docCount * 2;
+			keys = Arrays.copyOf(keys, capacity);
+			names = Arrays.copyOf(names, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			docTerms = Arrays.copyOf(docTerms, capacity);
+		}
+		int doc = docCount++;
+		long key = key(type, id);
+		keys[doc] = key;
+		names[doc] = name;
+		lengths[doc] = length;
+		Postings[] docPostings = new Postings[freqs.size()];
+		int t = 0;
+		for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+			docPostings[t] = terms.computeIfAbsent(entry.getKey(), term -> new Postings());
+			docPostings[t++].add(doc, entry.getValue());
+		}
+		docTerms[doc] = docPostings;
+
+		docsByKey.put(key, doc);
+		liveDocs++;
+		liveLength += length;
+		livePostings += freqs.size();
+	}
+
+	/**
+	 * Borra un documento.
+	 *
+	 * @return Verdadero si el documento estaba en el índice.
+	 */
+	boolean remove(SearchResultDTO.TYPE type, long id) {
+		Integer doc = docsByKey.remove(key(type, id));
+		if (doc == null)
+			return false;
+
+		deleted.set(doc);
+		names[doc] = null;
+		Postings[] docPostings = docTerms[doc];
+		docTerms[doc] = null;
+		for (Postings postings : docPostings)
+			postings.live--;
+		liveDocs--;
+		liveLength -= lengths[doc];
+		livePostings -= docPostings.length;
+		stalePostings += docPostings.length;
+		if (stalePostings > MIN_COMPACTION && stalePostings > livePostings)
+			compact();
+		return true;
+	}
+
+	int size() {
+		return liveDocs;
+	}
+
+	int termCount() {
+		return terms.size();
+	}
+
+	long postingCount() {
+		return livePostings + stalePostings;
+	}
+
+	/**
+	 * Busca los documentos que contienen alguno de los términos de la consulta.
+	 *
+	 * @param query La consulta, que se separa en términos igual que los textos.
+	 * @param limit Número máximo de resultados.
+	 * @return Los documentos encontrados, del más al menos relevante.
+	 */
+	List<Hit> search(String query, int limit) {
+		Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+		List<Postings> lists = new ArrayList<>();
+		for (String term : queryTerms) {
+			Postings postings = terms.get(term);
+			if (postings != null && postings.live > 0)
+				lists.add(postings);
+			if (lists.size() == MAX_QUERY_TERMS)
+				break;
+		}
+		if (lists.isEmpty() || liveDocs == 0)
+			return List.of();
+
+		// Los términos se ordenan por su puntaje máximo posible, de menor a mayor.
+		int n = lists.size();
+		float[] idf = new float[n];
+		for (int i = 0; i < n; i++) {
+			int df = lists.get(i).live;
+			idf[i] = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+		}
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> Float.compare(idf[a], idf[b]));
+		Postings[] postings = new Postings[n];
+		float[] weights = new float[n];
+		float[] bounds = new float[n];
+		for (int i = 0; i < n; i++) {
+			postings[i] = lists.get(order[i]);
+			weights[i] = idf[order[i]];
+			bounds[i] = weights[i] * (K1 + 1) + (i == 0 ? 0 : bounds[i - 1]);
+		}
+		float averageLength = (float) liveLength / liveDocs;
+
+		// MaxScore: bounds[i] acota el puntaje de un documento que solo tenga los
+		// términos 0..i. Cuando esa cota no supera al peor de los resultados, esos
+		// términos dejan de recorrerse y solo se consultan para los documentos que
+		// aparecen en los demás.
+		TopHits top = new TopHits(limit);
+		int[] cursors = new int[n];
+		int essential = 0;
+		while (essential < n) {
+			int doc = Integer.MAX_VALUE;
+			for (int i = essential; i < n; i++) {
+				if (cursors[i] < postings[i].size)
+					doc = Math.min(doc, postings[i].docs[cursors[i]]);
+			}
+			if (doc == Integer.MAX_VALUE)
+				break;
+
+			float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+			float score = 0;
+			for (int i = essential; i < n; i++) {
+				int cursor = cursors[i];
+				if (cursor < postings[i].size && postings[i].docs[cursor] == doc) {
+					score += score(weights[i], postings[i].freqs[cursor], norm);
+					cursors[i] = cursor + 1;
+				}
+			}
+			for (int i = essential - 1; i >= 0 && top.accepts(doc, score + bounds[i]); i--) {
+				int cursor = advance(postings[i], cursors[i], doc);
+				cursors[i] = cursor;
+				if (cursor < postings[i].size && postings[i].docs[cursor] == doc)
+					score += score(weights[i], postings[i].freqs[cursor], norm);
+			}
+			if (deleted.get(doc) || !top.offer(doc, score))
+				continue;
+
+			while (essential < n && !top.accepts(Integer.MAX_VALUE, bounds[essential]))
+				essential++;
+		}
+		return top.hits();
+	}
+
+	private static float score(float idf, int tf, float norm) {
+		return idf * tf * (K1 + 1) / (tf + norm);
+	}
+
+	/**
+	 * Avanza el cursor hasta el primer documento mayor o igual a {@code doc}, con
+	 * búsqueda exponencial seguida de búsqueda binaria.
+	 */
+	private static int advance(Postings postings, int cursor, int doc) {
+		int step = 1;
+		int low = cursor;
+		int high = cursor;
+		while (high < postings.size && postings.docs[high] < doc) {
+			low = high + 1;
+			high += step;
+			step *= 2;
+		}
+		high = Math.min(high, postings.size);
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (postings.docs[middle] < doc)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Separa un texto en términos: quita tildes y diacríticos, pasa a minúsculas
+	 * y corta en todo lo que no sea letra o dígito. Los guiones entre un dígito y
+	 * otro carácter alfanumérico se omiten, para que un ISBN con o sin guiones
+	 * produzca el mismo término.
+	 */
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null)
+			return tokens;
+
+		String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+		StringBuilder token = new StringBuilder();
+		for (int i = 0; i < folded.length(); i++) {
+			char c = folded.charAt(i);
+			if (Character.getType(c) == Character.NON_SPACING_MARK)
+				continue;
+			if (Character.isLetterOrDigit(c)) {
+				if (token.length() < MAX_TOKEN_LENGTH)
+					token.append(Character.toLowerCase(c));
+			} else if (c == '-' && !token.isEmpty() && Character.isDigit(token.charAt(token.length() - 1))
+					&& i + 1 < folded.length() && Character.isLetterOrDigit(folded.charAt(i + 1))) {
+				continue;
+			} else if (!token.isEmpty()) {
+				tokens.add(token.toString());
+				token.setLength(0);
+			}
+		}
+		if (!token.isEmpty())
+			tokens.add(token.toString());
+		return tokens;
+	}
+
+	private static int count(Map<String, Integer> freqs, String text, int weight) {
+		List<String> tokens = tokenize(text);
+		for (String token : tokens)
+			freqs.merge(token, weight, Integer::sum);
+		return tokens.size() * weight;
+	}
+
+	private static long key(SearchResultDTO.TYPE type, long id) {
+		return (long) type.ordinal() << 56 | id;
+	}
+
+	/**
+	 * Quita de las listas de postings los documentos borrados y renumera los
+	 * vigentes, conservando el orden.
+	 */
+	private void compact() {
+		int[] renumbered = new int[docCount];
+		int next = 0;
+		for (int doc = 0; doc < docCount; doc++) {
+			if (deleted.get(doc)) {
+				renumbered[doc] = -1;
+				continue;
+			}
+			renumbered[doc] = next;
+			keys[next] = keys[doc];
+			names[next] = names[doc];
+			lengths[next] = lengths[doc];
+			docTerms[next] = docTerms[doc];
+			next++;
+		}
+		Arrays.fill(names, next, docCount, null);
+		Arrays.fill(docTerms, next, docCount, null);
+
+		Iterator<Postings> iterator = terms.values().iterator();
+		while (iterator.hasNext()) {
+			Postings postings = iterator.next();
+			int size = 0;
+			for (int i = 0; i < postings.size; i++) {
+				int doc = renumbered[postings.docs[i]];
+				if (doc >= 0) {
+					postings.docs[size] = doc;
+					postings.freqs[size] = postings.freqs[i];
+					size++;
+				}
+			}
+			postings.size = size;
+			if (size == 0)
+				iterator.remove();
+		}
+
+		docsByKey.clear();
+		for (int doc = 0; doc < next; doc++)
+			docsByKey.put(keys[doc], doc);
+		deleted.clear();
+		docCount = next;
+		stalePostings = 0;
+	}
+
+	/**
+	 * Montículo de mínimos con los mejores documentos vistos. A igual puntaje
+	 * gana el documento indexado primero.
+	 */
+	private final class TopHits {
+		private final float[] scores;
+		private final int[] docs;
+		private int size;
+
+		private TopHits(int limit) {
+			scores = new float[limit];
+			docs = new int[limit];
+		}
+
+		/**
+		 * Indica si un documento con el puntaje dado entraría en los resultados.
+		 */
+		private boolean accepts(int doc, float score) {
+			return size < scores.length || worse(docs[0], scores[0], doc, score);
+		}
+
+		/**
+		 * Agrega el documento si está entre los mejores y el montículo queda lleno.
+		 *
+		 * @return Verdadero si el documento entró y no hay cupo para más.
+		 */
+		private boolean offer(int doc, float score) {
+			if (size < scores.length) {
+				scores[size] = score;
+				docs[size] = doc;
+				siftUp(size++);
+			} else if (worse(docs[0], scores[0], doc, score)) {
+				scores[0] = score;
+				docs[0] = doc;
+				siftDown(0);
+			} else {
+				return false;
+			}
+			return size == scores.length;
+		}
+
+		private List<Hit> hits() {
+			Hit[] hits = new Hit[size];
+			while (size > 0) {
+				int doc = docs[0];
+				long key = keys[doc];
+				hits[size - 1] = new Hit(TYPES[(int) (key >>> 56)], key & ((1L << 56) - 1), names[doc], scores[0]);
+				size--;
+				scores[0] = scores[size];
+				docs[0] = docs[size];
+				siftDown(0);
+			}
+			return Arrays.asList(hits);
+		}
+
+		private boolean worse(int docA, float scoreA, int docB, float scoreB) {
+			return scoreA < scoreB || (scoreA == scoreB && docA > docB);
+		}
+
+		private void siftUp(int i) {
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (!worse(docs[i], scores[i], docs[parent], scores[parent]))
+					break;
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void siftDown(int i) {
+			while (true) {
+				int left = 2 * i + 1;
+				int right = left + 1;
+				int smallest = i;
+				if (left < size && worse(docs[left], scores[left], docs[smallest], scores[smallest]))
+					smallest = left;
+				if (right < size && worse(docs[right], scores[right], docs[smallest], scores[smallest]))
+					smallest = right;
+				if (smallest == i)
+					return;
+				swap(i, smallest);
+				i = smallest;
+			}
+		}
+
+		private void swap(int i, int j) {
+			float score = scores[i];
+			scores[i] = scores[j];
+			scores[j] = score;
+			int doc = docs[i];
+			docs[i] = docs[j];
+			docs[j] = doc;
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
+import co.edu.uniandes.dse.bookstore.dto.SearchResultDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Búsqueda de texto completo sobre libros (nombre, ISBN y descripción), autores
+ * (nombre y descripción) y editoriales (nombre). El índice vive en memoria: se
+ * construye al arrancar la aplicación y se actualiza con los
+ * {@link EntityChangedEvent} que publican los servicios, después de que cada
+ * transacción se confirma.
+ *
+ * @author ISIS2603
+ */
+@Slf4j
+@Service
+public class SearchService {
+
+	static final int MAX_RESULTS = 100;
+
+	private static final int REBUILD_PAGE_SIZE = 5000;
+
+	@Autowired
+	BookRepository bookRepository;
+
+	@Autowired
+	AuthorRepository authorRepository;
+
+	@Autowired
+	EditorialRepository editorialRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Evita dos reconstrucciones a la vez. Es un {@link Lock} y no un método
+	 * synchronized porque la reconstrucción consulta la base de datos, y un hilo
+	 * virtual que se bloquea dentro de un monitor queda fijo a su portador.
+	 */
+	private final Lock rebuilding = new ReentrantLock();
+
+	private SearchIndex index = new SearchIndex();
+
+	/**
+	 * Cambios recibidos mientras se reconstruye el índice, que se aplican al
+	 * índice nuevo antes de reemplazar el anterior. Es nulo fuera de una
+	 * reconstrucción.
+	 */
+	private List<Consumer<SearchIndex>> pending;
+
+	/**
+	 * Busca los libros, autores y editoriales que contienen alguno de los
+	 * términos de la consulta, sin importar mayúsculas ni tildes.
+	 *
+	 * @param query La consulta.
+	 * @param limit Número máximo de resultados. Los valores mayores a
+	 *              {@link #MAX_RESULTS} se recortan.
+	 * @return Los resultados, del más al menos relevante.
+	 * @throws IllegalOperationException Si el límite no es positivo.
+	 */
+	public List<SearchResultDTO> search(String query, int limit) throws IllegalOperationException {
+		if (limit < 1)
+			throw new IllegalOperationException("Limit must be greater than zero");
+
+		List<SearchIndex.Hit> hits;
+		lock.readLock().lock();
+		try {
+			hits = index.search(query, Math.min(limit, MAX_RESULTS));
+		} finally {
+			lock.readLock().unlock();
+		}
+		return hits.stream().map(this::toDTO).toList();
+	}
+
+	/**
+	 * Número de documentos en el índice.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Construye el índice desde la base de datos y reemplaza el actual. Los
+	 * cambios que llegan mientras tanto se aplican a ambos.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		rebuilding.lock();
+		try {
+			log.info("Inicia proceso de construir el índice de búsqueda");
+			lock.writeLock().lock();
+			try {
+				pending = new ArrayList<>();
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			SearchIndex rebuilt;
+			try {
+				rebuilt = load();
+			} catch (RuntimeException e) {
+				lock.writeLock().lock();
+				try {
+					pending = null;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				throw e;
+			}
+
+			lock.writeLock().lock();
+			try {
+				pending.forEach(update -> update.accept(rebuilt));
+				index = rebuilt;
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Termina proceso de construir el índice de búsqueda: {} documentos, {} términos", rebuilt.size(),
+					rebuilt.termCount());
+		} finally {
+			rebuilding.unlock();
+		}
+	}
+
+	/**
+	 * Lee los libros, autores y editoriales en páginas por llave y los agrega a un
+	 * índice nuevo.
+	 */
+	private SearchIndex load() {
+		SearchIndex loaded = new SearchIndex();
+		List<EditorialSummary> editorials;
+		long after = 0L;
+		do {
+			editorials = editorialRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (EditorialSummary editorial : editorials) {
+				loaded.put(SearchResultDTO.TYPE.EDITORIAL, editorial.id(), editorial.name(), null, null);
+				after = editorial.id();
+			}
+		} while (editorials.size() == REBUILD_PAGE_SIZE);
+
+		List<AuthorSummary> authors;
+		after = 0L;
+		do {
+			authors = authorRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (AuthorSummary author : authors) {
+				loaded.put(SearchResultDTO.TYPE.AUTHOR, author.id(), author.name(), null, author.description());
+				after = author.id();
+			}
+		} while (authors.size() == REBUILD_PAGE_SIZE);
+
+		List<BookSummary> books;
+		after = 0L;
+		do {
+			books = bookRepository.findSummaryByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_PAGE_SIZE));
+			for (BookSummary book : books) {
+				loaded.put(SearchResultDTO.TYPE.BOOK, book.id(), book.name(), book.isbn(), book.description());
+				after = book.id();
+			}
+		} while (books.size() == REBUILD_PAGE_SIZE);
+		return loaded;
+	}
+
+	/**
+	 * Actualiza el índice cuando se confirma la creación, actualización o borrado
+	 * de un libro, un autor o una editorial. Si el cambio ocurre fuera de una
+	 * transacción se aplica de inmediato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onEntityChanged(EntityChangedEvent event) {
+		Consumer<SearchIndex> update = toUpdate(event);
+		if (update == null)
+			return;
+
+		lock.writeLock().lock();
+		try {
+			update.accept(index);
+			if (pending != null)
+				pending.add(update);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Convierte el evento en un cambio del índice. Los textos se copian al
+	 * recibir el evento, no al aplicarlo.
+	 */
+	private Consumer<SearchIndex> toUpdate(EntityChangedEvent event) {
+		SearchResultDTO.TYPE type = typeOf(event.type());
+		if (type == null)
+			return null;
+
+		long id = event.id();
+		if (event.isDeleted())
+			return index -> index.remove(type, id);
+
+		if (event.entity() instanceof BookEntity book) {
+			String name = book.getName();
+			String isbn = book.getIsbn();
+			String description = book.getDescription();
+			return index -> index.put(type, id, name, isbn, description);
+		}
+		if (event.entity() instanceof AuthorEntity author) {
+			String name = author.getName();
+			String description = author.getDescription();
+			return index -> index.put(type, id, name, null, description);
+		}
+		EditorialEntity editorial = (EditorialEntity) event.entity();
+		String name = editorial.getName();
+		return index -> index.put(type, id, name, null, null);
+	}
+
+	/**
+	 * Tipo de resultado de una clase de entidad, o nulo si la entidad no se
+	 * indexa.
+	 */
+	static SearchResultDTO.TYPE typeOf(Class<?> type) {
+		if (type == BookEntity.class)
+			return SearchResultDTO.TYPE.BOOK;
+		if (type == AuthorEntity.class)
+			return SearchResultDTO.TYPE.AUTHOR;
+		if (type == EditorialEntity.class)
+			return SearchResultDTO.TYPE.EDITORIAL;
+		return null;
+	}
+
+	private SearchResultDTO toDTO(SearchIndex.Hit hit) {
+		SearchResultDTO dto = new SearchResultDTO();
+		dto.setType(hit.type());
+		dto.setId(hit.id());
+		dto.setName(hit.name());
+		dto.setScore(hit.score());
+		return dto;
+	}
+}
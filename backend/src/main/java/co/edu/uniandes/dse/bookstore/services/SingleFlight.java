@@ -0,0 +1,122 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las lecturas concurrentes de una misma llave en una sola carga: la
+ * primera llamada (originaria) ejecuta la carga y las que llegan mientras está
+ * en curso esperan su resultado o su excepción (agrupadas). No guarda
+ * resultados; una llamada posterior a la carga vuelve a cargar.
+ *
+ * La carga corre en el hilo de la llamada originaria sin tener ningún bloqueo,
+ * así que las llamadas agrupadas esperan sin fijar hilos virtuales. Como el
+ * resultado se comparte entre hilos, debe ser inmutable o no modificarse, y no
+ * debe depender de la sesión de la llamada originaria.
+ *
+ * @param <K> El tipo de la llave.
+ * @param <V> El tipo del resultado, que puede ser nulo.
+ *
+ * @author ISIS2603
+ */
+public final class SingleFlight<K, V> {
+
+	/**
+	 * Número de llamadas que ejecutaron una carga y de llamadas que esperaron la
+	 * carga de otra.
+	 */
+	public record Statistics(long originating, long coalesced) {
+	}
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder originating = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+
+	/**
+	 * Retorna el resultado de la carga en curso para la llave o, si no hay, la
+	 * ejecuta.
+	 *
+	 * @param key  La llave.
+	 * @param load La carga.
+	 * @return El resultado de la carga.
+	 */
+	public V execute(K key, Supplier<V> load) {
+		CompletableFuture<V> call = new CompletableFuture<>();
+		CompletableFuture<V> current = inFlight.putIfAbsent(key, call);
+		if (current != null) {
+			coalesced.increment();
+			return join(current);
+		}
+
+		originating.increment();
+		try {
+			V value = load.get();
+			call.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, call);
+		}
+	}
+
+	/**
+	 * Hace que las llamadas siguientes no se agrupen con las cargas en curso, por
+	 * ejemplo porque se confirmó un cambio que esas cargas pudieron no ver. Las
+	 * llamadas que ya esperan reciben el resultado de su carga.
+	 */
+	public void forgetAll() {
+		inFlight.clear();
+	}
+
+	/**
+	 * Número de cargas en curso.
+	 */
+	public int inFlight() {
+		return inFlight.size();
+	}
+
+	public Statistics statistics() {
+		return new Statistics(originating.sum(), coalesced.sum());
+	}
+
+	private static <V> V join(CompletableFuture<V> call) {
+		try {
+			return call.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause)
+				throw cause;
+			if (e.getCause() instanceof Error cause)
+				throw cause;
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.services;
+
+/**
+ * Resumen FNV-1a de 64 bits de ids y versiones, con el que se calculan las
+ * versiones de los detalles y los ETag de las listas. No es criptográfico:
+ * solo debe cambiar cuando cambia alguno de los valores resumidos.
+ *
+ * @author ISIS2603
+ */
+public final class VersionHash {
+
+	/**
+	 * Valor inicial del resumen.
+	 */
+	public static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long PRIME = 0x100000001b3L;
+
+	private VersionHash() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * Un paso de FNV-1a sobre los 8 bytes del valor. Un valor nulo se resume
+	 * como -1.
+	 *
+	 * @param hash  El resumen hasta ahora.
+	 * @param value El valor a agregar.
+	 * @return El resumen con el valor.
+	 */
+	public static long mix(long hash, Long value) {
+		long bits = value == null ? -1L : value;
+		for (int i = 0; i < Long.BYTES; i++) {
+			hash ^= (bits >>> (i * 8)) & 0xff;
+			hash *= PRIME;
+		}
+		return hash;
+	}
+}
@@ -96,3 +96,25 @@ insert into ORGANIZATION_ENTITY (id, name, tipo) values (1001, 'org2', 2);
 insert into PRIZE_ENTITY (id, description, name, premiation_date, author_id, organization_id) values (1000, 'prize1 desc', 'prize1', '2010-01-01', 1000, 1000);
 insert into PRIZE_ENTITY (id, description, name, premiation_date, author_id, organization_id) values (1001, 'prize2 desc', 'prize2', '2010-01-01', 1001, 1001);
 
+
+-- Los nuevos registros empiezan después de los ids de los datos de ejemplo,
+-- tanto con IDENTITY como con las secuencias del perfil sequence-ids.
+alter table AUTHOR_ENTITY alter column id restart with 1100;
+alter table BOOK_ENTITY alter column id restart with 1100;
+alter table EDITORIAL_ENTITY alter column id restart with 1100;
+alter table ORGANIZATION_ENTITY alter column id restart with 1100;
+alter table PRIZE_ENTITY alter column id restart with 1100;
+alter table REVIEW_ENTITY alter column id restart with 1100;
+alter sequence AUTHOR_ENTITY_SEQ restart with 1100;
+alter sequence BOOK_ENTITY_SEQ restart with 1100;
+alter sequence EDITORIAL_ENTITY_SEQ restart with 1100;
+alter sequence ORGANIZATION_ENTITY_SEQ restart with 1100;
+alter sequence PRIZE_ENTITY_SEQ restart with 1100;
+alter sequence REVIEW_ENTITY_SEQ restart with 1100;
+
+-- Contadores de los datos de ejemplo. Después los mantiene CounterService.
+update BOOK_ENTITY b set review_count = (select count(*) from REVIEW_ENTITY r where r.book_id = b.id);
+update BOOK_ENTITY b set author_count = (select count(*) from BOOK_ENTITY_AUTHORS ba where ba.books_id = b.id);
+update AUTHOR_ENTITY a set book_count = (select count(*) from BOOK_ENTITY_AUTHORS ba where ba.authors_id = a.id);
+update AUTHOR_ENTITY a set prize_count = (select count(*) from PRIZE_ENTITY p where p.author_id = a.id);
+update EDITORIAL_ENTITY e set book_count = (select count(*) from BOOK_ENTITY b where b.editorial_id = e.id);
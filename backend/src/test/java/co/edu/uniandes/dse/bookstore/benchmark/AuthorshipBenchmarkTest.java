@@ -0,0 +1,146 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+
+/**
+ * Mide las operaciones en bloque de {@link BookAuthorService} sobre un libro
+ * con hasta 10.000 autores, dentro de una sola transacción. La línea base
+ * asocia autores como lo hacía el servicio antes: un {@code find} por autor, la
+ * búsqueda en la lista de autores del libro y el cambio de la colección, que
+ * Hibernate escribe borrando y volviendo a insertar todas sus filas. El
+ * reemplazo incluye cargar el detalle de los 10.000 autores que retorna. Se
+ * ejecuta con {@code mvn test -Pbenchmark -Dtest=AuthorshipBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional
+@Import({ BookAuthorService.class, CounterService.class, AuthorshipService.class })
+class AuthorshipBenchmarkTest {
+
+	private static final int AUTHORS = 10_000;
+	private static final int BASELINE_AUTHORS = 2000;
+	private static final int CHANGED = 2000;
+	private static final int WARMUP = 2;
+	private static final int ITERATIONS = 5;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private Long bookId;
+	private List<AuthorEntity> authors = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		BookEntity book = new BookEntity();
+		book.setName("Antología");
+		book.setIsbn("antologia");
+		entityManager.persist(book);
+		bookId = book.getId();
+		for (int i = 0; i < AUTHORS + CHANGED; i++) {
+			AuthorEntity author = new AuthorEntity();
+			author.setName("Autor " + i);
+			entityManager.persist(author);
+			authors.add(author);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void benchmarkAuthorship() throws Exception {
+		List<AuthorEntity> baselineAuthors = authors.subList(0, BASELINE_AUTHORS);
+		List<AuthorEntity> allAuthors = authors.subList(0, AUTHORS);
+		List<AuthorEntity> shifted = authors.subList(CHANGED, AUTHORS + CHANGED);
+
+		Measurement baseline = Measurement.of("authorship: JPA 2k link + unlink", WARMUP, ITERATIONS, () -> {
+			BookEntity book = entityManager.find(BookEntity.class, bookId);
+			for (AuthorEntity author : baselineAuthors) {
+				AuthorEntity authorEntity = entityManager.find(AuthorEntity.class, author.getId());
+				if (!book.getAuthors().contains(authorEntity))
+					book.getAuthors().add(authorEntity);
+			}
+			entityManager.flush();
+			book.getAuthors().clear();
+			flushAndClear();
+		});
+		Measurement batch = Measurement.of("authorship: batch 2k link + unlink", WARMUP, ITERATIONS, () -> {
+			bookAuthorService.addAuthors(bookId, baselineAuthors);
+			bookAuthorService.removeAuthors(bookId, baselineAuthors);
+			flushAndClear();
+		});
+		Measurement large = Measurement.of("authorship: batch 10k link + unlink", WARMUP, ITERATIONS, () -> {
+			bookAuthorService.addAuthors(bookId, allAuthors);
+			bookAuthorService.removeAuthors(bookId, allAuthors);
+			flushAndClear();
+		});
+
+		bookAuthorService.replaceAuthors(bookId, allAuthors);
+		flushAndClear();
+		List<List<AuthorEntity>> replacements = List.of(shifted, allAuthors);
+		int[] next = { 0 };
+		Measurement replace = Measurement.of("authorship: replace 10k, 2k changed", WARMUP, ITERATIONS, () -> {
+			bookAuthorService.replaceAuthors(bookId, replacements.get(next[0]++ % 2));
+			flushAndClear();
+		});
+		assertEquals(AUTHORS, bookRepository.findAuthorIdsById(bookId).size());
+
+		assertTrue(batch.p50Millis() < baseline.p50Millis());
+		assertTrue(large.p50Millis() < 5000);
+		assertTrue(replace.p50Millis() < 10000);
+	}
+
+	private void flushAndClear() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
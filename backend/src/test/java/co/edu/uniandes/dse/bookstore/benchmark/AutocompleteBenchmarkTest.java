@@ -0,0 +1,176 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.dto.EntityCount;
+import co.edu.uniandes.dse.bookstore.dto.SearchResultDTO;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.AutocompleteService;
+import co.edu.uniandes.dse.bookstore.services.EntityChangedEvent;
+
+/**
+ * Mide la memoria y la latencia de {@link AutocompleteService} con un millón de
+ * nombres de libros de tres palabras, tomadas de un vocabulario de 50.000. La
+ * popularidad sigue una distribución muy sesgada: la mayoría de los libros no
+ * tiene reseñas. Los repositorios se reemplazan por implementaciones en memoria
+ * para medir solo el índice. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest=AutocompleteBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+class AutocompleteBenchmarkTest {
+
+	private static final int NAMES = 1_000_000;
+	private static final int VOCABULARY = 50_000;
+	private static final int WARMUP = 5000;
+	private static final int ITERATIONS = 5000;
+
+	private static final Random random = new Random(42);
+	private static final String[] words = new String[VOCABULARY];
+	private static AutocompleteService autocompleteService;
+
+	@BeforeAll
+	static void setUp() {
+		String[] syllables = { "ba", "ce", "di", "fo", "gu", "la", "me", "ni", "po", "ru", "sa", "te", "vi", "zo",
+				"ña", "ré", "tó", "cha", "que", "llo" };
+		for (int i = 0; i < VOCABULARY; i++) {
+			StringBuilder word = new StringBuilder();
+			for (int n = i; word.isEmpty() || n > 0; n /= syllables.length)
+				word.append(syllables[n % syllables.length]);
+			words[i] = word.toString();
+		}
+
+		autocompleteService = new AutocompleteService();
+		ReflectionTestUtils.setField(autocompleteService, "bookRepository", repository(BookRepository.class));
+		ReflectionTestUtils.setField(autocompleteService, "authorRepository", repository(AuthorRepository.class));
+		ReflectionTestUtils.setField(autocompleteService, "editorialRepository",
+				repository(EditorialRepository.class));
+
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+		autocompleteService.rebuild();
+		long elapsed = System.nanoTime() - start;
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		System.out.printf("index: %,d names in %,d ms, ~%,d MB of heap%n", autocompleteService.size(),
+				elapsed / 1_000_000, (after - before) / (1024 * 1024));
+	}
+
+	@AfterAll
+	static void tearDown() {
+		autocompleteService = null;
+	}
+
+	/**
+	 * Repositorio que genera los libros y sus reseñas sin base de datos. Los
+	 * autores y las editoriales quedan vacíos.
+	 */
+	private static <T> T repository(Class<T> type) {
+		Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(instance, method, args) -> switch (method.getName()) {
+				case "countReviews" -> reviews();
+				case "findSummaryByIdGreaterThanOrderByIdAsc" ->
+					type == BookRepository.class ? books((Long) args[0], (Limit) args[1]) : List.of();
+				case "countBooks" -> List.of();
+				case "toString" -> type.getSimpleName();
+				default -> throw new UnsupportedOperationException(method.getName());
+				});
+		return type.cast(proxy);
+	}
+
+	private static List<EntityCount> reviews() {
+		List<EntityCount> reviews = new ArrayList<>();
+		for (long id = 1; id <= NAMES; id++) {
+			long count = (long) (1000 * Math.pow(random.nextDouble(), 8));
+			if (count > 0)
+				reviews.add(new EntityCount(id, count));
+		}
+		return reviews;
+	}
+
+	private static List<BookSummary> books(long after, Limit limit) {
+		List<BookSummary> books = new ArrayList<>();
+		for (long id = after + 1; id <= Math.min(NAMES, after + limit.max()); id++)
+			books.add(new BookSummary(id, name(), null, null, null, null, null, null, 0, 0));
+		return books;
+	}
+
+	private static String name() {
+		return words[random.nextInt(VOCABULARY)] + " " + words[random.nextInt(VOCABULARY)] + " "
+				+ words[random.nextInt(VOCABULARY)];
+	}
+
+	private static String prefix(int length) {
+		String word = words[random.nextInt(VOCABULARY)];
+		return word.substring(0, Math.min(length, word.length()));
+	}
+
+	@Test
+	void benchmarkAutocomplete() throws Exception {
+		Measurement one = Measurement.of("autocomplete: 1 char", WARMUP, ITERATIONS, () -> {
+			assertEquals(10, autocompleteService.suggest(prefix(1), SearchResultDTO.TYPE.BOOK, 10).size());
+		});
+		Measurement three = Measurement.of("autocomplete: 3 chars", WARMUP, ITERATIONS, () -> {
+			autocompleteService.suggest(prefix(3), SearchResultDTO.TYPE.BOOK, 10);
+		});
+		Measurement word = Measurement.of("autocomplete: word", WARMUP, ITERATIONS, () -> {
+			autocompleteService.suggest(prefix(20), null, 10);
+		});
+		Measurement update = Measurement.of("autocomplete: rename", WARMUP, ITERATIONS * 2, () -> {
+			BookEntity book = new BookEntity();
+			book.setId(1L + random.nextInt(NAMES));
+			book.setName(name());
+			autocompleteService.onEntityChanged(EntityChangedEvent.saved(book));
+		});
+		Measurement afterUpdates = Measurement.of("autocomplete: 3 chars after renames", WARMUP, ITERATIONS, () -> {
+			autocompleteService.suggest(prefix(3), SearchResultDTO.TYPE.BOOK, 10);
+		});
+		assertTrue(one.p50Millis() < 1);
+		assertTrue(three.p50Millis() < 1);
+		assertTrue(word.p50Millis() < 1);
+		assertTrue(afterUpdates.p50Millis() < 1);
+		assertTrue(update.p50Millis() < 1);
+	}
+}
@@ -0,0 +1,142 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import co.edu.uniandes.dse.bookstore.services.AuthorshipChangedEvent;
+import co.edu.uniandes.dse.bookstore.services.CoauthorService;
+
+/**
+ * Mide la construcción y la latencia de {@link CoauthorService} con 200.000
+ * autores y 300.000 libros de uno a tres autores al azar, unas 480.000
+ * asociaciones. Los datos se generan en una base de datos H2 en memoria
+ * aparte, con solo las tablas que lee el grafo. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest=CoauthorBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+class CoauthorBenchmarkTest {
+
+	private static final int AUTHORS = 200_000;
+	private static final int BOOKS = 300_000;
+	private static final int WARMUP = 5000;
+	private static final int ITERATIONS = 5000;
+
+	private static final Random random = new Random(42);
+	private static JdbcTemplate jdbcTemplate;
+	private static CoauthorService coauthorService;
+
+	@BeforeAll
+	static void setUp() {
+		jdbcTemplate = new JdbcTemplate(
+				new DriverManagerDataSource("jdbc:h2:mem:coauthors;DB_CLOSE_DELAY=-1", "sa", ""));
+		jdbcTemplate.execute("create table author_entity (id bigint primary key, name varchar(255))");
+		jdbcTemplate.execute("create table book_entity (id bigint primary key, name varchar(255))");
+		jdbcTemplate.execute("create table book_entity_authors (books_id bigint not null, authors_id bigint not null)");
+		jdbcTemplate.update("insert into author_entity select x, 'Autor ' || x from system_range(1, ?)", AUTHORS);
+		jdbcTemplate.update("insert into book_entity select x, 'Libro ' || x from system_range(1, ?)", BOOKS);
+		// Un autor al azar por libro, un segundo en la mitad y un tercero en la décima parte.
+		List<Object[]> links = new ArrayList<>();
+		for (long book = 1; book <= BOOKS; book++) {
+			int count = book % 10 == 0 ? 3 : book % 2 == 0 ? 2 : 1;
+			for (int i = 0; i < count; i++)
+				links.add(new Object[] { book, author() });
+		}
+		jdbcTemplate.batchUpdate("insert into book_entity_authors (books_id, authors_id) values (?, ?)", links);
+
+		coauthorService = new CoauthorService();
+		ReflectionTestUtils.setField(coauthorService, "jdbcTemplate", jdbcTemplate);
+
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+		coauthorService.rebuild();
+		long elapsed = System.nanoTime() - start;
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		System.out.printf("graph: built in %,d ms, ~%,d MB of heap%n", elapsed / 1_000_000,
+				(after - before) / (1024 * 1024));
+	}
+
+	@AfterAll
+	static void tearDown() {
+		jdbcTemplate.execute("shutdown");
+		jdbcTemplate = null;
+		coauthorService = null;
+	}
+
+	private static long author() {
+		return 1L + random.nextInt(AUTHORS);
+	}
+
+	private static long book() {
+		return 1L + random.nextInt(BOOKS);
+	}
+
+	@Test
+	void benchmarkCoauthors() throws Exception {
+		Measurement coauthors = Measurement.of("coauthors", WARMUP, ITERATIONS, () -> {
+			coauthorService.getCoauthors(author());
+		});
+		int[] found = new int[2];
+		Measurement path = Measurement.of("coauthors: shortest path", WARMUP / 5, ITERATIONS / 5, () -> {
+			int length = coauthorService.getPath(author(), author()).size();
+			if (length > 0) {
+				found[0]++;
+				found[1] += length - 1;
+			}
+		});
+		System.out.printf("paths: %,d of %,d connected, %.1f hops on average%n", found[0], WARMUP / 5 + ITERATIONS / 5,
+				(double) found[1] / found[0]);
+		Measurement update = Measurement.of("coauthors: link and unlink", WARMUP, ITERATIONS, () -> {
+			long book = book();
+			long author = author();
+			coauthorService.onAuthorshipChanged(AuthorshipChangedEvent.linked(book, author));
+			coauthorService.onAuthorshipChanged(AuthorshipChangedEvent.unlinked(book, author));
+		});
+		Measurement afterUpdates = Measurement.of("coauthors: shortest path after updates", WARMUP / 5,
+				ITERATIONS / 5, () -> {
+					coauthorService.getPath(author(), author());
+				});
+		assertTrue(coauthors.p50Millis() < 0.1);
+		assertTrue(update.p50Millis() < 0.1);
+		assertTrue(path.p50Millis() < 1);
+		assertTrue(afterUpdates.p50Millis() < 1);
+	}
+}
@@ -0,0 +1,187 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import co.edu.uniandes.dse.bookstore.dto.BookAuthorPair;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.EntityChangedEvent;
+import co.edu.uniandes.dse.bookstore.services.FacetService;
+
+/**
+ * Mide la memoria y la latencia de {@link FacetService} con un millón de
+ * libros, 2.000 editoriales, 100 años de publicación y 200.000 autores. Las
+ * editoriales y los autores siguen una distribución sesgada: unos pocos tienen
+ * muchos libros. Los repositorios se reemplazan por implementaciones en memoria
+ * para medir solo el índice. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest=FacetBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+class FacetBenchmarkTest {
+
+	private static final int BOOKS = 1_000_000;
+	private static final int EDITORIALS = 2000;
+	private static final int AUTHORS = 200_000;
+	private static final int FIRST_YEAR = 1925;
+	private static final int YEARS = 100;
+	private static final int WARMUP = 200;
+	private static final int ITERATIONS = 500;
+
+	private static final Random random = new Random(42);
+	private static FacetService facetService;
+
+	@BeforeAll
+	static void setUp() {
+		facetService = new FacetService();
+		ReflectionTestUtils.setField(facetService, "bookRepository", repository(BookRepository.class));
+		ReflectionTestUtils.setField(facetService, "authorRepository", repository(AuthorRepository.class));
+		ReflectionTestUtils.setField(facetService, "editorialRepository", repository(EditorialRepository.class));
+
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+		facetService.rebuild();
+		long elapsed = System.nanoTime() - start;
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		System.out.printf("index: %,d books in %,d ms, ~%,d MB of heap%n", facetService.size(), elapsed / 1_000_000,
+				(after - before) / (1024 * 1024));
+	}
+
+	@AfterAll
+	static void tearDown() {
+		facetService = null;
+	}
+
+	/**
+	 * Repositorio que genera los libros y sus autores sin base de datos. Los
+	 * nombres de las editoriales y los autores quedan vacíos.
+	 */
+	private static <T> T repository(Class<T> type) {
+		Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(instance, method, args) -> switch (method.getName()) {
+				case "findSummaryByIdGreaterThanOrderByIdAsc" ->
+					type == BookRepository.class ? books((Long) args[0], (Limit) args[1]) : List.of();
+				case "findAuthorPairsByIdBetween" -> authorPairs((Long) args[0], (Long) args[1]);
+				case "findByIdInOrderByIdAsc" -> entities((Collection<?>) args[0]);
+				case "toString" -> type.getSimpleName();
+				default -> throw new UnsupportedOperationException(method.getName());
+				});
+		return type.cast(proxy);
+	}
+
+	private static List<BookSummary> books(long after, Limit limit) {
+		List<BookSummary> books = new ArrayList<>();
+		for (long id = after + 1; id <= Math.min(BOOKS, after + limit.max()); id++)
+			books.add(new BookSummary(id, null, null, null,
+					new GregorianCalendar(FIRST_YEAR + random.nextInt(YEARS), 0, 1).getTime(), null, editorial(),
+					null, 0, 0));
+		return books;
+	}
+
+	/**
+	 * Uno a tres autores por libro.
+	 */
+	private static List<BookAuthorPair> authorPairs(long after, long last) {
+		List<BookAuthorPair> pairs = new ArrayList<>();
+		for (long id = after + 1; id <= last; id++)
+			for (int i = random.nextInt(3); i >= 0; i--)
+				pairs.add(new BookAuthorPair(id, author()));
+		return pairs;
+	}
+
+	private static List<BookEntity> entities(Collection<?> ids) {
+		List<BookEntity> books = new ArrayList<>();
+		for (Object id : ids) {
+			BookEntity book = new BookEntity();
+			book.setId((Long) id);
+			books.add(book);
+		}
+		return books;
+	}
+
+	private static long editorial() {
+		return 1 + (long) (EDITORIALS * Math.pow(random.nextDouble(), 3));
+	}
+
+	private static long author() {
+		return 1 + (long) (AUTHORS * Math.pow(random.nextDouble(), 3));
+	}
+
+	private static long year() {
+		return FIRST_YEAR + random.nextInt(YEARS);
+	}
+
+	@Test
+	void benchmarkFacets() throws Exception {
+		Measurement all = Measurement.of("facets: no filter", WARMUP, ITERATIONS, () -> {
+			assertEquals(BOOKS, facetService.getFacets(null, null, null, null, 50, 20).total());
+		});
+		Measurement oneEditorial = Measurement.of("facets: 1 editorial", WARMUP, ITERATIONS, () -> {
+			facetService.getFacets(List.of(editorial()), null, null, null, 50, 20);
+		});
+		Measurement editorialsAndYears = Measurement.of("facets: 3 editorials x 10 years", WARMUP, ITERATIONS, () -> {
+			List<Long> years = new ArrayList<>();
+			for (long year = year(); years.size() < 10; year++)
+				years.add(year);
+			facetService.getFacets(List.of(editorial(), editorial(), editorial()), years, null, null, 50, 20);
+		});
+		Measurement authorAndYear = Measurement.of("facets: 1 author x 1 year", WARMUP, ITERATIONS, () -> {
+			facetService.getFacets(null, List.of(year()), List.of(author()), null, 50, 20);
+		});
+		Measurement update = Measurement.of("facets: book update", WARMUP, ITERATIONS * 10, () -> {
+			BookEntity book = new BookEntity();
+			book.setId(1L + random.nextInt(BOOKS));
+			book.setPublishingDate(new GregorianCalendar((int) year(), 0, 1).getTime());
+			facetService.onEntityChanged(EntityChangedEvent.saved(book));
+		});
+		assertTrue(all.p50Millis() < 50);
+		assertTrue(oneEditorial.p50Millis() < 50);
+		assertTrue(editorialsAndYears.p50Millis() < 50);
+		assertTrue(authorAndYear.p50Millis() < 50);
+		assertTrue(update.p50Millis() < 1);
+	}
+}
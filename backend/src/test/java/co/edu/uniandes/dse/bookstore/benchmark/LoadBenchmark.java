@@ -0,0 +1,266 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+
+import co.edu.uniandes.dse.bookstore.config.JdbcBulkhead;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Prueba de carga sobre el servidor HTTP completo. {@link #CLIENTS} clientes
+ * concurrentes, más que los hilos de Tomcat por defecto, piden el detalle de
+ * un libro, que sale del caché sin tocar la base de datos, o sus reseñas, que
+ * se consultan en la base de datos. Cada sentencia tarda {@link #QUERY_DELAY_MILLIS}
+ * ms más de lo normal para simular consultas lentas que retienen la conexión.
+ *
+ * Las subclases fijan el modo de ejecución de las peticiones para comparar el
+ * throughput y el percentil 99 de los hilos de plataforma con el perfil
+ * virtual-threads. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest='*ThreadLoadBenchmarkTest'}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=off",
+		"logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=off" })
+@Import(LoadBenchmark.SlowDatabase.class)
+@DirtiesContext
+abstract class LoadBenchmark {
+
+	static final int CLIENTS = 300;
+	static final long QUERY_DELAY_MILLIS = 5;
+	private static final int BOOKS = 200;
+	private static final int REVIEWS_PER_BOOK = 10;
+	private static final int WARMUP = 2000;
+	private static final int REQUESTS = 10_000;
+	private static final double REVIEW_RATIO = 0.2;
+
+	/**
+	 * Agrega {@link #QUERY_DELAY_MILLIS} a cada sentencia preparada. Se aplica
+	 * antes que cualquier otro envoltorio de la fuente de datos, de modo que el
+	 * retardo ocurre con la conexión tomada.
+	 */
+	@TestConfiguration
+	static class SlowDatabase {
+
+		@Bean
+		static BeanPostProcessor slowDataSourcePostProcessor() {
+			return new SlowDataSourcePostProcessor();
+		}
+	}
+
+	private static class SlowDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource dataSource))
+				return bean;
+			return new DelegatingDataSource(dataSource) {
+				@Override
+				public Connection getConnection() throws SQLException {
+					return slow(super.getConnection());
+				}
+			};
+		}
+
+		private static Connection slow(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+						if (method.getName().startsWith("prepare"))
+							Thread.sleep(QUERY_DELAY_MILLIS);
+						try {
+							return method.invoke(connection, args);
+						} catch (InvocationTargetException e) {
+							throw e.getTargetException();
+						}
+					});
+		}
+	}
+
+	/**
+	 * Latencias de las peticiones de un tipo.
+	 */
+	private static class Latencies {
+		private final long[] nanos = new long[REQUESTS];
+		private final AtomicInteger count = new AtomicInteger();
+
+		private void add(long elapsed) {
+			nanos[count.getAndIncrement()] = elapsed;
+		}
+
+		private double percentileMillis(double percentile) {
+			long[] sorted = Arrays.copyOf(nanos, count.get());
+			Arrays.sort(sorted);
+			return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(sorted.length * percentile) - 1] / 1e6;
+		}
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private List<Long> bookIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		reviewRepository.deleteAll();
+		bookRepository.deleteAll();
+		List<BookEntity> books = new ArrayList<>();
+		for (int i = 0; i < BOOKS; i++)
+			books.add(factory.manufacturePojo(BookEntity.class));
+		bookRepository.saveAll(books);
+
+		List<ReviewEntity> reviews = new ArrayList<>();
+		for (BookEntity book : books) {
+			bookIds.add(book.getId());
+			for (int i = 0; i < REVIEWS_PER_BOOK; i++) {
+				ReviewEntity review = factory.manufacturePojo(ReviewEntity.class);
+				review.setBook(book);
+				reviews.add(review);
+			}
+		}
+		reviewRepository.saveAll(reviews);
+	}
+
+	/**
+	 * Nombre del modo de ejecución, usado en el reporte.
+	 */
+	abstract String mode();
+
+	@Test
+	void benchmarkLoad() throws Exception {
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		run(client, WARMUP, new Latencies(), new Latencies(), new AtomicLong());
+
+		Latencies details = new Latencies();
+		Latencies reviews = new Latencies();
+		AtomicLong errors = new AtomicLong();
+		long start = System.nanoTime();
+		run(client, REQUESTS, details, reviews, errors);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%-40s %,6d req  %8.0f req/s  %,d errores%n", "carga: " + mode(), REQUESTS,
+				REQUESTS / seconds, errors.get());
+		report("detalle (caché)", details);
+		report("reseñas (base de datos)", reviews);
+		if (dataSource instanceof JdbcBulkhead bulkhead) {
+			System.out.printf("%-40s %,d esperas agotadas%n", "  bulkhead", bulkhead.getRejected());
+			assertEquals(0, bulkhead.getActive());
+		}
+		assertEquals(0, errors.get());
+	}
+
+	private void report(String name, Latencies latencies) {
+		System.out.printf("%-40s %6d ops  p50 %9.3f ms  p99 %9.3f ms%n", "  " + name, latencies.count.get(),
+				latencies.percentileMillis(0.5), latencies.percentileMillis(0.99));
+	}
+
+	/**
+	 * Reparte {@code requests} peticiones entre {@link #CLIENTS} clientes, cada
+	 * uno en un hilo virtual para que el cliente no limite la concurrencia.
+	 */
+	private void run(HttpClient client, int requests, Latencies details, Latencies reviews, AtomicLong errors)
+			throws InterruptedException {
+		AtomicInteger remaining = new AtomicInteger(requests);
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < CLIENTS; i++)
+				clients.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					while (remaining.getAndDecrement() > 0) {
+						Long bookId = bookIds.get(random.nextInt(bookIds.size()));
+						boolean review = random.nextDouble() < REVIEW_RATIO;
+						URI uri = URI.create("http://localhost:" + port + "/api/books/" + bookId
+								+ (review ? "/reviews" : ""));
+						long begin = System.nanoTime();
+						try {
+							HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).build(),
+									HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() != 200)
+								errors.incrementAndGet();
+						} catch (Exception e) {
+							errors.incrementAndGet();
+						}
+						(review ? reviews : details).add(System.nanoTime() - begin);
+					}
+					return null;
+				});
+		}
+	}
+}
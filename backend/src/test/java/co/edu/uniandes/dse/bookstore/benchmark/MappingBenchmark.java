@@ -0,0 +1,189 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.podam.DateStrategy;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Benchmarks JMH de la capa de DTO: conversión de entidades a DTO de detalle,
+ * serialización a JSON y deserialización desde JSON. El grafo de un libro tiene
+ * {@code relations} reseñas y autores, y el de un autor {@code relations} libros
+ * y premios. La conversión con ModelMapper se incluye como referencia. Se
+ * ejecutan con {@link MappingBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MappingBenchmark {
+
+	@Param({ "1", "10", "100" })
+	public int relations;
+
+	private BookstoreMapper bookstoreMapper = Mappers.getMapper(BookstoreMapper.class);
+
+	private ModelMapper modelMapper = new ModelMapper();
+
+	/**
+	 * Misma configuración de fechas y propiedades desconocidas que aplica Spring
+	 * Boot al ObjectMapper de la aplicación.
+	 */
+	private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private DateStrategy dates = new DateStrategy();
+
+	private long nextId = 1;
+
+	private BookEntity book;
+	private BookDetailDTO bookDetail;
+	private byte[] bookJson;
+
+	private AuthorEntity author;
+	private AuthorDetailDTO authorDetail;
+	private byte[] authorJson;
+
+	@Setup
+	public void setUp() throws IOException {
+		book = newBook();
+		for (int i = 0; i < relations; i++) {
+			ReviewEntity review = newEntity(ReviewEntity.class);
+			review.setBook(book);
+			book.getReviews().add(review);
+			AuthorEntity bookAuthor = newAuthor();
+			bookAuthor.getBooks().add(book);
+			book.getAuthors().add(bookAuthor);
+		}
+		bookDetail = bookstoreMapper.toBookDetailDTO(book);
+		bookJson = objectMapper.writeValueAsBytes(bookDetail);
+
+		author = newAuthor();
+		for (int i = 0; i < relations; i++) {
+			BookEntity authorBook = newBook();
+			authorBook.getAuthors().add(author);
+			author.getBooks().add(authorBook);
+			PrizeEntity prize = newEntity(PrizeEntity.class);
+			prize.setPremiationDate(dates.getValue());
+			prize.setOrganization(newEntity(OrganizationEntity.class));
+			prize.setAuthor(author);
+			author.getPrizes().add(prize);
+		}
+		authorDetail = bookstoreMapper.toAuthorDetailDTO(author);
+		authorJson = objectMapper.writeValueAsBytes(authorDetail);
+	}
+
+	private BookEntity newBook() {
+		BookEntity entity = newEntity(BookEntity.class);
+		entity.setPublishingDate(dates.getValue());
+		entity.setEditorial(newEntity(EditorialEntity.class));
+		return entity;
+	}
+
+	private AuthorEntity newAuthor() {
+		AuthorEntity entity = newEntity(AuthorEntity.class);
+		entity.setBirthDate(dates.getValue());
+		return entity;
+	}
+
+	private <T extends BaseEntity> T newEntity(Class<T> type) {
+		T entity = factory.manufacturePojo(type);
+		entity.setId(nextId++);
+		return entity;
+	}
+
+	@Benchmark
+	public BookDetailDTO mapBookDetail() {
+		return bookstoreMapper.toBookDetailDTO(book);
+	}
+
+	@Benchmark
+	public BookDetailDTO mapBookDetailModelMapper() {
+		return modelMapper.map(book, BookDetailDTO.class);
+	}
+
+	@Benchmark
+	public byte[] serializeBookDetail() throws IOException {
+		return objectMapper.writeValueAsBytes(bookDetail);
+	}
+
+	@Benchmark
+	public BookDetailDTO deserializeBookDetail() throws IOException {
+		return objectMapper.readValue(bookJson, BookDetailDTO.class);
+	}
+
+	@Benchmark
+	public AuthorDetailDTO mapAuthorDetail() {
+		return bookstoreMapper.toAuthorDetailDTO(author);
+	}
+
+	@Benchmark
+	public AuthorDetailDTO mapAuthorDetailModelMapper() {
+		return modelMapper.map(author, AuthorDetailDTO.class);
+	}
+
+	@Benchmark
+	public byte[] serializeAuthorDetail() throws IOException {
+		return objectMapper.writeValueAsBytes(authorDetail);
+	}
+
+	@Benchmark
+	public AuthorDetailDTO deserializeAuthorDetail() throws IOException {
+		return objectMapper.readValue(authorJson, AuthorDetailDTO.class);
+	}
+}
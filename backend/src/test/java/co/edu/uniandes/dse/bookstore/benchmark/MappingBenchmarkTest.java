@@ -0,0 +1,78 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Ejecuta {@link MappingBenchmark} con JMH en un proceso aparte, con el
+ * perfilador de GC para reportar los bytes reservados por operación. Los
+ * resultados quedan en {@code target/jmh-mapping.json} para compararlos entre
+ * versiones. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest=MappingBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+class MappingBenchmarkTest {
+
+	@Test
+	void benchmarkMapping() throws Exception {
+		Options options = new OptionsBuilder()
+				.include(MappingBenchmark.class.getName())
+				.forks(1)
+				.warmupIterations(3)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(1))
+				.jvmArgs("-Xms1g", "-Xmx1g")
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh-mapping.json")
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		Map<String, Double> scores = results.stream().collect(Collectors.toMap(
+				r -> r.getParams().getBenchmark().replaceAll(".*\\.", "") + ":" + r.getParams().getParam("relations"),
+				r -> r.getPrimaryResult().getScore()));
+		for (String relations : new String[] { "1", "10", "100" }) {
+			assertTrue(scores.get("mapBookDetail:" + relations) > scores.get("mapBookDetailModelMapper:" + relations));
+			assertTrue(scores.get("mapAuthorDetail:" + relations) > scores.get("mapAuthorDetailModelMapper:" + relations));
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Resultado de medir una operación repetidas veces en el hilo actual: latencia
+ * (mediana y percentil 99) y bytes reservados en el heap por ejecución.
+ *
+ * @author ISIS2603
+ */
+record Measurement(String name, int iterations, double p50Millis, double p99Millis, long bytesPerOp) {
+
+	/**
+	 * Operación a medir, que puede lanzar las excepciones de los servicios.
+	 */
+	@FunctionalInterface
+	interface Operation {
+		void run() throws Exception;
+	}
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	/**
+	 * Ejecuta la operación {@code warmup} veces sin medir y luego
+	 * {@code iterations} veces midiendo, e imprime el resultado.
+	 */
+	static Measurement of(String name, int warmup, int iterations, Operation operation) throws Exception {
+		for (int i = 0; i < warmup; i++)
+			operation.run();
+
+		long threadId = Thread.currentThread().threadId();
+		long[] nanos = new long[iterations];
+		long allocated = 0;
+		for (int i = 0; i < iterations; i++) {
+			long bytes = THREADS.getThreadAllocatedBytes(threadId);
+			long start = System.nanoTime();
+			operation.run();
+			nanos[i] = System.nanoTime() - start;
+			allocated += THREADS.getThreadAllocatedBytes(threadId) - bytes;
+		}
+		Arrays.sort(nanos);
+		Measurement measurement = new Measurement(name, iterations, nanos[iterations / 2] / 1e6,
+				nanos[(int) Math.ceil(iterations * 0.99) - 1] / 1e6, allocated / iterations);
+		System.out.println(measurement);
+		return measurement;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-40s %6d ops  p50 %9.3f ms  p99 %9.3f ms  %,12d B/op", name, iterations, p50Millis,
+				p99Millis, bytesPerOp);
+	}
+}
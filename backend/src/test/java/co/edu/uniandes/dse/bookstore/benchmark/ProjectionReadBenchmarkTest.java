@@ -0,0 +1,134 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Compara la lectura de una página de libros y de autores por medio de
+ * entidades convertidas con {@link BookstoreMapper} contra las proyecciones. Se ejecuta
+ * con {@code mvn test -Pbenchmark}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional
+@Import({ BookService.class, AuthorService.class, CounterService.class })
+class ProjectionReadBenchmarkTest {
+
+	private static final int ROWS = 2000;
+	private static final int PAGE = 500;
+	private static final int WARMUP = 100;
+	private static final int ITERATIONS = 200;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private BookstoreMapper bookstoreMapper = Mappers.getMapper(BookstoreMapper.class);
+
+	@BeforeEach
+	void setUp() {
+		EditorialEntity[] editorials = new EditorialEntity[20];
+		for (int i = 0; i < editorials.length; i++) {
+			editorials[i] = factory.manufacturePojo(EditorialEntity.class);
+			entityManager.persist(editorials[i]);
+		}
+		for (int i = 0; i < ROWS; i++) {
+			BookEntity book = factory.manufacturePojo(BookEntity.class);
+			book.setEditorial(editorials[i % editorials.length]);
+			entityManager.persist(book);
+			entityManager.persist(factory.manufacturePojo(AuthorEntity.class));
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void benchmarkBookPage() throws Exception {
+		Measurement details = Measurement.of("books: entities + mapper (detail)", WARMUP, ITERATIONS, () -> {
+			bookstoreMapper.toBookDetailDTOs(bookService.getBooks(0L, PAGE));
+			entityManager.clear();
+		});
+		Measurement entities = Measurement.of("books: entities + mapper", WARMUP, ITERATIONS, () -> {
+			bookService.getBooks(0L, PAGE).stream().map(bookstoreMapper::toBookDTO).toList();
+			entityManager.clear();
+		});
+		Measurement projections = Measurement.of("books: projections", WARMUP, ITERATIONS, () -> {
+			assertEquals(PAGE, bookService.getBookSummaries(0L, PAGE).size());
+			entityManager.clear();
+		});
+		assertTrue(projections.bytesPerOp() < entities.bytesPerOp());
+		assertTrue(entities.bytesPerOp() <= details.bytesPerOp());
+	}
+
+	@Test
+	void benchmarkAuthorPage() throws Exception {
+		Measurement details = Measurement.of("authors: entities + mapper (detail)", WARMUP, ITERATIONS, () -> {
+			bookstoreMapper.toAuthorDetailDTOs(authorService.getAuthors(0L, PAGE));
+			entityManager.clear();
+		});
+		Measurement entities = Measurement.of("authors: entities + mapper", WARMUP, ITERATIONS, () -> {
+			authorService.getAuthors(0L, PAGE).stream().map(bookstoreMapper::toAuthorDTO).toList();
+			entityManager.clear();
+		});
+		Measurement projections = Measurement.of("authors: projections", WARMUP, ITERATIONS, () -> {
+			assertEquals(PAGE, authorService.getAuthorSummaries(0L, PAGE).size());
+			entityManager.clear();
+		});
+		assertTrue(projections.bytesPerOp() < entities.bytesPerOp());
+		assertTrue(entities.bytesPerOp() <= details.bytesPerOp());
+	}
+}
@@ -0,0 +1,158 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import co.edu.uniandes.dse.bookstore.dto.BookAuthorPair;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.services.EntityChangedEvent;
+import co.edu.uniandes.dse.bookstore.services.RelatedBookService;
+
+/**
+ * Mide la memoria y la latencia de {@link RelatedBookService} con un millón de
+ * libros, con las mismas distribuciones sesgadas de editoriales y autores de
+ * {@link FacetBenchmarkTest}. El libro 1 es del autor y de la editorial con más
+ * libros, el peor caso para juntar candidatos. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest=RelatedBookBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+class RelatedBookBenchmarkTest {
+
+	private static final int BOOKS = 1_000_000;
+	private static final int EDITORIALS = 2000;
+	private static final int AUTHORS = 200_000;
+	private static final int FIRST_YEAR = 1925;
+	private static final int YEARS = 100;
+	private static final int WARMUP = 200;
+	private static final int ITERATIONS = 1000;
+
+	private static final Random random = new Random(42);
+	private static RelatedBookService relatedBookService;
+
+	@BeforeAll
+	static void setUp() {
+		relatedBookService = new RelatedBookService();
+		ReflectionTestUtils.setField(relatedBookService, "bookRepository", repository());
+
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+		relatedBookService.rebuild();
+		long elapsed = System.nanoTime() - start;
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		System.out.printf("index: %,d books in %,d ms, ~%,d MB of heap%n", relatedBookService.size(),
+				elapsed / 1_000_000, (after - before) / (1024 * 1024));
+	}
+
+	@AfterAll
+	static void tearDown() {
+		relatedBookService = null;
+	}
+
+	/**
+	 * Repositorio que genera los libros y sus autores sin base de datos.
+	 */
+	private static BookRepository repository() {
+		Object proxy = Proxy.newProxyInstance(BookRepository.class.getClassLoader(),
+				new Class<?>[] { BookRepository.class }, (instance, method, args) -> switch (method.getName()) {
+				case "findSummaryByIdGreaterThanOrderByIdAsc" -> books((Long) args[0], (Limit) args[1]);
+				case "findAuthorPairsByIdBetween" -> authorPairs((Long) args[0], (Long) args[1]);
+				case "toString" -> BookRepository.class.getSimpleName();
+				default -> throw new UnsupportedOperationException(method.getName());
+				});
+		return (BookRepository) proxy;
+	}
+
+	private static List<BookSummary> books(long after, Limit limit) {
+		List<BookSummary> books = new ArrayList<>();
+		for (long id = after + 1; id <= Math.min(BOOKS, after + limit.max()); id++)
+			books.add(new BookSummary(id, "Libro " + id, null, null,
+					new GregorianCalendar(FIRST_YEAR + random.nextInt(YEARS), 0, 1).getTime(), null,
+					id == 1 ? 1L : editorial(), null, 0, 0));
+		return books;
+	}
+
+	/**
+	 * Uno a tres autores por libro.
+	 */
+	private static List<BookAuthorPair> authorPairs(long after, long last) {
+		List<BookAuthorPair> pairs = new ArrayList<>();
+		for (long id = after + 1; id <= last; id++) {
+			if (id == 1)
+				pairs.add(new BookAuthorPair(id, 1L));
+			for (int i = random.nextInt(3); i >= 0; i--)
+				pairs.add(new BookAuthorPair(id, author()));
+		}
+		return pairs;
+	}
+
+	private static long editorial() {
+		return 1 + (long) (EDITORIALS * Math.pow(random.nextDouble(), 3));
+	}
+
+	private static long author() {
+		return 1 + (long) (AUTHORS * Math.pow(random.nextDouble(), 3));
+	}
+
+	@Test
+	void benchmarkRelated() throws Exception {
+		Measurement any = Measurement.of("related: random book", WARMUP, ITERATIONS, () -> {
+			relatedBookService.getRelated(1L + random.nextInt(BOOKS), 10);
+		});
+		Measurement largest = Measurement.of("related: book of the largest author and editorial", WARMUP,
+				ITERATIONS, () -> {
+					assertEquals(50, relatedBookService.getRelated(1L, 50).size());
+				});
+		Measurement update = Measurement.of("related: book update", WARMUP, ITERATIONS * 10, () -> {
+			BookEntity book = new BookEntity();
+			book.setId(1L + random.nextInt(BOOKS));
+			book.setName("Libro " + book.getId());
+			book.setPublishingDate(new GregorianCalendar(FIRST_YEAR + random.nextInt(YEARS), 0, 1).getTime());
+			relatedBookService.onEntityChanged(EntityChangedEvent.saved(book));
+		});
+		assertTrue(any.p50Millis() < 5);
+		assertTrue(largest.p50Millis() < 5);
+		assertTrue(update.p50Millis() < 1);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.ReviewService;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Mide la creación masiva de reviews con {@link ReviewService#createReview}
+ * dentro de una sola transacción. Las subclases fijan la estrategia de
+ * generación de ids para comparar IDENTITY con las secuencias pooled del
+ * perfil sequence-ids. Se ejecuta con {@code mvn test -Pbenchmark}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = { "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+		"spring.jpa.properties.hibernate.order_inserts=true" })
+@Transactional
+@Import({ ReviewService.class, CounterService.class })
+abstract class ReviewInsertBenchmark {
+
+	static final int REVIEWS = 1000;
+	private static final int WARMUP = 10;
+	private static final int ITERATIONS = 30;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private BookEntity book;
+
+	@BeforeEach
+	void setUp() {
+		book = factory.manufacturePojo(BookEntity.class);
+		entityManager.persist(book);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	/**
+	 * Nombre de la estrategia de ids, usado en el reporte.
+	 */
+	abstract String strategy();
+
+	/**
+	 * Verifica la cantidad de sentencias preparadas para insertar
+	 * {@link #REVIEWS} reviews.
+	 */
+	abstract void assertStatements(long statements);
+
+	@Test
+	void benchmarkCreateReviews() throws Exception {
+		Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		assertTrue(statistics.isStatisticsEnabled());
+
+		statistics.clear();
+		createReviews();
+		long statements = statistics.getPrepareStatementCount();
+		System.out.printf("%-40s %,d reviews  %,d sentencias%n", "reviews: " + strategy(), REVIEWS, statements);
+		assertStatements(statements);
+
+		Measurement.of("reviews: " + strategy(), WARMUP, ITERATIONS, this::createReviews);
+	}
+
+	private void createReviews() throws Exception {
+		for (int i = 0; i < REVIEWS; i++) {
+			ReviewEntity review = new ReviewEntity();
+			review.setName("review " + i);
+			review.setSource("benchmark");
+			review.setDescription("description " + i);
+			reviewService.createReview(book.getId(), review);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
@@ -0,0 +1,138 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.services.EntityChangedEvent;
+import co.edu.uniandes.dse.bookstore.services.SearchService;
+
+/**
+ * Mide la latencia de {@link SearchService#search} con un millón de libros en
+ * el índice. Los textos se generan con un vocabulario de 50.000 palabras con
+ * distribución de Zipf, así que unas pocas palabras aparecen en gran parte de
+ * los documentos y la mayoría en pocos. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest=SearchBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+class SearchBenchmarkTest {
+
+	private static final int DOCUMENTS = 1_000_000;
+	private static final int VOCABULARY = 50_000;
+	private static final int NAME_WORDS = 3;
+	private static final int DESCRIPTION_WORDS = 15;
+	private static final int WARMUP = 2000;
+	private static final int ITERATIONS = 2000;
+
+	private static final Random random = new Random(42);
+	private static final String[] words = new String[VOCABULARY];
+	private static final double[] cumulative = new double[VOCABULARY];
+	private static SearchService searchService;
+
+	@BeforeAll
+	static void setUp() {
+		String[] syllables = { "ba", "ce", "di", "fo", "gu", "la", "me", "ni", "po", "ru", "sa", "te", "vi", "zo",
+				"ña", "ré", "tó", "cha", "que", "llo" };
+		for (int i = 0; i < VOCABULARY; i++) {
+			StringBuilder word = new StringBuilder();
+			for (int n = i; word.isEmpty() || n > 0; n /= syllables.length)
+				word.append(syllables[n % syllables.length]);
+			words[i] = word.toString();
+		}
+		double sum = 0;
+		for (int i = 0; i < VOCABULARY; i++) {
+			sum += 1.0 / (i + 1);
+			cumulative[i] = sum;
+		}
+		for (int i = 0; i < VOCABULARY; i++)
+			cumulative[i] /= sum;
+
+		searchService = new SearchService();
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+		for (long id = 1; id <= DOCUMENTS; id++) {
+			BookEntity book = new BookEntity();
+			book.setId(id);
+			book.setName(text(NAME_WORDS));
+			book.setIsbn("978-" + id);
+			book.setDescription(text(DESCRIPTION_WORDS));
+			searchService.onEntityChanged(EntityChangedEvent.saved(book));
+		}
+		long elapsed = System.nanoTime() - start;
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		System.out.printf("index: %,d documents in %,d ms, ~%,d MB of heap%n", searchService.size(),
+				elapsed / 1_000_000, (after - before) / (1024 * 1024));
+	}
+
+	@AfterAll
+	static void tearDown() {
+		searchService = null;
+	}
+
+	private static String word() {
+		int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+		return words[Math.min(rank < 0 ? -rank - 1 : rank, VOCABULARY - 1)];
+	}
+
+	private static String rareWord() {
+		return words[1000 + random.nextInt(VOCABULARY - 1000)];
+	}
+
+	private static String text(int length) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < length; i++)
+			text.append(i == 0 ? "" : " ").append(word());
+		return text.toString();
+	}
+
+	@Test
+	void benchmarkSearch() throws Exception {
+		Measurement rare = Measurement.of("search: 2 uncommon terms", WARMUP, ITERATIONS, () -> {
+			searchService.search(rareWord() + " " + rareWord(), 20);
+		});
+		Measurement isbn = Measurement.of("search: isbn", WARMUP, ITERATIONS, () -> {
+			assertEquals(1, searchService.search("978-" + (1 + random.nextInt(DOCUMENTS)), 20).size());
+		});
+		Measurement mixed = Measurement.of("search: 3 zipf terms", WARMUP / 10, ITERATIONS / 10, () -> {
+			searchService.search(word() + " " + word() + " " + word(), 20);
+		});
+		assertTrue(rare.p50Millis() < 1);
+		assertTrue(isbn.p50Millis() < 1);
+		assertTrue(mixed.p50Millis() >= rare.p50Millis());
+	}
+}
@@ -0,0 +1,48 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Secuencias pooled (perfil sequence-ids): un llamado a la secuencia cada 50
+ * ids y los inserts agrupados en lotes JDBC de 50.
+ *
+ * @author ISIS2603
+ */
+@ActiveProfiles("sequence-ids")
+class SequenceReviewInsertBenchmarkTest extends ReviewInsertBenchmark {
+
+	@Override
+	String strategy() {
+		return "secuencia pooled + lotes";
+	}
+
+	@Override
+	void assertStatements(long statements) {
+		assertTrue(statements <= 2 * REVIEWS / 50 + 2);
+	}
+}
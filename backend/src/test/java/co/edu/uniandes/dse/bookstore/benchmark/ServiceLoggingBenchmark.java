@@ -0,0 +1,188 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import co.edu.uniandes.dse.bookstore.config.ServiceLogAspect;
+import co.edu.uniandes.dse.bookstore.config.ServiceLogProperties;
+import co.edu.uniandes.dse.bookstore.dto.SuggestionDTO;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.AutocompleteService;
+
+/**
+ * Benchmarks JMH del costo de registrar una llamada a un servicio. El servicio
+ * es un {@link AutocompleteService} real con los índices vacíos, llamado a
+ * través de un proxy con {@link ServiceLogAspect}, como lo llama la
+ * aplicación. Los registros se escriben a un archivo con el patrón de la
+ * consola:
+ * <ul>
+ * <li>{@code unproxied} y {@code proxied}: la llamada sin registro, directa y
+ * a través de un proxy sin aspectos, como referencia.</li>
+ * <li>{@code synchronousInfo}: como antes, dos líneas INFO por llamada con
+ * concatenación y marcadores {@code {0}}, escritas en el hilo de la petición,
+ * alrededor de la llamada a través del proxy sin aspectos.</li>
+ * <li>{@code proxiedSampled}: como ahora, el aspecto con el muestreo de la
+ * configuración, a través del appender asíncrono.</li>
+ * <li>{@code proxiedEveryCall}: el aspecto registrando cada llamada, sin
+ * muestreo. Con pocos núcleos incluye el tiempo del hilo que escribe el
+ * archivo, que compite por la CPU con el del benchmark.</li>
+ * </ul>
+ * Se ejecutan con {@link ServiceLoggingBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceLoggingBenchmark {
+
+	private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 1 --- [%15.15t] %-40.40logger{39} : "
+			+ "%m%replace( %kvp){'^ $', ''}%n";
+
+	private static final String PREFIX = "ga";
+
+	private static final int LIMIT = 5;
+
+	private LoggerContext synchronousContext;
+	private Logger synchronous;
+	private AutocompleteService service;
+	private AutocompleteService plain;
+	private AutocompleteService sampled;
+	private AutocompleteService everyCall;
+	private long callId;
+
+	@Setup
+	public void setUp() {
+		synchronousContext = new LoggerContext();
+		ch.qos.logback.classic.Logger logger = synchronousContext.getLogger(AutocompleteService.class);
+		logger.setLevel(Level.INFO);
+		logger.setAdditive(false);
+		logger.addAppender(file(synchronousContext, "target/jmh-logging/synchronous.log"));
+		synchronous = logger;
+
+		// El contexto global, que usa el aspecto, queda como en logback-spring.xml.
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		context.reset();
+		AsyncAppender async = new AsyncAppender();
+		async.setContext(context);
+		async.addAppender(file(context, "target/jmh-logging/asynchronous.log"));
+		async.setQueueSize(8192);
+		async.setDiscardingThreshold(20);
+		async.setNeverBlock(true);
+		async.setIncludeCallerData(false);
+		async.start();
+		ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+		root.setLevel(Level.INFO);
+		root.addAppender(async);
+
+		service = new AutocompleteService();
+		plain = new AspectJProxyFactory(service).getProxy();
+		sampled = proxy(new ServiceLogProperties());
+		ServiceLogProperties unsampled = new ServiceLogProperties();
+		unsampled.setSampledPrefixes(List.of());
+		everyCall = proxy(unsampled);
+	}
+
+	@TearDown
+	public void tearDown() {
+		synchronousContext.stop();
+		((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+	}
+
+	/**
+	 * Crea el proxy como Spring: con CGLIB, porque el servicio no implementa
+	 * interfaces, y con el aspecto como única intercepción.
+	 */
+	private AutocompleteService proxy(ServiceLogProperties properties) {
+		ServiceLogAspect aspect = new ServiceLogAspect();
+		ReflectionTestUtils.setField(aspect, "properties", properties);
+		AspectJProxyFactory factory = new AspectJProxyFactory(service);
+		factory.addAspect(aspect);
+		return factory.getProxy();
+	}
+
+	private static FileAppender<ILoggingEvent> file(LoggerContext context, String path) {
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern(PATTERN);
+		encoder.start();
+		FileAppender<ILoggingEvent> file = new FileAppender<>();
+		file.setContext(context);
+		file.setFile(path);
+		file.setAppend(false);
+		file.setEncoder(encoder);
+		file.start();
+		return file;
+	}
+
+	@Benchmark
+	public List<SuggestionDTO> unproxied() throws IllegalOperationException {
+		return service.suggest(PREFIX, null, LIMIT);
+	}
+
+	@Benchmark
+	public List<SuggestionDTO> proxied() throws IllegalOperationException {
+		return plain.suggest(PREFIX, null, LIMIT);
+	}
+
+	@Benchmark
+	public List<SuggestionDTO> synchronousInfo() throws IllegalOperationException {
+		long id = ++callId;
+		synchronous.info("Inicia proceso de sugerir nombres con el prefijo {0} en la llamada " + id, PREFIX);
+		List<SuggestionDTO> suggestions = plain.suggest(PREFIX, null, LIMIT);
+		synchronous.info("Termina proceso de sugerir nombres con el prefijo {0} en la llamada " + id, PREFIX);
+		return suggestions;
+	}
+
+	@Benchmark
+	public List<SuggestionDTO> proxiedSampled() throws IllegalOperationException {
+		return sampled.suggest(PREFIX, null, LIMIT);
+	}
+
+	@Benchmark
+	public List<SuggestionDTO> proxiedEveryCall() throws IllegalOperationException {
+		return everyCall.suggest(PREFIX, null, LIMIT);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Ejecuta {@link ServiceLoggingBenchmark} con JMH en un proceso aparte. Los
+ * resultados, en nanosegundos por llamada, quedan en
+ * {@code target/jmh-logging.json}. Se ejecuta con
+ * {@code mvn test -Pbenchmark -Dtest=ServiceLoggingBenchmarkTest}.
+ *
+ * @author ISIS2603
+ */
+@Tag("benchmark")
+class ServiceLoggingBenchmarkTest {
+
+	@Test
+	void benchmarkServiceLogging() throws Exception {
+		Options options = new OptionsBuilder()
+				.include(ServiceLoggingBenchmark.class.getName())
+				.forks(1)
+				.warmupIterations(6)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(1))
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh-logging.json")
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		Map<String, Double> nanos = results.stream().collect(Collectors.toMap(
+				r -> r.getParams().getBenchmark().replaceAll(".*\\.", ""), r -> r.getPrimaryResult().getScore()));
+		assertTrue(nanos.get("proxied") < nanos.get("proxiedSampled"));
+		assertTrue(nanos.get("proxiedSampled") < nanos.get("synchronousInfo"));
+		assertTrue(nanos.get("proxiedSampled") < nanos.get("proxiedEveryCall"));
+	}
+}
@@ -0,0 +1,191 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.services.AuthorBookService;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.DetailCacheService;
+import co.edu.uniandes.dse.bookstore.services.DetailVersion;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
+import co.edu.uniandes.dse.bookstore.services.FacetService;
+import co.edu.uniandes.dse.bookstore.services.VersionedDetail;
+
+/**
+ * Pruebas de los GET condicionales: con un If-None-Match que coincide con el
+ * ETag actual se responde 304 sin cargar el detalle ni convertirlo a DTO. Los
+ * servicios y el mapper son simulados, para verificar qué se llamó.
+ *
+ * @author ISIS2603
+ */
+@WebMvcTest({ BookController.class, AuthorController.class, BookAuthorController.class,
+		AuthorBookController.class })
+class ConditionalGetTest {
+
+	private static final DetailVersion BOOK_VERSION = new DetailVersion(1L, 3L, 0x1a2bL);
+
+	private static final DetailVersion AUTHOR_VERSION = new DetailVersion(2L, 4L, 0x3c4dL);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private BookService bookService;
+
+	@MockBean
+	private FacetService facetService;
+
+	@MockBean
+	private AuthorService authorService;
+
+	@MockBean
+	private BookAuthorService bookAuthorService;
+
+	@MockBean
+	private AuthorBookService authorBookService;
+
+	@MockBean
+	private DetailCacheService detailCacheService;
+
+	@MockBean
+	private BookstoreMapper bookstoreMapper;
+
+	private static BookEntity book() {
+		BookEntity book = new BookEntity();
+		book.setId(BOOK_VERSION.id());
+		book.setVersion(BOOK_VERSION.version());
+		return book;
+	}
+
+	private static AuthorEntity author() {
+		AuthorEntity author = new AuthorEntity();
+		author.setId(AUTHOR_VERSION.id());
+		author.setVersion(AUTHOR_VERSION.version());
+		return author;
+	}
+
+	/**
+	 * Prueba que el detalle de un libro que no cambió se responde con 304 sin
+	 * cargar el detalle.
+	 */
+	@Test
+	void testBookNotModified() throws Exception {
+		when(detailCacheService.getBookVersion(1L)).thenReturn(BOOK_VERSION);
+
+		mockMvc.perform(get("/books/1").header(HttpHeaders.IF_NONE_MATCH, ETags.of(BOOK_VERSION)))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, ETags.of(BOOK_VERSION)));
+		verify(detailCacheService, never()).getBookDetail(any());
+	}
+
+	/**
+	 * Prueba que el detalle de un libro que cambió se carga y se responde con el
+	 * ETag nuevo, y que sin If-None-Match no se consulta la versión aparte.
+	 */
+	@Test
+	void testBookModified() throws Exception {
+		when(detailCacheService.getBookVersion(1L)).thenReturn(BOOK_VERSION);
+		when(detailCacheService.getBookDetail(1L)).thenReturn(new VersionedDetail<>(BOOK_VERSION, new BookDetailDTO()));
+
+		mockMvc.perform(get("/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"1.2.1a2b\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, ETags.of(BOOK_VERSION)));
+		verify(detailCacheService).getBookDetail(1L);
+
+		mockMvc.perform(get("/books/1")).andExpect(status().isOk());
+		verify(detailCacheService).getBookVersion(1L);
+	}
+
+	/**
+	 * Prueba que el detalle de un autor que no cambió se responde con 304 sin
+	 * cargar el detalle.
+	 */
+	@Test
+	void testAuthorNotModified() throws Exception {
+		when(detailCacheService.getAuthorVersion(2L)).thenReturn(AUTHOR_VERSION);
+
+		mockMvc.perform(get("/authors/2").header(HttpHeaders.IF_NONE_MATCH, ETags.of(AUTHOR_VERSION)))
+				.andExpect(status().isNotModified());
+		verify(detailCacheService, never()).getAuthorDetail(any());
+	}
+
+	/**
+	 * Prueba que el autor de un libro que no cambió se responde con 304 sin
+	 * convertirlo a DTO.
+	 */
+	@Test
+	void testNestedAuthorNotModified() throws Exception {
+		AuthorEntity author = author();
+		when(bookAuthorService.getAuthor(1L, 2L)).thenReturn(author);
+		String etag = ETags.of(DetailVersionService.of(author));
+
+		mockMvc.perform(get("/books/1/authors/2").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		verify(bookstoreMapper, never()).toAuthorDetailDTO(any());
+
+		when(bookstoreMapper.toAuthorDetailDTO(author)).thenReturn(new AuthorDetailDTO());
+		mockMvc.perform(get("/books/1/authors/2").header(HttpHeaders.IF_NONE_MATCH, "\"2.3\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+	}
+
+	/**
+	 * Prueba que la lista de libros de un autor que no cambió se responde con
+	 * 304 sin convertirla a DTO.
+	 */
+	@Test
+	void testNestedBooksNotModified() throws Exception {
+		List<BookEntity> books = List.of(book());
+		when(authorBookService.getBooks(2L)).thenReturn(books);
+		String etag = ETags.ofVersions(books.stream().map(DetailVersionService::of).toList());
+
+		mockMvc.perform(get("/authors/2/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		verify(bookstoreMapper, never()).toBookDetailDTOs(anyList());
+	}
+}
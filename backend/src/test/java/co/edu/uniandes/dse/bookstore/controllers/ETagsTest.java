@@ -0,0 +1,79 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.controllers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.DetailVersion;
+
+/**
+ * Pruebas de la interpretación del encabezado If-Match en {@link ETags}.
+ *
+ * @author ISIS2603
+ */
+class ETagsTest {
+
+	/**
+	 * Prueba que sin encabezado, o con {@code *}, no se exige ninguna versión.
+	 */
+	@Test
+	void testNoExpectedVersion() throws IllegalOperationException {
+		assertNull(ETags.expectedVersion(null, 5L));
+		assertNull(ETags.expectedVersion("", 5L));
+		assertNull(ETags.expectedVersion("*", 5L));
+		assertNull(ETags.expectedVersion(" * ", 5L));
+	}
+
+	/**
+	 * Prueba que se lee la versión del ETag de la entidad.
+	 */
+	@Test
+	void testEntityETag() throws IllegalOperationException {
+		assertEquals(3L, ETags.expectedVersion("\"5.3\"", 5L));
+		assertEquals(3L, ETags.expectedVersion(" \"5.3\" ", 5L));
+	}
+
+	/**
+	 * Prueba que del ETag de un detalle solo se toma la versión de la entidad, y
+	 * no el resumen de las entidades que muestra.
+	 */
+	@Test
+	void testDetailETag() throws IllegalOperationException {
+		assertEquals(3L, ETags.expectedVersion("\"5.3.1a2b3c\"", 5L));
+		assertEquals(3L, ETags.expectedVersion(ETags.of(new DetailVersion(5L, 3L, -1L)), 5L));
+	}
+
+	/**
+	 * Prueba que un ETag de otra entidad o mal formado se rechaza.
+	 */
+	@Test
+	void testMalformedETag() {
+		for (String ifMatch : new String[] { "\"6.3\"", "5.3", "\"5.3", "\"5.\"", "\"5\"", "\"5.x\"", "\"5.3x.1a\"",
+				"W/\"5.3\"", "\"5.3\", \"5.4\"", "\"\"" })
+			assertThrows(IllegalOperationException.class, () -> ETags.expectedVersion(ifMatch, 5L), ifMatch);
+	}
+}
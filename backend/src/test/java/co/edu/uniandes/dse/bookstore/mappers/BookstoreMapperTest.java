@@ -0,0 +1,337 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.mappers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import jakarta.transaction.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.EditorialDTO;
+import co.edu.uniandes.dse.bookstore.dto.EditorialDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.OrganizationDTO;
+import co.edu.uniandes.dse.bookstore.dto.OrganizationDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.PrizeDTO;
+import co.edu.uniandes.dse.bookstore.dto.PrizeDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.ReviewDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Pruebas de {@link BookstoreMapper}. El JSON que producen los DTO generados
+ * debe ser idéntico al que producía ModelMapper, que se conserva solo en las
+ * pruebas como referencia, salvo los contadores de las referencias anidadas,
+ * que BookstoreMapper omite.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional
+@Import(BookstoreMapperImpl.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class BookstoreMapperTest {
+
+	private static final List<String> COUNTERS = List.of("reviewCount", "authorCount", "bookCount", "prizeCount");
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private ModelMapper modelMapper = new ModelMapper();
+
+	private EditorialEntity editorial;
+	private BookEntity book;
+	private BookEntity orphanBook;
+	private AuthorEntity author;
+	private AuthorEntity coauthor;
+	private PrizeEntity prize;
+	private PrizeEntity orphanPrize;
+	private OrganizationEntity organization;
+	private OrganizationEntity orphanOrganization;
+	private ReviewEntity review;
+
+	/**
+	 * Crea un grafo con todas las relaciones: una editorial con libros, un libro
+	 * con reseñas y autores, y un autor con un premio de una organización. También
+	 * incluye entidades con las relaciones vacías.
+	 */
+	@BeforeEach
+	void setUp() {
+		editorial = persist(factory.manufacturePojo(EditorialEntity.class));
+		organization = persist(factory.manufacturePojo(OrganizationEntity.class));
+		orphanOrganization = persist(factory.manufacturePojo(OrganizationEntity.class));
+		author = persist(factory.manufacturePojo(AuthorEntity.class));
+		coauthor = persist(factory.manufacturePojo(AuthorEntity.class));
+
+		prize = factory.manufacturePojo(PrizeEntity.class);
+		prize.setAuthor(author);
+		prize.setOrganization(organization);
+		persist(prize);
+		orphanPrize = persist(factory.manufacturePojo(PrizeEntity.class));
+
+		book = factory.manufacturePojo(BookEntity.class);
+		book.setEditorial(editorial);
+		book.setAuthors(List.of(author, coauthor));
+		persist(book);
+		BookEntity other = factory.manufacturePojo(BookEntity.class);
+		other.setEditorial(editorial);
+		other.setAuthors(List.of(author));
+		persist(other);
+		orphanBook = persist(factory.manufacturePojo(BookEntity.class));
+
+		for (int i = 0; i < 2; i++) {
+			ReviewEntity entity = factory.manufacturePojo(ReviewEntity.class);
+			entity.setBook(book);
+			review = persist(entity);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		editorial = entityManager.find(EditorialEntity.class, editorial.getId());
+		organization = entityManager.find(OrganizationEntity.class, organization.getId());
+		orphanOrganization = entityManager.find(OrganizationEntity.class, orphanOrganization.getId());
+		author = entityManager.find(AuthorEntity.class, author.getId());
+		coauthor = entityManager.find(AuthorEntity.class, coauthor.getId());
+		prize = entityManager.find(PrizeEntity.class, prize.getId());
+		orphanPrize = entityManager.find(PrizeEntity.class, orphanPrize.getId());
+		book = entityManager.find(BookEntity.class, book.getId());
+		orphanBook = entityManager.find(BookEntity.class, orphanBook.getId());
+		review = entityManager.find(ReviewEntity.class, review.getId());
+	}
+
+	private <T> T persist(T entity) {
+		entityManager.persist(entity);
+		return entity;
+	}
+
+	/**
+	 * Prueba la conversión de editoriales a DTO.
+	 */
+	@Test
+	void testEditorialToDTO() {
+		assertSameJson(modelMapper.map(editorial, EditorialDTO.class), bookstoreMapper.toEditorialDTO(editorial));
+		assertSameJson(modelMapper.map(editorial, EditorialDetailDTO.class),
+				bookstoreMapper.toEditorialDetailDTO(editorial));
+		List<EditorialEntity> editorials = entityManager.getEntityManager()
+				.createQuery("select e from EditorialEntity e", EditorialEntity.class).getResultList();
+		assertSameJson(modelMapper.map(editorials, new TypeToken<List<EditorialDetailDTO>>() {
+		}.getType()), bookstoreMapper.toEditorialDetailDTOs(editorials));
+	}
+
+	/**
+	 * Prueba la conversión de libros a DTO, con y sin relaciones.
+	 */
+	@Test
+	void testBookToDTO() {
+		for (BookEntity entity : List.of(book, orphanBook)) {
+			assertSameJson(modelMapper.map(entity, BookDTO.class), bookstoreMapper.toBookDTO(entity));
+			assertSameJson(modelMapper.map(entity, BookDetailDTO.class), bookstoreMapper.toBookDetailDTO(entity));
+		}
+		List<BookEntity> books = entityManager.getEntityManager()
+				.createQuery("select b from BookEntity b", BookEntity.class).getResultList();
+		assertSameJson(modelMapper.map(books, new TypeToken<List<BookDetailDTO>>() {
+		}.getType()), bookstoreMapper.toBookDetailDTOs(books));
+	}
+
+	/**
+	 * Prueba la conversión de autores a DTO, con y sin premios.
+	 */
+	@Test
+	void testAuthorToDTO() {
+		for (AuthorEntity entity : List.of(author, coauthor)) {
+			assertSameJson(modelMapper.map(entity, AuthorDTO.class), bookstoreMapper.toAuthorDTO(entity));
+			assertSameJson(modelMapper.map(entity, AuthorDetailDTO.class),
+					bookstoreMapper.toAuthorDetailDTO(entity));
+		}
+		List<AuthorEntity> authors = entityManager.getEntityManager()
+				.createQuery("select a from AuthorEntity a", AuthorEntity.class).getResultList();
+		assertSameJson(modelMapper.map(authors, new TypeToken<List<AuthorDetailDTO>>() {
+		}.getType()), bookstoreMapper.toAuthorDetailDTOs(authors));
+	}
+
+	/**
+	 * Prueba la conversión de premios a DTO, con y sin autor y organización.
+	 */
+	@Test
+	void testPrizeToDTO() {
+		for (PrizeEntity entity : List.of(prize, orphanPrize)) {
+			assertSameJson(modelMapper.map(entity, PrizeDTO.class), bookstoreMapper.toPrizeDTO(entity));
+			assertSameJson(modelMapper.map(entity, PrizeDetailDTO.class), bookstoreMapper.toPrizeDetailDTO(entity));
+		}
+		List<PrizeEntity> prizes = entityManager.getEntityManager()
+				.createQuery("select p from PrizeEntity p", PrizeEntity.class).getResultList();
+		assertSameJson(modelMapper.map(prizes, new TypeToken<List<PrizeDetailDTO>>() {
+		}.getType()), bookstoreMapper.toPrizeDetailDTOs(prizes));
+	}
+
+	/**
+	 * Prueba la conversión de organizaciones a DTO, con y sin premio.
+	 */
+	@Test
+	void testOrganizationToDTO() {
+		for (OrganizationEntity entity : List.of(organization, orphanOrganization)) {
+			assertSameJson(modelMapper.map(entity, OrganizationDTO.class), bookstoreMapper.toOrganizationDTO(entity));
+			assertSameJson(modelMapper.map(entity, OrganizationDetailDTO.class),
+					bookstoreMapper.toOrganizationDetailDTO(entity));
+		}
+		List<OrganizationEntity> organizations = entityManager.getEntityManager()
+				.createQuery("select o from OrganizationEntity o", OrganizationEntity.class).getResultList();
+		assertSameJson(modelMapper.map(organizations, new TypeToken<List<OrganizationDetailDTO>>() {
+		}.getType()), bookstoreMapper.toOrganizationDetailDTOs(organizations));
+	}
+
+	/**
+	 * Prueba la conversión de reseñas a DTO.
+	 */
+	@Test
+	void testReviewToDTO() {
+		assertSameJson(modelMapper.map(review, ReviewDTO.class), bookstoreMapper.toReviewDTO(review));
+		assertSameJson(modelMapper.map(book.getReviews(), new TypeToken<List<ReviewDTO>>() {
+		}.getType()), bookstoreMapper.toReviewDTOs(book.getReviews()));
+	}
+
+	/**
+	 * Prueba la conversión de los cuerpos de las peticiones a entidades. Las
+	 * entidades se comparan convirtiéndolas de nuevo a DTO de detalle con
+	 * ModelMapper.
+	 */
+	@Test
+	void testDTOToEntity() {
+		EditorialDTO editorialDTO = factory.manufacturePojo(EditorialDTO.class);
+		assertSameEntity(modelMapper.map(editorialDTO, EditorialEntity.class),
+				bookstoreMapper.toEditorialEntity(editorialDTO), EditorialDetailDTO.class);
+
+		BookDTO bookDTO = factory.manufacturePojo(BookDTO.class);
+		assertSameEntity(modelMapper.map(bookDTO, BookEntity.class), bookstoreMapper.toBookEntity(bookDTO),
+				BookDetailDTO.class);
+
+		BookDetailDTO bookDetailDTO = factory.manufacturePojo(BookDetailDTO.class);
+		assertSameEntity(modelMapper.map(bookDetailDTO, BookEntity.class),
+				bookstoreMapper.toBookEntity(bookDetailDTO), BookDetailDTO.class);
+
+		AuthorDTO authorDTO = factory.manufacturePojo(AuthorDTO.class);
+		assertSameEntity(modelMapper.map(authorDTO, AuthorEntity.class), bookstoreMapper.toAuthorEntity(authorDTO),
+				AuthorDetailDTO.class);
+
+		PrizeDTO prizeDTO = factory.manufacturePojo(PrizeDTO.class);
+		assertSameEntity(modelMapper.map(prizeDTO, PrizeEntity.class), bookstoreMapper.toPrizeEntity(prizeDTO),
+				PrizeDetailDTO.class);
+
+		OrganizationDTO organizationDTO = factory.manufacturePojo(OrganizationDTO.class);
+		assertSameEntity(modelMapper.map(organizationDTO, OrganizationEntity.class),
+				bookstoreMapper.toOrganizationEntity(organizationDTO), OrganizationDetailDTO.class);
+
+		ReviewDTO reviewDTO = factory.manufacturePojo(ReviewDTO.class);
+		assertSameEntity(modelMapper.map(reviewDTO, ReviewEntity.class), bookstoreMapper.toReviewEntity(reviewDTO),
+				ReviewDTO.class);
+	}
+
+	/**
+	 * Prueba la conversión de las listas que reciben los recursos de asociación.
+	 */
+	@Test
+	void testDTOListToEntities() {
+		List<BookDTO> books = List.of(factory.manufacturePojo(BookDTO.class), factory.manufacturePojo(BookDTO.class));
+		assertSameEntity(modelMapper.map(books, new TypeToken<List<BookEntity>>() {
+		}.getType()), bookstoreMapper.toBookEntities(books), BookDetailDTO.class);
+
+		List<BookDetailDTO> details = List.of(factory.manufacturePojo(BookDetailDTO.class),
+				factory.manufacturePojo(BookDetailDTO.class));
+		assertSameEntity(modelMapper.map(details, new TypeToken<List<BookEntity>>() {
+		}.getType()), bookstoreMapper.toBookDetailEntities(details), BookDetailDTO.class);
+
+		List<AuthorDTO> authors = List.of(factory.manufacturePojo(AuthorDTO.class),
+				factory.manufacturePojo(AuthorDTO.class));
+		assertSameEntity(modelMapper.map(authors, new TypeToken<List<AuthorEntity>>() {
+		}.getType()), bookstoreMapper.toAuthorEntities(authors), AuthorDetailDTO.class);
+	}
+
+	private void assertSameJson(Object expected, Object actual) {
+		JsonNode expectedJson = withoutCounters(objectMapper.valueToTree(expected), false);
+		JsonNode actualJson = objectMapper.valueToTree(actual);
+		assertEquals(expectedJson, actualJson);
+	}
+
+	/**
+	 * Quita los contadores de los objetos anidados, o también del objeto raíz si
+	 * {@code nested} es verdadero.
+	 */
+	private static JsonNode withoutCounters(JsonNode node, boolean nested) {
+		if (node instanceof ObjectNode object) {
+			if (nested)
+				object.remove(COUNTERS);
+			object.forEach(child -> withoutCounters(child, true));
+		} else if (node instanceof ArrayNode array) {
+			array.forEach(element -> withoutCounters(element, nested));
+		}
+		return node;
+	}
+
+	private void assertSameEntity(Object expected, Object actual, Class<?> detailType) {
+		if (expected instanceof List<?> expectedList && actual instanceof List<?> actualList) {
+			assertEquals(expectedList.size(), actualList.size());
+			for (int i = 0; i < expectedList.size(); i++)
+				assertSameEntity(expectedList.get(i), actualList.get(i), detailType);
+			return;
+		}
+		assertEquals(expected.getClass(), actual.getClass());
+		// Los contadores de las peticiones no se copian a las entidades.
+		assertEquals(withoutCounters(objectMapper.valueToTree(modelMapper.map(expected, detailType)), true),
+				withoutCounters(objectMapper.valueToTree(modelMapper.map(actual, detailType)), true));
+	}
+}
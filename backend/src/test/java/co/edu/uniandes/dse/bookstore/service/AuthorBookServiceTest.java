@@ -44,7 +44,9 @@ import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
 import co.edu.uniandes.dse.bookstore.services.AuthorBookService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
 import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
 import uk.co.jemos.podam.api.PodamFactory;
 import uk.co.jemos.podam.api.PodamFactoryImpl;
 
@@ -55,7 +57,7 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
  */
 @DataJpaTest
 @Transactional
-@Import({ AuthorBookService.class, BookService.class })
+@Import({ AuthorBookService.class, BookService.class, CounterService.class, AuthorshipService.class })
 class AuthorBookServiceTest {
 
 	@Autowired
@@ -138,6 +140,19 @@ class AuthorBookServiceTest {
 		assertEquals(lastBook.getImage(), newBook.getImage());
 
 	}
+
+	/**
+	 * Prueba que asociar un libro que ya está asociado al autor no repite el
+	 * vínculo.
+	 */
+	@Test
+	void testAddBookTwice() throws EntityNotFoundException {
+		authorBookService.addBook(author.getId(), bookList.get(0).getId());
+		entityManager.flush();
+		entityManager.clear();
+
+		assertEquals(bookList.size(), authorBookService.getBooks(author.getId()).size());
+	}
 	
 
 	/**
@@ -276,6 +291,28 @@ class AuthorBookServiceTest {
 		}
 	}
 	
+	/**
+	 * Prueba que reemplazar los libros de un autor desasocia los que no están en
+	 * la lista nueva.
+	 *
+	 * @throws EntityNotFoundException
+	 */
+	@Test
+	void testReplaceBooksRemovesOthers() throws EntityNotFoundException {
+		BookEntity newBook = factory.manufacturePojo(BookEntity.class);
+		newBook.setEditorial(editorial);
+		entityManager.persist(newBook);
+
+		authorBookService.addBooks(author.getId(), List.of(bookList.get(1), newBook));
+
+		List<BookEntity> bookEntities = authorBookService.getBooks(author.getId());
+		assertEquals(2, bookEntities.size());
+		assertTrue(bookEntities.contains(bookList.get(1)));
+		assertTrue(bookEntities.contains(newBook));
+		assertTrue(bookList.get(0).getAuthors().isEmpty());
+		assertEquals(List.of(author), newBook.getAuthors());
+	}
+
 	/**
 	 * Prueba para actualizar los libros de un autor que no existe.
 	 *
@@ -324,6 +361,27 @@ class AuthorBookServiceTest {
 		assertTrue(authorBookService.getBooks(author.getId()).isEmpty());
 	}
 
+	/**
+	 * Prueba que desasociar un libro corrige en memoria las colecciones ya
+	 * cargadas sin cambiar la versión del libro ni la del autor.
+	 */
+	@Test
+	void testRemoveBookUpdatesLoadedCollections() throws EntityNotFoundException {
+		entityManager.flush();
+		BookEntity book = bookList.get(0);
+		Long bookVersion = book.getVersion();
+		Long authorVersion = author.getVersion();
+
+		authorBookService.removeBook(author.getId(), book.getId());
+		entityManager.flush();
+
+		assertTrue(book.getAuthors().isEmpty());
+		assertEquals(2, author.getBooks().size());
+		assertFalse(author.getBooks().contains(book));
+		assertEquals(bookVersion, entityManager.find(BookEntity.class, book.getId()).getVersion());
+		assertEquals(authorVersion, entityManager.refresh(author).getVersion());
+	}
+
 	/**
 	 * Prueba desasociar un libro con un autor que no existe.
 	 *
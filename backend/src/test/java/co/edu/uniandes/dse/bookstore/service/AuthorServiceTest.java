@@ -33,9 +33,14 @@ import java.util.List;
 
 import jakarta.transaction.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -43,6 +48,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
@@ -160,6 +167,37 @@ class AuthorServiceTest {
 		}
 	}
 
+	/**
+	 * Prueba para consultar la lista de Authors por páginas.
+	 */
+	@Test
+	void testGetAuthorsPage() {
+		List<AuthorEntity> firstPage = authorService.getAuthors(null, 2);
+		assertEquals(2, firstPage.size());
+		assertEquals(authorList.get(0).getId(), firstPage.get(0).getId());
+		assertEquals(authorList.get(1).getId(), firstPage.get(1).getId());
+
+		List<AuthorEntity> secondPage = authorService.getAuthors(firstPage.get(1).getId(), 2);
+		assertEquals(2, secondPage.size());
+		assertEquals(authorList.get(2).getId(), secondPage.get(0).getId());
+	}
+
+	/**
+	 * Prueba que las proyecciones de Author producen el mismo JSON que los DTO
+	 * obtenidos a partir de las entidades.
+	 */
+	@Test
+	void testGetAuthorSummaries() {
+		entityManager.flush();
+		entityManager.clear();
+		List<AuthorDTO> dtos = new ModelMapper().map(authorService.getAuthors(null, 10), new TypeToken<List<AuthorDTO>>() {
+		}.getType());
+		List<AuthorSummary> summaries = authorService.getAuthorSummaries(null, 10);
+
+		ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		assertEquals(mapper.valueToTree(dtos), mapper.valueToTree(summaries));
+	}
+
 	/**
 	 * Prueba para consultar un Author.
 	 */
@@ -0,0 +1,323 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.dto.SearchResultDTO;
+import co.edu.uniandes.dse.bookstore.dto.SuggestionDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AutocompleteService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.EntityChangedEvent;
+
+/**
+ * Pruebas del autocompletado de nombres. Los nombres se actualizan cuando se
+ * confirman las transacciones de los servicios, por lo que las pruebas no son
+ * transaccionales y los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ AutocompleteService.class, BookService.class, AuthorService.class, EditorialService.class, CounterService.class })
+class AutocompleteServiceTest {
+
+	@Autowired
+	private AutocompleteService autocompleteService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private EditorialEntity editorial;
+
+	@BeforeEach
+	void setUp() throws IllegalOperationException {
+		autocompleteService.rebuild();
+		editorial = new EditorialEntity();
+		editorial.setName("Editorial Sudamericana");
+		editorial = editorialService.createEditorial(editorial);
+	}
+
+	@AfterEach
+	void tearDown() {
+		reviewRepository.deleteAll();
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	private BookEntity createBook(String name, String isbn) throws EntityNotFoundException, IllegalOperationException {
+		BookEntity book = new BookEntity();
+		book.setName(name);
+		book.setIsbn(isbn);
+		book.setEditorial(editorial);
+		return bookService.createBook(book);
+	}
+
+	private AuthorEntity createAuthor(String name) throws IllegalOperationException {
+		AuthorEntity author = new AuthorEntity();
+		author.setName(name);
+		author.setBirthDate(new Date(0));
+		return authorService.createAuthor(author);
+	}
+
+	private void addReviews(BookEntity book, int count) {
+		for (int i = 0; i < count; i++) {
+			ReviewEntity review = new ReviewEntity();
+			review.setName("Reseña " + i);
+			review.setBook(book);
+			reviewRepository.save(review);
+		}
+	}
+
+	private List<Long> ids(List<SuggestionDTO> suggestions) {
+		return suggestions.stream().map(SuggestionDTO::getId).toList();
+	}
+
+	/**
+	 * Prueba que cualquier palabra del nombre sirve como comienzo, sin importar
+	 * mayúsculas ni tildes, y que el prefijo puede tener varias palabras.
+	 */
+	@Test
+	void testSuggestMatchesWordStarts() throws Exception {
+		AuthorEntity author = createAuthor("Gabriel García Márquez");
+		BookEntity book = createBook("Cien años de soledad", "978-0-06-088328-7");
+
+		List<SuggestionDTO> suggestions = autocompleteService.suggest("MARQ", null, 10);
+		assertEquals(1, suggestions.size());
+		assertEquals(SearchResultDTO.TYPE.AUTHOR, suggestions.get(0).getType());
+		assertEquals(author.getId(), suggestions.get(0).getId());
+		assertEquals(author.getName(), suggestions.get(0).getName());
+
+		assertEquals(List.of(author.getId()), ids(autocompleteService.suggest("garcia ma", null, 10)));
+		assertEquals(List.of(book.getId()), ids(autocompleteService.suggest("Años", null, 10)));
+		assertEquals(List.of(book.getId()), ids(autocompleteService.suggest("cien an", null, 10)));
+		assertTrue(autocompleteService.suggest("oledad", null, 10).isEmpty());
+		assertTrue(autocompleteService.suggest("garcia so", null, 10).isEmpty());
+		assertTrue(autocompleteService.suggest("  ", null, 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que las sugerencias se ordenan por popularidad (reseñas de los
+	 * libros y libros de los autores) y que se pueden filtrar por tipo.
+	 */
+	@Test
+	void testSuggestOrdersByPopularity() throws Exception {
+		BookEntity few = createBook("El amor en los tiempos del cólera", "1");
+		BookEntity many = createBook("Amores perros", "2");
+		BookEntity none = createBook("Del amor y otros demonios", "3");
+		addReviews(few, 1);
+		addReviews(many, 3);
+		AuthorEntity author = createAuthor("Amado Nervo");
+		transactionTemplate.executeWithoutResult(status -> {
+			for (BookEntity book : bookRepository.findAllById(List.of(few.getId(), many.getId())))
+				book.getAuthors().add(authorRepository.getReferenceById(author.getId()));
+		});
+		autocompleteService.rebuild();
+
+		List<SuggestionDTO> books = autocompleteService.suggest("am", SearchResultDTO.TYPE.BOOK, 10);
+		assertEquals(List.of(many.getId(), few.getId(), none.getId()), ids(books));
+		assertEquals(List.of(3, 1, 0), books.stream().map(SuggestionDTO::getPopularity).toList());
+
+		List<SuggestionDTO> all = autocompleteService.suggest("am", null, 10);
+		assertEquals(List.of(many.getId(), author.getId(), few.getId(), none.getId()), ids(all));
+		assertEquals(SearchResultDTO.TYPE.AUTHOR, all.get(1).getType());
+		assertEquals(List.of(author.getId()), ids(autocompleteService.suggest("am", SearchResultDTO.TYPE.AUTHOR, 10)));
+		assertTrue(autocompleteService.suggest("am", SearchResultDTO.TYPE.EDITORIAL, 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que las sugerencias respetan el límite y que un límite no positivo
+	 * es rechazado.
+	 */
+	@Test
+	void testSuggestLimit() throws Exception {
+		for (int i = 0; i < 5; i++)
+			createBook("Sudamericana " + i, "isbn-" + i);
+
+		assertEquals(3, autocompleteService.suggest("sud", null, 3).size());
+		assertEquals(6, autocompleteService.suggest("sud", null, 10).size());
+		assertEquals(5, autocompleteService.suggest("sud", SearchResultDTO.TYPE.BOOK, 10).size());
+		assertThrows(IllegalOperationException.class, () -> autocompleteService.suggest("sud", null, 0));
+	}
+
+	/**
+	 * Prueba que actualizar y borrar libros, autores y editoriales actualiza las
+	 * sugerencias, y que un nombre actualizado conserva su popularidad.
+	 */
+	@Test
+	void testIndexFollowsUpdatesAndDeletes() throws Exception {
+		BookEntity book = createBook("La tregua", "978-950-731-192-4");
+		AuthorEntity author = createAuthor("Mario Benedetti");
+		addReviews(book, 2);
+		autocompleteService.rebuild();
+
+		BookEntity changes = new BookEntity();
+		changes.setName("La borra del café");
+		changes.setIsbn(book.getIsbn());
+		changes.setEditorial(editorial);
+		bookService.updateBook(book.getId(), changes);
+		assertTrue(autocompleteService.suggest("treg", null, 10).isEmpty());
+		List<SuggestionDTO> suggestions = autocompleteService.suggest("caf", null, 10);
+		assertEquals(List.of(book.getId()), ids(suggestions));
+		assertEquals(2, suggestions.get(0).getPopularity());
+
+		EditorialEntity renamed = new EditorialEntity();
+		renamed.setName("Alfaguara");
+		editorialService.updateEditorial(editorial.getId(), renamed);
+		assertTrue(autocompleteService.suggest("sudamericana", null, 10).isEmpty());
+		assertEquals(List.of(editorial.getId()), ids(autocompleteService.suggest("alfa", null, 10)));
+
+		reviewRepository.deleteAll();
+		bookService.deleteBook(book.getId());
+		authorService.deleteAuthor(author.getId());
+		assertTrue(autocompleteService.suggest("borra", null, 10).isEmpty());
+		assertTrue(autocompleteService.suggest("bene", null, 10).isEmpty());
+		assertEquals(1, autocompleteService.size());
+	}
+
+	/**
+	 * Prueba que los cambios de una transacción que se deshace no se indexan.
+	 */
+	@Test
+	void testRolledBackChangeIsNotIndexed() throws IllegalOperationException {
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				createBook("Los detectives salvajes", "978-84-339-1090-0");
+			} catch (EntityNotFoundException | IllegalOperationException e) {
+				fail(e);
+			}
+			status.setRollbackOnly();
+		});
+		assertTrue(autocompleteService.suggest("detec", null, 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que después de miles de cambios, que se mezclan varias veces con el
+	 * índice construido, las sugerencias son las mismas que se obtienen
+	 * recorriendo todos los nombres vigentes.
+	 */
+	@Test
+	void testSuggestionsMatchExhaustiveSearch() throws Exception {
+		Random random = new Random(11);
+		String[] words = { "ana", "anillo", "antes", "bosque", "bote", "casa", "caso", "cien", "rio", "rojo" };
+		Map<Long, String> names = new HashMap<>();
+		Map<Long, Integer> popularity = new HashMap<>();
+		for (int i = 0; i < 60; i++) {
+			BookEntity book = createBook(words[random.nextInt(words.length)] + " " + i, "isbn-" + i);
+			int reviews = random.nextInt(5);
+			addReviews(book, reviews);
+			names.put(book.getId(), book.getName());
+			popularity.put(book.getId(), reviews);
+		}
+		autocompleteService.rebuild();
+
+		List<Long> ids = new ArrayList<>(names.keySet());
+		for (long id = 1_000_000; id < 1_003_000; id++) {
+			BookEntity book = new BookEntity();
+			book.setId(id);
+			book.setName(words[random.nextInt(words.length)] + " " + id);
+			autocompleteService.onEntityChanged(EntityChangedEvent.saved(book));
+			names.put(id, book.getName());
+			popularity.put(id, 0);
+			ids.add(id);
+		}
+		for (int change = 0; change < 6000; change++) {
+			long id = ids.get(random.nextInt(ids.size()));
+			if (random.nextInt(10) == 0) {
+				autocompleteService.onEntityChanged(EntityChangedEvent.deleted(BookEntity.class, id));
+				names.remove(id);
+				continue;
+			}
+			BookEntity book = new BookEntity();
+			book.setId(id);
+			book.setName(words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]);
+			autocompleteService.onEntityChanged(EntityChangedEvent.saved(book));
+			if (names.put(id, book.getName()) == null)
+				popularity.put(id, 0);
+		}
+
+		for (String prefix : new String[] { "a", "an", "ani", "b", "bo", "c", "cas", "ci", "r", "ro", "rojo", "ana r" }) {
+			List<Integer> expected = names.entrySet().stream()
+					.filter(name -> (" " + name.getValue()).contains(" " + prefix))
+					.map(name -> popularity.get(name.getKey())).sorted(Comparator.reverseOrder()).limit(5).toList();
+			List<SuggestionDTO> suggestions = autocompleteService.suggest(prefix, SearchResultDTO.TYPE.BOOK, 5);
+			assertEquals(expected, suggestions.stream().map(SuggestionDTO::getPopularity).toList(), prefix);
+			for (SuggestionDTO suggestion : suggestions)
+				assertEquals(names.get(suggestion.getId()), suggestion.getName());
+		}
+	}
+}
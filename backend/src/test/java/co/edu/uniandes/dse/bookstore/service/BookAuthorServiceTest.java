@@ -42,7 +42,9 @@ import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
 import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
 import uk.co.jemos.podam.api.PodamFactory;
 import uk.co.jemos.podam.api.PodamFactoryImpl;
 
@@ -53,7 +55,7 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
  */
 @DataJpaTest
 @Transactional
-@Import(BookAuthorService.class)
+@Import({ BookAuthorService.class, CounterService.class, AuthorshipService.class })
 class BookAuthorServiceTest {
 	
 	@Autowired
@@ -126,6 +128,19 @@ class BookAuthorServiceTest {
 		assertEquals(author.getName(), lastAuthor.getName());
 	}
 	
+	/**
+	 * Prueba que asociar un autor que ya está asociado al libro no repite el
+	 * vínculo.
+	 */
+	@Test
+	void testAddAuthorTwice() throws EntityNotFoundException {
+		bookAuthorService.addAuthor(book.getId(), authorList.get(0).getId());
+		entityManager.flush();
+		entityManager.clear();
+
+		assertEquals(authorList.size(), bookAuthorService.getAuthors(book.getId()).size());
+	}
+
 	/**
 	 * Prueba para asociar un autor que no existe a un libro.
 	 *
@@ -334,6 +349,91 @@ class BookAuthorServiceTest {
 		});
 	}
 
+	/**
+	 * Prueba que reemplazar los autores de un libro desasocia los que no están en
+	 * la lista nueva.
+	 *
+	 * @throws EntityNotFoundException
+	 */
+	@Test
+	void testReplaceAuthorsRemovesOthers() throws EntityNotFoundException {
+		AuthorEntity newAuthor = factory.manufacturePojo(AuthorEntity.class);
+		entityManager.persist(newAuthor);
+
+		bookAuthorService.replaceAuthors(book.getId(), List.of(authorList.get(0), newAuthor));
+
+		List<AuthorEntity> authorEntities = bookAuthorService.getAuthors(book.getId());
+		assertEquals(2, authorEntities.size());
+		assertTrue(authorEntities.contains(authorList.get(0)));
+		assertTrue(authorEntities.contains(newAuthor));
+	}
+
+	/**
+	 * Prueba asociar varios autores a un libro, algunos ya asociados y otros
+	 * repetidos.
+	 *
+	 * @throws EntityNotFoundException
+	 */
+	@Test
+	void testAddAuthors() throws EntityNotFoundException {
+		List<AuthorEntity> nuevaLista = new ArrayList<>(List.of(authorList.get(0)));
+		for (int i = 0; i < 2; i++) {
+			AuthorEntity entity = factory.manufacturePojo(AuthorEntity.class);
+			entityManager.persist(entity);
+			nuevaLista.add(entity);
+		}
+		nuevaLista.add(nuevaLista.get(1));
+
+		bookAuthorService.addAuthors(book.getId(), nuevaLista);
+
+		List<AuthorEntity> authorEntities = bookAuthorService.getAuthors(book.getId());
+		assertEquals(5, authorEntities.size());
+		assertTrue(authorEntities.containsAll(authorList));
+		assertTrue(authorEntities.containsAll(nuevaLista));
+	}
+
+	/**
+	 * Prueba asociar varios autores a un libro cuando alguno no existe.
+	 */
+	@Test
+	void testAddAuthorsInvalidAuthor() throws EntityNotFoundException {
+		AuthorEntity newAuthor = factory.manufacturePojo(AuthorEntity.class);
+		entityManager.persist(newAuthor);
+		AuthorEntity invalid = factory.manufacturePojo(AuthorEntity.class);
+		invalid.setId(0L);
+
+		assertThrows(EntityNotFoundException.class, () -> {
+			bookAuthorService.addAuthors(book.getId(), List.of(newAuthor, invalid));
+		});
+		assertEquals(3, bookAuthorService.getAuthors(book.getId()).size());
+	}
+
+	/**
+	 * Prueba desasociar varios autores de un libro, incluido uno que no estaba
+	 * asociado.
+	 *
+	 * @throws EntityNotFoundException
+	 */
+	@Test
+	void testRemoveAuthors() throws EntityNotFoundException {
+		AuthorEntity other = factory.manufacturePojo(AuthorEntity.class);
+		entityManager.persist(other);
+
+		bookAuthorService.removeAuthors(book.getId(), List.of(authorList.get(0), authorList.get(1), other));
+
+		assertEquals(List.of(authorList.get(2)), bookAuthorService.getAuthors(book.getId()));
+	}
+
+	/**
+	 * Prueba desasociar varios autores de un libro que no existe.
+	 */
+	@Test
+	void testRemoveAuthorsInvalidBook() {
+		assertThrows(EntityNotFoundException.class, () -> {
+			bookAuthorService.removeAuthors(0L, authorList);
+		});
+	}
+
 	/**
 	 * Prueba desasociar un autor con un libro.
 	 *
@@ -0,0 +1,133 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Pruebas de creación concurrente de libros. Cada hilo usa su propia
+ * transacción, por lo que los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ BookService.class, CounterService.class })
+class BookServiceConcurrencyTest {
+
+	private static final int THREADS = 16;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private EditorialEntity editorial;
+
+	@BeforeEach
+	void setUp() {
+		editorial = editorialRepository.save(factory.manufacturePojo(EditorialEntity.class));
+	}
+
+	@AfterEach
+	void tearDown() {
+		bookRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	/**
+	 * Prueba que, al crear el mismo ISBN desde varios hilos a la vez, solo una
+	 * creación tiene éxito y las demás fallan con la excepción de negocio.
+	 */
+	@Test
+	void testCreateBooksWithSameISBNConcurrently() throws Exception {
+		String isbn = factory.manufacturePojo(BookEntity.class).getIsbn();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<BookEntity>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				Callable<BookEntity> create = () -> {
+					BookEntity book = factory.manufacturePojo(BookEntity.class);
+					book.setIsbn(isbn);
+					book.setEditorial(editorial);
+					start.await();
+					return bookService.createBook(book);
+				};
+				results.add(executor.submit(create));
+			}
+			start.countDown();
+
+			int created = 0;
+			for (Future<BookEntity> result : results) {
+				try {
+					assertEquals(isbn, result.get().getIsbn());
+					created++;
+				} catch (ExecutionException e) {
+					IllegalOperationException cause = assertInstanceOf(IllegalOperationException.class, e.getCause());
+					assertEquals(ErrorMessage.ISBN_ALREADY_EXISTS, cause.getMessage());
+				}
+			}
+			assertEquals(1, created);
+			assertEquals(1, bookRepository.count());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
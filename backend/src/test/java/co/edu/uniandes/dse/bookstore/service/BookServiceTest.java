@@ -31,19 +31,30 @@ import java.util.List;
 
 import jakarta.transaction.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 
+import co.edu.uniandes.dse.bookstore.dto.BookDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
 import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
 import uk.co.jemos.podam.api.PodamFactory;
 import uk.co.jemos.podam.api.PodamFactoryImpl;
 
@@ -54,7 +65,7 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
  */
 @DataJpaTest
 @Transactional
-@Import(BookService.class)
+@Import({ BookService.class, CounterService.class })
 class BookServiceTest {
 
 	@Autowired
@@ -211,6 +222,77 @@ class BookServiceTest {
 		}
 	}
 
+	/**
+	 * Prueba para recorrer todos los libros con sus detalles.
+	 */
+	@Test
+	void testStreamBooks() throws Exception {
+		List<BookEntity> streamed = new ArrayList<>();
+		bookService.streamBooks(books -> {
+			for (BookEntity book : books) {
+				assertTrue(Hibernate.isInitialized(book.getAuthors()));
+				assertTrue(Hibernate.isInitialized(book.getReviews()));
+				streamed.add(book);
+			}
+		});
+		assertEquals(bookList.stream().map(BookEntity::getId).sorted().toList(),
+				streamed.stream().map(BookEntity::getId).toList());
+		assertEquals(1, streamed.get(0).getAuthors().size());
+		assertEquals(editorialEntity.getId(), streamed.get(0).getEditorial().getId());
+	}
+
+	/**
+	 * Prueba que los libros se entregan en bloques y se separan del contexto de
+	 * persistencia después de procesar cada bloque.
+	 */
+	@Test
+	void testStreamBooksInChunks() throws Exception {
+		for (int i = 0; i < BookRepository.FETCH_CHUNK_SIZE; i++) {
+			BookEntity bookEntity = factory.manufacturePojo(BookEntity.class);
+			bookEntity.setEditorial(editorialEntity);
+			entityManager.persist(bookEntity);
+		}
+		List<Integer> sizes = new ArrayList<>();
+		List<BookEntity> firsts = new ArrayList<>();
+		bookService.streamBooks(books -> {
+			sizes.add(books.size());
+			firsts.add(books.get(0));
+		});
+		assertEquals(List.of(BookRepository.FETCH_CHUNK_SIZE, bookList.size()), sizes);
+		for (BookEntity first : firsts)
+			assertFalse(entityManager.getEntityManager().contains(first));
+	}
+
+	/**
+	 * Prueba para consultar la lista de Books por páginas.
+	 */
+	@Test
+	void testGetBooksPage() {
+		List<BookEntity> firstPage = bookService.getBooks(null, 2);
+		assertEquals(2, firstPage.size());
+		assertEquals(bookList.get(0).getId(), firstPage.get(0).getId());
+		assertEquals(bookList.get(1).getId(), firstPage.get(1).getId());
+
+		List<BookEntity> secondPage = bookService.getBooks(firstPage.get(1).getId(), 2);
+		assertEquals(bookList.size() - 2, secondPage.size());
+		assertEquals(bookList.get(2).getId(), secondPage.get(0).getId());
+	}
+
+	/**
+	 * Prueba que las proyecciones de Book producen el mismo JSON que los DTO
+	 * obtenidos a partir de las entidades.
+	 */
+	@Test
+	void testGetBookSummaries() {
+		entityManager.flush();
+		entityManager.clear();
+		List<BookDTO> dtos = Mappers.getMapper(BookstoreMapper.class).toBookDTOs(bookService.getBooks(null, 10));
+		List<BookSummary> summaries = bookService.getBookSummaries(null, 10);
+
+		ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		assertEquals(mapper.valueToTree(dtos), mapper.valueToTree(summaries));
+	}
+
 	/**
 	 * Prueba para consultar un Book.
 	 */
@@ -255,6 +337,31 @@ class BookServiceTest {
 		assertEquals(pojoEntity.getImage(), resp.getImage());
 		assertEquals(pojoEntity.getPublishingDate(), resp.getPublishingDate());
 	}
+
+	/**
+	 * Prueba que actualizar un Book conserva sus autores y sus reseñas, que el
+	 * cuerpo de la petición no trae.
+	 */
+	@Test
+	void testUpdateBookKeepsAuthorsAndReviews() throws EntityNotFoundException, IllegalOperationException {
+		BookEntity entity = bookList.get(0);
+		ReviewEntity review = factory.manufacturePojo(ReviewEntity.class);
+		review.setBook(entity);
+		entityManager.persist(review);
+		entity.getReviews().add(review);
+
+		BookEntity pojoEntity = factory.manufacturePojo(BookEntity.class);
+		pojoEntity.setId(entity.getId());
+		bookService.updateBook(entity.getId(), pojoEntity);
+		entityManager.flush();
+		entityManager.clear();
+
+		BookEntity resp = entityManager.find(BookEntity.class, entity.getId());
+		assertEquals(pojoEntity.getName(), resp.getName());
+		assertEquals(1, resp.getAuthors().size());
+		assertEquals(1, resp.getReviews().size());
+		assertEquals(review.getId(), resp.getReviews().get(0).getId());
+	}
 	
 	/**
 	 * Prueba para actualizar un Book inválido.
@@ -282,6 +389,20 @@ class BookServiceTest {
 		});
 	}
 
+	/**
+	 * Prueba para actualizar un Book con el ISBN de otro Book.
+	 */
+	@Test
+	void testUpdateBookWithStoredISBN() {
+		assertThrows(IllegalOperationException.class, () -> {
+			BookEntity entity = bookList.get(0);
+			BookEntity pojoEntity = factory.manufacturePojo(BookEntity.class);
+			pojoEntity.setIsbn(bookList.get(1).getIsbn());
+			pojoEntity.setId(entity.getId());
+			bookService.updateBook(entity.getId(), pojoEntity);
+		});
+	}
+
 	/**
 	 * Prueba para actualizar un Book con ISBN inválido.
 	 */
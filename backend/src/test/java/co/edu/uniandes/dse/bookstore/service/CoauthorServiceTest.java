@@ -0,0 +1,322 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import co.edu.uniandes.dse.bookstore.dto.CoauthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.CollaborationStepDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorBookService;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipChangedEvent;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CoauthorService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+
+/**
+ * Pruebas del grafo de coautores. Se actualiza cuando se confirman las
+ * transacciones de los servicios, por lo que las pruebas no son transaccionales
+ * y los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ CoauthorService.class, BookAuthorService.class, AuthorBookService.class, BookService.class,
+		AuthorService.class, EditorialService.class, CounterService.class, AuthorshipService.class })
+class CoauthorServiceTest {
+
+	@Autowired
+	private CoauthorService coauthorService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private AuthorBookService authorBookService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private EditorialEntity editorial;
+
+	@BeforeEach
+	void setUp() throws IllegalOperationException {
+		coauthorService.rebuild();
+		editorial = new EditorialEntity();
+		editorial.setName("Editorial Planeta");
+		editorial = editorialService.createEditorial(editorial);
+	}
+
+	@AfterEach
+	void tearDown() {
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	private BookEntity createBook(String name, String isbn) throws EntityNotFoundException, IllegalOperationException {
+		BookEntity book = new BookEntity();
+		book.setName(name);
+		book.setIsbn(isbn);
+		book.setEditorial(editorial);
+		return bookService.createBook(book);
+	}
+
+	private AuthorEntity createAuthor(String name) throws IllegalOperationException {
+		AuthorEntity author = new AuthorEntity();
+		author.setName(name);
+		author.setBirthDate(new Date(0));
+		return authorService.createAuthor(author);
+	}
+
+	private static List<Long> authorIds(List<CollaborationStepDTO> path) {
+		return path.stream().map(CollaborationStepDTO::getAuthorId).toList();
+	}
+
+	/**
+	 * Prueba que los coautores salen de las asociaciones confirmadas, ordenados
+	 * por la cantidad de libros compartidos.
+	 */
+	@Test
+	void testGetCoauthors() throws Exception {
+		AuthorEntity gaiman = createAuthor("Neil Gaiman");
+		AuthorEntity pratchett = createAuthor("Terry Pratchett");
+		AuthorEntity mckean = createAuthor("Dave McKean");
+		AuthorEntity loner = createAuthor("Emily Dickinson");
+		BookEntity omens = createBook("Good Omens", "978-0060853983");
+		BookEntity sequel = createBook("Good Omens II", "978-0060853984");
+		BookEntity mirror = createBook("MirrorMask", "978-0060821098");
+
+		bookAuthorService.addAuthor(omens.getId(), gaiman.getId());
+		bookAuthorService.addAuthor(omens.getId(), pratchett.getId());
+		authorBookService.addBook(gaiman.getId(), sequel.getId());
+		authorBookService.addBook(pratchett.getId(), sequel.getId());
+		bookAuthorService.addAuthor(mirror.getId(), gaiman.getId());
+		bookAuthorService.addAuthor(mirror.getId(), mckean.getId());
+
+		List<CoauthorDTO> coauthors = coauthorService.getCoauthors(gaiman.getId());
+		assertEquals(List.of(pratchett.getId(), mckean.getId()), coauthors.stream().map(CoauthorDTO::getId).toList());
+		assertEquals("Terry Pratchett", coauthors.get(0).getName());
+		assertEquals(2, coauthors.get(0).getSharedBooks());
+		assertEquals(1, coauthors.get(1).getSharedBooks());
+
+		bookAuthorService.removeAuthor(sequel.getId(), pratchett.getId());
+		assertEquals(1, coauthorService.getCoauthors(pratchett.getId()).get(0).getSharedBooks());
+
+		assertTrue(coauthorService.getCoauthors(loner.getId()).isEmpty());
+		assertThrows(EntityNotFoundException.class, () -> coauthorService.getCoauthors(0L));
+	}
+
+	/**
+	 * Prueba que el camino de colaboración es el más corto, con el libro que une
+	 * a cada autor con el anterior, y que se actualiza al desasociar un autor.
+	 */
+	@Test
+	void testGetPath() throws Exception {
+		AuthorEntity[] authors = new AuthorEntity[5];
+		for (int i = 0; i < authors.length; i++)
+			authors[i] = createAuthor("Autor " + i);
+		BookEntity[] books = new BookEntity[4];
+		for (int i = 0; i < books.length; i++)
+			books[i] = createBook("Libro " + i, "978-000000000" + i);
+
+		// Cadena 0 - 1 - 2 - 3 y un atajo 0 - 4 - 3 por un mismo libro.
+		bookAuthorService.addAuthor(books[0].getId(), authors[0].getId());
+		bookAuthorService.addAuthor(books[0].getId(), authors[1].getId());
+		bookAuthorService.addAuthor(books[1].getId(), authors[1].getId());
+		bookAuthorService.addAuthor(books[1].getId(), authors[2].getId());
+		bookAuthorService.addAuthor(books[2].getId(), authors[2].getId());
+		bookAuthorService.addAuthor(books[2].getId(), authors[3].getId());
+		bookAuthorService.addAuthor(books[3].getId(), authors[4].getId());
+		bookAuthorService.addAuthor(books[3].getId(), authors[3].getId());
+
+		List<CollaborationStepDTO> path = coauthorService.getPath(authors[0].getId(), authors[3].getId());
+		assertEquals(List.of(authors[0].getId(), authors[1].getId(), authors[2].getId(), authors[3].getId()),
+				authorIds(path));
+		assertNull(path.get(0).getBookId());
+		assertEquals(books[1].getId(), path.get(2).getBookId());
+		assertEquals("Libro 2", path.get(3).getBookName());
+
+		bookAuthorService.addAuthor(books[3].getId(), authors[0].getId());
+		assertEquals(List.of(authors[0].getId(), authors[3].getId()),
+				authorIds(coauthorService.getPath(authors[0].getId(), authors[3].getId())));
+
+		bookAuthorService.removeAuthor(books[3].getId(), authors[0].getId());
+		authorBookService.removeBook(authors[2].getId(), books[1].getId());
+		assertTrue(coauthorService.getPath(authors[0].getId(), authors[3].getId()).isEmpty());
+		assertEquals(List.of(authors[4].getId(), authors[3].getId(), authors[2].getId()),
+				authorIds(coauthorService.getPath(authors[4].getId(), authors[2].getId())));
+
+		assertEquals(List.of(authors[0].getId()),
+				authorIds(coauthorService.getPath(authors[0].getId(), authors[0].getId())));
+		assertThrows(EntityNotFoundException.class, () -> coauthorService.getPath(authors[0].getId(), 0L));
+	}
+
+	/**
+	 * Prueba que la reconstrucción lee las asociaciones de la base de datos.
+	 */
+	@Test
+	void testRebuild() throws Exception {
+		AuthorEntity first = createAuthor("Jorge Luis Borges");
+		AuthorEntity second = createAuthor("Adolfo Bioy Casares");
+		BookEntity book = createBook("Seis problemas para don Isidro Parodi", "978-8420633121");
+		jdbcTemplate.update("insert into book_entity_authors (books_id, authors_id) values (?, ?), (?, ?)",
+				book.getId(), first.getId(), book.getId(), second.getId());
+		assertTrue(coauthorService.getCoauthors(first.getId()).isEmpty());
+
+		coauthorService.rebuild();
+
+		List<CoauthorDTO> coauthors = coauthorService.getCoauthors(first.getId());
+		assertEquals(1, coauthors.size());
+		assertEquals("Adolfo Bioy Casares", coauthors.get(0).getName());
+		assertEquals(2, coauthorService.getPath(first.getId(), second.getId()).size());
+		jdbcTemplate.update("delete from book_entity_authors where books_id = ?", book.getId());
+	}
+
+	/**
+	 * Prueba que, tras miles de asociaciones y desasociaciones al azar, que
+	 * pasan varias veces por la compactación del grafo, los coautores y la
+	 * longitud de los caminos coinciden con los de un modelo simple.
+	 */
+	@Test
+	void testRandomChangesMatchModel() throws Exception {
+		Random random = new Random(7);
+		int authors = 60;
+		int books = 80;
+		long base = 1_000_000L;
+		Map<Long, Set<Long>> booksByAuthor = new HashMap<>();
+		Map<Long, Set<Long>> authorsByBook = new HashMap<>();
+		for (int i = 0; i < 6000; i++) {
+			long author = base + random.nextInt(authors);
+			long book = base + random.nextInt(books);
+			if (random.nextInt(3) == 0) {
+				coauthorService.onAuthorshipChanged(AuthorshipChangedEvent.unlinked(book, author));
+				booksByAuthor.computeIfAbsent(author, key -> new HashSet<>()).remove(book);
+				authorsByBook.computeIfAbsent(book, key -> new HashSet<>()).remove(author);
+			} else {
+				coauthorService.onAuthorshipChanged(AuthorshipChangedEvent.linked(book, author));
+				booksByAuthor.computeIfAbsent(author, key -> new HashSet<>()).add(book);
+				authorsByBook.computeIfAbsent(book, key -> new HashSet<>()).add(author);
+			}
+		}
+
+		for (long author : booksByAuthor.keySet()) {
+			Map<Long, Integer> expected = new HashMap<>();
+			for (long book : booksByAuthor.get(author))
+				for (long coauthor : authorsByBook.get(book))
+					if (coauthor != author)
+						expected.merge(coauthor, 1, Integer::sum);
+			Map<Long, Integer> actual = new HashMap<>();
+			for (CoauthorDTO coauthor : coauthorService.getCoauthors(author))
+				actual.put(coauthor.getId(), coauthor.getSharedBooks());
+			assertEquals(expected, actual);
+		}
+
+		List<Long> ids = List.copyOf(booksByAuthor.keySet());
+		for (int i = 0; i < 200; i++) {
+			long from = ids.get(random.nextInt(ids.size()));
+			long to = ids.get(random.nextInt(ids.size()));
+			List<CollaborationStepDTO> path = coauthorService.getPath(from, to);
+			int distance = distance(booksByAuthor, authorsByBook, from, to);
+			assertEquals(distance < 0 ? 0 : distance + 1, path.size());
+			for (int step = 1; step < path.size(); step++) {
+				Long book = path.get(step).getBookId();
+				assertTrue(booksByAuthor.get(path.get(step - 1).getAuthorId()).contains(book));
+				assertTrue(booksByAuthor.get(path.get(step).getAuthorId()).contains(book));
+			}
+		}
+	}
+
+	/**
+	 * Distancia entre dos autores en el modelo, con una búsqueda en anchura
+	 * simple, o -1 si no están conectados.
+	 */
+	private static int distance(Map<Long, Set<Long>> booksByAuthor, Map<Long, Set<Long>> authorsByBook, long from,
+			long to) {
+		Map<Long, Integer> distances = new HashMap<>();
+		Queue<Long> queue = new ArrayDeque<>();
+		distances.put(from, 0);
+		queue.add(from);
+		while (!queue.isEmpty()) {
+			long author = queue.remove();
+			if (author == to)
+				return distances.get(author);
+			for (long book : booksByAuthor.get(author))
+				for (long coauthor : authorsByBook.get(book))
+					if (distances.putIfAbsent(coauthor, distances.get(author) + 1) == null)
+						queue.add(coauthor);
+		}
+		return -1;
+	}
+}
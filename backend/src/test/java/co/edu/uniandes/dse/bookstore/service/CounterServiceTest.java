@@ -0,0 +1,371 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.persistence.OptimisticLockException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.AuthorSummary;
+import co.edu.uniandes.dse.bookstore.dto.BookDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookSummary;
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.PrizeRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorBookService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
+import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import co.edu.uniandes.dse.bookstore.services.PrizeAuthorService;
+import co.edu.uniandes.dse.bookstore.services.ReviewService;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Pruebas de los contadores desnormalizados mantenidos por
+ * {@link CounterService}. Cada operación usa su propia transacción, por lo que
+ * los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ReviewService.class, BookAuthorService.class, AuthorBookService.class, PrizeAuthorService.class,
+		EditorialBookService.class, BookstoreMapperImpl.class, CounterService.class, AuthorshipService.class,
+		DetailVersionService.class })
+class CounterServiceTest {
+
+	private static final int THREADS = 8;
+
+	private static final int OPERATIONS = 40;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private AuthorBookService authorBookService;
+
+	@Autowired
+	private PrizeAuthorService prizeAuthorService;
+
+	@Autowired
+	private EditorialBookService editorialBookService;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private PrizeRepository prizeRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private List<BookEntity> books = new ArrayList<>();
+
+	private List<AuthorEntity> authors = new ArrayList<>();
+
+	private List<EditorialEntity> editorials = new ArrayList<>();
+
+	private List<PrizeEntity> prizes = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 2; i++)
+			editorials.add(editorialRepository.save(factory.manufacturePojo(EditorialEntity.class)));
+		for (int i = 0; i < 3; i++) {
+			BookEntity book = factory.manufacturePojo(BookEntity.class);
+			book.setEditorial(editorials.get(0));
+			books.add(bookRepository.save(book));
+			authors.add(authorRepository.save(factory.manufacturePojo(AuthorEntity.class)));
+			prizes.add(prizeRepository.save(factory.manufacturePojo(PrizeEntity.class)));
+		}
+		// Los repositorios no pasan por CounterService; se parte de contadores correctos.
+		counterService.reconcile();
+	}
+
+	@AfterEach
+	void tearDown() {
+		reviewRepository.deleteAll();
+		prizeRepository.deleteAll();
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	/**
+	 * Prueba que las operaciones de un solo hilo dejan los contadores en el valor
+	 * esperado, y que un vínculo repetido no se cuenta dos veces.
+	 */
+	@Test
+	void testCountersFollowOperations() throws Exception {
+		BookEntity book = books.get(0);
+		AuthorEntity author = authors.get(0);
+
+		ReviewEntity review = reviewService.createReview(book.getId(), factory.manufacturePojo(ReviewEntity.class));
+		reviewService.createReview(book.getId(), factory.manufacturePojo(ReviewEntity.class));
+		bookAuthorService.addAuthor(book.getId(), author.getId());
+		bookAuthorService.addAuthor(book.getId(), author.getId());
+		prizeAuthorService.addAuthor(author.getId(), prizes.get(0).getId());
+		editorialBookService.addBook(book.getId(), editorials.get(1).getId());
+
+		BookEntity storedBook = bookRepository.findById(book.getId()).get();
+		AuthorEntity storedAuthor = authorRepository.findById(author.getId()).get();
+		assertEquals(2, storedBook.getReviewCount());
+		assertEquals(1, storedBook.getAuthorCount());
+		assertEquals(1, storedAuthor.getBookCount());
+		assertEquals(1, storedAuthor.getPrizeCount());
+		assertEquals(2, editorialRepository.findById(editorials.get(0).getId()).get().getBookCount());
+		assertEquals(1, editorialRepository.findById(editorials.get(1).getId()).get().getBookCount());
+
+		reviewService.deleteReview(book.getId(), review.getId());
+		authorBookService.removeBook(author.getId(), book.getId());
+		prizeAuthorService.removeAuthor(prizes.get(0).getId());
+
+		storedBook = bookRepository.findById(book.getId()).get();
+		storedAuthor = authorRepository.findById(author.getId()).get();
+		assertEquals(1, storedBook.getReviewCount());
+		assertEquals(0, storedBook.getAuthorCount());
+		assertEquals(0, storedAuthor.getBookCount());
+		assertEquals(0, storedAuthor.getPrizeCount());
+		assertEquals(0, counterService.reconcile());
+	}
+
+	/**
+	 * Prueba que los DTO básicos y las proyecciones de las listas incluyen los
+	 * contadores, y que las referencias dentro de otro DTO no los incluyen.
+	 */
+	@Test
+	void testCountersInListsAndSummaries() throws Exception {
+		BookEntity book = books.get(0);
+		AuthorEntity author = authors.get(0);
+		reviewService.createReview(book.getId(), factory.manufacturePojo(ReviewEntity.class));
+		bookAuthorService.addAuthor(book.getId(), author.getId());
+		prizeAuthorService.addAuthor(author.getId(), prizes.get(0).getId());
+
+		BookSummary bookSummary = bookRepository.findSummaryByIdGreaterThanOrderByIdAsc(book.getId() - 1, Limit.of(1))
+				.get(0);
+		assertEquals(1, bookSummary.reviewCount());
+		assertEquals(1, bookSummary.authorCount());
+		assertNull(bookSummary.editorial().bookCount());
+		AuthorSummary authorSummary = authorRepository
+				.findSummaryByIdGreaterThanOrderByIdAsc(author.getId() - 1, Limit.of(1)).get(0);
+		assertEquals(1, authorSummary.bookCount());
+		assertEquals(1, authorSummary.prizeCount());
+		EditorialSummary editorialSummary = editorialRepository
+				.findSummaryByIdGreaterThanOrderByIdAsc(editorials.get(0).getId() - 1, Limit.of(1)).get(0);
+		assertEquals(3, editorialSummary.bookCount());
+
+		transactionTemplate.executeWithoutResult(status -> {
+			BookDTO dto = bookstoreMapper.toBookDTO(bookRepository.findById(book.getId()).get());
+			assertEquals(1, dto.getReviewCount());
+			assertEquals(1, dto.getAuthorCount());
+			assertNull(dto.getEditorial().getBookCount());
+
+			BookDetailDTO detail = bookstoreMapper.toBookDetailDTO(bookRepository.findById(book.getId()).get());
+			assertEquals(1, detail.getReviewCount());
+			assertNull(detail.getAuthors().get(0).getBookCount());
+			assertNull(detail.getAuthors().get(0).getPrizeCount());
+
+			AuthorDetailDTO authorDetail = bookstoreMapper
+					.toAuthorDetailDTO(authorRepository.findById(author.getId()).get());
+			assertEquals(1, authorDetail.getBookCount());
+			assertNull(authorDetail.getBooks().get(0).getReviewCount());
+		});
+	}
+
+	/**
+	 * Prueba que, con muchos hilos creando y borrando reseñas, vínculos y premios
+	 * sobre las mismas filas, los contadores siguen coincidiendo con los conteos
+	 * reales. Las transacciones que fallan por concurrencia se revierten sin
+	 * dejar sus incrementos.
+	 */
+	@Test
+	void testCountersStayExactUnderConcurrentWrites() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<Integer>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				Random random = new Random(i);
+				Callable<Integer> writer = () -> {
+					start.await();
+					List<ReviewEntity> created = new ArrayList<>();
+					int succeeded = 0;
+					for (int op = 0; op < OPERATIONS; op++) {
+						try {
+							write(random, created);
+							succeeded++;
+						} catch (ConcurrencyFailureException | OptimisticLockException | EntityNotFoundException
+								| IllegalOperationException e) {
+							// La transacción se revirtió; el contador no debe haber cambiado.
+						}
+					}
+					return succeeded;
+				};
+				results.add(executor.submit(writer));
+			}
+			start.countDown();
+
+			int succeeded = 0;
+			for (Future<Integer> result : results)
+				succeeded += result.get();
+			assertTrue(succeeded > 0);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertCountersMatch();
+		assertEquals(0, counterService.reconcile());
+	}
+
+	/**
+	 * Prueba que la reconciliación corrige los contadores alterados por fuera de
+	 * la aplicación y que una segunda pasada ya no encuentra diferencias.
+	 */
+	@Test
+	void testReconcileRepairsDrift() throws Exception {
+		BookEntity book = books.get(0);
+		reviewService.createReview(book.getId(), factory.manufacturePojo(ReviewEntity.class));
+		jdbcTemplate.update("update book_entity set review_count = 42 where id = ?", book.getId());
+		jdbcTemplate.update("update editorial_entity set book_count = 0 where id = ?", editorials.get(0).getId());
+
+		assertEquals(2, counterService.reconcile());
+		assertEquals(1, bookRepository.findById(book.getId()).get().getReviewCount());
+		assertEquals(3, editorialRepository.findById(editorials.get(0).getId()).get().getBookCount());
+		assertEquals(0, counterService.reconcile());
+	}
+
+	/**
+	 * Ejecuta una operación de escritura al azar sobre los datos de prueba.
+	 */
+	private void write(Random random, List<ReviewEntity> created) throws Exception {
+		Long bookId = books.get(random.nextInt(books.size())).getId();
+		Long authorId = authors.get(random.nextInt(authors.size())).getId();
+		switch (random.nextInt(7)) {
+		case 0, 1 -> created.add(reviewService.createReview(bookId, factory.manufacturePojo(ReviewEntity.class)));
+		case 2 -> {
+			if (!created.isEmpty()) {
+				ReviewEntity review = created.remove(created.size() - 1);
+				try {
+					reviewService.deleteReview(review.getBook().getId(), review.getId());
+				} catch (Exception e) {
+					created.add(review);
+					throw e;
+				}
+			}
+		}
+		case 3 -> bookAuthorService.addAuthor(bookId, authorId);
+		case 4 -> authorBookService.removeBook(authorId, bookId);
+		case 5 -> {
+			Long prizeId = prizes.get(random.nextInt(prizes.size())).getId();
+			if (random.nextBoolean())
+				prizeAuthorService.replaceAuthor(prizeId, authorId);
+			else
+				prizeAuthorService.removeAuthor(prizeId);
+		}
+		default -> editorialBookService.addBook(bookId, editorials.get(random.nextInt(editorials.size())).getId());
+		}
+	}
+
+	/**
+	 * Compara cada contador con el conteo real de la tabla correspondiente.
+	 */
+	private void assertCountersMatch() {
+		assertNoMismatch("select count(*) from book_entity t where review_count <> "
+				+ "(select count(*) from review_entity r where r.book_id = t.id)");
+		assertNoMismatch("select count(*) from book_entity t where author_count <> "
+				+ "(select count(*) from book_entity_authors l where l.books_id = t.id)");
+		assertNoMismatch("select count(*) from author_entity t where book_count <> "
+				+ "(select count(*) from book_entity_authors l where l.authors_id = t.id)");
+		assertNoMismatch("select count(*) from author_entity t where prize_count <> "
+				+ "(select count(*) from prize_entity p where p.author_id = t.id)");
+		assertNoMismatch("select count(*) from editorial_entity t where book_count <> "
+				+ "(select count(*) from book_entity b where b.editorial_id = t.id)");
+	}
+
+	private void assertNoMismatch(String sql) {
+		assertEquals(0, jdbcTemplate.queryForObject(sql, Integer.class), sql);
+	}
+}
@@ -0,0 +1,471 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDTO;
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.PrizeDTO;
+import co.edu.uniandes.dse.bookstore.dto.ReviewDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.OrganizationRepository;
+import co.edu.uniandes.dse.bookstore.repositories.PrizeRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorBookService;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookEditorialService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.DetailCacheService;
+import co.edu.uniandes.dse.bookstore.services.DetailVersion;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
+import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.OrganizationService;
+import co.edu.uniandes.dse.bookstore.services.PrizeAuthorService;
+import co.edu.uniandes.dse.bookstore.services.PrizeService;
+import co.edu.uniandes.dse.bookstore.services.ReviewService;
+import co.edu.uniandes.dse.bookstore.services.VersionedDetail;
+
+/**
+ * Pruebas de consistencia del caché de detalle: después de cada operación que
+ * modifica libros, autores o sus asociaciones, el detalle que retorna el caché
+ * de cada libro y de cada autor debe ser igual al que se construye desde la base
+ * de datos. Las invalidaciones ocurren cuando se confirman las transacciones,
+ * por lo que las pruebas no son transaccionales y los datos se borran al
+ * terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ DetailCacheService.class, DetailVersionService.class, BookstoreMapperImpl.class, BookService.class, AuthorService.class,
+		EditorialService.class, ReviewService.class, BookAuthorService.class, AuthorBookService.class,
+		EditorialBookService.class, BookEditorialService.class, PrizeService.class, PrizeAuthorService.class,
+		OrganizationService.class, CounterService.class, AuthorshipService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class DetailCacheServiceTest {
+
+	@Autowired
+	private DetailCacheService detailCacheService;
+
+	@Autowired
+	private DetailVersionService detailVersionService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private AuthorBookService authorBookService;
+
+	@Autowired
+	private EditorialBookService editorialBookService;
+
+	@Autowired
+	private BookEditorialService bookEditorialService;
+
+	@Autowired
+	private PrizeService prizeService;
+
+	@Autowired
+	private PrizeAuthorService prizeAuthorService;
+
+	@Autowired
+	private OrganizationService organizationService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private PrizeRepository prizeRepository;
+
+	@Autowired
+	private OrganizationRepository organizationRepository;
+
+	@Autowired
+	private BookstoreMapper bookstoreMapper;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private List<EditorialEntity> editorials = new ArrayList<>();
+	private List<AuthorEntity> authors = new ArrayList<>();
+	private List<BookEntity> books = new ArrayList<>();
+	private List<PrizeEntity> prizes = new ArrayList<>();
+	private ReviewEntity review;
+
+	/**
+	 * Operación que modifica los datos.
+	 */
+	private interface Change {
+		void apply() throws Exception;
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		detailCacheService.clear();
+		for (String name : List.of("Alfaguara", "Anagrama")) {
+			EditorialEntity editorial = new EditorialEntity();
+			editorial.setName(name);
+			editorials.add(editorialService.createEditorial(editorial));
+		}
+		for (String name : List.of("Julio Cortázar", "Jorge Luis Borges", "Adolfo Bioy Casares")) {
+			AuthorEntity author = new AuthorEntity();
+			author.setName(name);
+			author.setBirthDate(new Date(0));
+			authors.add(authorService.createAuthor(author));
+		}
+		for (int i = 0; i < 3; i++) {
+			BookEntity book = new BookEntity();
+			book.setName("Libro " + i);
+			book.setIsbn("isbn-" + i);
+			book.setEditorial(editorials.get(i / 2));
+			books.add(bookService.createBook(book));
+		}
+		bookAuthorService.addAuthor(books.get(0).getId(), authors.get(0).getId());
+		bookAuthorService.addAuthor(books.get(0).getId(), authors.get(1).getId());
+		bookAuthorService.addAuthor(books.get(1).getId(), authors.get(1).getId());
+
+		review = new ReviewEntity();
+		review.setName("Una reseña");
+		review = reviewService.createReview(books.get(0).getId(), review);
+
+		for (String name : List.of("Fundación Cervantes", "Academia Sueca")) {
+			OrganizationEntity organization = new OrganizationEntity();
+			organization.setName(name);
+			organization = organizationService.createOrganization(organization);
+			PrizeEntity prize = new PrizeEntity();
+			prize.setName("Premio " + name);
+			prize.setOrganization(organization);
+			prizes.add(prizeService.createPrize(prize));
+		}
+		prizeAuthorService.addAuthor(authors.get(0).getId(), prizes.get(0).getId());
+	}
+
+	@AfterEach
+	void tearDown() {
+		reviewRepository.deleteAll();
+		prizeRepository.deleteAll();
+		organizationRepository.deleteAll();
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	/**
+	 * Llena el caché con todos los detalles, aplica el cambio y verifica que cada
+	 * detalle del caché sea igual al que se construye desde la base de datos, que
+	 * su versión sea la de la base de datos y la que se consulta sin cargar el
+	 * detalle, y que la versión haya cambiado si el detalle cambió.
+	 */
+	private void assertConsistentAfter(Change change) throws Exception {
+		Map<Long, VersionedDetail<BookDetailDTO>> bookDetails = new HashMap<>();
+		for (BookEntity book : books)
+			bookDetails.put(book.getId(), detailCacheService.getBookDetail(book.getId()));
+		Map<Long, VersionedDetail<AuthorDetailDTO>> authorDetails = new HashMap<>();
+		for (AuthorEntity author : authors)
+			authorDetails.put(author.getId(), detailCacheService.getAuthorDetail(author.getId()));
+
+		change.apply();
+
+		for (BookEntity book : books) {
+			String expected = transactionTemplate.execute(status -> json(
+					bookRepository.findById(book.getId()).map(bookstoreMapper::toBookDetailDTO).orElse(null)));
+			if (expected.equals("null")) {
+				assertThrows(EntityNotFoundException.class, () -> detailCacheService.getBookDetail(book.getId()));
+				continue;
+			}
+			VersionedDetail<BookDetailDTO> detail = detailCacheService.getBookDetail(book.getId());
+			assertEquals(expected, json(detail.detail()), "book " + book.getId());
+			assertVersion("book_entity", detail, bookDetails.get(book.getId()),
+					detailVersionService.getBookVersion(book.getId()));
+		}
+		for (AuthorEntity author : authors) {
+			String expected = transactionTemplate.execute(status -> json(authorRepository.findById(author.getId())
+					.map(bookstoreMapper::toAuthorDetailDTO).orElse(null)));
+			if (expected.equals("null")) {
+				assertThrows(EntityNotFoundException.class, () -> detailCacheService.getAuthorDetail(author.getId()));
+				continue;
+			}
+			VersionedDetail<AuthorDetailDTO> detail = detailCacheService.getAuthorDetail(author.getId());
+			assertEquals(expected, json(detail.detail()), "author " + author.getId());
+			assertVersion("author_entity", detail, authorDetails.get(author.getId()),
+					detailVersionService.getAuthorVersion(author.getId()));
+		}
+	}
+
+	private void assertVersion(String table, VersionedDetail<?> detail, VersionedDetail<?> before,
+			DetailVersion queried) {
+		assertEquals(jdbcTemplate.queryForObject("select version from " + table + " where id = ?", Long.class,
+				detail.id()), detail.version().version(), table + " " + detail.id());
+		assertEquals(queried, detail.version(), table + " " + detail.id());
+		if (!json(before.detail()).equals(json(detail.detail())))
+			assertNotEquals(before.version(), detail.version(), table + " " + detail.id());
+	}
+
+	/**
+	 * Serializa el detalle con sus listas ordenadas por id, porque el orden de
+	 * las colecciones de las entidades no está definido.
+	 */
+	private String json(Object detail) {
+		if (detail instanceof BookDetailDTO book) {
+			book.getAuthors().sort(Comparator.comparing(AuthorDTO::getId));
+			book.getReviews().sort(Comparator.comparing(ReviewDTO::getId));
+		} else if (detail instanceof AuthorDetailDTO author) {
+			author.getBooks().sort(Comparator.comparing(BookDTO::getId));
+			author.getPrizes().sort(Comparator.comparing(PrizeDTO::getId));
+		}
+		try {
+			return objectMapper.writeValueAsString(detail);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private BookEntity bookChanges(BookEntity book, String name, EditorialEntity editorial) {
+		BookEntity changes = new BookEntity();
+		changes.setName(name);
+		changes.setIsbn(book.getIsbn());
+		changes.setEditorial(editorial);
+		return changes;
+	}
+
+	/**
+	 * Prueba que la segunda lectura de un detalle es un acierto y que las
+	 * estadísticas lo registran.
+	 */
+	@Test
+	void testSecondReadIsAHit() throws Exception {
+		CacheStats before = detailCacheService.getStatistics().get("book-details");
+		assertSame(detailCacheService.getBookDetail(books.get(0).getId()),
+				detailCacheService.getBookDetail(books.get(0).getId()));
+		CacheStats after = detailCacheService.getStatistics().get("book-details");
+		assertEquals(1, after.hitCount() - before.hitCount());
+		assertEquals(1, after.missCount() - before.missCount());
+		assertEquals(2, detailCacheService.getStatistics().size());
+	}
+
+	/**
+	 * Prueba que un id inexistente lanza la excepción y no queda en el caché.
+	 */
+	@Test
+	void testMissingDetailIsNotCached() throws Exception {
+		assertThrows(EntityNotFoundException.class, () -> detailCacheService.getBookDetail(0L));
+		assertThrows(EntityNotFoundException.class, () -> detailCacheService.getAuthorDetail(0L));
+		CacheStats stats = detailCacheService.getStatistics().get("book-details");
+		assertEquals(0, stats.loadSuccessCount());
+	}
+
+	/**
+	 * Prueba que un cambio solo invalida los detalles que afecta: una reseña
+	 * nueva invalida su libro y ningún autor.
+	 */
+	@Test
+	void testInvalidationIsPrecise() throws Exception {
+		for (BookEntity book : books)
+			detailCacheService.getBookDetail(book.getId());
+		for (AuthorEntity author : authors)
+			detailCacheService.getAuthorDetail(author.getId());
+		long bookMisses = detailCacheService.getStatistics().get("book-details").missCount();
+		long authorMisses = detailCacheService.getStatistics().get("author-details").missCount();
+
+		ReviewEntity another = new ReviewEntity();
+		another.setName("Otra reseña");
+		reviewService.createReview(books.get(1).getId(), another);
+		for (BookEntity book : books)
+			detailCacheService.getBookDetail(book.getId());
+		for (AuthorEntity author : authors)
+			detailCacheService.getAuthorDetail(author.getId());
+
+		assertEquals(bookMisses + 1, detailCacheService.getStatistics().get("book-details").missCount());
+		assertEquals(authorMisses, detailCacheService.getStatistics().get("author-details").missCount());
+		assertEquals(1, detailCacheService.getBookDetail(books.get(1).getId()).detail().getReviews().size());
+	}
+
+	/**
+	 * Prueba los cambios de los libros y de sus reseñas.
+	 */
+	@Test
+	void testBookAndReviewChanges() throws Exception {
+		assertConsistentAfter(() -> {
+			ReviewEntity another = new ReviewEntity();
+			another.setName("Otra reseña");
+			reviewService.createReview(books.get(1).getId(), another);
+		});
+		assertConsistentAfter(() -> {
+			ReviewEntity changes = new ReviewEntity();
+			changes.setName("Reseña movida");
+			reviewService.updateReview(books.get(2).getId(), review.getId(), changes);
+		});
+		assertConsistentAfter(() -> reviewService.deleteReview(books.get(2).getId(), review.getId()));
+		assertConsistentAfter(() -> bookService.updateBook(books.get(0).getId(),
+				bookChanges(books.get(0), "Rayuela", editorials.get(1))));
+		assertConsistentAfter(() -> bookService.deleteBook(books.get(2).getId()));
+	}
+
+	/**
+	 * Prueba los cambios de las asociaciones entre libros y autores, desde ambos
+	 * lados.
+	 */
+	@Test
+	void testBookAuthorChanges() throws Exception {
+		assertConsistentAfter(() -> bookAuthorService.addAuthor(books.get(2).getId(), authors.get(2).getId()));
+		assertConsistentAfter(() -> bookAuthorService.replaceAuthors(books.get(1).getId(), List.of(authors.get(0))));
+		assertConsistentAfter(() -> bookAuthorService.removeAuthor(books.get(0).getId(), authors.get(1).getId()));
+		assertConsistentAfter(() -> authorBookService.addBook(authors.get(2).getId(), books.get(0).getId()));
+		assertConsistentAfter(() -> authorBookService.removeBook(authors.get(0).getId(), books.get(0).getId()));
+		assertConsistentAfter(() -> authorBookService.addBooks(authors.get(1).getId(), List.of(books.get(2))));
+		// Un PUT del libro no trae autores y los conserva.
+		assertConsistentAfter(() -> bookService.updateBook(books.get(1).getId(),
+				bookChanges(books.get(1), "Ficciones", editorials.get(0))));
+	}
+
+	/**
+	 * Prueba los cambios de las editoriales de los libros y de sus nombres.
+	 */
+	@Test
+	void testEditorialChanges() throws Exception {
+		assertConsistentAfter(() -> editorialBookService.addBook(books.get(0).getId(), editorials.get(1).getId()));
+		assertConsistentAfter(() -> editorialBookService.replaceBooks(editorials.get(0).getId(),
+				List.of(books.get(0), books.get(2))));
+		assertConsistentAfter(() -> bookEditorialService.replaceEditorial(books.get(1).getId(),
+				editorials.get(1).getId()));
+		assertConsistentAfter(() -> {
+			EditorialEntity renamed = new EditorialEntity();
+			renamed.setName("Sudamericana");
+			editorialService.updateEditorial(editorials.get(0).getId(), renamed);
+		});
+		assertConsistentAfter(() -> bookEditorialService.removeEditorial(books.get(1).getId()));
+	}
+
+	/**
+	 * Prueba los cambios de los autores, de sus premios y de las organizaciones
+	 * de los premios.
+	 */
+	@Test
+	void testAuthorAndPrizeChanges() throws Exception {
+		assertConsistentAfter(() -> {
+			AuthorEntity renamed = new AuthorEntity();
+			renamed.setName("Julio Florencio Cortázar");
+			renamed.setBirthDate(new Date(0));
+			authorService.updateAuthor(authors.get(0).getId(), renamed);
+		});
+		assertConsistentAfter(() -> prizeAuthorService.replaceAuthor(prizes.get(0).getId(), authors.get(1).getId()));
+		assertConsistentAfter(() -> prizeAuthorService.addAuthor(authors.get(2).getId(), prizes.get(1).getId()));
+		assertConsistentAfter(() -> {
+			OrganizationEntity renamed = new OrganizationEntity();
+			renamed.setName("Real Academia");
+			organizationService.updateOrganization(prizes.get(1).getOrganization().getId(), renamed);
+		});
+		assertConsistentAfter(() -> {
+			PrizeEntity changes = new PrizeEntity();
+			changes.setName("Premio renombrado");
+			changes.setOrganization(prizes.get(1).getOrganization());
+			prizeService.updatePrize(prizes.get(1).getId(), changes);
+		});
+		assertConsistentAfter(() -> prizeAuthorService.removeAuthor(prizes.get(0).getId()));
+		assertConsistentAfter(() -> authorService.deleteAuthor(authors.get(2).getId()));
+	}
+
+	/**
+	 * Prueba que un cambio que se deshace no deja detalles desactualizados.
+	 */
+	@Test
+	void testRolledBackChange() throws Exception {
+		assertConsistentAfter(() -> transactionTemplate.executeWithoutResult(status -> {
+			try {
+				bookAuthorService.addAuthor(books.get(2).getId(), authors.get(2).getId());
+			} catch (EntityNotFoundException e) {
+				fail(e);
+			}
+			status.setRollbackOnly();
+		}));
+	}
+}
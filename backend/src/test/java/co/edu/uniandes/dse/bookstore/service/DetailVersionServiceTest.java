@@ -0,0 +1,315 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.config.SecondLevelCacheConfig;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.DetailVersion;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.ReviewService;
+
+/**
+ * Pruebas de las versiones de los libros y autores: la versión del detalle
+ * cambia cuando cambia el detalle, sin escribir en las entidades que lo
+ * muestran, y las actualizaciones y borrados con una versión que no es la
+ * actual fallan. Cada paso se ejecuta en su propia transacción y los datos se
+ * borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest(properties = { "bookstore.cache.enabled=true", "bookstore.cache.missing-cache-strategy=create" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ SecondLevelCacheConfig.class, DetailVersionService.class, BookService.class, AuthorService.class,
+		EditorialService.class, ReviewService.class, BookAuthorService.class, CounterService.class,
+		AuthorshipService.class })
+class DetailVersionServiceTest {
+
+	@Autowired
+	private DetailVersionService detailVersionService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private EditorialEntity editorial;
+
+	private BookEntity book;
+
+	private AuthorEntity author;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		editorial = new EditorialEntity();
+		editorial.setName("Sudamericana");
+		editorial = editorialRepository.save(editorial);
+
+		book = new BookEntity();
+		book.setName("Cien años de soledad");
+		book.setIsbn("978-0307474728");
+		book.setEditorial(editorial);
+		book = bookService.createBook(book);
+
+		author = new AuthorEntity();
+		author.setName("Gabriel García Márquez");
+		author.setBirthDate(new Date(0));
+		author = authorService.createAuthor(author);
+	}
+
+	@AfterEach
+	void tearDown() {
+		reviewRepository.deleteAll();
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	private Long version(String table, Long id) {
+		return jdbcTemplate.queryForObject("select version from " + table + " where id = ?", Long.class, id);
+	}
+
+	/**
+	 * Cambios de un libro como llegan en el cuerpo de una petición: la editorial
+	 * solo trae el id.
+	 */
+	private BookEntity changes(String name) {
+		BookEntity changes = new BookEntity();
+		changes.setName(name);
+		changes.setIsbn(book.getIsbn());
+		EditorialEntity reference = new EditorialEntity();
+		reference.setId(editorial.getId());
+		changes.setEditorial(reference);
+		return changes;
+	}
+
+	/**
+	 * Versión del detalle del libro calculada con las entidades cargadas, que
+	 * debe ser la misma que se consulta.
+	 */
+	private DetailVersion loadedBookVersion() {
+		return transactionTemplate
+				.execute(status -> DetailVersionService.of(bookRepository.findById(book.getId()).get()));
+	}
+
+	/**
+	 * Prueba que una reseña nueva cambia la versión del detalle de su libro sin
+	 * escribir en el libro.
+	 */
+	@Test
+	void testReviewChangesBookDetailVersion() throws Exception {
+		Long before = version("book_entity", book.getId());
+		DetailVersion detailBefore = detailVersionService.getBookVersion(book.getId());
+		ReviewEntity review = new ReviewEntity();
+		review.setName("Obra maestra");
+		reviewService.createReview(book.getId(), review);
+
+		DetailVersion detailAfter = detailVersionService.getBookVersion(book.getId());
+		assertNotEquals(detailBefore, detailAfter);
+		assertEquals(loadedBookVersion(), detailAfter);
+		assertEquals(before, version("book_entity", book.getId()));
+	}
+
+	/**
+	 * Prueba que asociar un autor a un libro cambia la versión del detalle de
+	 * ambos, también leyendo el autor del caché de segundo nivel.
+	 */
+	@Test
+	void testAssociationChangesBothDetailVersions() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> authorRepository.findById(author.getId()));
+		DetailVersion bookBefore = detailVersionService.getBookVersion(book.getId());
+		DetailVersion authorBefore = detailVersionService.getAuthorVersion(author.getId());
+
+		bookAuthorService.addAuthor(book.getId(), author.getId());
+
+		DetailVersion authorAfter = detailVersionService.getAuthorVersion(author.getId());
+		assertNotEquals(bookBefore, detailVersionService.getBookVersion(book.getId()));
+		assertNotEquals(authorBefore, authorAfter);
+		assertEquals(authorAfter, transactionTemplate
+				.execute(status -> DetailVersionService.of(authorRepository.findById(author.getId()).get())));
+		assertEquals(loadedBookVersion(), detailVersionService.getBookVersion(book.getId()));
+	}
+
+	/**
+	 * Prueba que renombrar la editorial cambia la versión del detalle de sus
+	 * libros sin incrementar la versión de los libros, así que una actualización
+	 * concurrente del libro con la versión que tenía no falla.
+	 */
+	@Test
+	void testEditorialRenameDoesNotWriteBooks() throws Exception {
+		Long before = version("book_entity", book.getId());
+		DetailVersion detailBefore = detailVersionService.getBookVersion(book.getId());
+
+		EditorialEntity renamed = new EditorialEntity();
+		renamed.setName("Editorial Sudamericana");
+		editorialService.updateEditorial(editorial.getId(), renamed);
+
+		assertEquals(before, version("book_entity", book.getId()));
+		assertNotEquals(detailBefore, detailVersionService.getBookVersion(book.getId()));
+		BookEntity update = changes("Cien años de soledad (edición de bolsillo)");
+		update.setVersion(before);
+		bookService.updateBook(book.getId(), update);
+	}
+
+	/**
+	 * Prueba que actualizar un autor cambia la versión del detalle de sus libros
+	 * sin incrementar la versión de los libros.
+	 */
+	@Test
+	void testAuthorUpdateDoesNotWriteBooks() throws Exception {
+		bookAuthorService.addAuthor(book.getId(), author.getId());
+		Long before = version("book_entity", book.getId());
+		DetailVersion detailBefore = detailVersionService.getBookVersion(book.getId());
+
+		AuthorEntity changes = new AuthorEntity();
+		changes.setName("Gabo");
+		changes.setBirthDate(new Date(0));
+		authorService.updateAuthor(author.getId(), changes);
+
+		assertEquals(before, version("book_entity", book.getId()));
+		DetailVersion detailAfter = detailVersionService.getBookVersion(book.getId());
+		assertNotEquals(detailBefore, detailAfter);
+		assertEquals(loadedBookVersion(), detailAfter);
+	}
+
+	/**
+	 * Prueba que la entidad que retorna una actualización tiene la versión que
+	 * quedó en la base de datos.
+	 */
+	@Test
+	void testUpdateReturnsCommittedVersion() throws Exception {
+		BookEntity updated = bookService.updateBook(book.getId(), changes("Cien años de soledad (edición conmemorativa)"));
+		assertEquals(version("book_entity", book.getId()), updated.getVersion());
+		assertNotEquals(book.getVersion(), updated.getVersion());
+	}
+
+	/**
+	 * Prueba que una actualización con la versión actual se aplica y una con una
+	 * versión anterior falla sin cambiar el libro.
+	 */
+	@Test
+	void testUpdateWithVersion() throws Exception {
+		Long current = version("book_entity", book.getId());
+		BookEntity first = changes("El amor en los tiempos del cólera");
+		first.setVersion(current);
+		bookService.updateBook(book.getId(), first);
+
+		BookEntity stale = changes("Crónica de una muerte anunciada");
+		stale.setVersion(current);
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookService.updateBook(book.getId(), stale));
+		assertEquals("El amor en los tiempos del cólera", bookRepository.findById(book.getId()).get().getName());
+	}
+
+	/**
+	 * Prueba que un borrado con una versión anterior falla y con la actual se
+	 * aplica.
+	 */
+	@Test
+	void testDeleteWithVersion() throws Exception {
+		Long current = version("book_entity", book.getId());
+		bookService.updateBook(book.getId(), changes("La hojarasca"));
+
+		assertThrows(ObjectOptimisticLockingFailureException.class,
+				() -> bookService.deleteBook(book.getId(), current));
+		assertTrue(bookRepository.existsById(book.getId()));
+
+		bookService.deleteBook(book.getId(), version("book_entity", book.getId()));
+		assertFalse(bookRepository.existsById(book.getId()));
+	}
+
+	/**
+	 * Prueba que un autor se puede actualizar y borrar con su versión actual.
+	 */
+	@Test
+	void testAuthorWithVersion() throws Exception {
+		AuthorEntity changes = new AuthorEntity();
+		changes.setName("Gabo");
+		changes.setBirthDate(new Date(0));
+		changes.setVersion(version("author_entity", author.getId()) + 1);
+		assertThrows(ObjectOptimisticLockingFailureException.class,
+				() -> authorService.updateAuthor(author.getId(), changes));
+
+		changes.setVersion(version("author_entity", author.getId()));
+		AuthorEntity updated = authorService.updateAuthor(author.getId(), changes);
+		assertEquals("Gabo", updated.getName());
+		authorService.deleteAuthor(author.getId(), updated.getVersion());
+		assertFalse(authorRepository.existsById(author.getId()));
+	}
+}
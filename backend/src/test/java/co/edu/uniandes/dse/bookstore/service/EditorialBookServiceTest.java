@@ -41,6 +41,8 @@ import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
 import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
 import co.edu.uniandes.dse.bookstore.services.EditorialService;
 import uk.co.jemos.podam.api.PodamFactory;
@@ -53,7 +55,7 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
  */
 @DataJpaTest
 @Transactional
-@Import({ EditorialService.class, EditorialBookService.class })
+@Import({ EditorialService.class, EditorialBookService.class, BookstoreMapperImpl.class, CounterService.class })
 class EditorialBookServiceTest {
 
 	@Autowired
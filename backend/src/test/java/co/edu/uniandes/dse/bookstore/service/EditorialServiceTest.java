@@ -31,13 +31,20 @@ import java.util.List;
 
 import jakarta.transaction.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 
+import co.edu.uniandes.dse.bookstore.dto.EditorialDTO;
+import co.edu.uniandes.dse.bookstore.dto.EditorialSummary;
 import co.edu.uniandes.dse.bookstore.entities.BookEntity;
 import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
@@ -144,6 +151,37 @@ class EditorialServiceTest {
 		}
 	}
 
+	/**
+	 * Prueba para consultar la lista de Editorials por páginas.
+	 */
+	@Test
+	void testGetEditorialsPage() {
+		List<EditorialEntity> firstPage = editorialService.getEditorials(null, 2);
+		assertEquals(2, firstPage.size());
+		assertEquals(editorialList.get(0).getId(), firstPage.get(0).getId());
+		assertEquals(editorialList.get(1).getId(), firstPage.get(1).getId());
+
+		List<EditorialEntity> secondPage = editorialService.getEditorials(firstPage.get(1).getId(), 2);
+		assertEquals(editorialList.size() - 2, secondPage.size());
+		assertEquals(editorialList.get(2).getId(), secondPage.get(0).getId());
+	}
+
+	/**
+	 * Prueba que las proyecciones de Editorial producen el mismo JSON que los DTO
+	 * obtenidos a partir de las entidades.
+	 */
+	@Test
+	void testGetEditorialSummaries() {
+		entityManager.flush();
+		entityManager.clear();
+		List<EditorialDTO> dtos = new ModelMapper().map(editorialService.getEditorials(null, 10), new TypeToken<List<EditorialDTO>>() {
+		}.getType());
+		List<EditorialSummary> summaries = editorialService.getEditorialSummaries(null, 10);
+
+		ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		assertEquals(mapper.valueToTree(dtos), mapper.valueToTree(summaries));
+	}
+
 	/**
 	 * Prueba para consultar un Editorial.
 	 * 
@@ -176,7 +214,7 @@ class EditorialServiceTest {
 	 * Prueba para actualizar una Editorial.
 	 */
 	@Test
-	void testUpdateEditorial() throws EntityNotFoundException {
+	void testUpdateEditorial() throws EntityNotFoundException, IllegalOperationException {
 		EditorialEntity entity = editorialList.get(0);
 		EditorialEntity pojoEntity = factory.manufacturePojo(EditorialEntity.class);
 		pojoEntity.setId(entity.getId());
@@ -198,6 +236,19 @@ class EditorialServiceTest {
 		});
 	}
 
+	/**
+	 * Prueba para actualizar una Editorial con el nombre de otra Editorial.
+	 */
+	@Test
+	void testUpdateEditorialWithSameName() {
+		assertThrows(IllegalOperationException.class, () -> {
+			EditorialEntity entity = editorialList.get(0);
+			EditorialEntity pojoEntity = factory.manufacturePojo(EditorialEntity.class);
+			pojoEntity.setName(editorialList.get(1).getName());
+			editorialService.updateEditorial(entity.getId(), pojoEntity);
+		});
+	}
+
 	/**
 	 * Prueba para eliminar un Editorial.
 	 */
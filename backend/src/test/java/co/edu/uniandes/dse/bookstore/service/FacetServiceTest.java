@@ -0,0 +1,385 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.dto.FacetCountDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookEditorialService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.FacetService;
+
+/**
+ * Pruebas de los filtros por facetas de los libros. El índice se actualiza
+ * cuando se confirman las transacciones de los servicios, por lo que las
+ * pruebas no son transaccionales y los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ FacetService.class, BookService.class, AuthorService.class, EditorialService.class,
+		BookAuthorService.class, BookEditorialService.class, EditorialBookService.class,
+		BookstoreMapperImpl.class, CounterService.class, AuthorshipService.class })
+class FacetServiceTest {
+
+	@Autowired
+	private FacetService facetService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private BookEditorialService bookEditorialService;
+
+	@Autowired
+	private EditorialBookService editorialBookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private List<EditorialEntity> editorials = new ArrayList<>();
+	private List<AuthorEntity> authors = new ArrayList<>();
+	private int isbn;
+
+	@BeforeEach
+	void setUp() throws IllegalOperationException {
+		facetService.rebuild();
+		for (String name : List.of("Alfaguara", "Anagrama", "Planeta")) {
+			EditorialEntity editorial = new EditorialEntity();
+			editorial.setName(name);
+			editorials.add(editorialService.createEditorial(editorial));
+		}
+		for (String name : List.of("Julio Cortázar", "Jorge Luis Borges", "Clarice Lispector", "Juan Rulfo")) {
+			AuthorEntity author = new AuthorEntity();
+			author.setName(name);
+			author.setBirthDate(new GregorianCalendar(1914, 7, 26).getTime());
+			authors.add(authorService.createAuthor(author));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	private BookEntity createBook(EditorialEntity editorial, int year, AuthorEntity... bookAuthors)
+			throws EntityNotFoundException, IllegalOperationException {
+		BookEntity book = new BookEntity();
+		book.setName("Libro " + isbn);
+		book.setIsbn("isbn-" + isbn++);
+		book.setEditorial(editorial);
+		book.setPublishingDate(new GregorianCalendar(year, 5, 15).getTime());
+		book = bookService.createBook(book);
+		for (AuthorEntity author : bookAuthors)
+			bookAuthorService.addAuthor(book.getId(), author.getId());
+		return book;
+	}
+
+	private FacetService.BookFacets facets(List<Long> editorialIds, List<Long> years, List<Long> authorIds)
+			throws IllegalOperationException {
+		return facetService.getFacets(editorialIds, years, authorIds, null, 100, 100);
+	}
+
+	private static List<Long> ids(List<? extends BaseEntity> entities) {
+		return entities.stream().map(BaseEntity::getId).toList();
+	}
+
+	private static Map<Long, Integer> counts(List<FacetCountDTO> counts) {
+		Map<Long, Integer> byValue = new HashMap<>();
+		for (FacetCountDTO count : counts)
+			byValue.put(count.getValue(), count.getCount());
+		return byValue;
+	}
+
+	/**
+	 * Prueba que los valores de una faceta se unen, que las facetas se intersecan
+	 * y que los conteos de cada faceta no aplican su propio filtro.
+	 */
+	@Test
+	void testFiltersAndDisjunctiveCounts() throws Exception {
+		EditorialEntity alfaguara = editorials.get(0);
+		EditorialEntity anagrama = editorials.get(1);
+		AuthorEntity cortazar = authors.get(0);
+		AuthorEntity borges = authors.get(1);
+		BookEntity rayuela = createBook(alfaguara, 1963, cortazar);
+		BookEntity ficciones = createBook(anagrama, 1944, borges);
+		BookEntity aleph = createBook(anagrama, 1949, borges);
+		BookEntity libro = createBook(alfaguara, 1944, cortazar, borges);
+
+		FacetService.BookFacets all = facets(null, null, null);
+		assertEquals(4, all.total());
+		assertEquals(ids(List.of(rayuela, ficciones, aleph, libro)), ids(all.books()));
+		assertEquals(Map.of(alfaguara.getId(), 2, anagrama.getId(), 2), counts(all.editorials()));
+		assertEquals(Map.of(1963L, 1, 1944L, 2, 1949L, 1), counts(all.years()));
+		assertEquals(Map.of(cortazar.getId(), 2, borges.getId(), 3), counts(all.authors()));
+		assertEquals("Jorge Luis Borges", all.authors().get(0).getName());
+		assertEquals(borges.getId(), all.authors().get(0).getValue());
+
+		FacetService.BookFacets byBorges = facets(null, null, List.of(borges.getId()));
+		assertEquals(ids(List.of(ficciones, aleph, libro)), ids(byBorges.books()));
+		assertEquals(Map.of(alfaguara.getId(), 1, anagrama.getId(), 2), counts(byBorges.editorials()));
+		assertEquals(Map.of(cortazar.getId(), 2, borges.getId(), 3), counts(byBorges.authors()));
+
+		FacetService.BookFacets filtered = facets(List.of(anagrama.getId()), List.of(1944L, 1963L),
+				List.of(borges.getId(), cortazar.getId()));
+		assertEquals(1, filtered.total());
+		assertEquals(ids(List.of(ficciones)), ids(filtered.books()));
+		assertEquals(Map.of(alfaguara.getId(), 2, anagrama.getId(), 1), counts(filtered.editorials()));
+		assertEquals(Map.of(1944L, 1, 1949L, 1), counts(filtered.years()));
+		assertEquals(Map.of(borges.getId(), 1), counts(filtered.authors()));
+
+		assertEquals(0, facets(List.of(-1L), null, null).total());
+	}
+
+	/**
+	 * Prueba la paginación por id y el límite de valores por faceta.
+	 */
+	@Test
+	void testPagesAndLimits() throws Exception {
+		List<BookEntity> books = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			books.add(createBook(editorials.get(i % 3), 2000 + i));
+
+		FacetService.BookFacets first = facetService.getFacets(null, null, null, null, 2, 2);
+		assertEquals(5, first.total());
+		assertEquals(ids(books.subList(0, 2)), ids(first.books()));
+		assertEquals(2, first.editorials().size());
+		assertEquals(2, first.editorials().get(0).getCount());
+		assertEquals(2, first.years().size());
+
+		FacetService.BookFacets last = facetService.getFacets(null, null, null, books.get(3).getId(), 2, 2);
+		assertEquals(ids(books.subList(4, 5)), ids(last.books()));
+		assertEquals(5, last.total());
+
+		assertThrows(IllegalOperationException.class, () -> facetService.getFacets(null, null, null, null, 0, 2));
+		assertThrows(IllegalOperationException.class, () -> facetService.getFacets(null, null, null, null, 2, 0));
+	}
+
+	/**
+	 * Prueba que los cambios de los libros y de sus asociaciones con autores y
+	 * editoriales actualizan el índice.
+	 */
+	@Test
+	void testIndexFollowsChanges() throws Exception {
+		EditorialEntity alfaguara = editorials.get(0);
+		EditorialEntity planeta = editorials.get(2);
+		AuthorEntity rulfo = authors.get(3);
+		BookEntity book = createBook(alfaguara, 1955);
+
+		bookAuthorService.addAuthor(book.getId(), rulfo.getId());
+		assertEquals(ids(List.of(book)), ids(facets(null, null, List.of(rulfo.getId())).books()));
+
+		editorialBookService.addBook(book.getId(), planeta.getId());
+		assertEquals(0, facets(List.of(alfaguara.getId()), null, null).total());
+		assertEquals(1, facets(List.of(planeta.getId()), null, null).total());
+
+		bookEditorialService.removeEditorial(book.getId());
+		assertEquals(0, facets(List.of(planeta.getId()), null, null).total());
+		assertTrue(facets(null, null, null).editorials().isEmpty());
+
+		BookEntity changes = new BookEntity();
+		changes.setName(book.getName());
+		changes.setIsbn(book.getIsbn());
+		changes.setEditorial(alfaguara);
+		changes.setPublishingDate(new GregorianCalendar(1953, 0, 1).getTime());
+		changes.setAuthors(new ArrayList<>(List.of(rulfo)));
+		bookService.updateBook(book.getId(), changes);
+		assertEquals(1, facets(List.of(alfaguara.getId()), List.of(1953L), List.of(rulfo.getId())).total());
+
+		EditorialEntity renamed = new EditorialEntity();
+		renamed.setName("Fondo de Cultura Económica");
+		editorialService.updateEditorial(alfaguara.getId(), renamed);
+		assertEquals("Fondo de Cultura Económica", facets(null, null, null).editorials().get(0).getName());
+
+		bookAuthorService.removeAuthor(book.getId(), rulfo.getId());
+		assertEquals(0, facets(null, null, List.of(rulfo.getId())).total());
+
+		bookService.deleteBook(book.getId());
+		assertEquals(0, facetService.size());
+	}
+
+	/**
+	 * Prueba que los cambios de una transacción que se deshace no se indexan.
+	 */
+	@Test
+	void testRolledBackChangeIsNotIndexed() {
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				createBook(editorials.get(0), 1980, authors.get(0));
+			} catch (EntityNotFoundException | IllegalOperationException e) {
+				fail(e);
+			}
+			status.setRollbackOnly();
+		});
+		assertEquals(0, facetService.size());
+	}
+
+	/**
+	 * Prueba que, después de reconstruir el índice y de cambios al azar, cada
+	 * combinación de filtros retorna los mismos libros y conteos que se obtienen
+	 * recorriendo todos los libros.
+	 */
+	@Test
+	void testFacetsMatchExhaustiveComputation() throws Exception {
+		Random random = new Random(7);
+		List<BookEntity> books = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			List<AuthorEntity> bookAuthors = new ArrayList<>(authors);
+			bookAuthors.removeIf(author -> random.nextInt(3) != 0);
+			books.add(createBook(editorials.get(random.nextInt(editorials.size())), 1990 + random.nextInt(4),
+					bookAuthors.toArray(new AuthorEntity[0])));
+		}
+		facetService.rebuild();
+		for (int change = 0; change < 15; change++) {
+			BookEntity book = books.get(random.nextInt(books.size()));
+			AuthorEntity author = authors.get(random.nextInt(authors.size()));
+			if (random.nextBoolean())
+				editorialBookService.addBook(book.getId(), editorials.get(random.nextInt(editorials.size())).getId());
+			else if (bookAuthorService.getAuthors(book.getId()).contains(author))
+				bookAuthorService.removeAuthor(book.getId(), author.getId());
+			else
+				bookAuthorService.addAuthor(book.getId(), author.getId());
+		}
+
+		Map<Long, Long> editorialOf = new HashMap<>();
+		Map<Long, Long> yearOf = new HashMap<>();
+		Map<Long, Set<Long>> authorsOf = new HashMap<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			for (BookEntity book : bookRepository.findAll()) {
+				editorialOf.put(book.getId(), book.getEditorial().getId());
+				GregorianCalendar calendar = new GregorianCalendar();
+				calendar.setTime(book.getPublishingDate());
+				yearOf.put(book.getId(), (long) calendar.get(GregorianCalendar.YEAR));
+				authorsOf.put(book.getId(), new HashSet<>(ids(book.getAuthors())));
+			}
+		});
+
+		for (int query = 0; query < 50; query++) {
+			List<Long> editorialIds = sample(random, ids(editorials));
+			List<Long> years = sample(random, List.of(1990L, 1991L, 1992L, 1993L));
+			List<Long> authorIds = sample(random, ids(authors));
+			FacetService.BookFacets facets = facets(editorialIds, years, authorIds);
+
+			List<Long> expected = editorialOf.keySet().stream()
+					.filter(id -> matches(editorialIds, Set.of(editorialOf.get(id)))
+							&& matches(years, Set.of(yearOf.get(id))) && matches(authorIds, authorsOf.get(id)))
+					.sorted().toList();
+			assertEquals(expected, ids(facets.books()));
+			assertEquals(expected.size(), facets.total());
+			assertEquals(expectedCounts(editorialOf.keySet(), id -> Set.of(editorialOf.get(id)),
+					id -> matches(years, Set.of(yearOf.get(id))) && matches(authorIds, authorsOf.get(id))),
+					counts(facets.editorials()));
+			assertEquals(expectedCounts(editorialOf.keySet(), id -> Set.of(yearOf.get(id)),
+					id -> matches(editorialIds, Set.of(editorialOf.get(id))) && matches(authorIds, authorsOf.get(id))),
+					counts(facets.years()));
+			assertEquals(expectedCounts(editorialOf.keySet(), authorsOf::get,
+					id -> matches(editorialIds, Set.of(editorialOf.get(id))) && matches(years, Set.of(yearOf.get(id)))),
+					counts(facets.authors()));
+			List<Integer> authorCounts = facets.authors().stream().map(FacetCountDTO::getCount).toList();
+			assertEquals(authorCounts.stream().sorted(Comparator.reverseOrder()).toList(), authorCounts);
+		}
+	}
+
+	private static List<Long> sample(Random random, List<Long> values) {
+		List<Long> sample = new ArrayList<>();
+		if (random.nextBoolean())
+			for (Long value : values)
+				if (random.nextBoolean())
+					sample.add(value);
+		return sample;
+	}
+
+	private static boolean matches(List<Long> filter, Set<Long> values) {
+		return filter.isEmpty() || filter.stream().anyMatch(values::contains);
+	}
+
+	private static Map<Long, Integer> expectedCounts(Set<Long> books, Function<Long, Set<Long>> valuesOf,
+			Predicate<Long> otherFilters) {
+		Map<Long, Integer> counts = new HashMap<>();
+		for (Long book : books)
+			if (otherFilters.test(book))
+				for (Long value : valuesOf.apply(book))
+					counts.merge(value, 1, Integer::sum);
+		return counts;
+	}
+}
@@ -0,0 +1,264 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import co.edu.uniandes.dse.bookstore.dto.AuthorDetailDTO;
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapper;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.services.AuthorBookService;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Pruebas que verifican que el número de sentencias SQL necesarias para
+ * construir los DTO de detalle no crece con el número de registros.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional
+@Import({ BookService.class, AuthorService.class, AuthorBookService.class, BookAuthorService.class,
+		EditorialBookService.class, BookstoreMapperImpl.class, CounterService.class, AuthorshipService.class })
+class FetchPlanTest {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private AuthorBookService authorBookService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private EditorialBookService editorialBookService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private BookstoreMapper bookstoreMapper = Mappers.getMapper(BookstoreMapper.class);
+
+	private StatementCounter counter;
+
+	private EditorialEntity editorial;
+	private AuthorEntity author;
+	private BookEntity book;
+
+	@BeforeEach
+	void setUp() {
+		clearData();
+		counter = new StatementCounter(entityManager);
+		editorial = factory.manufacturePojo(EditorialEntity.class);
+		entityManager.persist(editorial);
+		author = insertAuthor();
+		book = insertBook(editorial);
+		book.getAuthors().add(author);
+		author.getBooks().add(book);
+	}
+
+	/**
+	 * Limpia las tablas que están implicadas en la prueba.
+	 */
+	private void clearData() {
+		entityManager.getEntityManager().createQuery("delete from ReviewEntity").executeUpdate();
+		entityManager.getEntityManager().createQuery("delete from PrizeEntity").executeUpdate();
+		entityManager.getEntityManager().createQuery("delete from OrganizationEntity").executeUpdate();
+		entityManager.getEntityManager().createQuery("delete from BookEntity").executeUpdate();
+		entityManager.getEntityManager().createQuery("delete from AuthorEntity").executeUpdate();
+		entityManager.getEntityManager().createQuery("delete from EditorialEntity").executeUpdate();
+	}
+
+	/**
+	 * Inserta un libro con dos reseñas.
+	 */
+	private BookEntity insertBook(EditorialEntity bookEditorial) {
+		BookEntity entity = factory.manufacturePojo(BookEntity.class);
+		entity.setEditorial(bookEditorial);
+		entityManager.persist(entity);
+		bookEditorial.getBooks().add(entity);
+		for (int i = 0; i < 2; i++) {
+			ReviewEntity review = factory.manufacturePojo(ReviewEntity.class);
+			review.setBook(entity);
+			entityManager.persist(review);
+			entity.getReviews().add(review);
+		}
+		return entity;
+	}
+
+	/**
+	 * Inserta un autor con un premio otorgado por una organización.
+	 */
+	private AuthorEntity insertAuthor() {
+		AuthorEntity entity = factory.manufacturePojo(AuthorEntity.class);
+		entityManager.persist(entity);
+
+		OrganizationEntity organization = factory.manufacturePojo(OrganizationEntity.class);
+		entityManager.persist(organization);
+		PrizeEntity prize = factory.manufacturePojo(PrizeEntity.class);
+		prize.setAuthor(entity);
+		prize.setOrganization(organization);
+		entityManager.persist(prize);
+		organization.setPrize(prize);
+		entity.getPrizes().add(prize);
+		return entity;
+	}
+
+	/**
+	 * Agrega libros de distintas editoriales, cada uno con un autor nuevo, al
+	 * autor y al libro de la prueba.
+	 */
+	private void growData(int size) {
+		for (int i = 0; i < size; i++) {
+			EditorialEntity otherEditorial = factory.manufacturePojo(EditorialEntity.class);
+			entityManager.persist(otherEditorial);
+			BookEntity otherBook = insertBook(i % 2 == 0 ? editorial : otherEditorial);
+			AuthorEntity otherAuthor = insertAuthor();
+
+			otherBook.getAuthors().add(author);
+			otherBook.getAuthors().add(otherAuthor);
+			author.getBooks().add(otherBook);
+			otherAuthor.getBooks().add(otherBook);
+
+			book.getAuthors().add(otherAuthor);
+			otherAuthor.getBooks().add(book);
+		}
+	}
+
+	/**
+	 * Verifica que la operación ejecuta las mismas sentencias con pocos y con
+	 * muchos registros.
+	 */
+	private void assertConstantStatements(StatementCounter.Operation operation) throws Exception {
+		long small = counter.count(operation);
+		growData(10);
+		long large = counter.count(operation);
+		assertEquals(small, large, "Statement count grows with the number of rows");
+	}
+
+	/**
+	 * Prueba para consultar todos los libros con sus detalles.
+	 */
+	@Test
+	void testGetBooksStatements() throws Exception {
+		assertConstantStatements(() -> {
+			List<BookDetailDTO> books = bookstoreMapper.toBookDetailDTOs(bookService.getBooks());
+			assertFalse(books.get(0).getReviews().isEmpty());
+		});
+	}
+
+	/**
+	 * Prueba para recorrer todos los libros con sus detalles.
+	 */
+	@Test
+	void testStreamBooksStatements() throws Exception {
+		assertConstantStatements(() -> bookService.streamBooks(books -> {
+			List<BookDetailDTO> details = bookstoreMapper.toBookDetailDTOs(books);
+			assertFalse(details.get(0).getReviews().isEmpty());
+		}));
+	}
+
+	/**
+	 * Prueba para consultar una página de libros con sus detalles.
+	 */
+	@Test
+	void testGetBooksPageStatements() throws Exception {
+		assertConstantStatements(() -> bookstoreMapper.toBookDetailDTOs(bookService.getBooks(0L, 50)));
+	}
+
+	/**
+	 * Prueba para consultar todos los autores con sus detalles.
+	 */
+	@Test
+	void testGetAuthorsStatements() throws Exception {
+		assertConstantStatements(() -> {
+			List<AuthorDetailDTO> authors = bookstoreMapper.toAuthorDetailDTOs(authorService.getAuthors());
+			assertNotNull(authors.get(0).getPrizes().get(0).getOrganization());
+		});
+	}
+
+	/**
+	 * Prueba para consultar una página de autores con sus detalles.
+	 */
+	@Test
+	void testGetAuthorsPageStatements() throws Exception {
+		assertConstantStatements(() -> bookstoreMapper.toAuthorDetailDTOs(authorService.getAuthors(0L, 50)));
+	}
+
+	/**
+	 * Prueba para consultar los libros de un autor con sus detalles.
+	 */
+	@Test
+	void testGetAuthorBooksStatements() throws Exception {
+		assertConstantStatements(() -> bookstoreMapper.toBookDetailDTOs(authorBookService.getBooks(author.getId())));
+	}
+
+	/**
+	 * Prueba para consultar los autores de un libro con sus detalles.
+	 */
+	@Test
+	void testGetBookAuthorsStatements() throws Exception {
+		assertConstantStatements(() -> bookstoreMapper.toAuthorDetailDTOs(bookAuthorService.getAuthors(book.getId())));
+	}
+
+	/**
+	 * Prueba para consultar los libros de una editorial con sus detalles.
+	 */
+	@Test
+	void testGetEditorialBooksStatements() throws Exception {
+		assertConstantStatements(
+				() -> bookstoreMapper.toBookDetailDTOs(editorialBookService.getBooks(editorial.getId())));
+	}
+}
@@ -0,0 +1,230 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.dto.ImportErrorDTO;
+import co.edu.uniandes.dse.bookstore.dto.ImportResultDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.ErrorMessage;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository.BookKey;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.ImportService;
+
+/**
+ * Pruebas de la importación en bloque. Cada lote se confirma en su propia
+ * transacción, por lo que las pruebas no son transaccionales y los datos se
+ * borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ImportService.class, BookstoreMapperImpl.class, CounterService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class ImportServiceTest {
+
+	@Autowired
+	private ImportService importService;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private EditorialEntity editorial;
+
+	private AuthorEntity author;
+
+	@BeforeEach
+	void setUp() {
+		editorial = new EditorialEntity();
+		editorial.setName("Existing");
+		editorial = editorialRepository.save(editorial);
+		author = new AuthorEntity();
+		author.setName("Existing author");
+		author = authorRepository.save(author);
+	}
+
+	@AfterEach
+	void tearDown() {
+		transactionTemplate.executeWithoutResult(status -> {
+			reviewRepository.deleteAll();
+			bookRepository.deleteAll();
+			authorRepository.deleteAll();
+			editorialRepository.deleteAll();
+		});
+	}
+
+	private ImportResultDTO importLines(Integer batchSize, String... lines) throws Exception {
+		return importService.importData(new StringReader(String.join("\n", lines)), batchSize);
+	}
+
+	private Long bookId(String isbn) {
+		List<BookKey> keys = bookRepository.findKeyByIsbnIn(List.of(isbn));
+		return keys.isEmpty() ? null : keys.get(0).id();
+	}
+
+	/**
+	 * Prueba para importar registros de todos los tipos, con referencias a datos
+	 * existentes y a registros de la misma importación.
+	 */
+	@Test
+	void testImportData() throws Exception {
+		ImportResultDTO result = importLines(2,
+				"{\"type\":\"editorial\",\"name\":\"Planeta\"}",
+				"{\"type\":\"author\",\"ref\":\"gabo\",\"name\":\"Gabriel\",\"birthDate\":\"1927-03-06\"}",
+				"",
+				"{\"type\":\"book\",\"isbn\":\"111\",\"name\":\"Book 1\",\"editorial\":{\"name\":\"Planeta\"}}",
+				"{\"type\":\"book\",\"isbn\":\"222\",\"name\":\"Book 2\",\"editorial\":{\"id\":" + editorial.getId() + "}}",
+				"{\"type\":\"review\",\"book\":{\"isbn\":\"111\"},\"name\":\"Review\",\"source\":\"Source\"}",
+				"{\"type\":\"author-book\",\"author\":{\"ref\":\"gabo\"},\"book\":{\"isbn\":\"111\"}}",
+				"{\"type\":\"author-book\",\"author\":{\"id\":" + author.getId() + "},\"book\":{\"isbn\":\"111\"}}");
+
+		assertEquals(8, result.getLines());
+		assertEquals(7, result.getImported());
+		assertEquals(0, result.getFailed());
+		assertTrue(result.getErrors().isEmpty());
+		assertTrue(result.getRowsPerSecond() > 0);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			EditorialEntity planeta = editorialRepository.findByName("Planeta").get(0);
+			Long id = bookId("111");
+			BookEntity book = bookRepository.findById(id).get();
+			assertEquals("Book 1", book.getName());
+			assertEquals(planeta.getId(), book.getEditorial().getId());
+			assertEquals(1, book.getReviews().size());
+			assertEquals("Review", book.getReviews().get(0).getName());
+			assertEquals(Set.of("Gabriel", "Existing author"),
+					book.getAuthors().stream().map(AuthorEntity::getName).collect(Collectors.toSet()));
+
+			BookEntity other = bookRepository.findById(bookId("222")).get();
+			assertEquals(editorial.getId(), other.getEditorial().getId());
+		});
+	}
+
+	/**
+	 * Prueba que las líneas inválidas se reportan con su número sin afectar a las
+	 * demás líneas del lote.
+	 */
+	@Test
+	void testImportDataWithInvalidLines() throws Exception {
+		ImportResultDTO result = importLines(null,
+				"{\"type\":\"book\",\"isbn\":\"111\",\"name\":\"Book 1\",\"editorial\":{\"name\":\"Existing\"}}",
+				"{not json",
+				"{\"type\":\"magazine\"}",
+				"{\"type\":\"book\",\"isbn\":\"222\",\"name\":\"Book 2\",\"editorial\":{\"name\":\"Missing\"}}",
+				"{\"type\":\"book\",\"isbn\":\"111\",\"name\":\"Book 3\",\"editorial\":{\"name\":\"Existing\"}}",
+				"{\"type\":\"book\",\"name\":\"Book 4\",\"editorial\":{\"name\":\"Existing\"}}",
+				"{\"type\":\"review\",\"book\":{\"id\":0},\"name\":\"Review\"}",
+				"{\"type\":\"author-book\",\"author\":{\"ref\":\"nobody\"},\"book\":{\"isbn\":\"111\"}}",
+				"{\"type\":\"editorial\",\"name\":\"Existing\"}",
+				"{\"type\":\"author\",\"name\":\"Future\",\"birthDate\":\"2999-01-01\"}",
+				"{\"type\":\"editorial\",\"name\":\"New\"}");
+
+		assertEquals(11, result.getLines());
+		assertEquals(2, result.getImported());
+		assertEquals(9, result.getFailed());
+		assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L),
+				result.getErrors().stream().map(ImportErrorDTO::getLine).toList());
+		assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+		assertEquals("Unknown type: magazine", result.getErrors().get(1).getMessage());
+		assertEquals("Editorial is not valid", result.getErrors().get(2).getMessage());
+		assertEquals(ErrorMessage.ISBN_ALREADY_EXISTS, result.getErrors().get(3).getMessage());
+		assertEquals("ISBN is not valid", result.getErrors().get(4).getMessage());
+		assertEquals(ErrorMessage.BOOK_NOT_FOUND, result.getErrors().get(5).getMessage());
+		assertEquals(ErrorMessage.AUTHOR_NOT_FOUND, result.getErrors().get(6).getMessage());
+		assertEquals(ErrorMessage.EDITORIAL_NAME_ALREADY_EXISTS, result.getErrors().get(7).getMessage());
+
+		assertNotNull(bookId("111"));
+		assertEquals(1, editorialRepository.findByName("New").size());
+	}
+
+	/**
+	 * Prueba que cuando la base de datos rechaza un lote, este se repite línea
+	 * por línea y solo se pierde la línea que falla.
+	 */
+	@Test
+	void testImportDataWithFailedBatch() throws Exception {
+		ImportResultDTO result = importLines(10,
+				"{\"type\":\"editorial\",\"name\":\"A\"}",
+				"{\"type\":\"editorial\",\"name\":\"B\"}",
+				"{\"type\":\"editorial\",\"name\":\"" + "x".repeat(300) + "\"}",
+				"{\"type\":\"editorial\",\"name\":\"C\"}",
+				"{\"type\":\"book\",\"isbn\":\"111\",\"name\":\"Book 1\",\"editorial\":{\"name\":\"C\"}}");
+
+		assertEquals(4, result.getImported());
+		assertEquals(1, result.getFailed());
+		assertEquals(3, result.getErrors().get(0).getLine());
+		assertEquals(1, editorialRepository.findByName("A").size());
+		assertEquals(1, editorialRepository.findByName("C").size());
+		assertNotNull(bookId("111"));
+	}
+
+	/**
+	 * Prueba para importar con un tamaño de lote inválido.
+	 */
+	@Test
+	void testImportDataWithInvalidBatchSize() {
+		assertThrows(IllegalOperationException.class, () -> importLines(0, "{\"type\":\"editorial\",\"name\":\"A\"}"));
+		assertThrows(IllegalOperationException.class,
+				() -> importLines(ImportService.MAX_BATCH_SIZE + 1, "{\"type\":\"editorial\",\"name\":\"A\"}"));
+	}
+}
@@ -144,6 +144,21 @@ class OrganizationServiceTest {
 		}
 	}
 
+	/**
+	 * Prueba para consultar la lista de Organizations por páginas.
+	 */
+	@Test
+	void testGetOrganizationsPage() {
+		List<OrganizationEntity> firstPage = organizationService.getOrganizations(null, 2);
+		assertEquals(2, firstPage.size());
+		assertEquals(organizationList.get(0).getId(), firstPage.get(0).getId());
+		assertEquals(organizationList.get(1).getId(), firstPage.get(1).getId());
+
+		List<OrganizationEntity> secondPage = organizationService.getOrganizations(firstPage.get(1).getId(), 2);
+		assertEquals(organizationList.size() - 2, secondPage.size());
+		assertEquals(organizationList.get(2).getId(), secondPage.get(0).getId());
+	}
+
 	/**
 	 * Prueba para consultar una Organization.
 	 */
@@ -171,7 +186,7 @@ class OrganizationServiceTest {
 	 * Prueba para actualizar un Organization.
 	 */
 	@Test
-	void testUpdateOrganization() throws EntityNotFoundException {
+	void testUpdateOrganization() throws EntityNotFoundException, IllegalOperationException {
 		OrganizationEntity entity = organizationList.get(0);
 		OrganizationEntity pojoEntity = factory.manufacturePojo(OrganizationEntity.class);
 
@@ -196,6 +211,19 @@ class OrganizationServiceTest {
 		});		
 	}
 
+	/**
+	 * Prueba para actualizar una organización con el nombre de otra.
+	 */
+	@Test
+	void testUpdateOrganizationWithSameName() {
+		assertThrows(IllegalOperationException.class, () -> {
+			OrganizationEntity entity = organizationList.get(0);
+			OrganizationEntity pojoEntity = factory.manufacturePojo(OrganizationEntity.class);
+			pojoEntity.setName(organizationList.get(1).getName());
+			organizationService.updateOrganization(entity.getId(), pojoEntity);
+		});
+	}
+
 	/**
 	 * Prueba para eliminar una organización.
 	 */
@@ -41,6 +41,7 @@ import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
 import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
 import co.edu.uniandes.dse.bookstore.services.PrizeAuthorService;
 import uk.co.jemos.podam.api.PodamFactory;
 import uk.co.jemos.podam.api.PodamFactoryImpl;
@@ -52,7 +53,7 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
  */
 @DataJpaTest
 @Transactional
-@Import(PrizeAuthorService.class)
+@Import({ PrizeAuthorService.class, CounterService.class })
 class PrizeAuthorServiceTest {
 
 	private PodamFactory factory = new PodamFactoryImpl();
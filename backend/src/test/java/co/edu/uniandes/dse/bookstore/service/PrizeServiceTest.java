@@ -30,18 +30,26 @@ import java.util.List;
 
 import jakarta.transaction.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 
+import co.edu.uniandes.dse.bookstore.dto.PrizeDTO;
+import co.edu.uniandes.dse.bookstore.dto.PrizeSummary;
 import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
 import co.edu.uniandes.dse.bookstore.entities.OrganizationEntity;
 import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
 import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
 import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
 import co.edu.uniandes.dse.bookstore.services.OrganizationService;
 import co.edu.uniandes.dse.bookstore.services.PrizeService;
 import uk.co.jemos.podam.api.PodamFactory;
@@ -54,7 +62,7 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
  */
 @DataJpaTest
 @Transactional
-@Import({ PrizeService.class, OrganizationService.class })
+@Import({ PrizeService.class, OrganizationService.class, CounterService.class })
 class PrizeServiceTest {
 
 	@Autowired
@@ -187,6 +195,37 @@ class PrizeServiceTest {
 		}
 	}
 
+	/**
+	 * Prueba para consultar la lista de Prizes por páginas.
+	 */
+	@Test
+	void testGetPrizesPage() {
+		List<PrizeEntity> firstPage = prizeService.getPrizes(null, 2);
+		assertEquals(2, firstPage.size());
+		assertEquals(prizeList.get(0).getId(), firstPage.get(0).getId());
+		assertEquals(prizeList.get(1).getId(), firstPage.get(1).getId());
+
+		List<PrizeEntity> secondPage = prizeService.getPrizes(firstPage.get(1).getId(), 2);
+		assertEquals(prizeList.size() - 2, secondPage.size());
+		assertEquals(prizeList.get(2).getId(), secondPage.get(0).getId());
+	}
+
+	/**
+	 * Prueba que las proyecciones de Prize producen el mismo JSON que los DTO
+	 * obtenidos a partir de las entidades.
+	 */
+	@Test
+	void testGetPrizeSummaries() {
+		entityManager.flush();
+		entityManager.clear();
+		List<PrizeDTO> dtos = new ModelMapper().map(prizeService.getPrizes(null, 10), new TypeToken<List<PrizeDTO>>() {
+		}.getType());
+		List<PrizeSummary> summaries = prizeService.getPrizeSummaries(null, 10);
+
+		ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		assertEquals(mapper.valueToTree(dtos), mapper.valueToTree(summaries));
+	}
+
 	/**
 	 * Prueba para consultar un Prize.
 	 */
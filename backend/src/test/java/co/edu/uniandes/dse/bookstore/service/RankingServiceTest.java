@@ -0,0 +1,352 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.dto.RankingEntryDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.entities.ReviewEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.PrizeRepository;
+import co.edu.uniandes.dse.bookstore.repositories.ReviewRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
+import co.edu.uniandes.dse.bookstore.services.CountersChangedEvent;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.PrizeAuthorService;
+import co.edu.uniandes.dse.bookstore.services.RankingService;
+import co.edu.uniandes.dse.bookstore.services.ReviewService;
+
+/**
+ * Pruebas de las clasificaciones. Se actualizan cuando se confirman las
+ * transacciones de los servicios, por lo que las pruebas no son transaccionales
+ * y los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ RankingService.class, CounterService.class, AuthorshipService.class, BookService.class, AuthorService.class,
+		EditorialService.class, ReviewService.class, BookAuthorService.class, PrizeAuthorService.class })
+class RankingServiceTest {
+
+	@Autowired
+	private RankingService rankingService;
+
+	@Autowired
+	private CounterService counterService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private PrizeAuthorService prizeAuthorService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private PrizeRepository prizeRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private EditorialEntity editorial;
+
+	@BeforeEach
+	void setUp() throws IllegalOperationException {
+		rankingService.rebuild();
+		editorial = createEditorial("Editorial Sudamericana");
+	}
+
+	@AfterEach
+	void tearDown() {
+		reviewRepository.deleteAll();
+		prizeRepository.deleteAll();
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	private EditorialEntity createEditorial(String name) throws IllegalOperationException {
+		EditorialEntity entity = new EditorialEntity();
+		entity.setName(name);
+		return editorialService.createEditorial(entity);
+	}
+
+	private BookEntity createBook(String name, String isbn) throws EntityNotFoundException, IllegalOperationException {
+		BookEntity book = new BookEntity();
+		book.setName(name);
+		book.setIsbn(isbn);
+		book.setEditorial(editorial);
+		return bookService.createBook(book);
+	}
+
+	private AuthorEntity createAuthor(String name) throws IllegalOperationException {
+		AuthorEntity author = new AuthorEntity();
+		author.setName(name);
+		author.setBirthDate(new Date(0));
+		return authorService.createAuthor(author);
+	}
+
+	private ReviewEntity addReview(BookEntity book) throws EntityNotFoundException {
+		ReviewEntity review = new ReviewEntity();
+		review.setName("Reseña");
+		return reviewService.createReview(book.getId(), review);
+	}
+
+	private PrizeEntity createPrize(String name) {
+		PrizeEntity prize = new PrizeEntity();
+		prize.setName(name);
+		return prizeRepository.save(prize);
+	}
+
+	private static List<Long> ids(List<RankingEntryDTO> ranking) {
+		return ranking.stream().map(RankingEntryDTO::getId).toList();
+	}
+
+	/**
+	 * Prueba que las reseñas, los vínculos entre libros y autores, los premios y
+	 * los libros de cada editorial mueven las clasificaciones en cuanto se
+	 * confirman.
+	 */
+	@Test
+	void testRankingsFollowWrites() throws Exception {
+		BookEntity dune = createBook("Dune", "978-0441013593");
+		BookEntity emma = createBook("Emma", "978-0141439587");
+		AuthorEntity herbert = createAuthor("Frank Herbert");
+		AuthorEntity austen = createAuthor("Jane Austen");
+		PrizeEntity hugo = createPrize("Hugo");
+		PrizeEntity nebula = createPrize("Nebula");
+
+		addReview(dune);
+		ReviewEntity review = addReview(emma);
+		ReviewEntity another = addReview(emma);
+		bookAuthorService.addAuthor(dune.getId(), herbert.getId());
+		bookAuthorService.addAuthor(emma.getId(), austen.getId());
+		bookAuthorService.addAuthor(dune.getId(), austen.getId());
+		prizeAuthorService.addAuthor(herbert.getId(), hugo.getId());
+		prizeAuthorService.addAuthor(herbert.getId(), nebula.getId());
+
+		List<RankingEntryDTO> books = rankingService.getRanking("most-reviewed-books", 10);
+		assertEquals(List.of(emma.getId(), dune.getId()), ids(books));
+		assertEquals("Emma", books.get(0).getName());
+		assertEquals(2, books.get(0).getCount());
+		assertEquals(List.of(austen.getId(), herbert.getId()),
+				ids(rankingService.getRanking("most-prolific-authors", 10)));
+		assertEquals(List.of(herbert.getId()), ids(rankingService.getRanking("most-awarded-authors", 10)));
+		List<RankingEntryDTO> editorials = rankingService.getRanking("largest-editorials", 10);
+		assertEquals(List.of(editorial.getId()), ids(editorials));
+		assertEquals(2, editorials.get(0).getCount());
+
+		reviewService.deleteReview(emma.getId(), review.getId());
+		reviewService.deleteReview(emma.getId(), another.getId());
+		prizeAuthorService.replaceAuthor(nebula.getId(), austen.getId());
+
+		assertEquals(List.of(dune.getId()), ids(rankingService.getRanking("most-reviewed-books", 10)));
+		List<RankingEntryDTO> awarded = rankingService.getRanking("most-awarded-authors", 10);
+		assertEquals(List.of(herbert.getId(), austen.getId()), ids(awarded));
+		assertEquals(1, awarded.get(0).getCount());
+	}
+
+	/**
+	 * Prueba que la reconstrucción parte de los contadores de la base de datos y
+	 * que el límite recorta la clasificación.
+	 */
+	@Test
+	void testRebuildFromCounters() throws Exception {
+		BookEntity first = createBook("Ficciones", "978-0802130303");
+		BookEntity second = createBook("Rayuela", "978-8437604572");
+		BookEntity third = createBook("Pedro Páramo", "978-0802133908");
+		jdbcTemplate.update("update book_entity set review_count = 7 where id = ?", second.getId());
+		jdbcTemplate.update("update book_entity set review_count = 3 where id = ?", first.getId());
+		jdbcTemplate.update("update book_entity set review_count = 3 where id = ?", third.getId());
+
+		rankingService.rebuild();
+
+		assertEquals(List.of(second.getId(), first.getId(), third.getId()),
+				ids(rankingService.getRanking("most-reviewed-books", 10)));
+		assertEquals(List.of(second.getId(), first.getId()),
+				ids(rankingService.getRanking("most-reviewed-books", 2)));
+
+		// La corrección de los contadores también reconstruye las clasificaciones.
+		assertEquals(3, counterService.reconcile());
+		assertTrue(rankingService.getRanking("most-reviewed-books", 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que una reconstrucción que corre después de confirmar una reseña,
+	 * pero antes de que llegue su evento, no la cuenta dos veces. La
+	 * reconstrucción corre en otro hilo y termina antes de que se publique el
+	 * evento; la sincronización de la prueba se registra primero y tiene la
+	 * misma precedencia que la de los contadores, así que corre antes.
+	 */
+	@Test
+	void testRebuildBetweenCommitAndEvent() throws Exception {
+		BookEntity book = createBook("Ficciones", "978-0802130303");
+
+		CompletableFuture<Void> rebuild = new CompletableFuture<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public int getOrder() {
+					return Ordered.HIGHEST_PRECEDENCE;
+				}
+
+				@Override
+				public void afterCommit() {
+					CompletableFuture.runAsync(rankingService::rebuild).whenComplete((result, e) -> {
+						if (e == null)
+							rebuild.complete(null);
+						else
+							rebuild.completeExceptionally(e);
+					});
+					try {
+						rebuild.get(10, TimeUnit.SECONDS);
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			});
+			try {
+				addReview(book);
+			} catch (EntityNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		rebuild.get(10, TimeUnit.SECONDS);
+
+		assertEquals(1, rankingService.getRanking("most-reviewed-books", 10).get(0).getCount());
+	}
+
+	/**
+	 * Prueba que un evento repetido o que llega tarde no cambia la
+	 * clasificación, y que el de una entidad que ya no existe la quita.
+	 */
+	@Test
+	void testRepeatedEvent() throws Exception {
+		BookEntity book = createBook("Ficciones", "978-0802130303");
+		addReview(book);
+		CountersChangedEvent event = CountersChangedEvent.of(Map.of(Counter.BOOK_REVIEWS, Set.of(book.getId())));
+
+		eventPublisher.publishEvent(event);
+		eventPublisher.publishEvent(event);
+		assertEquals(1, rankingService.getRanking("most-reviewed-books", 10).get(0).getCount());
+
+		jdbcTemplate.update("delete from review_entity where book_id = ?", book.getId());
+		jdbcTemplate.update("delete from book_entity where id = ?", book.getId());
+		eventPublisher.publishEvent(event);
+		assertTrue(rankingService.getRanking("most-reviewed-books", 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que los cambios de nombre se ven en las clasificaciones y que una
+	 * entidad borrada sale de ellas.
+	 */
+	@Test
+	void testRenameAndDelete() throws Exception {
+		BookEntity book = createBook("Ficciones", "978-0802130303");
+		addReview(book);
+
+		EditorialEntity renamed = new EditorialEntity();
+		renamed.setName("Emecé");
+		editorialService.updateEditorial(editorial.getId(), renamed);
+		assertEquals("Emecé", rankingService.getRanking("largest-editorials", 10).get(0).getName());
+
+		bookService.deleteBook(book.getId());
+		assertTrue(rankingService.getRanking("most-reviewed-books", 10).isEmpty());
+		assertTrue(rankingService.getRanking("largest-editorials", 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que una clasificación desconocida o un límite no positivo se
+	 * rechazan.
+	 */
+	@Test
+	void testInvalidRanking() {
+		assertThrows(EntityNotFoundException.class, () -> rankingService.getRanking("best-sellers", 10));
+		assertThrows(IllegalOperationException.class, () -> rankingService.getRanking("most-reviewed-books", 0));
+	}
+}
@@ -0,0 +1,310 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.dto.RelatedBookDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BaseEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.AuthorshipService;
+import co.edu.uniandes.dse.bookstore.services.BookAuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.RelatedBookService;
+
+/**
+ * Pruebas de las recomendaciones de libros relacionados. El índice se
+ * actualiza después de confirmar cada transacción de los servicios, así que
+ * estas pruebas corren sin transacción y borran sus datos al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ RelatedBookService.class, BookService.class, AuthorService.class, EditorialService.class,
+		BookAuthorService.class, EditorialBookService.class, BookstoreMapperImpl.class, CounterService.class,
+		AuthorshipService.class })
+class RelatedBookServiceTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Autowired
+	private RelatedBookService relatedBookService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private BookAuthorService bookAuthorService;
+
+	@Autowired
+	private EditorialBookService editorialBookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private List<EditorialEntity> editorials = new ArrayList<>();
+	private List<AuthorEntity> authors = new ArrayList<>();
+	private int isbn;
+
+	@BeforeEach
+	void setUp() throws IllegalOperationException {
+		relatedBookService.rebuild();
+		for (String name : List.of("Alfaguara", "Anagrama", "Planeta")) {
+			EditorialEntity editorial = new EditorialEntity();
+			editorial.setName(name);
+			editorials.add(editorialService.createEditorial(editorial));
+		}
+		for (String name : List.of("Julio Cortázar", "Jorge Luis Borges", "Clarice Lispector", "Juan Rulfo")) {
+			AuthorEntity author = new AuthorEntity();
+			author.setName(name);
+			author.setBirthDate(new GregorianCalendar(1914, 7, 26).getTime());
+			authors.add(authorService.createAuthor(author));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	private BookEntity createBook(EditorialEntity editorial, int year, AuthorEntity... bookAuthors)
+			throws EntityNotFoundException, IllegalOperationException {
+		BookEntity book = new BookEntity();
+		book.setName("Libro " + isbn);
+		book.setIsbn("isbn-" + isbn++);
+		book.setEditorial(editorial);
+		book.setPublishingDate(new GregorianCalendar(year, 5, 15).getTime());
+		book = bookService.createBook(book);
+		for (AuthorEntity author : bookAuthors)
+			bookAuthorService.addAuthor(book.getId(), author.getId());
+		return book;
+	}
+
+	private static List<Long> ids(List<? extends BaseEntity> entities) {
+		return entities.stream().map(BaseEntity::getId).toList();
+	}
+
+	private static List<Long> relatedIds(List<RelatedBookDTO> related) {
+		return related.stream().map(RelatedBookDTO::getId).toList();
+	}
+
+	/**
+	 * Prueba el orden y la similitud de los libros relacionados: un autor
+	 * compartido pesa más que la editorial y la década, y los libros que solo
+	 * comparten la década no se recomiendan.
+	 */
+	@Test
+	void testRelatedBySharedValues() throws Exception {
+		EditorialEntity alfaguara = editorials.get(0);
+		EditorialEntity anagrama = editorials.get(1);
+		AuthorEntity cortazar = authors.get(0);
+		AuthorEntity borges = authors.get(1);
+		BookEntity rayuela = createBook(alfaguara, 1963, cortazar);
+		BookEntity sameValues = createBook(alfaguara, 1965, cortazar);
+		BookEntity sameAuthor = createBook(anagrama, 1968, cortazar);
+		BookEntity sameEditorial = createBook(alfaguara, 1944, borges);
+		createBook(anagrama, 1960, borges);
+
+		List<RelatedBookDTO> related = relatedBookService.getRelated(rayuela.getId(), 10);
+		assertEquals(List.of(sameValues.getId(), sameAuthor.getId(), sameEditorial.getId()), relatedIds(related));
+		assertEquals(1.0, related.get(0).getSimilarity(), DELTA);
+		assertEquals(4.0 / 6, related.get(1).getSimilarity(), DELTA);
+		assertEquals(1.0 / 9, related.get(2).getSimilarity(), DELTA);
+		assertEquals(sameValues.getName(), related.get(0).getName());
+	}
+
+	/**
+	 * Prueba el límite de libros, un límite inválido y los libros que no existen o
+	 * que no tienen libros relacionados.
+	 */
+	@Test
+	void testLimitsAndMissingBooks() throws Exception {
+		List<BookEntity> books = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			books.add(createBook(editorials.get(0), 2000 + i, authors.get(i % 2)));
+		BookEntity alone = createBook(editorials.get(2), 1950);
+
+		assertEquals(List.of(books.get(2).getId(), books.get(4).getId()),
+				relatedIds(relatedBookService.getRelated(books.get(0).getId(), 2)));
+		assertEquals(4, relatedBookService.getRelated(books.get(0).getId(), 1000).size());
+		assertTrue(relatedBookService.getRelated(alone.getId(), 10).isEmpty());
+
+		assertThrows(IllegalOperationException.class, () -> relatedBookService.getRelated(books.get(0).getId(), 0));
+		assertThrows(EntityNotFoundException.class, () -> relatedBookService.getRelated(0L, 10));
+	}
+
+	/**
+	 * Prueba que los cambios de los libros y de sus asociaciones actualizan el
+	 * índice.
+	 */
+	@Test
+	void testIndexFollowsChanges() throws Exception {
+		AuthorEntity rulfo = authors.get(3);
+		BookEntity paramo = createBook(editorials.get(0), 1955, rulfo);
+		BookEntity llano = createBook(editorials.get(1), 1953);
+		assertTrue(relatedBookService.getRelated(paramo.getId(), 10).isEmpty());
+
+		bookAuthorService.addAuthor(llano.getId(), rulfo.getId());
+		assertEquals(List.of(llano.getId()), relatedIds(relatedBookService.getRelated(paramo.getId(), 10)));
+		assertEquals(4.0 / 6, relatedBookService.getRelated(paramo.getId(), 10).get(0).getSimilarity(), DELTA);
+
+		editorialBookService.addBook(llano.getId(), editorials.get(0).getId());
+		assertEquals(1.0, relatedBookService.getRelated(paramo.getId(), 10).get(0).getSimilarity(), DELTA);
+
+		BookEntity changes = new BookEntity();
+		changes.setName("El llano en llamas");
+		changes.setIsbn(llano.getIsbn());
+		changes.setEditorial(editorials.get(0));
+		changes.setPublishingDate(llano.getPublishingDate());
+		changes.setAuthors(new ArrayList<>(List.of(rulfo)));
+		bookService.updateBook(llano.getId(), changes);
+		assertEquals("El llano en llamas", relatedBookService.getRelated(paramo.getId(), 10).get(0).getName());
+
+		bookAuthorService.removeAuthor(llano.getId(), rulfo.getId());
+		assertEquals(2.0 / 5, relatedBookService.getRelated(paramo.getId(), 10).get(0).getSimilarity(), DELTA);
+
+		bookService.deleteBook(llano.getId());
+		assertTrue(relatedBookService.getRelated(paramo.getId(), 10).isEmpty());
+		assertEquals(1, relatedBookService.size());
+	}
+
+	/**
+	 * Prueba que, después de reconstruir el índice y de cambios al azar, los
+	 * libros relacionados son los mismos que se obtienen comparando cada libro con
+	 * todos los demás.
+	 */
+	@Test
+	void testRelatedMatchesExhaustiveComputation() throws Exception {
+		Random random = new Random(11);
+		List<BookEntity> books = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			List<AuthorEntity> bookAuthors = new ArrayList<>(authors);
+			bookAuthors.removeIf(author -> random.nextInt(3) != 0);
+			books.add(createBook(editorials.get(random.nextInt(editorials.size())), 1975 + random.nextInt(30),
+					bookAuthors.toArray(new AuthorEntity[0])));
+		}
+		relatedBookService.rebuild();
+		for (int change = 0; change < 15; change++) {
+			BookEntity book = books.get(random.nextInt(books.size()));
+			AuthorEntity author = authors.get(random.nextInt(authors.size()));
+			if (random.nextBoolean())
+				editorialBookService.addBook(book.getId(), editorials.get(random.nextInt(editorials.size())).getId());
+			else if (bookAuthorService.getAuthors(book.getId()).contains(author))
+				bookAuthorService.removeAuthor(book.getId(), author.getId());
+			else
+				bookAuthorService.addAuthor(book.getId(), author.getId());
+		}
+
+		Map<Long, Set<String>> valuesOf = new HashMap<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			for (BookEntity book : bookRepository.findAll()) {
+				Set<String> values = new HashSet<>();
+				values.add("editorial " + book.getEditorial().getId());
+				GregorianCalendar calendar = new GregorianCalendar();
+				calendar.setTime(book.getPublishingDate());
+				values.add("decade " + calendar.get(GregorianCalendar.YEAR) / 10);
+				for (Long author : ids(book.getAuthors()))
+					values.add("author " + author);
+				valuesOf.put(book.getId(), values);
+			}
+		});
+
+		for (BookEntity book : books) {
+			Set<String> values = valuesOf.get(book.getId());
+			Map<Long, Double> similarities = new HashMap<>();
+			for (Map.Entry<Long, Set<String>> other : valuesOf.entrySet()) {
+				Set<String> shared = new HashSet<>(values);
+				shared.retainAll(other.getValue());
+				if (other.getKey().equals(book.getId())
+						|| shared.stream().allMatch(value -> value.startsWith("decade")))
+					continue;
+				int sharedWeight = weight(shared);
+				similarities.put(other.getKey(),
+						(double) sharedWeight / (weight(values) + weight(other.getValue()) - sharedWeight));
+			}
+			List<Long> expected = similarities.keySet().stream()
+					.sorted(Comparator.comparing((Long id) -> -similarities.get(id)).thenComparing(id -> id))
+					.limit(5).toList();
+
+			List<RelatedBookDTO> related = relatedBookService.getRelated(book.getId(), 5);
+			assertEquals(expected, relatedIds(related));
+			for (RelatedBookDTO dto : related)
+				assertEquals(similarities.get(dto.getId()), dto.getSimilarity(), DELTA);
+		}
+	}
+
+	private static int weight(Set<String> values) {
+		return values.stream().mapToInt(value -> value.startsWith("author") ? 3 : 1).sum();
+	}
+}
@@ -0,0 +1,361 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import co.edu.uniandes.dse.bookstore.dto.SearchResultDTO;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.AuthorService;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.EntityChangedEvent;
+import co.edu.uniandes.dse.bookstore.services.SearchService;
+
+/**
+ * Pruebas de la búsqueda de texto completo. El índice se actualiza cuando se
+ * confirman las transacciones de los servicios, por lo que las pruebas no son
+ * transaccionales y los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ SearchService.class, BookService.class, AuthorService.class, EditorialService.class, CounterService.class })
+class SearchServiceTest {
+
+	@Autowired
+	private SearchService searchService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private AuthorService authorService;
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private EditorialEntity editorial;
+
+	@BeforeEach
+	void setUp() throws IllegalOperationException {
+		searchService.rebuild();
+		editorial = new EditorialEntity();
+		editorial.setName("Editorial Sudamericana");
+		editorial = editorialService.createEditorial(editorial);
+	}
+
+	@AfterEach
+	void tearDown() {
+		bookRepository.deleteAll();
+		authorRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	private BookEntity createBook(String name, String isbn, String description)
+			throws EntityNotFoundException, IllegalOperationException {
+		BookEntity book = new BookEntity();
+		book.setName(name);
+		book.setIsbn(isbn);
+		book.setDescription(description);
+		book.setEditorial(editorial);
+		return bookService.createBook(book);
+	}
+
+	private AuthorEntity createAuthor(String name, String description) throws IllegalOperationException {
+		AuthorEntity author = new AuthorEntity();
+		author.setName(name);
+		author.setDescription(description);
+		author.setBirthDate(new Date(0));
+		return authorService.createAuthor(author);
+	}
+
+	private List<Long> ids(List<SearchResultDTO> results) {
+		return results.stream().map(SearchResultDTO::getId).toList();
+	}
+
+	/**
+	 * Prueba que la búsqueda ignora mayúsculas y tildes, en ambos sentidos.
+	 */
+	@Test
+	void testSearchFoldsAccents() throws Exception {
+		AuthorEntity author = createAuthor("Gabriel García Márquez", "Escritor colombiano");
+		BookEntity book = createBook("Cien años de soledad", "978-0-06-088328-7", "Novela de Macondo");
+
+		List<SearchResultDTO> results = searchService.search("GARCIA marquez", 10);
+		assertEquals(1, results.size());
+		assertEquals(SearchResultDTO.TYPE.AUTHOR, results.get(0).getType());
+		assertEquals(author.getId(), results.get(0).getId());
+		assertEquals(author.getName(), results.get(0).getName());
+
+		assertEquals(List.of(book.getId()), ids(searchService.search("anos", 10)));
+		assertEquals(List.of(book.getId()), ids(searchService.search("Años", 10)));
+		assertEquals(List.of(author.getId()), ids(searchService.search("colombiáno", 10)));
+	}
+
+	/**
+	 * Prueba que el ISBN se encuentra con y sin guiones.
+	 */
+	@Test
+	void testSearchByIsbn() throws Exception {
+		BookEntity book = createBook("Rayuela", "978-84-376-0494-7", null);
+
+		assertEquals(List.of(book.getId()), ids(searchService.search("978-84-376-0494-7", 10)));
+		assertEquals(List.of(book.getId()), ids(searchService.search("9788437604947", 10)));
+	}
+
+	/**
+	 * Prueba que los resultados se ordenan por relevancia: los documentos con más
+	 * términos de la consulta y con coincidencias en el nombre quedan primero.
+	 */
+	@Test
+	void testSearchRanksByRelevance() throws Exception {
+		BookEntity bothInName = createBook("Laberintos y espejos", "1", "Ensayos");
+		BookEntity bothInDescription = createBook("Ficciones", "2", "Cuentos sobre laberintos y espejos");
+		BookEntity oneInName = createBook("Laberintos", "3", "Ensayo");
+		BookEntity oneInDescription = createBook("El Aleph", "4", "Cuentos con laberintos");
+		createBook("Pedro Páramo", "5", "Novela");
+
+		List<SearchResultDTO> results = searchService.search("laberintos espejos", 10);
+		assertEquals(4, results.size());
+		assertEquals(bothInName.getId(), results.get(0).getId());
+		List<Long> ids = ids(results);
+		assertTrue(ids.indexOf(bothInDescription.getId()) < ids.indexOf(oneInDescription.getId()));
+		assertTrue(ids.indexOf(oneInName.getId()) < ids.indexOf(oneInDescription.getId()));
+		for (int i = 1; i < results.size(); i++)
+			assertTrue(results.get(i - 1).getScore() > results.get(i).getScore());
+	}
+
+	/**
+	 * Prueba que la búsqueda incluye las editoriales y respeta el límite.
+	 */
+	@Test
+	void testSearchLimit() throws Exception {
+		for (int i = 0; i < 5; i++)
+			createBook("Sudamericana " + i, "isbn-" + i, null);
+
+		List<SearchResultDTO> results = searchService.search("sudamericana", 3);
+		assertEquals(3, results.size());
+		assertEquals(6, searchService.search("sudamericana", 10).size());
+		assertTrue(searchService.search("sudamericana", 10).stream()
+				.anyMatch(result -> result.getType() == SearchResultDTO.TYPE.EDITORIAL));
+		assertTrue(searchService.search("   ", 10).isEmpty());
+		assertTrue(searchService.search("inexistente", 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que un límite no positivo es rechazado.
+	 */
+	@Test
+	void testSearchInvalidLimit() {
+		assertThrows(IllegalOperationException.class, () -> searchService.search("soledad", 0));
+	}
+
+	/**
+	 * Prueba que actualizar y borrar libros, autores y editoriales actualiza el
+	 * índice.
+	 */
+	@Test
+	void testIndexFollowsUpdatesAndDeletes() throws Exception {
+		BookEntity book = createBook("La tregua", "978-950-731-192-4", null);
+		AuthorEntity author = createAuthor("Mario Benedetti", null);
+
+		BookEntity changes = new BookEntity();
+		changes.setName("La borra del café");
+		changes.setIsbn(book.getIsbn());
+		changes.setEditorial(editorial);
+		bookService.updateBook(book.getId(), changes);
+		assertTrue(searchService.search("tregua", 10).isEmpty());
+		assertEquals(List.of(book.getId()), ids(searchService.search("cafe", 10)));
+
+		EditorialEntity renamed = new EditorialEntity();
+		renamed.setName("Alfaguara");
+		editorialService.updateEditorial(editorial.getId(), renamed);
+		assertTrue(searchService.search("sudamericana", 10).isEmpty());
+		assertEquals(List.of(editorial.getId()), ids(searchService.search("alfaguara", 10)));
+
+		bookService.deleteBook(book.getId());
+		authorService.deleteAuthor(author.getId());
+		assertTrue(searchService.search("cafe benedetti", 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que los cambios de una transacción que se deshace no se indexan.
+	 */
+	@Test
+	void testRolledBackChangeIsNotIndexed() throws IllegalOperationException {
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				createBook("Los detectives salvajes", "978-84-339-1090-0", null);
+			} catch (EntityNotFoundException | IllegalOperationException e) {
+				fail(e);
+			}
+			status.setRollbackOnly();
+		});
+		assertTrue(searchService.search("detectives", 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que reconstruir el índice incluye los datos escritos sin pasar por
+	 * los servicios.
+	 */
+	@Test
+	void testRebuild() throws IllegalOperationException {
+		AuthorEntity author = new AuthorEntity();
+		author.setName("Julio Cortázar");
+		author = authorRepository.save(author);
+		assertTrue(searchService.search("cortazar", 10).isEmpty());
+
+		searchService.rebuild();
+		assertEquals(List.of(author.getId()), ids(searchService.search("cortazar", 10)));
+		assertEquals(2, searchService.size());
+	}
+
+	/**
+	 * Prueba que después de muchas actualizaciones, que compactan el índice, solo
+	 * se encuentran las versiones vigentes de los documentos.
+	 */
+	@Test
+	void testManyUpdates() throws IllegalOperationException {
+		int documents = 500;
+		for (int round = 0; round < 4; round++) {
+			for (long id = 1; id <= documents; id++) {
+				BookEntity book = new BookEntity();
+				book.setId(id);
+				book.setName("version" + round + " libro" + id);
+				book.setDescription("uno dos tres cuatro cinco");
+				searchService.onEntityChanged(EntityChangedEvent.saved(book));
+			}
+		}
+		for (long id = 1; id <= documents; id += 2)
+			searchService.onEntityChanged(EntityChangedEvent.deleted(BookEntity.class, id));
+
+		assertEquals(documents / 2 + 1, searchService.size());
+		assertTrue(searchService.search("version0 version1 version2", 100).isEmpty());
+		List<SearchResultDTO> results = searchService.search("version3", 100);
+		assertEquals(100, results.size());
+		assertTrue(results.stream().allMatch(result -> result.getId() % 2 == 0));
+		assertEquals(List.of(42L), ids(searchService.search("libro42", 10)));
+		assertTrue(searchService.search("libro41", 10).isEmpty());
+	}
+
+	/**
+	 * Prueba que en un catálogo pequeño un libro actualizado muchas veces, cuyas
+	 * versiones anteriores aún no se compactan, no vuelve negativo el puntaje de
+	 * los términos que comparte con los demás.
+	 */
+	@Test
+	void testStaleVersionsDoNotSkewScores() throws IllegalOperationException {
+		for (int round = 0; round < 50; round++) {
+			BookEntity book = new BookEntity();
+			book.setId(1L);
+			book.setName("Rayuela " + round);
+			book.setDescription("novela experimental");
+			searchService.onEntityChanged(EntityChangedEvent.saved(book));
+		}
+		BookEntity other = new BookEntity();
+		other.setId(2L);
+		other.setName("Bestiario");
+		other.setDescription("cuentos y una novela");
+		searchService.onEntityChanged(EntityChangedEvent.saved(other));
+
+		List<SearchResultDTO> results = searchService.search("novela", 1);
+		assertEquals(1, results.size());
+		assertTrue(results.get(0).getScore() > 0);
+		List<SearchResultDTO> all = searchService.search("novela", 10);
+		assertEquals(List.of(1L, 2L), ids(all).stream().sorted().toList());
+		assertTrue(all.stream().allMatch(result -> result.getScore() > 0));
+	}
+
+	/**
+	 * Prueba que los mejores resultados de una búsqueda limitada, que descarta
+	 * términos frecuentes, tienen los mismos puntajes que los de una búsqueda que
+	 * recorre todos los documentos.
+	 */
+	@Test
+	void testTopResultsMatchExhaustiveSearch() throws IllegalOperationException {
+		Random random = new Random(7);
+		String[] words = new String[30];
+		for (int i = 0; i < words.length; i++)
+			words[i] = "palabra" + i;
+		int documents = 100;
+		for (long id = 1; id <= documents; id++) {
+			StringBuilder description = new StringBuilder();
+			for (int i = 0; i < 1 + random.nextInt(20); i++)
+				description.append(words[(int) Math.abs(random.nextGaussian() * 6) % words.length]).append(' ');
+			BookEntity book = new BookEntity();
+			book.setId(id);
+			book.setName(words[random.nextInt(words.length)]);
+			book.setDescription(description.toString());
+			searchService.onEntityChanged(EntityChangedEvent.saved(book));
+		}
+
+		for (int q = 0; q < 200; q++) {
+			String query = words[random.nextInt(words.length)] + " " + words[random.nextInt(10)] + " "
+					+ words[random.nextInt(3)];
+			List<SearchResultDTO> all = searchService.search(query, documents);
+			for (int limit : new int[] { 1, 3, 10 }) {
+				List<SearchResultDTO> top = searchService.search(query, limit);
+				assertEquals(Math.min(limit, all.size()), top.size());
+				for (int i = 0; i < top.size(); i++)
+					assertEquals(all.get(i).getScore(), top.get(i).getScore(), 1e-4);
+			}
+		}
+	}
+}
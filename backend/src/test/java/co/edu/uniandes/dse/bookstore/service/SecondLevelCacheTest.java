@@ -0,0 +1,274 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+
+import co.edu.uniandes.dse.bookstore.config.SecondLevelCacheConfig;
+import co.edu.uniandes.dse.bookstore.entities.AuthorEntity;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.entities.PrizeEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.repositories.AuthorRepository;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.repositories.PrizeRepository;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CacheStatisticsService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import co.edu.uniandes.dse.bookstore.services.PrizeAuthorService;
+import jakarta.persistence.EntityManagerFactory;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Pruebas del caché de segundo nivel de Hibernate. Las entradas del caché solo
+ * son visibles para otras sesiones después del commit, por lo que cada paso se
+ * ejecuta en su propia transacción y los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest(properties = { "bookstore.cache.enabled=true", "bookstore.cache.missing-cache-strategy=create",
+		"bookstore.cache.regions.editorials.maximum-size=50",
+		"bookstore.cache.regions.editorials.expire-after-write=5m" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ SecondLevelCacheConfig.class, EditorialService.class, BookService.class, CacheStatisticsService.class,
+		CounterService.class, PrizeAuthorService.class })
+class SecondLevelCacheTest {
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private CacheStatisticsService cacheStatisticsService;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private AuthorRepository authorRepository;
+
+	@Autowired
+	private PrizeRepository prizeRepository;
+
+	@Autowired
+	private PrizeAuthorService prizeAuthorService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager hibernateCacheManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private PodamFactory factory = new PodamFactoryImpl();
+
+	private EditorialEntity editorial;
+
+	private BookEntity book;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			editorial = editorialRepository.save(factory.manufacturePojo(EditorialEntity.class));
+			book = factory.manufacturePojo(BookEntity.class);
+			book.setEditorial(editorial);
+			for (int i = 0; i < 3; i++)
+				book.getAuthors().add(authorRepository.save(factory.manufacturePojo(AuthorEntity.class)));
+			book = bookRepository.save(book);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		transactionTemplate.executeWithoutResult(status -> {
+			prizeRepository.deleteAll();
+			bookRepository.deleteAll();
+			authorRepository.deleteAll();
+			editorialRepository.deleteAll();
+		});
+	}
+
+	private long hits(String region) {
+		CacheRegionStatistics statistics = cacheStatisticsService.getRegionStatistics().get(region);
+		assertNotNull(statistics, "Region " + region + " is not cached");
+		return statistics.getHitCount();
+	}
+
+	/**
+	 * Prueba que una editorial ya leída se obtiene del caché.
+	 */
+	@Test
+	void testEditorialIsCached() throws EntityNotFoundException {
+		editorialService.getEditorial(editorial.getId());
+		long before = hits("editorials");
+
+		EditorialEntity cached = editorialService.getEditorial(editorial.getId());
+		assertEquals(before + 1, hits("editorials"));
+		assertEquals(editorial.getName(), cached.getName());
+	}
+
+	/**
+	 * Prueba que los autores de un libro ya leídos se obtienen del caché.
+	 */
+	@Test
+	void testBookAuthorsAreCached() {
+		transactionTemplate.execute(status -> bookRepository.findById(book.getId()).get().getAuthors().size());
+		long before = hits("book-authors");
+
+		int authors = transactionTemplate
+				.execute(status -> bookRepository.findById(book.getId()).get().getAuthors().size());
+		assertEquals(3, authors);
+		assertEquals(before + 1, hits("book-authors"));
+	}
+
+	/**
+	 * Prueba que la búsqueda por nombre usa el caché de consultas.
+	 */
+	@Test
+	void testFindByNameIsCached() {
+		editorialRepository.findByName(editorial.getName());
+		long before = hits("default-query-results-region");
+
+		assertEquals(1, editorialRepository.findByName(editorial.getName()).size());
+		assertEquals(before + 1, hits("default-query-results-region"));
+	}
+
+	/**
+	 * Prueba que una editorial actualizada no se lee con los datos anteriores
+	 * del caché.
+	 */
+	@Test
+	void testUpdatedEditorialIsNotStale() throws EntityNotFoundException, IllegalOperationException {
+		editorialService.getEditorial(editorial.getId());
+
+		EditorialEntity changes = factory.manufacturePojo(EditorialEntity.class);
+		editorialService.updateEditorial(editorial.getId(), changes);
+
+		assertEquals(changes.getName(), editorialService.getEditorial(editorial.getId()).getName());
+	}
+
+	/**
+	 * Prueba que una consulta cacheada no retorna resultados anteriores a una
+	 * escritura en la tabla.
+	 */
+	@Test
+	void testQueryCacheIsInvalidated() throws EntityNotFoundException, IllegalOperationException {
+		EditorialEntity changes = factory.manufacturePojo(EditorialEntity.class);
+		assertTrue(editorialRepository.findByName(changes.getName()).isEmpty());
+
+		editorialService.updateEditorial(editorial.getId(), changes);
+
+		assertEquals(1, editorialRepository.findByName(changes.getName()).size());
+	}
+
+	/**
+	 * Prueba que al confirmar un premio para un autor, el autor con el contador
+	 * de premios anterior ya salió del caché cuando corre una sincronización
+	 * registrada antes del cambio, como la que invalida el caché de detalles.
+	 */
+	@Test
+	void testCounterEvictionRunsFirst() {
+		Long authorId = book.getAuthors().get(0).getId();
+		PrizeEntity prize = new PrizeEntity();
+		prize.setName("Premio Cervantes");
+		Long prizeId = prizeRepository.save(prize).getId();
+		transactionTemplate.execute(status -> authorRepository.findById(authorId));
+		assertTrue(entityManagerFactory.getCache().contains(AuthorEntity.class, authorId));
+
+		AtomicBoolean cachedAfterCommit = new AtomicBoolean(true);
+		transactionTemplate.executeWithoutResult(status -> {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					cachedAfterCommit.set(entityManagerFactory.getCache().contains(AuthorEntity.class, authorId));
+				}
+			});
+			try {
+				prizeAuthorService.addAuthor(authorId, prizeId);
+			} catch (EntityNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		assertFalse(cachedAfterCommit.get());
+		assertEquals(1, authorRepository.findById(authorId).get().getPrizeCount());
+	}
+
+	/**
+	 * Prueba que las regiones se crean con la configuración de las propiedades.
+	 */
+	@Test
+	void testRegionConfiguration() {
+		@SuppressWarnings("unchecked")
+		CaffeineConfiguration<Object, Object> configuration = hibernateCacheManager.getCache("editorials")
+				.getConfiguration(CaffeineConfiguration.class);
+		assertEquals(OptionalLong.of(50), configuration.getMaximumSize());
+		assertEquals(OptionalLong.of(Duration.ofMinutes(5).toNanos()), configuration.getExpireAfterWrite());
+	}
+
+	/**
+	 * Prueba que las estadísticas incluyen las regiones cacheadas.
+	 */
+	@Test
+	void testRegionStatistics() {
+		Map<String, CacheRegionStatistics> regions = cacheStatisticsService.getRegionStatistics();
+		assertTrue(regions.keySet().containsAll(
+				List.of("editorials", "organizations", "authors", "prizes", "author-prizes", "book-authors")));
+	}
+}
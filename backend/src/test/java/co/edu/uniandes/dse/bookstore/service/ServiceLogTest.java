@@ -0,0 +1,155 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import co.edu.uniandes.dse.bookstore.config.ServiceLogAspect;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.CounterService.Counter;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+
+/**
+ * Pruebas del registro estructurado de las llamadas a los servicios
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({ ServiceLogAspect.class, EditorialService.class, CounterService.class })
+@TestPropertySource(properties = "bookstore.logging.service-calls.sample-rate=0")
+class ServiceLogTest {
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private CounterService counterService;
+
+	private Logger logger = (Logger) LoggerFactory.getLogger("bookstore.service");
+
+	private ListAppender<ILoggingEvent> events = new ListAppender<>();
+
+	/**
+	 * Configuración inicial de la prueba.
+	 */
+	@BeforeEach
+	void setUp() {
+		events.start();
+		logger.addAppender(events);
+	}
+
+	@AfterEach
+	void tearDown() {
+		logger.detachAppender(events);
+	}
+
+	/**
+	 * Prueba que una escritura se registra con sus datos como pares clave-valor.
+	 */
+	@Test
+	void testWriteIsLogged() throws IllegalOperationException {
+		EditorialEntity editorial = new EditorialEntity();
+		editorial.setName("Editorial registrada");
+		editorialService.createEditorial(editorial);
+
+		Map<String, Object> event = only("createEditorial");
+		assertEquals("EditorialService", event.get("service"));
+		assertEquals("success", event.get("outcome"));
+		assertEquals(1.0, event.get("sampleRate"));
+		assertNotNull(event.get("durationMs"));
+	}
+
+	/**
+	 * Prueba que las lecturas exitosas se muestrean.
+	 */
+	@Test
+	void testSuccessfulReadIsSampled() {
+		editorialService.getEditorials();
+		assertTrue(events("getEditorials").isEmpty());
+	}
+
+	/**
+	 * Prueba que los ajustes de contadores, que acompañan a cada escritura, se
+	 * muestrean como las lecturas.
+	 */
+	@Test
+	void testCounterAdjustmentIsSampled() throws IllegalOperationException {
+		EditorialEntity editorial = new EditorialEntity();
+		editorial.setName("Editorial contada");
+		editorial = editorialService.createEditorial(editorial);
+
+		counterService.increment(Counter.EDITORIAL_BOOKS, editorial);
+		counterService.decrement(Counter.EDITORIAL_BOOKS, editorial);
+		assertTrue(events("increment").isEmpty());
+		assertTrue(events("decrement").isEmpty());
+	}
+
+	/**
+	 * Prueba que una lectura que falla se registra aunque no quede en la muestra.
+	 */
+	@Test
+	void testFailedReadIsLogged() {
+		assertThrows(EntityNotFoundException.class, () -> editorialService.getEditorial(0L));
+		assertEquals("EntityNotFoundException", only("getEditorial").get("outcome"));
+	}
+
+	private List<Map<String, Object>> events(String method) {
+		return events.list.stream()
+				.map(event -> event.getKeyValuePairs().stream()
+						.collect(Collectors.toMap(pair -> pair.key, pair -> pair.value)))
+				.filter(pairs -> method.equals(pairs.get("method")))
+				.toList();
+	}
+
+	private Map<String, Object> only(String method) {
+		List<Map<String, Object>> logged = events(method);
+		assertEquals(1, logged.size());
+		return logged.get(0);
+	}
+}
@@ -0,0 +1,164 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import co.edu.uniandes.dse.bookstore.config.ServiceMetricsAspect;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.exceptions.IllegalOperationException;
+import co.edu.uniandes.dse.bookstore.services.EditorialService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Pruebas de las métricas de los métodos de los servicios
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({ ServiceMetricsAspect.class, EditorialService.class })
+class ServiceMetricsTest {
+
+	@Autowired
+	private EditorialService editorialService;
+
+	@Autowired
+	private PrometheusMeterRegistry registry;
+
+	@TestConfiguration
+	static class Registry {
+		@Bean
+		PrometheusMeterRegistry prometheusMeterRegistry() {
+			return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+		}
+	}
+
+	/**
+	 * Cada prueba empieza sin métricas, aunque el contexto se reutilice.
+	 */
+	@BeforeEach
+	void setUp() {
+		registry.clear();
+	}
+
+	/**
+	 * Prueba que cada llamada exitosa queda en el timer del método.
+	 */
+	@Test
+	void testSuccessfulCallsAreTimed() throws IllegalOperationException {
+		assertTrue(AopUtils.isAopProxy(editorialService));
+		EditorialEntity editorial = new EditorialEntity();
+		editorial.setName("Editorial medida");
+		editorialService.createEditorial(editorial);
+		editorialService.getEditorials();
+		editorialService.getEditorials();
+
+		assertEquals(1, timer("createEditorial", "none").count());
+		assertEquals(2, timer("getEditorials", "none").count());
+		assertNull(registry.find("bookstore.service.exceptions").counter());
+	}
+
+	/**
+	 * Prueba que una entidad inexistente se cuenta y se mide aparte.
+	 */
+	@Test
+	void testEntityNotFoundIsCounted() {
+		assertThrows(EntityNotFoundException.class, () -> editorialService.getEditorial(0L));
+		assertThrows(EntityNotFoundException.class, () -> editorialService.getEditorial(0L));
+
+		assertEquals(2, counter("getEditorial", "EntityNotFoundException").count());
+		assertEquals(2, timer("getEditorial", "EntityNotFoundException").count());
+		assertNull(registry.find("bookstore.service").tags("method", "getEditorial", "exception", "none").timer());
+	}
+
+	/**
+	 * Prueba que una operación inválida se cuenta con su propia etiqueta.
+	 */
+	@Test
+	void testIllegalOperationIsCounted() throws IllegalOperationException {
+		EditorialEntity editorial = new EditorialEntity();
+		editorial.setName("Editorial repetida");
+		editorialService.createEditorial(editorial);
+		EditorialEntity repeated = new EditorialEntity();
+		repeated.setName("Editorial repetida");
+		assertThrows(IllegalOperationException.class, () -> editorialService.createEditorial(repeated));
+
+		assertEquals(1, counter("createEditorial", "IllegalOperationException").count());
+		assertNull(registry.find("bookstore.service.exceptions").tags("exception", "EntityNotFoundException").counter());
+	}
+
+	/**
+	 * Prueba que las excepciones que no son del dominio se miden con la etiqueta
+	 * other, sin contarse.
+	 */
+	@Test
+	void testOtherExceptionsAreTaggedOther() {
+		assertThrows(RuntimeException.class, () -> editorialService.createEditorial(null));
+
+		assertEquals(1, timer("createEditorial", "other").count());
+		assertEquals(1, registry.find("bookstore.service").tags("method", "createEditorial").timers().size());
+		assertNull(registry.find("bookstore.service.exceptions").counter());
+	}
+
+	/**
+	 * Prueba que el timer publica los buckets del histograma en el formato de
+	 * Prometheus.
+	 */
+	@Test
+	void testTimerPublishesHistogram() {
+		editorialService.getEditorials();
+		String scrape = registry.scrape();
+		assertTrue(scrape.contains("bookstore_service_seconds_bucket{class=\"EditorialService\""));
+		assertTrue(scrape.contains("method=\"getEditorials\""));
+	}
+
+	private Timer timer(String method, String exception) {
+		return registry.get("bookstore.service")
+				.tags("class", "EditorialService", "method", method, "exception", exception).timer();
+	}
+
+	private Counter counter(String method, String exception) {
+		return registry.get("bookstore.service.exceptions")
+				.tags("class", "EditorialService", "method", method, "exception", exception).counter();
+	}
+}
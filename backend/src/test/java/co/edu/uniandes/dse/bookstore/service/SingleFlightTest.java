@@ -0,0 +1,260 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import co.edu.uniandes.dse.bookstore.dto.BookDetailDTO;
+import co.edu.uniandes.dse.bookstore.entities.BookEntity;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+import co.edu.uniandes.dse.bookstore.exceptions.EntityNotFoundException;
+import co.edu.uniandes.dse.bookstore.mappers.BookstoreMapperImpl;
+import co.edu.uniandes.dse.bookstore.repositories.BookRepository;
+import co.edu.uniandes.dse.bookstore.repositories.EditorialRepository;
+import co.edu.uniandes.dse.bookstore.services.BookService;
+import co.edu.uniandes.dse.bookstore.services.CounterService;
+import co.edu.uniandes.dse.bookstore.services.DetailVersionService;
+import co.edu.uniandes.dse.bookstore.services.EditorialBookService;
+import co.edu.uniandes.dse.bookstore.services.SingleFlight;
+import co.edu.uniandes.dse.bookstore.services.VersionedDetail;
+
+/**
+ * Pruebas de {@link SingleFlight} y de la consulta agrupada de los libros de
+ * una editorial. La consulta usa su propia transacción, por lo que las pruebas
+ * no son transaccionales y los datos se borran al terminar.
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ EditorialBookService.class, BookService.class, DetailVersionService.class, BookstoreMapperImpl.class,
+		CounterService.class })
+class SingleFlightTest {
+
+	private static final int THREADS = 16;
+
+	@Autowired
+	private EditorialBookService editorialBookService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private EditorialRepository editorialRepository;
+
+	private EditorialEntity editorial;
+
+	private List<BookEntity> books = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		editorial = new EditorialEntity();
+		editorial.setName("Sudamericana");
+		editorial = editorialRepository.save(editorial);
+		for (int i = 0; i < 3; i++) {
+			BookEntity book = new BookEntity();
+			book.setName("Libro " + i);
+			book.setIsbn("isbn-" + i);
+			book.setEditorial(editorial);
+			books.add(bookService.createBook(book));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		bookRepository.deleteAll();
+		editorialRepository.deleteAll();
+	}
+
+	/**
+	 * Ejecuta {@code call} desde {@link #THREADS} hilos y espera a que todas las
+	 * llamadas menos una estén agrupadas con la carga en curso, que termina al
+	 * abrir {@code release}.
+	 */
+	private <T> List<Future<T>> concurrently(SingleFlight<?, ?> flight, CountDownLatch release,
+			Callable<T> call, ExecutorService executor) throws Exception {
+		long coalesced = flight.statistics().coalesced();
+		List<Future<T>> results = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++)
+			results.add(executor.submit(call));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (flight.statistics().coalesced() - coalesced < THREADS - 1 && System.nanoTime() < deadline)
+			Thread.sleep(1);
+		release.countDown();
+		return results;
+	}
+
+	/**
+	 * Prueba que las llamadas concurrentes por la misma llave comparten una sola
+	 * carga y reciben el mismo resultado.
+	 */
+	@Test
+	void testConcurrentCallsShareOneLoad() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> results = concurrently(flight, release, () -> flight.execute(1L, () -> {
+				loads.incrementAndGet();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "valor";
+			}), executor);
+
+			String first = results.get(0).get();
+			for (Future<String> result : results)
+				assertSame(first, result.get());
+			assertEquals(1, loads.get());
+			assertEquals(new SingleFlight.Statistics(1, THREADS - 1), flight.statistics());
+			assertEquals(0, flight.inFlight());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Prueba que la excepción de la carga llega a todas las llamadas agrupadas y
+	 * que la siguiente llamada vuelve a cargar.
+	 */
+	@Test
+	void testFailureIsSharedAndNotKept() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> results = concurrently(flight, release, () -> flight.execute(1L, () -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new IllegalStateException("falla");
+			}), executor);
+
+			for (Future<String> result : results) {
+				ExecutionException e = assertThrows(ExecutionException.class, result::get);
+				assertEquals("falla", assertInstanceOf(IllegalStateException.class, e.getCause()).getMessage());
+			}
+			assertEquals("otro", flight.execute(1L, () -> "otro"));
+			assertEquals(2, flight.statistics().originating());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Prueba que después de {@link SingleFlight#forgetAll()} una llamada no se
+	 * agrupa con la carga en curso.
+	 */
+	@Test
+	void testForgetAllStartsANewLoad() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> old = executor.submit(() -> flight.execute(1L, () -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "anterior";
+			}));
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+
+			flight.forgetAll();
+			assertEquals("nuevo", flight.execute(1L, () -> "nuevo"));
+			release.countDown();
+			assertEquals("anterior", old.get());
+			assertEquals(new SingleFlight.Statistics(2, 0), flight.statistics());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Prueba que el detalle de los libros de la editorial corresponde a los
+	 * libros y sus versiones, y que una llamada posterior a un cambio lo ve.
+	 */
+	@Test
+	void testGetBookDetails() throws Exception {
+		List<VersionedDetail<BookDetailDTO>> details = editorialBookService.getBookDetails(editorial.getId());
+		assertEquals(books.size(), details.size());
+		for (BookEntity book : books) {
+			VersionedDetail<BookDetailDTO> detail = details.stream().filter(d -> d.id().equals(book.getId()))
+					.findFirst().orElseThrow();
+			assertEquals(book.getName(), detail.detail().getName());
+			assertEquals(bookRepository.findById(book.getId()).get().getVersion(), detail.version().version());
+		}
+
+		BookEntity changes = new BookEntity();
+		changes.setName("Rayuela");
+		changes.setIsbn(books.get(0).getIsbn());
+		changes.setEditorial(editorial);
+		bookService.updateBook(books.get(0).getId(), changes);
+
+		assertTrue(editorialBookService.getBookDetails(editorial.getId()).stream()
+				.anyMatch(d -> d.detail().getName().equals("Rayuela")));
+	}
+
+	/**
+	 * Prueba que consultar los libros de una editorial que no existe lanza la
+	 * excepción de negocio.
+	 */
+	@Test
+	void testGetBookDetailsInvalidEditorial() {
+		long originating = editorialBookService.getCoalescingStatistics().originating();
+		assertThrows(EntityNotFoundException.class, () -> editorialBookService.getBookDetails(0L));
+		assertEquals(originating + 1, editorialBookService.getCoalescingStatistics().originating());
+	}
+}
@@ -0,0 +1,170 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+
+import co.edu.uniandes.dse.bookstore.config.RequestStatements;
+import co.edu.uniandes.dse.bookstore.config.StatementAccountingConfig;
+import co.edu.uniandes.dse.bookstore.config.StatementAccountingDataSource;
+import co.edu.uniandes.dse.bookstore.config.StatementAccountingFilter;
+import co.edu.uniandes.dse.bookstore.entities.EditorialEntity;
+
+/**
+ * Pruebas de la contabilidad de sentencias SQL por petición
+ *
+ * @author ISIS2603
+ */
+@DataJpaTest
+@Import(StatementAccountingConfig.class)
+@TestPropertySource(properties = { "bookstore.jdbc.statements.enabled=true",
+		"bookstore.jdbc.statements.repeated-threshold=3" })
+class StatementAccountingTest {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private StatementAccountingFilter filter;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Long[] ids = new Long[3];
+
+	/**
+	 * Configuración inicial de la prueba.
+	 */
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		for (int i = 0; i < ids.length; i++) {
+			EditorialEntity editorial = new EditorialEntity();
+			editorial.setName("Editorial " + i);
+			ids[i] = entityManager.persistAndGetId(editorial, Long.class);
+		}
+		entityManager.flush();
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestStatements.end();
+	}
+
+	/**
+	 * Prueba que la fuente de datos de la aplicación es la que cuenta sentencias.
+	 */
+	@Test
+	void testDataSourceIsWrapped() {
+		assertInstanceOf(StatementAccountingDataSource.class, dataSource);
+	}
+
+	/**
+	 * Prueba que se cuentan las sentencias y las filas leídas y modificadas.
+	 */
+	@Test
+	void testCountsStatementsAndRows() {
+		RequestStatements statements = RequestStatements.start();
+		assertEquals(3, jdbcTemplate.queryForList("select name from editorial_entity").size());
+		assertEquals(1, jdbcTemplate.update("update editorial_entity set name = ? where id = ?", "Otra", ids[0]));
+
+		assertEquals(2, statements.getCount());
+		assertEquals(4, statements.getRows());
+		assertTrue(statements.getNanos() > 0);
+	}
+
+	/**
+	 * Prueba que fuera de una petición no se cuenta nada.
+	 */
+	@Test
+	void testOutsideRequestIsNotCounted() {
+		RequestStatements statements = RequestStatements.start();
+		RequestStatements.end();
+		jdbcTemplate.queryForList("select name from editorial_entity");
+		assertEquals(0, statements.getCount());
+	}
+
+	/**
+	 * Prueba que una consulta por cada elemento se reporta como repetida, aunque
+	 * cambien los valores o el tamaño de las listas.
+	 */
+	@Test
+	void testDetectsRepeatedQueries() {
+		RequestStatements statements = RequestStatements.start();
+		for (Long id : ids)
+			jdbcTemplate.queryForObject("select name from editorial_entity where id = ?", String.class, id);
+		jdbcTemplate.queryForList("select name from editorial_entity where id in (" + ids[0] + ")");
+		jdbcTemplate.queryForList("select name from editorial_entity where id in (" + ids[0] + ", " + ids[1] + ")");
+		jdbcTemplate.queryForList("select name from editorial_entity where id in (?, ?, ?)", (Object[]) ids);
+		jdbcTemplate.queryForList("select name from editorial_entity where name = 'Editorial 2'");
+		jdbcTemplate.update("update editorial_entity set name = name where id = ?", ids[0]);
+		jdbcTemplate.update("update editorial_entity set name = name where id = ?", ids[1]);
+		jdbcTemplate.update("update editorial_entity set name = name where id = ?", ids[2]);
+
+		Map<String, Integer> repeated = statements.getRepeatedQueries(3);
+		assertEquals(2, repeated.size());
+		assertEquals(3, repeated.get("select name from editorial_entity where id = ?"));
+		assertEquals(3, repeated.get("select name from editorial_entity where id in (?)"));
+		assertTrue(statements.getRepeatedQueries(4).isEmpty());
+	}
+
+	/**
+	 * Prueba que el filtro agrega el encabezado Server-Timing antes de escribir
+	 * el cuerpo.
+	 */
+	@Test
+	void testFilterAddsServerTiming() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/editorials");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {
+			jdbcTemplate.queryForList("select name from editorial_entity");
+			jdbcTemplate.queryForList("select id from editorial_entity");
+			res.getWriter().write("[]");
+			jdbcTemplate.queryForList("select version from editorial_entity");
+		});
+
+		String timing = response.getHeader("Server-Timing");
+		assertNotNull(timing);
+		assertTrue(timing.startsWith("db;dur="));
+		assertTrue(timing.endsWith("desc=\"2 statements, 6 rows\""));
+	}
+}
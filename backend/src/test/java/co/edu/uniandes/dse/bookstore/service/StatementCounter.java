@@ -0,0 +1,73 @@
+/*
+MIT License
+
+Copyright (c) 2021 Universidad de los Andes - ISIS2603
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package co.edu.uniandes.dse.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+/**
+ * Utilidad de pruebas que cuenta las sentencias SQL preparadas por Hibernate
+ * durante una operación. Requiere
+ * {@code hibernate.generate_statistics=true}.
+ *
+ * @author ISIS2603
+ */
+class StatementCounter {
+
+	/**
+	 * Operación a medir, que puede lanzar las excepciones de los servicios.
+	 */
+	@FunctionalInterface
+	interface Operation {
+		void run() throws Exception;
+	}
+
+	private final TestEntityManager entityManager;
+
+	StatementCounter(TestEntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	/**
+	 * Sincroniza y vacía el contexto de persistencia, de modo que la operación
+	 * no encuentre entidades ya cargadas, y cuenta las sentencias que ejecuta.
+	 *
+	 * @param operation La operación a medir
+	 * @return El número de sentencias preparadas durante la operación
+	 */
+	long count(Operation operation) throws Exception {
+		Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		assertTrue(statistics.isStatisticsEnabled(), "Hibernate statistics are disabled");
+
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+		operation.run();
+		return statistics.getPrepareStatementCount();
+	}
+}
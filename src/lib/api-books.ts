@@ -4,7 +4,7 @@ const BASE = process.env.NEXT_PUBLIC_API_BASE ?? "http://127.0.0.1:8080";
 async function handle<T>(res: Response){ if(!res.ok) throw new Error(await res.text()); return res.json() as Promise<T>; }
 
 export async function listBooks(): Promise<BookDTO[]> {
-  const r = await fetch(`${BASE}/api/books`, { cache: "no-store" });
+  const r = await fetch(`${BASE}/api/books?all=true`, { cache: "no-store" });
   return handle<BookDTO[]>(r);
 }
 
@@ -14,7 +14,7 @@ export async function createBook(data: BookDTO): Promise<BookDTO> {
 }
 
 export async function getBook(id: number): Promise<BookDTO & { reviews?: ReviewDTO[] }> {
-  const r = await fetch(`${BASE}/api/books/${id}`, { cache:"no-store" });
+  const r = await fetch(`${BASE}/api/books/${id}`, { cache:"no-cache" });
   return handle<BookDTO & { reviews?: ReviewDTO[] }>(r);
 }
 
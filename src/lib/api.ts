@@ -11,12 +11,12 @@ async function handle<T>(res: Response): Promise<T> {
 }
 
 export async function listAuthors(): Promise<AuthorDTO[]> {
-  const res = await fetch(`${BASE}/api/authors`, { cache: "no-store" });
+  const res = await fetch(`${BASE}/api/authors?all=true`, { cache: "no-store" });
   return handle<AuthorDTO[]>(res);
 }
 
 export async function getAuthor(id: number): Promise<AuthorDTO> {
-  const res = await fetch(`${BASE}/api/authors/${id}`, { cache: "no-store" });
+  const res = await fetch(`${BASE}/api/authors/${id}`, { cache: "no-cache" });
   return handle<AuthorDTO>(res);
 }
 